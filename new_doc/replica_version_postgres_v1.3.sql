@@ -0,0 +1,10 @@
+
+-- 执行项内存副本(org.quartz.scheduler.replica.syncInterval>0)所需的变更版本列及索引，仅启用副本时执行
+-- 启用前须同时开启所有客户端的变更版本写入(-Dorg.quartz.replica.writeVersion=true)
+ALTER TABLE QRTZ_JOB ADD COLUMN VERSION INT8 DEFAULT 0 NOT NULL;
+COMMENT ON COLUMN QRTZ_JOB.VERSION IS '变更版本(每次写入时的写入方时间,毫秒)';
+create INDEX QRTZ_JOB_VERSION_IDX on QRTZ_JOB (APPLICATION,VERSION);
+
+ALTER TABLE QRTZ_EXECUTE ADD COLUMN VERSION INT8 DEFAULT 0 NOT NULL;
+COMMENT ON COLUMN QRTZ_EXECUTE.VERSION IS '变更版本(每次写入时的写入方时间,毫秒)';
+create INDEX QRTZ_EXECUTE_VERSION_IDX on QRTZ_EXECUTE (VERSION);
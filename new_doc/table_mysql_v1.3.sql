@@ -63,3 +63,75 @@ CREATE TABLE QRTZ_EXECUTE(
 create INDEX QRTZ_EXECUTE_PID_IDX on QRTZ_EXECUTE (PID);
 
 
+
+
+-- QRTZ_EXECUTE_HISTORY
+DROP TABLE IF EXISTS QRTZ_EXECUTE_HISTORY;
+CREATE TABLE QRTZ_EXECUTE_HISTORY(
+  APPLICATION VARCHAR(50) NOT NULL COMMENT '调度名称/应用名称',
+  EXECUTE_ID INT8 NOT NULL COMMENT '执行项(QRTZ_EXECUTE::ID)',
+  JOB_ID INT8 NOT NULL COMMENT '关联任务(QRTZ_JOB::ID)',
+  JOB_CLASS VARCHAR(127) NOT NULL COMMENT '任务全类名',
+  JOB_TYPE VARCHAR(8) NOT NULL COMMENT '任务类型',
+  SCHEDULED_TIME INT8 NOT NULL COMMENT '计划触发时间',
+  FIRE_TIME INT8 NOT NULL COMMENT '实际触发时间',
+  START_TIME INT8 NOT NULL COMMENT '开始执行时间',
+  END_TIME INT8 NOT NULL COMMENT '结束执行时间',
+  RUN_TIME INT8 NOT NULL COMMENT '执行耗时(毫秒)',
+  REFIRE_COUNT INT4 DEFAULT 0 COMMENT '重复点火次数',
+  OUTCOME VARCHAR(8) NOT NULL COMMENT '执行结果(SUCCESS.成功 ERROR.异常 REFIRE.异常并立即重新执行)',
+  ERROR_MSG VARCHAR(255) COMMENT '异常信息',
+  HOST_IP VARCHAR(50) NOT NULL COMMENT '执行机器地址',
+  HOST_NAME VARCHAR(80) NOT NULL COMMENT '执行机器名称'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='定时任务::执行记录表(异步批量写入,按保留天数清理)' ;
+
+create INDEX QRTZ_EXECUTE_HISTORY_APP_IDX on QRTZ_EXECUTE_HISTORY (APPLICATION,FIRE_TIME);
+create INDEX QRTZ_EXECUTE_HISTORY_EID_IDX on QRTZ_EXECUTE_HISTORY (EXECUTE_ID);
+
+
+-- QRTZ_JOB_CHAIN
+DROP TABLE IF EXISTS QRTZ_JOB_CHAIN;
+CREATE TABLE QRTZ_JOB_CHAIN(
+  PID INT8 NOT NULL COMMENT '上游任务(QRTZ_JOB::ID)',
+  NEXT_PID INT8 NOT NULL COMMENT '下游任务(QRTZ_JOB::ID)',
+  APPLICATION VARCHAR(50) NOT NULL COMMENT '调度名称/应用名称',
+  TRIGGER_ON VARCHAR(10) NOT NULL DEFAULT 'SUCCESS' COMMENT '触发条件(SUCCESS.上游成功时 ALWAYS.上游完成即触发)',
+  UPDATE_TIME INT8 NOT NULL COMMENT '更新时间',
+  PRIMARY KEY (PID,NEXT_PID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='定时任务::任务链(上游任务完成后立即触发下游任务)' ;
+
+
+-- QRTZ_SIGNAL
+DROP TABLE IF EXISTS QRTZ_SIGNAL;
+CREATE TABLE QRTZ_SIGNAL(
+  ID INT8 NOT NULL COMMENT '主键',
+  APPLICATION VARCHAR(50) NOT NULL COMMENT '调度名称/应用名称',
+  EXECUTE_ID INT8 NOT NULL COMMENT '执行项(QRTZ_EXECUTE::ID)',
+  CREATE_TIME INT8 NOT NULL COMMENT '创建时间',
+  PRIMARY KEY (ID)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='定时任务::立即执行信号(执行节点短间隔轮询，取到即删除并立即执行)' ;
+create INDEX QRTZ_SIGNAL_APP_IDX on QRTZ_SIGNAL (APPLICATION);
+
+
+-- QRTZ_LEASE
+DROP TABLE IF EXISTS QRTZ_LEASE;
+CREATE TABLE QRTZ_LEASE(
+  APPLICATION VARCHAR(50) NOT NULL COMMENT '调度名称/应用名称',
+  HOLDER VARCHAR(100) NOT NULL COMMENT '当前持有者(节点实例ID)',
+  FENCE INT8 NOT NULL COMMENT '防护令牌(每次换主加1)',
+  LEASE_UNTIL INT8 NOT NULL COMMENT '租约到期时间',
+  PRIMARY KEY (APPLICATION)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='定时任务::主节点租约(每应用一行，持有者执行恢复及清理)' ;
+
+
+-- QRTZ_FIRED
+DROP TABLE IF EXISTS QRTZ_FIRED;
+CREATE TABLE QRTZ_FIRED(
+  EXECUTE_ID INT8 NOT NULL COMMENT '执行项(QRTZ_EXECUTE::ID)',
+  SCHED_TIME INT8 NOT NULL COMMENT '计划触发时间',
+  APPLICATION VARCHAR(50) NOT NULL COMMENT '调度名称/应用名称',
+  HOST_IP VARCHAR(50) NOT NULL COMMENT '执行节点IP',
+  FIRED_TIME INT8 NOT NULL COMMENT '抢占时间',
+  PRIMARY KEY (EXECUTE_ID,SCHED_TIME)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='定时任务::执行中记录(抢占时写入、执行完成时删除，节点失效后由存活节点接管)' ;
+create INDEX QRTZ_FIRED_APP_IDX on QRTZ_FIRED (APPLICATION,HOST_IP);
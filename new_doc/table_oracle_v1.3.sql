@@ -4,6 +4,11 @@ DROP TABLE QRTZ_APP;
 DROP TABLE QRTZ_NODE;
 DROP TABLE QRTZ_JOB;
 DROP TABLE QRTZ_EXECUTE;
+DROP TABLE QRTZ_EXECUTE_HISTORY;
+DROP TABLE QRTZ_JOB_CHAIN;
+DROP TABLE QRTZ_SIGNAL;
+DROP TABLE QRTZ_LEASE;
+DROP TABLE QRTZ_FIRED;
 
 CREATE TABLE QRTZ_APP(
   APPLICATION VARCHAR2(50),
@@ -101,3 +106,113 @@ COMMENT ON COLUMN QRTZ_EXECUTE.HOST_IP IS '最后操作:执行机器地址';
 COMMENT ON COLUMN QRTZ_EXECUTE.HOST_NAME IS '最后操作:执行机器名称';
 COMMENT ON COLUMN QRTZ_EXECUTE.START_TIME IS '任务开始时间';
 COMMENT ON COLUMN QRTZ_EXECUTE.END_TIME IS '任务结束时间,<1时没有结束时间';
+
+
+-- QRTZ_EXECUTE_HISTORY
+CREATE TABLE QRTZ_EXECUTE_HISTORY(
+  APPLICATION VARCHAR2(50) NOT NULL,
+  EXECUTE_ID NUMBER(18,0) NOT NULL,
+  JOB_ID NUMBER(18,0) NOT NULL,
+  JOB_CLASS VARCHAR2(127) NOT NULL,
+  JOB_TYPE VARCHAR2(8) NOT NULL,
+  SCHEDULED_TIME NUMBER(18,0) NOT NULL,
+  FIRE_TIME NUMBER(18,0) NOT NULL,
+  START_TIME NUMBER(18,0) NOT NULL,
+  END_TIME NUMBER(18,0) NOT NULL,
+  RUN_TIME NUMBER(18,0) NOT NULL,
+  REFIRE_COUNT NUMBER(10,0) DEFAULT 0,
+  OUTCOME VARCHAR2(8) NOT NULL,
+  ERROR_MSG VARCHAR2(255),
+  HOST_IP VARCHAR2(50) NOT NULL,
+  HOST_NAME VARCHAR2(80) NOT NULL
+);
+
+create INDEX QRTZ_EXECUTE_HISTORY_APP_IDX on QRTZ_EXECUTE_HISTORY (APPLICATION,FIRE_TIME);
+create INDEX QRTZ_EXECUTE_HISTORY_EID_IDX on QRTZ_EXECUTE_HISTORY (EXECUTE_ID);
+
+COMMENT ON TABLE QRTZ_EXECUTE_HISTORY IS '定时任务::执行记录表(异步批量写入,按保留天数清理)';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.APPLICATION IS '调度名称/应用名称';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.EXECUTE_ID IS '执行项(QRTZ_EXECUTE::ID)';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.JOB_ID IS '关联任务(QRTZ_JOB::ID)';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.JOB_CLASS IS '任务全类名';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.JOB_TYPE IS '任务类型';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.SCHEDULED_TIME IS '计划触发时间';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.FIRE_TIME IS '实际触发时间';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.START_TIME IS '开始执行时间';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.END_TIME IS '结束执行时间';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.RUN_TIME IS '执行耗时(毫秒)';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.REFIRE_COUNT IS '重复点火次数';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.OUTCOME IS '执行结果(SUCCESS.成功 ERROR.异常 REFIRE.异常并立即重新执行)';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.ERROR_MSG IS '异常信息';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.HOST_IP IS '执行机器地址';
+COMMENT ON COLUMN QRTZ_EXECUTE_HISTORY.HOST_NAME IS '执行机器名称';
+
+
+-- QRTZ_JOB_CHAIN
+CREATE TABLE QRTZ_JOB_CHAIN(
+  PID NUMBER(18,0) NOT NULL,
+  NEXT_PID NUMBER(18,0) NOT NULL,
+  APPLICATION VARCHAR2(50) NOT NULL,
+  TRIGGER_ON VARCHAR2(10) DEFAULT 'SUCCESS' NOT NULL,
+  UPDATE_TIME NUMBER(18,0) NOT NULL,
+  PRIMARY KEY (PID,NEXT_PID)
+);
+
+COMMENT ON TABLE QRTZ_JOB_CHAIN IS '定时任务::任务链(上游任务完成后立即触发下游任务)';
+COMMENT ON COLUMN QRTZ_JOB_CHAIN.PID IS '上游任务(QRTZ_JOB::ID)';
+COMMENT ON COLUMN QRTZ_JOB_CHAIN.NEXT_PID IS '下游任务(QRTZ_JOB::ID)';
+COMMENT ON COLUMN QRTZ_JOB_CHAIN.APPLICATION IS '调度名称/应用名称';
+COMMENT ON COLUMN QRTZ_JOB_CHAIN.TRIGGER_ON IS '触发条件(SUCCESS.上游成功时 ALWAYS.上游完成即触发)';
+COMMENT ON COLUMN QRTZ_JOB_CHAIN.UPDATE_TIME IS '更新时间';
+
+
+-- QRTZ_SIGNAL
+CREATE TABLE QRTZ_SIGNAL(
+  ID NUMBER(18,0) NOT NULL,
+  APPLICATION VARCHAR2(50) NOT NULL,
+  EXECUTE_ID NUMBER(18,0) NOT NULL,
+  CREATE_TIME NUMBER(18,0) NOT NULL,
+  PRIMARY KEY (ID)
+);
+
+COMMENT ON TABLE QRTZ_SIGNAL IS '定时任务::立即执行信号(执行节点短间隔轮询，取到即删除并立即执行)';
+COMMENT ON COLUMN QRTZ_SIGNAL.ID IS '主键';
+COMMENT ON COLUMN QRTZ_SIGNAL.APPLICATION IS '调度名称/应用名称';
+COMMENT ON COLUMN QRTZ_SIGNAL.EXECUTE_ID IS '执行项(QRTZ_EXECUTE::ID)';
+COMMENT ON COLUMN QRTZ_SIGNAL.CREATE_TIME IS '创建时间';
+create INDEX QRTZ_SIGNAL_APP_IDX on QRTZ_SIGNAL (APPLICATION);
+
+
+-- QRTZ_LEASE
+CREATE TABLE QRTZ_LEASE(
+  APPLICATION VARCHAR2(50) NOT NULL,
+  HOLDER VARCHAR2(100) NOT NULL,
+  FENCE NUMBER(18,0) NOT NULL,
+  LEASE_UNTIL NUMBER(18,0) NOT NULL,
+  PRIMARY KEY (APPLICATION)
+);
+
+COMMENT ON TABLE QRTZ_LEASE IS '定时任务::主节点租约(每应用一行，持有者执行恢复及清理)';
+COMMENT ON COLUMN QRTZ_LEASE.APPLICATION IS '调度名称/应用名称';
+COMMENT ON COLUMN QRTZ_LEASE.HOLDER IS '当前持有者(节点实例ID)';
+COMMENT ON COLUMN QRTZ_LEASE.FENCE IS '防护令牌(每次换主加1)';
+COMMENT ON COLUMN QRTZ_LEASE.LEASE_UNTIL IS '租约到期时间';
+
+
+-- QRTZ_FIRED
+CREATE TABLE QRTZ_FIRED(
+  EXECUTE_ID NUMBER(18,0) NOT NULL,
+  SCHED_TIME NUMBER(18,0) NOT NULL,
+  APPLICATION VARCHAR2(50) NOT NULL,
+  HOST_IP VARCHAR2(50) NOT NULL,
+  FIRED_TIME NUMBER(18,0) NOT NULL,
+  PRIMARY KEY (EXECUTE_ID,SCHED_TIME)
+);
+create INDEX QRTZ_FIRED_APP_IDX on QRTZ_FIRED (APPLICATION,HOST_IP);
+
+COMMENT ON TABLE QRTZ_FIRED IS '定时任务::执行中记录(抢占时写入、执行完成时删除，节点失效后由存活节点接管)';
+COMMENT ON COLUMN QRTZ_FIRED.EXECUTE_ID IS '执行项(QRTZ_EXECUTE::ID)';
+COMMENT ON COLUMN QRTZ_FIRED.SCHED_TIME IS '计划触发时间';
+COMMENT ON COLUMN QRTZ_FIRED.APPLICATION IS '调度名称/应用名称';
+COMMENT ON COLUMN QRTZ_FIRED.HOST_IP IS '执行节点IP';
+COMMENT ON COLUMN QRTZ_FIRED.FIRED_TIME IS '抢占时间';
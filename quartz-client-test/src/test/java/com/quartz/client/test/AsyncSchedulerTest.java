@@ -0,0 +1,130 @@
+package com.quartz.client.test;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.impl.AsyncScheduler;
+import org.quartz.impl.StdScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for AsyncScheduler.
+ */
+public class AsyncSchedulerTest {
+
+    private final FakeJdbc jdbc = new FakeJdbc();
+
+    private AsyncScheduler async(int maxConcurrency, long timeoutMillis) {
+        return new AsyncScheduler(new StdScheduler(jdbc.dataSource()), maxConcurrency, timeoutMillis);
+    }
+
+    @Test
+    public void testExceptionOfTheCallCompletesTheFutureExceptionally() throws Exception {
+        try (AsyncScheduler async = async(2, 0L)) {
+            CompletableFuture<Object> future = async.call(s -> {
+                throw new IllegalStateException("connection refused");
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+            assertEquals("connection refused", e.getCause().getMessage());
+
+            // 正常调用经由被包装的 Scheduler 执行
+            assertEquals(1, (int) async.updateJobState("11", "PAUSED").get(5, TimeUnit.SECONDS));
+            assertTrue(jdbc.sqls().get(0).startsWith("UPDATE QRTZ_JOB"));
+        }
+    }
+
+    @Test
+    public void testSlowCallTimesOutWithoutBlockingTheCaller() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (AsyncScheduler async = async(1, 50L)) {
+            CompletableFuture<String> future = async.call(s -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "late";
+            });
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, e.getCause());
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testCloseRejectsNewCallsAndLetsSubmittedOnesFinish() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        AsyncScheduler async = async(1, 0L);
+        CompletableFuture<String> running = async.call(s -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "done";
+        });
+        CompletableFuture<String> queued = async.call(s -> "queued");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        async.close();
+
+        // 关闭后提交的调用立即以 RejectedExecutionException 结束
+        CompletableFuture<String> rejected = async.call(s -> "rejected");
+        assertTrue(rejected.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+
+        // 关闭前已提交(含排队中)的调用照常完成
+        release.countDown();
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAtMostMaxConcurrencyCallsRunAtOnce() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        // 前两个调用相互等待，确保同时执行
+        final CountDownLatch overlap = new CountDownLatch(2);
+        final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        try (AsyncScheduler async = async(2, 0L)) {
+            for (int i = 0; i < 6; i++) {
+                futures.add(async.call(s -> {
+                    final int now = running.incrementAndGet();
+                    peak.accumulateAndGet(now, Math::max);
+                    overlap.countDown();
+                    try {
+                        overlap.await(1, TimeUnit.SECONDS);
+                        Thread.sleep(20L);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return now;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        }
+        assertEquals(2, peak.get());
+    }
+
+    @Test
+    public void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AsyncScheduler(null));
+        assertThrows(IllegalArgumentException.class, () -> async(0, 0L));
+    }
+}
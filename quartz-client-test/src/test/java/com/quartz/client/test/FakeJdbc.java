@@ -0,0 +1,192 @@
+package com.quartz.client.test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory JDBC stand-in for delegate level tests: records every statement
+ * with its bound parameters and answers batches, updates and queries from
+ * the handlers the test installs.
+ * 委托层测试用的内存JDBC替身：记录每条语句及其绑定参数，批量、更新及查询的结果由测试设置的处理器返回。
+ */
+final class FakeJdbc {
+
+    interface BatchHandler {
+        int[] executeBatch(String sql, List<List<Object>> rows) throws SQLException;
+    }
+
+    interface UpdateHandler {
+        int executeUpdate(String sql, List<Object> params) throws SQLException;
+    }
+
+    interface QueryHandler {
+        List<Map<String, Object>> executeQuery(String sql, List<Object> params, int maxRows) throws SQLException;
+    }
+
+    /** 执行过的语句(批量语句每次 executeBatch 记一条) **/
+    final List<Executed> executed = new ArrayList<>();
+    int commits = 0;
+    int rollbacks = 0;
+    int closes = 0;
+
+    BatchHandler batchHandler = (sql, rows) -> {
+        int[] counts = new int[rows.size()];
+        Arrays.fill(counts, 1);
+        return counts;
+    };
+    UpdateHandler updateHandler = (sql, params) -> 1;
+    QueryHandler queryHandler = (sql, params, maxRows) -> Collections.emptyList();
+
+    static final class Executed {
+        final String sql;
+        final List<List<Object>> rows;
+        final int maxRows;
+
+        Executed(String sql, List<List<Object>> rows, int maxRows) {
+            this.sql = sql;
+            this.rows = rows;
+            this.maxRows = maxRows;
+        }
+
+        List<Object> params() {
+            return rows.get(0);
+        }
+    }
+
+    DataSource dataSource() {
+        return proxy(DataSource.class, (proxy, method, args) -> "getConnection".equals(method.getName()) ? connection() : null);
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return statement((String) args[0]);
+                case "commit":
+                    commits++;
+                    return null;
+                case "rollback":
+                    rollbacks++;
+                    return null;
+                case "close":
+                    closes++;
+                    return null;
+                case "getAutoCommit":
+                    return Boolean.TRUE;
+                case "getTransactionIsolation":
+                    return Connection.TRANSACTION_READ_COMMITTED;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private PreparedStatement statement(final String sql) {
+        final Map<Integer, Object> params = new TreeMap<>();
+        final List<List<Object>> batch = new ArrayList<>();
+        final int[] maxRows = {0};
+        return proxy(PreparedStatement.class, (proxy, method, args) -> {
+            final String name = method.getName();
+            if (name.startsWith("set") && null != args && args.length == 2 && args[0] instanceof Integer) {
+                params.put((Integer) args[0], args[1]);
+                return null;
+            }
+            switch (name) {
+                case "setMaxRows":
+                    maxRows[0] = (Integer) args[0];
+                    return null;
+                case "addBatch":
+                    batch.add(new ArrayList<>(params.values()));
+                    params.clear();
+                    return null;
+                case "executeBatch":
+                    final List<List<Object>> rows = new ArrayList<>(batch);
+                    batch.clear();
+                    executed.add(new Executed(sql, rows, 0));
+                    return batchHandler.executeBatch(sql, rows);
+                case "executeUpdate":
+                    executed.add(new Executed(sql, Collections.singletonList(new ArrayList<>(params.values())), 0));
+                    return updateHandler.executeUpdate(sql, new ArrayList<>(params.values()));
+                case "executeQuery":
+                    executed.add(new Executed(sql, Collections.singletonList(new ArrayList<>(params.values())), maxRows[0]));
+                    final List<Map<String, Object>> result = queryHandler.executeQuery(sql, new ArrayList<>(params.values()), maxRows[0]);
+                    return resultSet(maxRows[0] > 0 && result.size() > maxRows[0] ? result.subList(0, maxRows[0]) : result);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static ResultSet resultSet(List<Map<String, Object>> rows) {
+        final Iterator<Map<String, Object>> it = rows.iterator();
+        final Object[] current = {null};
+        return proxy(ResultSet.class, (proxy, method, args) -> {
+            final String name = method.getName();
+            if ("next".equals(name)) {
+                current[0] = it.hasNext() ? it.next() : null;
+                return null != current[0];
+            }
+            if (!name.startsWith("get") || null == args || args.length != 1) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            final Map<String, Object> row = (Map<String, Object>) current[0];
+            final Object value = args[0] instanceof Integer ? new ArrayList<>(row.values()).get((Integer) args[0] - 1) : row.get(args[0]);
+            switch (name) {
+                case "getString":
+                    return null == value ? null : value.toString();
+                case "getLong":
+                    return null == value ? 0L : ((Number) value).longValue();
+                case "getInt":
+                    return null == value ? 0 : ((Number) value).intValue();
+                default:
+                    return value;
+            }
+        });
+    }
+
+    /** 执行过的语句SQL，按执行顺序 **/
+    List<String> sqls() {
+        final List<String> sqls = new ArrayList<>();
+        for (Executed statement : executed) {
+            sqls.add(statement.sql);
+        }
+        return sqls;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(FakeJdbc.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if ("toString".equals(method.getName()) && method.getDeclaringClass() == Object.class) {
+                return type.getSimpleName() + "@fake";
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            final Object result = handler.invoke(proxy, method, args);
+            // 未处理的基本类型返回值取默认值
+            if (null == result && method.getReturnType() == boolean.class) {
+                return false;
+            }
+            if (null == result && method.getReturnType() == int.class) {
+                return 0;
+            }
+            return result;
+        });
+    }
+}
@@ -0,0 +1,184 @@
+package com.quartz.client.test;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.Scheduler;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.quartz.impl.StdScheduler;
+import org.quartz.impl.jdbcjobstore.StdJDBCDelegate;
+
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the client batch writes (addJobs, addExecutes,
+ * updateJobStateInAll, updateExecuteStateBatch) against an in-memory JDBC.
+ */
+public class StdSchedulerBatchTest {
+
+    private final FakeJdbc jdbc = new FakeJdbc();
+    private final Scheduler scheduler = new StdScheduler(jdbc.dataSource());
+
+    private static List<QrtzJob> jobs(int count) {
+        List<QrtzJob> jobs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            QrtzJob job = new QrtzJob();
+            job.setApplication("MEE_TEST");
+            job.setState("INIT");
+            job.setJobClass("com.mee.quartz.job.Job01TestService");
+            job.setJobData("{}");
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    private static QrtzExecute execute(String pid) {
+        QrtzExecute execute = new QrtzExecute();
+        execute.setPid(pid);
+        execute.setJobType("SIMPLE");
+        execute.setState("EXECUTING");
+        execute.setRepeatInterval(60);
+        execute.setStartTime(System.currentTimeMillis() + 60000L);
+        execute.setEndTime(System.currentTimeMillis() + 86400000L);
+        return execute;
+    }
+
+    @Test
+    public void testAddJobsWritesAllRowsInOneTransaction() {
+        Object[] result = scheduler.addJobs(jobs(3));
+        assertArrayEquals(new Object[]{3, null}, result);
+        assertEquals(1, jdbc.executed.size());
+        assertTrue(jdbc.executed.get(0).sql.startsWith("INSERT INTO QRTZ_JOB (ID,APPLICATION,STATE,JOB_CLASS,JOB_DATA,JOB_DESCRIPTION,UPDATE_TIME)"));
+        assertEquals(3, jdbc.executed.get(0).rows.size());
+        assertEquals("MEE_TEST", jdbc.executed.get(0).rows.get(2).get(1));
+        assertEquals(1, jdbc.commits);
+        assertEquals(0, jdbc.rollbacks);
+    }
+
+    @Test
+    public void testAddJobsRollsBackEveryBatchWhenOneRowFails() {
+        // 1001条分两批提交，第二批中一条失败：第一批同样回滚
+        jdbc.batchHandler = (sql, rows) -> {
+            if (rows.size() == 1) {
+                throw new BatchUpdateException("duplicate key", new int[]{Statement.EXECUTE_FAILED});
+            }
+            int[] counts = new int[rows.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        };
+        Object[] result = scheduler.addJobs(jobs(1001));
+        assertEquals(0, result[0]);
+        assertEquals("批量写入失败,已回滚", result[1]);
+        assertEquals(Arrays.asList(1000, 1), Arrays.asList(jdbc.executed.get(0).rows.size(), jdbc.executed.get(1).rows.size()));
+        assertEquals(0, jdbc.commits);
+        assertEquals(1, jdbc.rollbacks);
+    }
+
+    @Test
+    public void testSuccessNoInfoCountsAsOneRow() {
+        jdbc.batchHandler = (sql, rows) -> new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, 1};
+        assertEquals(3, scheduler.addJobs(jobs(3))[0]);
+    }
+
+    @Test
+    public void testAddExecutesChecksJobsOnceAndRollsBackOnFailure() {
+        jdbc.queryHandler = (sql, params, maxRows) -> {
+            assertTrue(sql.startsWith("SELECT ID FROM QRTZ_JOB WHERE ID IN (?,?)"));
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (Object id : params) {
+                rows.add(Collections.singletonMap("ID", id));
+            }
+            return rows;
+        };
+        Object[] result = scheduler.addExecutes(Arrays.asList(execute("11"), execute("12"), execute("11")));
+        assertArrayEquals(new Object[]{3, null}, result);
+        assertTrue(jdbc.executed.get(1).sql.startsWith("INSERT INTO QRTZ_EXECUTE (ID,PID,JOB_TYPE,STATE,CRON,ZONE_ID,REPEAT_COUNT,REPEAT_INTERVAL,TIME_TRIGGERED,PREV_FIRE_TIME,NEXT_FIRE_TIME,HOST_IP,HOST_NAME,START_TIME,END_TIME)"));
+        assertEquals(new BigDecimal("12"), jdbc.executed.get(1).rows.get(1).get(1));
+        assertEquals(1, jdbc.commits);
+
+        jdbc.batchHandler = (sql, rows) -> {
+            throw new BatchUpdateException("value too large", new int[]{1, Statement.EXECUTE_FAILED});
+        };
+        result = scheduler.addExecutes(Arrays.asList(execute("11"), execute("12")));
+        assertEquals(0, result[0]);
+        assertEquals(1, jdbc.commits);
+        assertEquals(1, jdbc.rollbacks);
+    }
+
+    @Test
+    public void testAddExecutesWritesNothingWhenAJobIsMissing() {
+        jdbc.queryHandler = (sql, params, maxRows) -> Collections.singletonList(Collections.<String, Object>singletonMap("ID", "11"));
+        Object[] result = scheduler.addExecutes(Arrays.asList(execute("11"), execute("12")));
+        assertEquals(0, result[0]);
+        assertEquals("对应job配置为空! [12]", result[1]);
+        assertEquals(1, jdbc.executed.size());
+    }
+
+    @Test
+    public void testUpdateJobStateInAllBindsTheStateFilters() {
+        jdbc.updateHandler = (sql, params) -> sql.startsWith("UPDATE QRTZ_EXECUTE") ? 5 : 2;
+        assertArrayEquals(new Object[]{2, null}, scheduler.updateJobStateInAll(Arrays.asList("11", "12"), "PAUSED"));
+        // 先更新execute再更新job，状态均以参数绑定
+        assertEquals(Arrays.asList(
+                "UPDATE QRTZ_EXECUTE SET STATE=? WHERE STATE IN (?,?) AND PID IN (SELECT ID FROM QRTZ_JOB WHERE STATE IN (?,?) AND ID IN (?,?))",
+                "UPDATE QRTZ_JOB SET STATE=? WHERE STATE IN (?,?) AND ID IN (?,?)"), jdbc.sqls());
+        assertEquals(Arrays.<Object>asList("PAUSED", "EXECUTING", "ERROR", "EXECUTING", "ERROR", new BigDecimal("11"), new BigDecimal("12")), jdbc.executed.get(0).params());
+        assertEquals(Arrays.<Object>asList("PAUSED", "EXECUTING", "ERROR", new BigDecimal("11"), new BigDecimal("12")), jdbc.executed.get(1).params());
+        assertEquals(1, jdbc.commits);
+
+        jdbc.executed.clear();
+        scheduler.updateJobStateInAllByApp("MEE_TEST", "EXECUTING");
+        assertEquals("UPDATE QRTZ_EXECUTE SET STATE=? WHERE STATE IN (?,?) AND PID IN (SELECT ID FROM QRTZ_JOB WHERE STATE IN (?,?,?) AND APPLICATION=?)", jdbc.sqls().get(0));
+        assertEquals(Arrays.<Object>asList("EXECUTING", "PAUSED", "INIT", "PAUSED", "INIT", "COMPLETE", "MEE_TEST"), jdbc.executed.get(0).params());
+        assertEquals(Arrays.<Object>asList("EXECUTING", "PAUSED", "INIT", "COMPLETE", "MEE_TEST"), jdbc.executed.get(1).params());
+    }
+
+    @Test
+    public void testUpdateJobStateInAllRollsBackTheExecutesWhenTheJobUpdateFails() {
+        jdbc.updateHandler = (sql, params) -> {
+            if (sql.startsWith("UPDATE QRTZ_JOB")) {
+                throw new SQLException("lock wait timeout");
+            }
+            return 5;
+        };
+        assertArrayEquals(new Object[]{0, null}, scheduler.updateJobStateInAll(Collections.singletonList("11"), "PAUSED"));
+        assertEquals(2, jdbc.executed.size());
+        assertEquals(0, jdbc.commits);
+        assertEquals(1, jdbc.rollbacks);
+    }
+
+    @Test
+    public void testUpdateExecuteStateBatchBindsStateThenId() {
+        jdbc.batchHandler = (sql, rows) -> new int[]{1, 0, Statement.SUCCESS_NO_INFO};
+        assertArrayEquals(new Object[]{2, null}, scheduler.updateExecuteState(Arrays.asList("21", "22", "23"), "PAUSED"));
+        assertEquals(Collections.singletonList("UPDATE QRTZ_EXECUTE SET STATE=? WHERE ID=?"), jdbc.sqls());
+        assertEquals(Arrays.<Object>asList("PAUSED", new BigDecimal("22")), jdbc.executed.get(0).rows.get(1));
+
+        jdbc.batchHandler = (sql, rows) -> {
+            throw new BatchUpdateException("deadlock", new int[]{1});
+        };
+        assertArrayEquals(new Object[]{0, "批量更新失败,已回滚"}, scheduler.updateExecuteState(Arrays.asList("21", "22"), "ERROR"));
+        assertEquals(1, jdbc.commits);
+        assertEquals(1, jdbc.rollbacks);
+    }
+
+    @Test
+    public void testDelegateRejectsInitForExistingExecutes() {
+        StdJDBCDelegate delegate = new StdJDBCDelegate();
+        delegate.initialize("QRTZ_", "MEE_TEST", false);
+        assertThrows(SQLException.class, () -> delegate.updateExecuteStateBatch(jdbc.dataSource().getConnection(), Collections.singletonList("21"), "INIT"));
+        assertTrue(jdbc.executed.isEmpty());
+    }
+}
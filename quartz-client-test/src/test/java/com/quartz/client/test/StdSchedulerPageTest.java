@@ -0,0 +1,165 @@
+package com.quartz.client.test;
+
+import org.junit.jupiter.api.Test;
+import org.quartz.Scheduler;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
+import org.quartz.impl.StdScheduler;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the client keyset paging (getJobPage, getExecutePage)
+ * against an in-memory JDBC.
+ */
+public class StdSchedulerPageTest {
+
+    // 数值序与字典序不一致的ID
+    private static final List<String> IDS = Arrays.asList("9", "10", "11", "99", "100", "101", "1000");
+
+    private final FakeJdbc jdbc = new FakeJdbc();
+    private final Scheduler scheduler = new StdScheduler(jdbc.dataSource());
+
+    private List<String> table = IDS;
+
+    public StdSchedulerPageTest() {
+        // 按ID升序返回大于游标(最后一个参数)的行，COUNT 返回表行数
+        jdbc.queryHandler = (sql, params, maxRows) -> {
+            final List<Map<String, Object>> rows = new ArrayList<>();
+            if (sql.startsWith("SELECT COUNT(1)")) {
+                rows.add(Collections.singletonMap("COUNT(1)", (Object) (long) table.size()));
+                return rows;
+            }
+            final BigDecimal after = sql.contains("ID>?") ? (BigDecimal) params.get(params.size() - 1) : null;
+            for (String id : table) {
+                if (null == after || new BigDecimal(id).compareTo(after) > 0) {
+                    final Map<String, Object> row = new HashMap<>();
+                    row.put("ID", id);
+                    row.put("PID", "1");
+                    row.put("APPLICATION", "MEE_TEST");
+                    row.put("STATE", "EXECUTING");
+                    rows.add(row);
+                }
+            }
+            return rows;
+        };
+    }
+
+    private List<String> jobIds(QrtzPage<QrtzJob> page) {
+        final List<String> ids = new ArrayList<>();
+        for (QrtzJob job : page.getItems()) {
+            ids.add(job.getId());
+        }
+        return ids;
+    }
+
+    @Test
+    public void testJobPagesContinueFromNextIdWithoutGapsOrDuplicates() {
+        final List<String> seen = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        String afterId = null;
+        QrtzPage<QrtzJob> page;
+        do {
+            page = scheduler.getJobPage(new QrtzQuery().setPageSize(3).setAfterId(afterId));
+            seen.addAll(jobIds(page));
+            sizes.add(page.getItems().size());
+            afterId = page.getNextId();
+        } while (page.hasNext());
+        assertEquals(IDS, seen);
+        assertEquals(Arrays.asList(3, 3, 1), sizes);
+        // 下一页游标为本页最后一行的ID
+        assertEquals(Arrays.<Object>asList(new BigDecimal("11")), jdbc.executed.get(1).params());
+        assertEquals(Arrays.<Object>asList(new BigDecimal("101")), jdbc.executed.get(2).params());
+        assertEquals("SELECT * FROM QRTZ_JOB J WHERE 1=1 ORDER BY J.ID", jdbc.executed.get(0).sql);
+        assertEquals("SELECT * FROM QRTZ_JOB J WHERE 1=1 AND J.ID>? ORDER BY J.ID", jdbc.executed.get(1).sql);
+        assertNull(page.getTotal());
+    }
+
+    @Test
+    public void testOneExtraRowDecidesWhetherThereIsANextPage() {
+        table = IDS.subList(0, 6);
+        QrtzPage<QrtzJob> page = scheduler.getJobPage(new QrtzQuery().setPageSize(3));
+        assertEquals(4, jdbc.executed.get(0).maxRows);
+        assertEquals(Arrays.asList("9", "10", "11"), jobIds(page));
+        assertEquals("11", page.getNextId());
+
+        // 剩余行数恰好等于页大小：没有下一页
+        page = scheduler.getJobPage(new QrtzQuery().setPageSize(3).setAfterId(page.getNextId()));
+        assertEquals(Arrays.asList("99", "100", "101"), jobIds(page));
+        assertFalse(page.hasNext());
+
+        // 页大小超出范围时修正为默认值/上限
+        scheduler.getJobPage(new QrtzQuery().setPageSize(0));
+        assertEquals(QrtzQuery.DEFAULT_PAGE_SIZE + 1, jdbc.executed.get(2).maxRows);
+        scheduler.getJobPage(new QrtzQuery().setPageSize(5000));
+        assertEquals(QrtzQuery.MAX_PAGE_SIZE + 1, jdbc.executed.get(3).maxRows);
+    }
+
+    @Test
+    public void testJobFiltersAreBoundAndTheCountIgnoresTheCursor() {
+        QrtzPage<QrtzJob> page = scheduler.getJobPage(new QrtzQuery().setApplication("MEE_TEST").setState("PAUSED")
+                .setJobClass("a.Job").setAfterId("10").setWithCount(true));
+        assertEquals(Arrays.asList(
+                "SELECT * FROM QRTZ_JOB J WHERE 1=1 AND J.APPLICATION=? AND J.STATE=? AND J.JOB_CLASS=? AND J.ID>? ORDER BY J.ID",
+                "SELECT COUNT(1) FROM QRTZ_JOB J WHERE 1=1 AND J.APPLICATION=? AND J.STATE=? AND J.JOB_CLASS=?"), jdbc.sqls());
+        assertEquals(Arrays.<Object>asList("MEE_TEST", "PAUSED", "a.Job", new BigDecimal("10")), jdbc.executed.get(0).params());
+        assertEquals(Arrays.<Object>asList("MEE_TEST", "PAUSED", "a.Job"), jdbc.executed.get(1).params());
+        assertEquals(Long.valueOf(IDS.size()), page.getTotal());
+    }
+
+    @Test
+    public void testExecutesJoinTheJobTableOnlyWhenFilteringByApplicationOrJobClass() {
+        scheduler.getExecutePage(new QrtzQuery().setPid("1").setState("EXECUTING").setJobType("CRON")
+                .setNextFireTimeFrom(1000L).setNextFireTimeTo(2000L).setAfterId("10").setWithCount(true));
+        assertEquals(Arrays.asList(
+                "SELECT E.* FROM QRTZ_EXECUTE E WHERE 1=1 AND E.PID=? AND E.STATE=? AND E.JOB_TYPE=? AND E.NEXT_FIRE_TIME>=? AND E.NEXT_FIRE_TIME<? AND E.ID>? ORDER BY E.ID",
+                "SELECT COUNT(1) FROM QRTZ_EXECUTE E WHERE 1=1 AND E.PID=? AND E.STATE=? AND E.JOB_TYPE=? AND E.NEXT_FIRE_TIME>=? AND E.NEXT_FIRE_TIME<?"), jdbc.sqls());
+        assertEquals(Arrays.<Object>asList(new BigDecimal("1"), "EXECUTING", "CRON", new BigDecimal(1000L), new BigDecimal(2000L), new BigDecimal("10")),
+                jdbc.executed.get(0).params());
+
+        jdbc.executed.clear();
+        scheduler.getExecutePage(new QrtzQuery().setApplication("MEE_TEST"));
+        scheduler.getExecutePage(new QrtzQuery().setJobClass("a.Job").setState("PAUSED"));
+        assertEquals(Arrays.asList(
+                "SELECT E.* FROM QRTZ_EXECUTE E JOIN QRTZ_JOB J ON E.PID=J.ID WHERE 1=1 AND J.APPLICATION=? ORDER BY E.ID",
+                "SELECT E.* FROM QRTZ_EXECUTE E JOIN QRTZ_JOB J ON E.PID=J.ID WHERE 1=1 AND J.JOB_CLASS=? AND E.STATE=? ORDER BY E.ID"), jdbc.sqls());
+        assertEquals(Arrays.<Object>asList("a.Job", "PAUSED"), jdbc.executed.get(1).params());
+    }
+
+    @Test
+    public void testExecutePagesContinueFromNextId() {
+        final List<String> seen = new ArrayList<>();
+        String afterId = null;
+        QrtzPage<QrtzExecute> page;
+        do {
+            page = scheduler.getExecutePage(new QrtzQuery().setPageSize(2).setAfterId(afterId));
+            assertTrue(page.getItems().size() <= 2);
+            for (QrtzExecute execute : page.getItems()) {
+                seen.add(execute.getId());
+            }
+            afterId = page.getNextId();
+        } while (page.hasNext());
+        assertEquals(IDS, seen);
+        assertEquals(4, jdbc.executed.size());
+    }
+
+    @Test
+    public void testInvalidCursorIsRejectedWithoutQuerying() {
+        assertNull(scheduler.getJobPage(new QrtzQuery().setAfterId("abc")));
+        assertNull(scheduler.getExecutePage(new QrtzQuery().setPid("1;DROP")));
+        assertTrue(jdbc.executed.isEmpty());
+    }
+}
@@ -22,7 +22,10 @@ package org.quartz;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzJobChain;
 import org.quartz.impl.QrtzNode;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
 
 import java.util.List;
 
@@ -124,6 +127,10 @@ public interface Scheduler {
     QrtzJob getJobInAllByJobId(String job_id);
     // 根据execute_id获取execute及关联的job信息
     QrtzExecute getExecuteInAllByExecuteId(String execute_id);
+    // 按条件游标分页查询job(按ID升序，传入上一页nextId翻页)
+    QrtzPage<QrtzJob> getJobPage(QrtzQuery query);
+    // 按条件游标分页查询execute(按ID升序，传入上一页nextId翻页)
+    QrtzPage<QrtzExecute> getExecutePage(QrtzQuery query);
 
     // 添加应用
     Object[] addApp(QrtzApp qrtzApp);
@@ -162,5 +169,26 @@ public interface Scheduler {
     // 更新执行项
     Object[] updateExecute(QrtzExecute qrtzExecute);
 
+    // 添加任务链(上游完成后立即触发下游)
+    Object[] addJobChain(QrtzJobChain qrtzJobChain);
+    // 删除任务链
+    int deleteJobChain(String job_id, String next_job_id);
+    // 根据上游job_id获取其所有下游任务链
+    List<QrtzJobChain> getJobChainByJobId(String job_id);
+
+    // 立即执行一次execute(不影响原有计划)，由执行节点轮询信号表后立即执行
+    Object[] triggerExecuteNow(String execute_id);
+
+    // 批量添加任务(同一事务批量写入，任一条校验或写入失败则全部不生效)
+    Object[] addJobs(List<QrtzJob> qrtzJobs);
+    // 批量添加execute(一次查询校验对应job，同一事务批量写入)
+    Object[] addExecutes(List<QrtzExecute> qrtzExecutes);
+    // 批量修改job及其下所有执行项状态 注意:仅可操作为 EXECUTING or PAUSED，不可变更的job自动跳过
+    Object[] updateJobStateInAll(List<String> job_ids, String state);
+    // 修改应用下所有job及执行项状态 注意:仅可操作为 EXECUTING or PAUSED
+    Object[] updateJobStateInAllByApp(String application, String state);
+    // 批量修改execute状态
+    Object[] updateExecuteState(List<String> execute_ids, String state);
+
 
 }
@@ -23,7 +23,10 @@ import org.quartz.SchedulerException;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzJobChain;
 import org.quartz.impl.QrtzNode;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
 import org.quartz.simpl.SystemPropGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,9 +34,11 @@ import org.slf4j.LoggerFactory;
 import javax.sql.DataSource;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * <p>
@@ -550,6 +555,51 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
     public int updateExecute(QrtzExecute qrtzExecute) {
         return resources.getJobStore().updateExecute(qrtzExecute);
     }
+
+    @Override
+    public int addJobChain(QrtzJobChain qrtzJobChain) {
+        return resources.getJobStore().addJobChain(qrtzJobChain);
+    }
+    @Override
+    public int deleteJobChain(String job_id, String next_job_id) {
+        return resources.getJobStore().deleteJobChain(job_id,next_job_id);
+    }
+    @Override
+    public List<QrtzJobChain> getJobChainByJobId(String job_id) {
+        return resources.getJobStore().getJobChainByJobId(job_id);
+    }
+    @Override
+    public int addFireNowSignal(String id, String application, String execute_id) {
+        return resources.getJobStore().addFireNowSignal(id,application,execute_id);
+    }
+    @Override
+    public int addJobs(List<QrtzJob> qrtzJobs) {
+        return resources.getJobStore().addJobs(qrtzJobs);
+    }
+    @Override
+    public int addExecutes(List<QrtzExecute> qrtzExecutes) {
+        return resources.getJobStore().addExecutes(qrtzExecutes);
+    }
+    @Override
+    public Set<String> findExistingJobIds(Collection<String> job_ids) {
+        return resources.getJobStore().findExistingJobIds(job_ids);
+    }
+    @Override
+    public int[] updateJobStateInAll(String application, List<String> job_ids, String state) {
+        return resources.getJobStore().updateJobStateInAll(application,job_ids,state);
+    }
+    @Override
+    public int updateExecuteStateBatch(List<String> execute_ids, String state) {
+        return resources.getJobStore().updateExecuteStateBatch(execute_ids,state);
+    }
+    @Override
+    public QrtzPage<QrtzJob> getJobPage(QrtzQuery query) {
+        return resources.getJobStore().getJobPage(query);
+    }
+    @Override
+    public QrtzPage<QrtzExecute> getExecutePage(QrtzQuery query) {
+        return resources.getJobStore().getExecutePage(query);
+    }
 }
 
 
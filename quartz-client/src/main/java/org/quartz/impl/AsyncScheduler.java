@@ -0,0 +1,316 @@
+package org.quartz.impl;
+
+import org.quartz.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Asynchronous facade over a client <code>{@link Scheduler}</code>: every
+ * operation is run on a dedicated bounded executor and returns a
+ * <code>CompletableFuture</code>, so that callers on an event loop never
+ * block on JDBC. Virtual threads are used when the running JVM provides them
+ * (JDK 21+), otherwise a fixed pool of daemon platform threads; either way
+ * at most <code>maxConcurrency</code> calls hold a connection at the same time.
+ * 异步客户端：所有操作在独立的有界执行器上执行并返回 CompletableFuture，调用方(如响应式事件循环)不会阻塞在JDBC上。
+ * JDK21+ 使用虚拟线程，否则使用固定大小的守护线程池；同时执行(占用数据库连接)的调用数不超过 maxConcurrency。
+ * </p>
+ *
+ * <p>
+ * <code>maxConcurrency</code> should not exceed the size of the connection
+ * pool behind the <code>DataSource</code>. A call that times out completes
+ * exceptionally with a <code>TimeoutException</code>, the underlying JDBC
+ * statement is not cancelled and still returns its connection to the pool.
+ * maxConcurrency 不应大于数据源连接池大小；超时的调用以 TimeoutException 结束，但底层SQL不会被中断，执行完成后连接照常归还。
+ * </p>
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className AsyncScheduler
+ */
+public class AsyncScheduler implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncScheduler.class);
+
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+
+    // 平台线程模式下等待队列长度，超出时直接以 RejectedExecutionException 结束
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30000L;
+
+    private final Scheduler scheduler;
+
+    private final long defaultTimeoutMillis;
+
+    private final ExecutorService executorService;
+
+    private final Executor executor;
+
+    private final boolean virtualThreads;
+
+    public AsyncScheduler(Scheduler scheduler) {
+        this(scheduler, DEFAULT_MAX_CONCURRENCY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param maxConcurrency max calls running at the same time, should not exceed the connection pool size
+     * @param defaultTimeoutMillis timeout of each call, &lt;1 means no timeout
+     */
+    public AsyncScheduler(Scheduler scheduler, int maxConcurrency, long defaultTimeoutMillis) {
+        if (null == scheduler) {
+            throw new IllegalArgumentException("scheduler is null");
+        }
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.scheduler = scheduler;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        ExecutorService vts = newVirtualThreadExecutor();
+        if (null != vts) {
+            // 虚拟线程本身不限数量，以信号量限制同时执行的调用数
+            final Semaphore permits = new Semaphore(maxConcurrency);
+            this.executorService = vts;
+            this.executor = task -> vts.execute(() -> {
+                permits.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    permits.release();
+                }
+            });
+            this.virtualThreads = true;
+        } else {
+            final AtomicInteger seq = new AtomicInteger();
+            ThreadPoolExecutor tpe = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(DEFAULT_QUEUE_CAPACITY), r -> {
+                        Thread t = new Thread(r, "QuartzAsyncClient-" + seq.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            tpe.allowCoreThreadTimeOut(true);
+            this.executorService = tpe;
+            this.executor = tpe;
+            this.virtualThreads = false;
+        }
+    }
+
+    // JDK21+ Executors.newVirtualThreadPerTaskExecutor()，低版本返回null
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method m = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (Exception e) {
+            LOGGER.warn("虚拟线程不可用，使用平台线程池:{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Run any call against the wrapped scheduler with the default timeout.
+     * 以默认超时执行任意调用
+     */
+    public <T> CompletableFuture<T> call(Function<Scheduler, T> fn) {
+        return call(fn, defaultTimeoutMillis);
+    }
+
+    /**
+     * Run any call against the wrapped scheduler with its own timeout.
+     * 以指定超时(毫秒,&lt;1即不超时)执行任意调用
+     */
+    public <T> CompletableFuture<T> call(Function<Scheduler, T> fn, long timeoutMillis) {
+        CompletableFuture<T> future;
+        try {
+            future = CompletableFuture.supplyAsync(() -> fn.apply(scheduler), executor);
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("异步调用被拒绝(队列已满或已关闭)", e);
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        return timeoutMillis > 0 ? future.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS) : future;
+    }
+
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Stop accepting calls; calls already submitted still run.
+     * 不再接受新调用，已提交的调用继续执行
+     */
+    @Override
+    public void close() {
+        executorService.shutdown();
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Scheduler 各操作的异步版本(参数及返回值含义同 Scheduler)
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public CompletableFuture<String[]> getDBInfo() {
+        return call(s -> s.getDBInfo());
+    }
+
+    public CompletableFuture<List<QrtzApp>> getAllApp() {
+        return call(s -> s.getAllApp());
+    }
+
+    public CompletableFuture<List<QrtzNode>> getNodeByApp(String application) {
+        return call(s -> s.getNodeByApp(application));
+    }
+
+    public CompletableFuture<QrtzJob> getJobByJobId(String job_id) {
+        return call(s -> s.getJobByJobId(job_id));
+    }
+
+    public CompletableFuture<QrtzExecute> getExecuteByExecuteId(String execute_id) {
+        return call(s -> s.getExecuteByExecuteId(execute_id));
+    }
+
+    public CompletableFuture<List<QrtzExecute>> getExecuteByJobId(String job_id) {
+        return call(s -> s.getExecuteByJobId(job_id));
+    }
+
+    public CompletableFuture<QrtzJob> getJobInAllByJobId(String job_id) {
+        return call(s -> s.getJobInAllByJobId(job_id));
+    }
+
+    public CompletableFuture<QrtzExecute> getExecuteInAllByExecuteId(String execute_id) {
+        return call(s -> s.getExecuteInAllByExecuteId(execute_id));
+    }
+
+    public CompletableFuture<QrtzPage<QrtzJob>> getJobPage(QrtzQuery query) {
+        return call(s -> s.getJobPage(query));
+    }
+
+    public CompletableFuture<QrtzPage<QrtzExecute>> getExecutePage(QrtzQuery query) {
+        return call(s -> s.getExecutePage(query));
+    }
+
+    public CompletableFuture<Object[]> addApp(QrtzApp qrtzApp) {
+        return call(s -> s.addApp(qrtzApp));
+    }
+
+    public CompletableFuture<Object[]> deleteApp(String application) {
+        return call(s -> s.deleteApp(application));
+    }
+
+    public CompletableFuture<Integer> updateAppState(String application, String state) {
+        return call(s -> s.updateAppState(application, state));
+    }
+
+    public CompletableFuture<Object[]> addNode(QrtzNode qrtzNode) {
+        return call(s -> s.addNode(qrtzNode));
+    }
+
+    public CompletableFuture<Integer> deleteNode(String application, String hostIP) {
+        return call(s -> s.deleteNode(application, hostIP));
+    }
+
+    public CompletableFuture<Integer> updateNodeState(QrtzNode qrtzNode) {
+        return call(s -> s.updateNodeState(qrtzNode));
+    }
+
+    public CompletableFuture<Integer> updateNode(QrtzNode qrtzNode) {
+        return call(s -> s.updateNode(qrtzNode));
+    }
+
+    public CompletableFuture<Object[]> addAppAndNode(QrtzApp qrtzApp, QrtzNode qrtzNode) {
+        return call(s -> s.addAppAndNode(qrtzApp, qrtzNode));
+    }
+
+    public CompletableFuture<Object[]> addJob(QrtzJob qrtzJob) {
+        return call(s -> s.addJob(qrtzJob));
+    }
+
+    public CompletableFuture<Object[]> updateJob(QrtzJob qrtzJob) {
+        return call(s -> s.updateJob(qrtzJob));
+    }
+
+    public CompletableFuture<Integer> deleteJob(String job_id) {
+        return call(s -> s.deleteJob(job_id));
+    }
+
+    public CompletableFuture<Object[]> updateJobStateInAll(String job_id, String state) {
+        return call(s -> s.updateJobStateInAll(job_id, state));
+    }
+
+    public CompletableFuture<Integer> updateJobState(String job_id, String state) {
+        return call(s -> s.updateJobState(job_id, state));
+    }
+
+    public CompletableFuture<Integer> updateExecuteState(String execute_id, String state) {
+        return call(s -> s.updateExecuteState(execute_id, state));
+    }
+
+    public CompletableFuture<Object[]> addExecute(QrtzExecute qrtzExecute) {
+        return call(s -> s.addExecute(qrtzExecute));
+    }
+
+    public CompletableFuture<Integer> deleteExecute(String execute_id) {
+        return call(s -> s.deleteExecute(execute_id));
+    }
+
+    public CompletableFuture<Object[]> updateExecute(QrtzExecute qrtzExecute) {
+        return call(s -> s.updateExecute(qrtzExecute));
+    }
+
+    public CompletableFuture<Object[]> addJobChain(QrtzJobChain qrtzJobChain) {
+        return call(s -> s.addJobChain(qrtzJobChain));
+    }
+
+    public CompletableFuture<Integer> deleteJobChain(String job_id, String next_job_id) {
+        return call(s -> s.deleteJobChain(job_id, next_job_id));
+    }
+
+    public CompletableFuture<List<QrtzJobChain>> getJobChainByJobId(String job_id) {
+        return call(s -> s.getJobChainByJobId(job_id));
+    }
+
+    public CompletableFuture<Object[]> triggerExecuteNow(String execute_id) {
+        return call(s -> s.triggerExecuteNow(execute_id));
+    }
+
+    public CompletableFuture<Object[]> addJobs(List<QrtzJob> qrtzJobs) {
+        return call(s -> s.addJobs(qrtzJobs));
+    }
+
+    public CompletableFuture<Object[]> addExecutes(List<QrtzExecute> qrtzExecutes) {
+        return call(s -> s.addExecutes(qrtzExecutes));
+    }
+
+    public CompletableFuture<Object[]> updateJobStateInAll(List<String> job_ids, String state) {
+        return call(s -> s.updateJobStateInAll(job_ids, state));
+    }
+
+    public CompletableFuture<Object[]> updateJobStateInAllByApp(String application, String state) {
+        return call(s -> s.updateJobStateInAllByApp(application, state));
+    }
+
+    public CompletableFuture<Object[]> updateExecuteState(List<String> execute_ids, String state) {
+        return call(s -> s.updateExecuteState(execute_ids, state));
+    }
+}
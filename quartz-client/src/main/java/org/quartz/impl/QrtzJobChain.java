@@ -0,0 +1,99 @@
+package org.quartz.impl;
+
+import java.io.Serializable;
+
+/**
+ * QrtzJobChain 任务链：上游任务完成后立即触发下游任务
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className QrtzJobChain
+ */
+public class QrtzJobChain implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 上游任务(QRTZ_JOB::ID)
+     */
+    private String pid;
+    /**
+     * 下游任务(QRTZ_JOB::ID)
+     */
+    private String nextPid;
+    /**
+     * 调度名称，需与上下游任务一致
+     */
+    private String application;
+    /**
+     * 触发条件 SUCCESS.上游成功时 ALWAYS.上游完成即触发
+     */
+    private String triggerOn;
+    /**
+     * 更新时间
+     */
+    private Long updateTime;
+
+    public QrtzJobChain() {
+    }
+
+    public QrtzJobChain(String pid, String nextPid, String application, String triggerOn, Long updateTime) {
+        this.pid = pid;
+        this.nextPid = nextPid;
+        this.application = application;
+        this.triggerOn = triggerOn;
+        this.updateTime = updateTime;
+    }
+
+    public String getPid() {
+        return pid;
+    }
+
+    public void setPid(String pid) {
+        this.pid = pid;
+    }
+
+    public String getNextPid() {
+        return nextPid;
+    }
+
+    public void setNextPid(String nextPid) {
+        this.nextPid = nextPid;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public void setApplication(String application) {
+        this.application = application;
+    }
+
+    public String getTriggerOn() {
+        return triggerOn;
+    }
+
+    public void setTriggerOn(String triggerOn) {
+        this.triggerOn = triggerOn;
+    }
+
+    public Long getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(Long updateTime) {
+        this.updateTime = updateTime;
+    }
+
+    @Override
+    public String toString() {
+        return "QrtzJobChain{" +
+                "pid='" + pid + '\'' +
+                ", nextPid='" + nextPid + '\'' +
+                ", application='" + application + '\'' +
+                ", triggerOn='" + triggerOn + '\'' +
+                ", updateTime=" + updateTime +
+                '}';
+    }
+
+}
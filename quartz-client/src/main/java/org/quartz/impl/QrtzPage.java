@@ -0,0 +1,76 @@
+package org.quartz.impl;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * QrtzPage 游标分页结果
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className QrtzPage
+ */
+public class QrtzPage<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页数据(按ID升序)
+     */
+    private List<T> items;
+    /**
+     * 下一页游标(作为 QrtzQuery::afterId 传入)，为空即已是最后一页
+     */
+    private String nextId;
+    /**
+     * 总数，未要求统计时为空
+     */
+    private Long total;
+
+    public QrtzPage() {
+    }
+
+    public QrtzPage(List<T> items, String nextId, Long total) {
+        this.items = items;
+        this.nextId = nextId;
+        this.total = total;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextId() {
+        return nextId;
+    }
+
+    public void setNextId(String nextId) {
+        this.nextId = nextId;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public boolean hasNext() {
+        return null != nextId;
+    }
+
+    @Override
+    public String toString() {
+        return "QrtzPage{" +
+                "items=" + (null == items ? 0 : items.size()) +
+                ", nextId='" + nextId + '\'' +
+                ", total=" + total +
+                '}';
+    }
+
+}
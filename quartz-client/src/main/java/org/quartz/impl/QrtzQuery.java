@@ -0,0 +1,184 @@
+package org.quartz.impl;
+
+import java.io.Serializable;
+
+/**
+ * QrtzQuery 分页查询条件：按ID游标(keyset)翻页，各过滤条件为空即不过滤
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className QrtzQuery
+ */
+public class QrtzQuery implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * 调度名称
+     */
+    private String application;
+    /**
+     * 状态 EXECUTING,PAUSED,COMPLETE,ERROR,INIT
+     */
+    private String state;
+    /**
+     * 任务全类名
+     */
+    private String jobClass;
+    /**
+     * 所属任务(QRTZ_JOB::ID)，仅查询execute时有效
+     */
+    private String pid;
+    /**
+     * 任务类型 SIMPLE/CRON，仅查询execute时有效
+     */
+    private String jobType;
+    /**
+     * 下次执行时间下限(含)，仅查询execute时有效
+     */
+    private Long nextFireTimeFrom;
+    /**
+     * 下次执行时间上限(不含)，仅查询execute时有效
+     */
+    private Long nextFireTimeTo;
+    /**
+     * 游标：返回ID大于该值的记录，首页为空，后续传入上一页的 nextId
+     */
+    private String afterId;
+    /**
+     * 每页条数(1~1000)
+     */
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    /**
+     * JDBC fetchSize，<1 时使用驱动默认值
+     */
+    private int fetchSize = 0;
+    /**
+     * 是否同时查询总数(不含游标条件)，大表慎用
+     */
+    private boolean withCount = false;
+
+    public QrtzQuery() {
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public QrtzQuery setApplication(String application) {
+        this.application = application;
+        return this;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public QrtzQuery setState(String state) {
+        this.state = state;
+        return this;
+    }
+
+    public String getJobClass() {
+        return jobClass;
+    }
+
+    public QrtzQuery setJobClass(String jobClass) {
+        this.jobClass = jobClass;
+        return this;
+    }
+
+    public String getPid() {
+        return pid;
+    }
+
+    public QrtzQuery setPid(String pid) {
+        this.pid = pid;
+        return this;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public QrtzQuery setJobType(String jobType) {
+        this.jobType = jobType;
+        return this;
+    }
+
+    public Long getNextFireTimeFrom() {
+        return nextFireTimeFrom;
+    }
+
+    public QrtzQuery setNextFireTimeFrom(Long nextFireTimeFrom) {
+        this.nextFireTimeFrom = nextFireTimeFrom;
+        return this;
+    }
+
+    public Long getNextFireTimeTo() {
+        return nextFireTimeTo;
+    }
+
+    public QrtzQuery setNextFireTimeTo(Long nextFireTimeTo) {
+        this.nextFireTimeTo = nextFireTimeTo;
+        return this;
+    }
+
+    public String getAfterId() {
+        return afterId;
+    }
+
+    public QrtzQuery setAfterId(String afterId) {
+        this.afterId = afterId;
+        return this;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public QrtzQuery setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public QrtzQuery setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    public boolean isWithCount() {
+        return withCount;
+    }
+
+    public QrtzQuery setWithCount(boolean withCount) {
+        this.withCount = withCount;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "QrtzQuery{" +
+                "application='" + application + '\'' +
+                ", state='" + state + '\'' +
+                ", jobClass='" + jobClass + '\'' +
+                ", pid='" + pid + '\'' +
+                ", jobType='" + jobType + '\'' +
+                ", nextFireTimeFrom=" + nextFireTimeFrom +
+                ", nextFireTimeTo=" + nextFireTimeTo +
+                ", afterId='" + afterId + '\'' +
+                ", pageSize=" + pageSize +
+                ", fetchSize=" + fetchSize +
+                ", withCount=" + withCount +
+                '}';
+    }
+
+}
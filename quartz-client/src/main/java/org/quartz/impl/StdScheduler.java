@@ -29,9 +29,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 /**
@@ -121,6 +127,56 @@ public class StdScheduler implements Scheduler {
         return sched.getExecuteByJobId(job_id);
     }
     @Override
+    public QrtzPage<QrtzJob> getJobPage(QrtzQuery query){
+        final String msg = checkQuery(query);
+        if(null!=msg){
+            LOGGER.error("{}:{}",msg,query);
+            return null;
+        }
+        return sched.getJobPage(query);
+    }
+    @Override
+    public QrtzPage<QrtzExecute> getExecutePage(QrtzQuery query){
+        final String msg = checkQuery(query);
+        if(null!=msg){
+            LOGGER.error("{}:{}",msg,query);
+            return null;
+        }
+        return sched.getExecutePage(query);
+    }
+
+    /**
+     * 校验分页查询条件，页大小超出范围时修正为默认值/上限
+     */
+    private String checkQuery(QrtzQuery query){
+        if(null==query){
+            return "必要参数为空! [query]";
+        }
+        final String states = ",EXECUTING,PAUSED,COMPLETE,ERROR,INIT,";
+        if(null!=query.getState() && !states.contains(","+query.getState()+",")){
+            return "异常的状态项!(only:EXECUTING,PAUSED,COMPLETE,ERROR,INIT)";
+        }
+        if(null!=query.getJobType() && !"CRON".equals(query.getJobType()) && !"SIMPLE".equals(query.getJobType())){
+            return "异常的任务类型!(only:CRON,SIMPLE)";
+        }
+        try {
+            if(null!=query.getAfterId()){
+                new BigDecimal(query.getAfterId());
+            }
+            if(null!=query.getPid()){
+                new BigDecimal(query.getPid());
+            }
+        }catch (NumberFormatException e){
+            return "异常的游标或pid";
+        }
+        if(query.getPageSize()<1){
+            query.setPageSize(QrtzQuery.DEFAULT_PAGE_SIZE);
+        }else if(query.getPageSize()>QrtzQuery.MAX_PAGE_SIZE){
+            query.setPageSize(QrtzQuery.MAX_PAGE_SIZE);
+        }
+        return null;
+    }
+    @Override
     public QrtzJob getJobInAllByJobId(String job_id){
         if( null==job_id || "".equals(job_id) ){
             LOGGER.error("必要参数为空! [job_id] {}",job_id);
@@ -305,13 +361,28 @@ public class StdScheduler implements Scheduler {
     /////////////////////////////////////
     @Override
     public Object[] addJob(QrtzJob qrtzJob){
+        final String msg = checkJob(qrtzJob);
+        if(null!=msg){
+            return new Object[]{0,msg};
+        }
+        // 赋初始化参数
+        qrtzJob.setId(SeqGenUtil.genSeq());
+        qrtzJob.setUpdateTime(System.currentTimeMillis()/1000*1000);
+        int insertCount = sched.addJob(qrtzJob);
+        return new Object[]{insertCount,null};
+    }
+
+    /**
+     * 校验新增任务参数并规范化任务数据，通过时返回null，否则返回错误信息
+     */
+    private String checkJob(QrtzJob qrtzJob){
 //        String[] states = {"EXECUTING", "PAUSED", "COMPLETE", "ERROR" ,"INIT"};
         String states = "EXECUTING,PAUSED,COMPLETE,ERROR,INIT";
         // 检查参数
         String state;
         if(null==qrtzJob || null==qrtzJob.getApplication() || null==(state=qrtzJob.getState()) || !states.contains(state) || null==qrtzJob.getJobClass() ){
             LOGGER.error("必要参数不可为空或参数异常:{}",qrtzJob);
-            return new Object[]{0,"必要参数不可为空或参数异常"};
+            return "必要参数不可为空或参数异常";
         }
         String job_data = qrtzJob.getJobData();
         JSONObject jo;
@@ -321,14 +392,31 @@ public class StdScheduler implements Scheduler {
                 && !((job_data.startsWith("{") && job_data.endsWith("}") && (jo = new JSONObject(job_data)) !=null && (job_data=jo.toString())!=null) ||
                 (job_data.startsWith("[") && job_data.endsWith("]") && (ja = new JSONArray(job_data)) !=null) && (job_data=ja.toString())!=null) ){
             LOGGER.error("异常的任务数据：{}",qrtzJob);
-            return new Object[]{0,"异常的任务数据"};
+            return "异常的任务数据";
         }
         qrtzJob.setJobData(job_data);
-        // 赋初始化参数
-        qrtzJob.setId(SeqGenUtil.genSeq());
-        qrtzJob.setUpdateTime(System.currentTimeMillis()/1000*1000);
-        int insertCount = sched.addJob(qrtzJob);
-        return new Object[]{insertCount,null};
+        return null;
+    }
+
+    @Override
+    public Object[] addJobs(List<QrtzJob> qrtzJobs){
+        if(null==qrtzJobs || qrtzJobs.isEmpty()){
+            LOGGER.error("必要参数为空! [qrtzJobs]");
+            return new Object[]{0,"必要参数为空(qrtzJobs)"};
+        }
+        final long updateTime = System.currentTimeMillis()/1000*1000;
+        for(int i=0;i<qrtzJobs.size();i++){
+            final QrtzJob qrtzJob = qrtzJobs.get(i);
+            final String msg = checkJob(qrtzJob);
+            if(null!=msg){
+                return new Object[]{0,"第"+(i+1)+"条:"+msg};
+            }
+            qrtzJob.setId(SeqGenUtil.genSeq());
+            qrtzJob.setUpdateTime(updateTime);
+        }
+        // 同一事务内批量写入，任一失败全部回滚
+        int insertCount = sched.addJobs(qrtzJobs);
+        return new Object[]{insertCount,insertCount>0?null:"批量写入失败,已回滚"};
     }
 
     @Override
@@ -389,39 +477,18 @@ public class StdScheduler implements Scheduler {
             return new Object[]{0,"job状态已经是目标状态或job为空"};
         }
         final String bState = qrtzJob.getState();
-        int ct = 0;
-//        if("EXECUTING".equals(state) && ("PAUSED".equals(bState) || "INIT".equals(bState)) ){
-        if("EXECUTING".equals(state) && ("PAUSED".equals(bState) || "INIT".equals(bState) || "COMPLETE".equals(bState)) ){
-            // EXECUTING,PAUSED,COMPLETE,ERROR,INIT
-            // PAUSED,INIT,COMPLETE -> EXECUTING   因为job存在重新添加执行项，所以也可以从 COMPLETE 调整为 EXECUTING
-            if( (ct=sched.updateJobState(job_id,state))>0 ){
-                for( QrtzExecute item:qrtzJob.getExecutes() ){
-                    final String execute_id = item.getId();
-                    final String execute_state = item.getState();
-                    if("PAUSED".equals(execute_state) || "INIT".equals(execute_state)){
-                        sched.updateExecuteState(execute_id,state);
-                    }
-                }
-                return new Object[]{ct,null};
-            }
-            return new Object[]{0,"当前状态不可启动 "+bState};
-        }
-        if("PAUSED".equals(state) && ("EXECUTING".equals(bState) || "ERROR".equals(bState)) ){
-            // EXECUTING,PAUSED,COMPLETE,ERROR,INIT
-            // EXECUTING,ERROR -> PAUSED
-            if( (ct=sched.updateJobState(job_id,state))>0 ){
-                for( QrtzExecute item:qrtzJob.getExecutes() ){
-                    final String execute_id = item.getId();
-                    final String execute_state = item.getState();
-                    if("EXECUTING".equals(execute_state) || "ERROR".equals(execute_state)){
-                        sched.updateExecuteState(execute_id,state);
-                    }
-                }
-                return new Object[]{ct,null};
-            }
-            return new Object[]{0,"当前状态不可暂停 "+bState};
-        }
-        return new Object[]{0,"操作失败!"};
+        // EXECUTING,PAUSED,COMPLETE,ERROR,INIT
+        // PAUSED,INIT,COMPLETE -> EXECUTING   因为job存在重新添加执行项，所以也可以从 COMPLETE 调整为 EXECUTING
+        // EXECUTING,ERROR -> PAUSED
+        if(!jobStateChangeable(bState,state)){
+            return new Object[]{0,("EXECUTING".equals(state)?"当前状态不可启动 ":"当前状态不可暂停 ")+bState};
+        }
+        // job及其下execute在同一事务内按集合更新
+        int[] ct = sched.updateJobStateInAll(null,Collections.singletonList(job_id),state);
+        if(ct[0]>0){
+            return new Object[]{ct[0],null};
+        }
+        return new Object[]{0,("EXECUTING".equals(state)?"当前状态不可启动 ":"当前状态不可暂停 ")+bState};
     }
 
     @Override
@@ -455,6 +522,54 @@ public class StdScheduler implements Scheduler {
     }
     @Override
     public Object[] addExecute(QrtzExecute qrtzExecute){
+        final String msg = prepareExecute(qrtzExecute);
+        if(null!=msg){
+            return new Object[]{0,msg};
+        }
+        final String pid = qrtzExecute.getPid();
+        if( sched.getJobByJobId(pid)==null){
+            LOGGER.error("对应job配置为空! [qrtzExecute]:{}",qrtzExecute);
+            return new Object[]{0,"对应job配置为空!"};
+        }
+        qrtzExecute.setId(SeqGenUtil.genSeq());
+        int insert_count = sched.addExecute(qrtzExecute);
+        return new Object[]{insert_count,"CRON任务配置异常!"};
+    }
+
+    @Override
+    public Object[] addExecutes(List<QrtzExecute> qrtzExecutes){
+        if(null==qrtzExecutes || qrtzExecutes.isEmpty()){
+            LOGGER.error("必要参数为空! [qrtzExecutes]");
+            return new Object[]{0,"必要参数为空(qrtzExecutes)"};
+        }
+        final Set<String> pids = new HashSet<>();
+        for(int i=0;i<qrtzExecutes.size();i++){
+            final QrtzExecute qrtzExecute = qrtzExecutes.get(i);
+            final String msg = prepareExecute(qrtzExecute);
+            if(null!=msg){
+                return new Object[]{0,"第"+(i+1)+"条:"+msg};
+            }
+            pids.add(qrtzExecute.getPid());
+        }
+        // 一次查询校验所有对应job均存在
+        final Set<String> existing = sched.findExistingJobIds(pids);
+        if(null==existing || !existing.containsAll(pids)){
+            pids.removeAll(null==existing?Collections.<String>emptySet():existing);
+            LOGGER.error("对应job配置为空! [pid]:{}",pids);
+            return new Object[]{0,"对应job配置为空! "+pids};
+        }
+        for(QrtzExecute qrtzExecute:qrtzExecutes){
+            qrtzExecute.setId(SeqGenUtil.genSeq());
+        }
+        // 同一事务内批量写入，任一失败全部回滚
+        int insertCount = sched.addExecutes(qrtzExecutes);
+        return new Object[]{insertCount,insertCount>0?null:"批量写入失败,已回滚"};
+    }
+
+    /**
+     * 校验新增执行项参数并计算下次触发时间等初始值(不校验对应job是否存在)，通过时返回null，否则返回错误信息
+     */
+    private String prepareExecute(QrtzExecute qrtzExecute){
         String jobType;
         String state;
         if(null==qrtzExecute || null==qrtzExecute.getPid()
@@ -462,17 +577,12 @@ public class StdScheduler implements Scheduler {
                 || null==(state=qrtzExecute.getState()) /*|| (!"N".equals(state) && !"Y".equals(state))*/
                 ){
             LOGGER.error("必要参数为空或参数异常! [qrtzExecute]:{}",qrtzExecute);
-            return new Object[]{0,"必要参数为空或参数异常!"};
+            return "必要参数为空或参数异常!";
         }
         final String states = ",EXECUTING,PAUSED,COMPLETE,ERROR,INIT,";
         if(!states.contains(","+state+",") ){
             LOGGER.error("异常的状态项:{}",qrtzExecute);
-            return new Object[]{0,"异常的状态项!(only:EXECUTING,PAUSED,COMPLETE,ERROR,INIT)"};
-        }
-        final String pid = qrtzExecute.getPid();
-        if( sched.getJobByJobId(pid)==null){
-            LOGGER.error("对应job配置为空! [qrtzExecute]:{}",qrtzExecute);
-            return new Object[]{0,"对应job配置为空!"};
+            return "异常的状态项!(only:EXECUTING,PAUSED,COMPLETE,ERROR,INIT)";
         }
         Long startTime = qrtzExecute.getStartTime();
         if(null==startTime || startTime<1){
@@ -491,7 +601,7 @@ public class StdScheduler implements Scheduler {
             if( null==repeatCount || null==repeatInterval /*|| null==qrtzExecute.getTimeTriggered()*/
                 || null==qrtzExecute.getStartTime() || repeatInterval<10 ){
                 LOGGER.error("SIMPLE任务参数异常! [qrtzExecute]:{}",qrtzExecute);
-                return new Object[]{0,"SIMPLE任务参数异常!"};
+                return "SIMPLE任务参数异常!";
             }
             SimpleTriggerImpl simpleTrigger = new SimpleTriggerImpl()
                     .setStartTime(new Date(startTime>0?startTime:System.currentTimeMillis()/1000*1000))
@@ -503,7 +613,7 @@ public class StdScheduler implements Scheduler {
             Date nextFireTime = simpleTrigger.getFireTimeAfter(aft);
             if(null==nextFireTime){
                 LOGGER.error("SIMPLE任务无效的任务配置 [qrtzExecute]:{}",qrtzExecute);
-                return new Object[]{0,"SIMPLE任务无效的任务配置!"};
+                return "SIMPLE任务无效的任务配置!";
             }
             // CRON任务参数清空
             qrtzExecute.setCron(null);
@@ -523,7 +633,7 @@ public class StdScheduler implements Scheduler {
             final Long endTime = qrtzExecute.getEndTime();
             if(null==cron || "".equals(cron.trim())){
                 LOGGER.error("CRON任务表达式为空! [qrtzExecute]:{}",qrtzExecute);
-                return new Object[]{0,"CRON任务表达式为空!"};
+                return "CRON任务表达式为空!";
             }
             if(null==zoneId || "".equals(zoneId.trim()) || null==ZoneId.of(zoneId)){
                 TimeZone zoneDefault = TimeZone.getDefault();
@@ -539,7 +649,7 @@ public class StdScheduler implements Scheduler {
                 Date nextFireTime = cronTrigger.getFireTimeAfter(aft);
                 if (null == nextFireTime) {
                     LOGGER.error("CRON任务无效的任务配置 [qrtzExecute]:{}", qrtzExecute);
-                    return new Object[]{0,"CRON任务无效的任务配置!"};
+                    return "CRON任务无效的任务配置!";
                 }
                 // SIMPLE任务参数清空
                 qrtzExecute.setRepeatCount(null);
@@ -549,7 +659,7 @@ public class StdScheduler implements Scheduler {
             }catch (Exception e){
                 e.printStackTrace();
                 LOGGER.error("CRON任务配置异常:{}",qrtzExecute,e);
-                return new Object[]{0,"CRON任务配置异常!"};
+                return "CRON任务配置异常!";
             }
         }
         if(qrtzExecute.getHostIp()==null){
@@ -559,10 +669,9 @@ public class StdScheduler implements Scheduler {
             qrtzExecute.setHostName(SystemPropGenerator.hostName());
         }
         qrtzExecute.setPrevFireTime(-1L); // 新增都没有前一次执行时间的
-        qrtzExecute.setId(SeqGenUtil.genSeq());
-        int insert_count = sched.addExecute(qrtzExecute);
-        return new Object[]{insert_count,"CRON任务配置异常!"};
+        return null;
     }
+
     @Override
     public int deleteExecute(String execute_id ){
         if(null==execute_id){
@@ -691,6 +800,161 @@ public class StdScheduler implements Scheduler {
         return new Object[]{updateCount,null};
     }
 
+    @Override
+    public Object[] addJobChain(QrtzJobChain qrtzJobChain){
+        String triggerOn;
+        if(null==qrtzJobChain || null==qrtzJobChain.getPid() || null==qrtzJobChain.getNextPid()){
+            LOGGER.error("必要参数不可为空:{}",qrtzJobChain);
+            return new Object[]{0,"必要参数不可为空(pid、nextPid)"};
+        }
+        if(null==(triggerOn=qrtzJobChain.getTriggerOn()) || "".equals(triggerOn=triggerOn.trim())){
+            triggerOn = "SUCCESS";
+        }
+        if(!"SUCCESS".equals(triggerOn) && !"ALWAYS".equals(triggerOn)){
+            LOGGER.error("异常的触发条件(SUCCESS or ALWAYS):{}",qrtzJobChain);
+            return new Object[]{0,"异常的触发条件(SUCCESS or ALWAYS)"};
+        }
+        final String pid = qrtzJobChain.getPid();
+        final String nextPid = qrtzJobChain.getNextPid();
+        if(pid.equals(nextPid)){
+            LOGGER.error("任务不可链接自身:{}",qrtzJobChain);
+            return new Object[]{0,"任务不可链接自身"};
+        }
+        final QrtzJob job = sched.getJobByJobId(pid);
+        final QrtzJob nextJob = sched.getJobByJobId(nextPid);
+        if(null==job || null==nextJob){
+            LOGGER.error("上游或下游任务不存在:{}",qrtzJobChain);
+            return new Object[]{0,"上游或下游任务不存在"};
+        }
+        if(!job.getApplication().equals(nextJob.getApplication())){
+            LOGGER.error("上下游任务须属于同一应用:{}",qrtzJobChain);
+            return new Object[]{0,"上下游任务须属于同一应用"};
+        }
+        // 从下游出发可回到上游则成环
+        if(reachable(nextPid,pid)){
+            LOGGER.error("任务链不可成环:{}",qrtzJobChain);
+            return new Object[]{0,"任务链不可成环"};
+        }
+        qrtzJobChain.setApplication(job.getApplication());
+        qrtzJobChain.setTriggerOn(triggerOn);
+        qrtzJobChain.setUpdateTime(System.currentTimeMillis()/1000*1000);
+        int insertCount = sched.addJobChain(qrtzJobChain);
+        return new Object[]{insertCount,null};
+    }
+
+    // 沿任务链从 from 出发是否可到达 to
+    private boolean reachable(String from, String to){
+        Set<String> visited = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.push(from);
+        while(!pending.isEmpty()){
+            final String current = pending.pop();
+            if(current.equals(to)){
+                return true;
+            }
+            if(!visited.add(current)){
+                continue;
+            }
+            List<QrtzJobChain> chains = sched.getJobChainByJobId(current);
+            if(null!=chains){
+                for(QrtzJobChain item:chains){
+                    pending.push(item.getNextPid());
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int deleteJobChain(String job_id, String next_job_id){
+        if( null==job_id || null==next_job_id ){
+            LOGGER.error("必要参数为空! [job_id,next_job_id] {},{}",job_id,next_job_id);
+            return 0;
+        }
+        return sched.deleteJobChain(job_id,next_job_id);
+    }
+
+    @Override
+    public List<QrtzJobChain> getJobChainByJobId(String job_id){
+        if( null==job_id || "".equals(job_id) ){
+            LOGGER.error("必要参数为空! [job_id]");
+            return null;
+        }
+        return sched.getJobChainByJobId(job_id);
+    }
+
+    @Override
+    public Object[] triggerExecuteNow(String execute_id){
+        if( null==execute_id || "".equals(execute_id) ){
+            LOGGER.error("必要参数为空! [execute_id]");
+            return new Object[]{0,"必要参数为空(execute_id)"};
+        }
+        final QrtzExecute qrtzExecute = sched.getExecuteInAllByExecuteId(execute_id);
+        if( null==qrtzExecute || null==qrtzExecute.getJob() ){
+            LOGGER.error("execute或job不存在:{}",execute_id);
+            return new Object[]{0,"execute或job不存在"};
+        }
+        // 不校验状态：人工重跑失败/已完成的执行项时同样需要立即执行
+        int insertCount = sched.addFireNowSignal(SeqGenUtil.genSeq(),qrtzExecute.getJob().getApplication(),execute_id);
+        return new Object[]{insertCount,null};
+    }
+
+    // 目标状态仅可为 EXECUTING or PAUSED
+    private static boolean jobStateChangeable(String fromState, String toState){
+        if("EXECUTING".equals(toState)){
+            return "PAUSED".equals(fromState) || "INIT".equals(fromState) || "COMPLETE".equals(fromState);
+        }
+        if("PAUSED".equals(toState)){
+            return "EXECUTING".equals(fromState) || "ERROR".equals(fromState);
+        }
+        return false;
+    }
+
+    @Override
+    public Object[] updateJobStateInAll(List<String> job_ids, String state){
+        if( null==job_ids || job_ids.isEmpty() || null==state || "".equals(state=state.trim()) ){
+            LOGGER.error("必要参数为空! [job_ids] {},{}",job_ids,state);
+            return new Object[]{0,"必要参数为空(job_ids、state)"};
+        }
+        if( !("EXECUTING".equals(state)  || "PAUSED".equals(state)) ){
+            LOGGER.error("仅可操作状态为(EXECUTING or PAUSED)! [job_ids] {}",state);
+            return new Object[]{0,"仅可操作状态为(EXECUTING or PAUSED)!"};
+        }
+        // 状态不可变更的job由SQL条件过滤，不报错
+        int[] ct = sched.updateJobStateInAll(null,job_ids,state);
+        return new Object[]{ct[0],null};
+    }
+
+    @Override
+    public Object[] updateJobStateInAllByApp(String application, String state){
+        if( null==application || "".equals(application) || null==state || "".equals(state=state.trim()) ){
+            LOGGER.error("必要参数为空! [application] {},{}",application,state);
+            return new Object[]{0,"必要参数为空(application、state)"};
+        }
+        if( !("EXECUTING".equals(state)  || "PAUSED".equals(state)) ){
+            LOGGER.error("仅可操作状态为(EXECUTING or PAUSED)! [application] {},{}",application,state);
+            return new Object[]{0,"仅可操作状态为(EXECUTING or PAUSED)!"};
+        }
+        int[] ct = sched.updateJobStateInAll(application,null,state);
+        return new Object[]{ct[0],null};
+    }
+
+    @Override
+    public Object[] updateExecuteState(List<String> execute_ids, String state){
+        if( null==execute_ids || execute_ids.isEmpty() || null==state ){
+            LOGGER.error("必要参数为空! [execute_ids、state] {},{}",execute_ids,state);
+            return new Object[]{0,"必要参数为空(execute_ids、state)"};
+        }
+        // 限制已经执行完成的编辑
+        final String states = ",EXECUTING,PAUSED,ERROR,";
+        if(!states.contains(","+state+",") ){
+            LOGGER.error("异常的状态项:state=>{}",state);
+            return new Object[]{0,"异常的状态项!(only:EXECUTING,PAUSED,ERROR)"};
+        }
+        int updateCount = sched.updateExecuteStateBatch(execute_ids,state);
+        return new Object[]{updateCount,updateCount>0?null:"批量更新失败,已回滚"};
+    }
+
 
 
   
@@ -20,10 +20,16 @@ package org.quartz.impl.jdbcjobstore;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzJobChain;
 import org.quartz.impl.QrtzNode;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 /**
  * <p>
@@ -120,6 +126,37 @@ public interface DriverDelegate {
     // 更新执行项
     int updateExecute(Connection conn, QrtzExecute qrtzExecute);
 
+    // 添加任务链
+    int addJobChain(Connection conn, QrtzJobChain qrtzJobChain);
+    // 删除任务链
+    int deleteJobChain(Connection conn, String job_id, String next_job_id);
+    // 根据上游job_id获取其所有下游任务链
+    List<QrtzJobChain> getJobChainByJobId(Connection conn, String job_id);
+    // 写入立即执行信号
+    int addFireNowSignal(Connection conn, String id, String application, String execute_id);
+
+    // 批量写入任务(不提交事务，异常时由调用方回滚)
+    int addJobs(Connection conn, List<QrtzJob> qrtzJobs) throws SQLException;
+    // 批量写入execute(不提交事务，异常时由调用方回滚)
+    int addExecutes(Connection conn, List<QrtzExecute> qrtzExecutes) throws SQLException;
+    // 查询已存在的job_id
+    Set<String> selectJobIdsIn(Connection conn, Collection<String> job_ids) throws SQLException;
+    // 按应用或job_id集合修改execute状态(依据job状态过滤，需在修改job状态之前调用)
+    int updateExecuteStateByJobs(Connection conn, String application, List<String> job_ids, String state) throws SQLException;
+    // 按应用或job_id集合修改job状态
+    int updateJobStateByJobs(Connection conn, String application, List<String> job_ids, String state) throws SQLException;
+    // 批量修改execute状态
+    int updateExecuteStateBatch(Connection conn, List<String> execute_ids, String state) throws SQLException;
+
+    // 游标分页查询job(不含总数)
+    QrtzPage<QrtzJob> selectJobPage(Connection conn, QrtzQuery query) throws SQLException;
+    // 按条件统计job总数(忽略游标)
+    long countJobs(Connection conn, QrtzQuery query) throws SQLException;
+    // 游标分页查询execute(不含总数)
+    QrtzPage<QrtzExecute> selectExecutePage(Connection conn, QrtzQuery query) throws SQLException;
+    // 按条件统计execute总数(忽略游标)
+    long countExecutes(Connection conn, QrtzQuery query) throws SQLException;
+
 }
 
 // EOF
@@ -23,7 +23,10 @@ import org.quartz.SchedulerException;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzJobChain;
 import org.quartz.impl.QrtzNode;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
 import org.quartz.impl.triggers.CronTriggerImpl;
 import org.quartz.spi.JobStore;
 import org.slf4j.Logger;
@@ -35,8 +38,10 @@ import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.TimeZone;
 
 
@@ -1029,6 +1034,179 @@ public final class JobStoreSupport implements JobStore {
         }
         return 0;
     }
+    @Override
+    public int addJobChain(QrtzJobChain qrtzJobChain){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            return getDelegate().addJobChain(conn,qrtzJobChain);
+        }catch (Exception e){
+            log.error("写入任务链异常:{}",qrtzJobChain,e);
+        }finally {
+            closeConnection(conn);
+        }
+        return 0;
+    }
+    @Override
+    public int deleteJobChain(String job_id, String next_job_id){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            return getDelegate().deleteJobChain(conn,job_id,next_job_id);
+        }catch (Exception e){
+            log.error("删除任务链异常:{}->{}",job_id,next_job_id,e);
+        }finally {
+            closeConnection(conn);
+        }
+        return 0;
+    }
+    @Override
+    public List<QrtzJobChain> getJobChainByJobId(String job_id){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            return getDelegate().getJobChainByJobId(conn,job_id);
+        }catch (Exception e){
+            log.error("查询任务链异常:{}",job_id,e);
+        }finally {
+            closeConnection(conn);
+        }
+        return null;
+    }
+    @Override
+    public int addFireNowSignal(String id, String application, String execute_id){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            return getDelegate().addFireNowSignal(conn,id,application,execute_id);
+        }catch (Exception e){
+            log.error("写入立即执行信号异常:{},{}",application,execute_id,e);
+        }finally {
+            closeConnection(conn);
+        }
+        return 0;
+    }
+
+    ///////////////////////////////////////////////////
+    // 批量写入：同一连接同一事务，任一条失败整体回滚
+
+    @Override
+    public int addJobs(List<QrtzJob> qrtzJobs){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            int ct = getDelegate().addJobs(conn,qrtzJobs);
+            commitConnection(conn);
+            return ct;
+        }catch (Exception e){
+            e.printStackTrace();
+            rollbackConnection(conn);
+        }finally {
+            closeConnection(conn);
+        }
+        return 0;
+    }
+    @Override
+    public int addExecutes(List<QrtzExecute> qrtzExecutes){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            int ct = getDelegate().addExecutes(conn,qrtzExecutes);
+            commitConnection(conn);
+            return ct;
+        }catch (Exception e){
+            e.printStackTrace();
+            rollbackConnection(conn);
+        }finally {
+            closeConnection(conn);
+        }
+        return 0;
+    }
+    @Override
+    public Set<String> findExistingJobIds(Collection<String> job_ids){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            return getDelegate().selectJobIdsIn(conn,job_ids);
+        }catch (Exception e){
+            e.printStackTrace();
+        }finally {
+            closeConnection(conn);
+        }
+        return null;
+    }
+    @Override
+    public int[] updateJobStateInAll(String application, List<String> job_ids, String state){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            // 先按job当前状态更新execute，再更新job
+            int executeCount = getDelegate().updateExecuteStateByJobs(conn,application,job_ids,state);
+            int jobCount = getDelegate().updateJobStateByJobs(conn,application,job_ids,state);
+            commitConnection(conn);
+            return new int[]{jobCount,executeCount};
+        }catch (Exception e){
+            e.printStackTrace();
+            rollbackConnection(conn);
+        }finally {
+            closeConnection(conn);
+        }
+        return new int[]{0,0};
+    }
+    @Override
+    public QrtzPage<QrtzJob> getJobPage(QrtzQuery query){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            QrtzPage<QrtzJob> page = getDelegate().selectJobPage(conn,query);
+            if(query.isWithCount()){
+                page.setTotal(getDelegate().countJobs(conn,query));
+            }
+            return page;
+        }catch (Exception e){
+            e.printStackTrace();
+        }finally {
+            closeConnection(conn);
+        }
+        return null;
+    }
+    @Override
+    public QrtzPage<QrtzExecute> getExecutePage(QrtzQuery query){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            QrtzPage<QrtzExecute> page = getDelegate().selectExecutePage(conn,query);
+            if(query.isWithCount()){
+                page.setTotal(getDelegate().countExecutes(conn,query));
+            }
+            return page;
+        }catch (Exception e){
+            e.printStackTrace();
+        }finally {
+            closeConnection(conn);
+        }
+        return null;
+    }
+    @Override
+    public int updateExecuteStateBatch(List<String> execute_ids, String state){
+        Connection conn =  null ;
+        try{
+            conn = getConnection();
+            conn.setAutoCommit(false);
+            int ct = getDelegate().updateExecuteStateBatch(conn,execute_ids,state);
+            commitConnection(conn);
+            return ct;
+        }catch (Exception e){
+            e.printStackTrace();
+            rollbackConnection(conn);
+        }finally {
+            closeConnection(conn);
+        }
+        return 0;
+    }
 
 
 
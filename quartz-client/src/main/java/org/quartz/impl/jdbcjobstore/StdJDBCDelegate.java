@@ -20,7 +20,10 @@ package org.quartz.impl.jdbcjobstore;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzJobChain;
 import org.quartz.impl.QrtzNode;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,7 +34,11 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * <p>
@@ -61,6 +68,52 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
     protected boolean useProperties;
 
+    /**
+     * <p>
+     * Whether writes to JOB and EXECUTE stamp the change version read by
+     * schedulers keeping an in-memory copy of the executes. Off by default,
+     * since the <code>VERSION</code> columns are only added by the opt-in
+     * <code>replica_version_*_v1.3.sql</code>; it must be on (system property
+     * <code>org.quartz.replica.writeVersion=true</code>) whenever a scheduler
+     * enables the copy.
+     * 写入 JOB 及 EXECUTE 时是否写入变更版本(供保留执行项内存副本的调度节点增量同步)。默认关闭(VERSION 列仅由可选的 replica_version_*_v1.3.sql 添加)，
+     * 任一调度节点开启副本时须开启(系统属性 org.quartz.replica.writeVersion=true)。
+     * </p>
+     */
+    protected boolean writeVersion = Boolean.getBoolean("org.quartz.replica.writeVersion");
+
+    // 变更版本：写入方的毫秒时间
+    protected long version() {
+        return System.currentTimeMillis();
+    }
+
+    public void setWriteVersion(boolean writeVersion) {
+        this.writeVersion = writeVersion;
+    }
+
+    // UPDATE 的 SET 子句中追加的变更版本，未启用时为空
+    protected String versionSet() {
+        return writeVersion ? ",VERSION=?" : "";
+    }
+
+    // INSERT 的列及占位符中追加的变更版本，未启用时为空
+    protected String versionColumn() {
+        return writeVersion ? ",VERSION" : "";
+    }
+
+    protected String versionValue() {
+        return writeVersion ? ",?" : "";
+    }
+
+    // 启用时在 index 处绑定变更版本，返回下一个参数的位置
+    protected int bindVersion(PreparedStatement ps, int index, long version) throws SQLException {
+        if (!writeVersion) {
+            return index;
+        }
+        ps.setBigDecimal(index, new BigDecimal(version));
+        return index + 1;
+    }
+
 
     
     /*
@@ -657,7 +710,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("INSERT INTO {0}JOB (ID,APPLICATION,STATE,JOB_CLASS,JOB_DATA,JOB_DESCRIPTION,UPDATE_TIME) VALUES (?,?,?,?,?,?,?)"));
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}JOB (ID,APPLICATION,STATE,JOB_CLASS,JOB_DATA,JOB_DESCRIPTION,UPDATE_TIME"+versionColumn()+") VALUES (?,?,?,?,?,?,?"+versionValue()+")"));
             ps.setBigDecimal(1,new BigDecimal(qrtzJob.getId()));
             ps.setString(2, qrtzJob.getApplication());
             ps.setString(3, qrtzJob.getState());
@@ -665,6 +718,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             ps.setString(5, qrtzJob.getJobData());
             ps.setString(6, qrtzJob.getJobDescription());
             ps.setBigDecimal(7, new BigDecimal(qrtzJob.getUpdateTime()));
+            bindVersion(ps,8,version());
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -684,14 +738,14 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             return 0;
         }
         try {
-            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET APPLICATION =?,STATE=?,JOB_CLASS =?,JOB_DATA=?,JOB_DESCRIPTION=?,UPDATE_TIME=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET APPLICATION =?,STATE=?,JOB_CLASS =?,JOB_DATA=?,JOB_DESCRIPTION=?,UPDATE_TIME=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,qrtzJob.getApplication());
             ps.setString(2, qrtzJob.getState());
             ps.setString(3, qrtzJob.getJobClass());
             ps.setString(4, qrtzJob.getJobData());
             ps.setString(5, qrtzJob.getJobDescription());
             ps.setBigDecimal(6,new BigDecimal(qrtzJob.getUpdateTime()));
-            ps.setBigDecimal(7,new BigDecimal(qrtzJob.getId()));
+            ps.setBigDecimal(bindVersion(ps,7,version()),new BigDecimal(qrtzJob.getId()));
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -727,9 +781,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET STATE=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET STATE=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,state);
-            ps.setBigDecimal(2,new BigDecimal(job_id));
+            ps.setBigDecimal(bindVersion(ps,2,version()),new BigDecimal(job_id));
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -749,9 +803,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,state);
-            ps.setBigDecimal(2,new BigDecimal(execute_id));
+            ps.setBigDecimal(bindVersion(ps,2,version()),new BigDecimal(execute_id));
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -771,8 +825,8 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("INSERT INTO {0}EXECUTE (ID,PID,JOB_TYPE,STATE,CRON,ZONE_ID,REPEAT_COUNT,REPEAT_INTERVAL,TIME_TRIGGERED,PREV_FIRE_TIME,NEXT_FIRE_TIME,HOST_IP,HOST_NAME,START_TIME,END_TIME) VALUES\n" +
-                    "\t (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)"));
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}EXECUTE (ID,PID,JOB_TYPE,STATE,CRON,ZONE_ID,REPEAT_COUNT,REPEAT_INTERVAL,TIME_TRIGGERED,PREV_FIRE_TIME,NEXT_FIRE_TIME,HOST_IP,HOST_NAME,START_TIME,END_TIME"+versionColumn()+") VALUES\n" +
+                    "\t (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?"+versionValue()+")"));
             ps.setBigDecimal(1,new BigDecimal(qrtzExecute.getId())); // ID
             ps.setBigDecimal(2, new BigDecimal(qrtzExecute.getPid())); // PID
             ps.setString(3, qrtzExecute.getJobType()); // JOB_TYPE
@@ -788,6 +842,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             ps.setString(13, qrtzExecute.getHostName()); // HOST_NAME
             ps.setObject(14, qrtzExecute.getStartTime()); // START_TIME
             ps.setObject(15, qrtzExecute.getEndTime()); // END_TIME
+            bindVersion(ps,16,version()); // VERSION
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -861,7 +916,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         final String jobType = qrtzExecute.getJobType();
         try {
             if("CRON".equals(jobType)){
-                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,CRON=?,ZONE_ID=?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?  WHERE ID = ? AND PID=?"));
+                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,CRON=?,ZONE_ID=?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?"+versionSet()+"  WHERE ID = ? AND PID=?"));
                 ps.setString(1,qrtzExecute.getState()); // state=?
                 ps.setString(2,qrtzExecute.getCron()); // cron=?
                 ps.setString(3,qrtzExecute.getZoneId()); // zone_id=?
@@ -871,10 +926,11 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                 ps.setString(7,qrtzExecute.getHostName()); // host_name =?
                 ps.setLong(8,qrtzExecute.getStartTime()); // start_time =?
                 ps.setLong(9,qrtzExecute.getEndTime()); // end_time =?
-                ps.setBigDecimal(10,new BigDecimal(qrtzExecute.getId())); // where  id = ?
-                ps.setBigDecimal(11,new BigDecimal(qrtzExecute.getPid())); // where pid=?
+                final int where = bindVersion(ps,10,version()); // version =?
+                ps.setBigDecimal(where,new BigDecimal(qrtzExecute.getId())); // where  id = ?
+                ps.setBigDecimal(where+1,new BigDecimal(qrtzExecute.getPid())); // where pid=?
             }else if("SIMPLE".equals(jobType)){
-                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,REPEAT_COUNT =?,REPEAT_INTERVAL =?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?  WHERE ID = ? AND PID=?"));
+                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,REPEAT_COUNT =?,REPEAT_INTERVAL =?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?"+versionSet()+"  WHERE ID = ? AND PID=?"));
                 ps.setString(1,qrtzExecute.getState()); // state=?
                 ps.setInt(2,qrtzExecute.getRepeatCount()); // repeat_count =?
                 ps.setInt(3,qrtzExecute.getRepeatInterval()); // repeat_interval =?
@@ -884,8 +940,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                 ps.setString(7,qrtzExecute.getHostName()); // host_name =?
                 ps.setLong(8,qrtzExecute.getStartTime()); // start_time =?
                 ps.setLong(9,qrtzExecute.getEndTime()); // end_time =?
-                ps.setBigDecimal(10,new BigDecimal(qrtzExecute.getId())); // where  id = ?
-                ps.setBigDecimal(11,new BigDecimal(qrtzExecute.getPid())); // where pid=?
+                final int where = bindVersion(ps,10,version()); // version =?
+                ps.setBigDecimal(where,new BigDecimal(qrtzExecute.getId())); // where  id = ?
+                ps.setBigDecimal(where+1,new BigDecimal(qrtzExecute.getPid())); // where pid=?
             }else{
                 LOGGER.error("不支持的job_type:{}",jobType);
                 return 0;
@@ -900,6 +957,504 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         return 0;
     }
 
+    @Override
+    public int addJobChain(Connection conn, QrtzJobChain qrtzJobChain){
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}JOB_CHAIN (PID,NEXT_PID,APPLICATION,TRIGGER_ON,UPDATE_TIME) VALUES (?,?,?,?,?)"));
+            ps.setBigDecimal(1,new BigDecimal(qrtzJobChain.getPid()));
+            ps.setBigDecimal(2,new BigDecimal(qrtzJobChain.getNextPid()));
+            ps.setString(3, qrtzJobChain.getApplication());
+            ps.setString(4, qrtzJobChain.getTriggerOn());
+            ps.setBigDecimal(5, new BigDecimal(qrtzJobChain.getUpdateTime()));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.error("写入任务链异常:{}",qrtzJobChain,e);
+        } finally {
+            closeStatement(ps);
+        }
+        return 0;
+    }
+
+    @Override
+    public int deleteJobChain(Connection conn, String job_id, String next_job_id){
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("DELETE FROM {0}JOB_CHAIN WHERE PID=? AND NEXT_PID=?"));
+            ps.setBigDecimal(1,new BigDecimal(job_id));
+            ps.setBigDecimal(2,new BigDecimal(next_job_id));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.error("删除任务链异常:{}->{}",job_id,next_job_id,e);
+        } finally {
+            closeStatement(ps);
+        }
+        return 0;
+    }
+
+    @Override
+    public List<QrtzJobChain> getJobChainByJobId(Connection conn, String job_id){
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        List<QrtzJobChain> result = new ArrayList<>(4);
+        try {
+            ps = conn.prepareStatement(rtp("SELECT * FROM {0}JOB_CHAIN WHERE PID=? "));
+            ps.setBigDecimal(1,new BigDecimal(job_id));
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                String pid = rs.getString("PID");
+                String next_pid = rs.getString("NEXT_PID");
+                String application = rs.getString("APPLICATION");
+                String trigger_on = rs.getString("TRIGGER_ON");
+                Long update_time = rs.getLong("UPDATE_TIME");
+                result.add(new QrtzJobChain(pid,next_pid,application,trigger_on,update_time));
+            }
+        } catch (SQLException e) {
+            LOGGER.error("查询任务链异常:{}",job_id,e);
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+        return result;
+    }
+
+    @Override
+    public int addFireNowSignal(Connection conn, String id, String application, String execute_id){
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}SIGNAL (ID,APPLICATION,EXECUTE_ID,CREATE_TIME) VALUES (?,?,?,?)"));
+            ps.setBigDecimal(1,new BigDecimal(id));
+            ps.setString(2, application);
+            ps.setBigDecimal(3,new BigDecimal(execute_id));
+            ps.setBigDecimal(4,new BigDecimal(System.currentTimeMillis()));
+            return ps.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.error("写入立即执行信号异常:{},{}",application,execute_id,e);
+        } finally {
+            closeStatement(ps);
+        }
+        return 0;
+    }
+
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    //
+    // 批量写入
+    //
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    // 每批提交至数据库的条数
+    protected static final int BATCH_SIZE = 1000;
+
+    // IN 条件单次最大参数个数(Oracle 上限1000)
+    protected static final int IN_CHUNK_SIZE = 500;
+
+    @Override
+    public int addJobs(Connection conn, List<QrtzJob> qrtzJobs) throws SQLException {
+        final String states = ",EXECUTING,PAUSED,COMPLETE,ERROR,INIT,";
+        PreparedStatement ps = null;
+        int ct = 0;
+        try {
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}JOB (ID,APPLICATION,STATE,JOB_CLASS,JOB_DATA,JOB_DESCRIPTION,UPDATE_TIME"+versionColumn()+") VALUES (?,?,?,?,?,?,?"+versionValue()+")"));
+            final long version = version();
+            int pending = 0;
+            for(QrtzJob qrtzJob:qrtzJobs){
+                if(null==qrtzJob.getState() || !states.contains(","+qrtzJob.getState()+",") ){
+                    throw new SQLException("异常的状态项:state=>"+qrtzJob);
+                }
+                ps.setBigDecimal(1,new BigDecimal(qrtzJob.getId()));
+                ps.setString(2, qrtzJob.getApplication());
+                ps.setString(3, qrtzJob.getState());
+                ps.setString(4, qrtzJob.getJobClass());
+                ps.setString(5, qrtzJob.getJobData());
+                ps.setString(6, qrtzJob.getJobDescription());
+                ps.setBigDecimal(7, new BigDecimal(qrtzJob.getUpdateTime()));
+                bindVersion(ps,8,version);
+                ps.addBatch();
+                if(++pending==BATCH_SIZE){
+                    ct+=batchCount(ps.executeBatch());
+                    pending=0;
+                }
+            }
+            if(pending>0){
+                ct+=batchCount(ps.executeBatch());
+            }
+            return ct;
+        } catch (SQLException e) {
+            LOGGER.error("批量写入job异常:{}",qrtzJobs.size(),e);
+            throw e;
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int addExecutes(Connection conn, List<QrtzExecute> qrtzExecutes) throws SQLException {
+        final String states = ",EXECUTING,PAUSED,COMPLETE,ERROR,INIT,";
+        PreparedStatement ps = null;
+        int ct = 0;
+        try {
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}EXECUTE (ID,PID,JOB_TYPE,STATE,CRON,ZONE_ID,REPEAT_COUNT,REPEAT_INTERVAL,TIME_TRIGGERED,PREV_FIRE_TIME,NEXT_FIRE_TIME,HOST_IP,HOST_NAME,START_TIME,END_TIME"+versionColumn()+") VALUES\n" +
+                    "\t (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?"+versionValue()+")"));
+            final long version = version();
+            int pending = 0;
+            for(QrtzExecute qrtzExecute:qrtzExecutes){
+                if(null==qrtzExecute.getState() || !states.contains(","+qrtzExecute.getState()+",") ){
+                    throw new SQLException("异常的状态项:state=>"+qrtzExecute);
+                }
+                ps.setBigDecimal(1,new BigDecimal(qrtzExecute.getId())); // ID
+                ps.setBigDecimal(2, new BigDecimal(qrtzExecute.getPid())); // PID
+                ps.setString(3, qrtzExecute.getJobType()); // JOB_TYPE
+                ps.setString(4, qrtzExecute.getState()); // STATE
+                ps.setString(5, qrtzExecute.getCron()); // CRON
+                ps.setString(6, qrtzExecute.getZoneId()); // ZONE_ID
+                ps.setObject(7, qrtzExecute.getRepeatCount()); // REPEAT_COUNT
+                ps.setObject(8, qrtzExecute.getRepeatInterval()); // REPEAT_INTERVAL
+                ps.setObject(9, qrtzExecute.getTimeTriggered()); // TIME_TRIGGERED
+                ps.setObject(10, qrtzExecute.getPrevFireTime()); // PREV_FIRE_TIME
+                ps.setObject(11, qrtzExecute.getNextFireTime()); // NEXT_FIRE_TIME
+                ps.setString(12, qrtzExecute.getHostIp()); // HOST_IP
+                ps.setString(13, qrtzExecute.getHostName()); // HOST_NAME
+                ps.setObject(14, qrtzExecute.getStartTime()); // START_TIME
+                ps.setObject(15, qrtzExecute.getEndTime()); // END_TIME
+                bindVersion(ps,16,version); // VERSION
+                ps.addBatch();
+                if(++pending==BATCH_SIZE){
+                    ct+=batchCount(ps.executeBatch());
+                    pending=0;
+                }
+            }
+            if(pending>0){
+                ct+=batchCount(ps.executeBatch());
+            }
+            return ct;
+        } catch (SQLException e) {
+            LOGGER.error("批量写入execute异常:{}",qrtzExecutes.size(),e);
+            throw e;
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public Set<String> selectJobIdsIn(Connection conn, Collection<String> job_ids) throws SQLException {
+        final Set<String> result = new HashSet<>();
+        final List<String> ids = new ArrayList<>(job_ids);
+        for(int from=0;from<ids.size();from+=IN_CHUNK_SIZE){
+            final List<String> chunk = ids.subList(from,Math.min(from+IN_CHUNK_SIZE,ids.size()));
+            PreparedStatement ps = null;
+            ResultSet rs = null;
+            try {
+                ps = conn.prepareStatement(rtp("SELECT ID FROM {0}JOB WHERE ID IN ("+placeholders(chunk.size())+")"));
+                for(int i=0;i<chunk.size();i++){
+                    ps.setBigDecimal(i+1,new BigDecimal(chunk.get(i)));
+                }
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    result.add(rs.getString("ID"));
+                }
+            } finally {
+                closeResultSet(rs);
+                closeStatement(ps);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int updateExecuteStateByJobs(Connection conn, String application, List<String> job_ids, String state) throws SQLException {
+        // PAUSED: EXECUTING,ERROR -> PAUSED    EXECUTING: PAUSED,INIT -> EXECUTING
+        final String[] fromExecute = "PAUSED".equals(state)?new String[]{"EXECUTING","ERROR"}:new String[]{"PAUSED","INIT"};
+        final String[] fromJob = jobFromStates(state);
+        final List<Object> leading = new ArrayList<>();
+        leading.add(state);
+        if(writeVersion){
+            leading.add(version());
+        }
+        Collections.addAll(leading,fromExecute);
+        Collections.addAll(leading,fromJob);
+        final String sql = "UPDATE {0}EXECUTE SET STATE=?"+versionSet()+" WHERE STATE IN ("+placeholders(fromExecute.length)+") AND PID IN (SELECT ID FROM {0}JOB WHERE STATE IN ("+placeholders(fromJob.length)+") AND ";
+        return updateByJobs(conn,sql,leading,application,job_ids);
+    }
+
+    @Override
+    public int updateJobStateByJobs(Connection conn, String application, List<String> job_ids, String state) throws SQLException {
+        final String[] fromJob = jobFromStates(state);
+        final List<Object> leading = new ArrayList<>();
+        leading.add(state);
+        if(writeVersion){
+            leading.add(version());
+        }
+        Collections.addAll(leading,fromJob);
+        final String sql = "UPDATE {0}JOB SET STATE=?"+versionSet()+" WHERE STATE IN ("+placeholders(fromJob.length)+") AND ";
+        return updateByJobs(conn,sql,leading,application,job_ids);
+    }
+
+    @Override
+    public int updateExecuteStateBatch(Connection conn, List<String> execute_ids, String state) throws SQLException {
+        // 只有写入执行项时才是INIT，其他任何状态都不可以变更为INIT
+        final String states = ",EXECUTING,PAUSED,COMPLETE,ERROR,";
+        if(null==state || !states.contains(","+state+",") ){
+            throw new SQLException("异常的状态项:state=>"+state);
+        }
+        PreparedStatement ps = null;
+        int ct = 0;
+        try {
+            ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?"+versionSet()+" WHERE ID=?"));
+            final long version = version();
+            int pending = 0;
+            for(String execute_id:execute_ids){
+                ps.setString(1,state);
+                ps.setBigDecimal(bindVersion(ps,2,version),new BigDecimal(execute_id));
+                ps.addBatch();
+                if(++pending==BATCH_SIZE){
+                    ct+=batchCount(ps.executeBatch());
+                    pending=0;
+                }
+            }
+            if(pending>0){
+                ct+=batchCount(ps.executeBatch());
+            }
+            return ct;
+        } catch (SQLException e) {
+            LOGGER.error("批量修改execute状态异常:{},{}",execute_ids.size(),state,e);
+            throw e;
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+    //
+    // 游标分页查询(keyset on ID)：按ID升序，多取一条判断是否还有下一页，
+    // 不使用 OFFSET，翻页代价与页码无关
+    //
+    //~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+
+    @Override
+    public QrtzPage<QrtzJob> selectJobPage(Connection conn, QrtzQuery query) throws SQLException {
+        final List<Object> params = new ArrayList<>();
+        final String where = jobWhere(query,params,true);
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        final List<QrtzJob> items = new ArrayList<>(query.getPageSize()+1);
+        try {
+            ps = conn.prepareStatement(rtp("SELECT * FROM {0}JOB J"+where+" ORDER BY J.ID"));
+            preparePage(ps,params,query);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                items.add(new QrtzJob(rs.getString("ID"),rs.getString("APPLICATION"),rs.getString("STATE"),rs.getString("JOB_CLASS"),
+                        rs.getString("JOB_DATA"),rs.getString("JOB_DESCRIPTION"),rs.getLong("UPDATE_TIME")));
+            }
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+        String nextId = null;
+        if(items.size()>query.getPageSize()){
+            items.remove(items.size()-1);
+            nextId = items.get(items.size()-1).getId();
+        }
+        return new QrtzPage<>(items,nextId,null);
+    }
+
+    @Override
+    public long countJobs(Connection conn, QrtzQuery query) throws SQLException {
+        final List<Object> params = new ArrayList<>();
+        final String where = jobWhere(query,params,false);
+        return count(conn,"SELECT COUNT(1) FROM {0}JOB J"+where,params);
+    }
+
+    @Override
+    public QrtzPage<QrtzExecute> selectExecutePage(Connection conn, QrtzQuery query) throws SQLException {
+        final List<Object> params = new ArrayList<>();
+        final String from = executeFromWhere(query,params,true);
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        final List<QrtzExecute> items = new ArrayList<>(query.getPageSize()+1);
+        try {
+            ps = conn.prepareStatement(rtp("SELECT E.* FROM "+from+" ORDER BY E.ID"));
+            preparePage(ps,params,query);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                items.add(QrtzExecute.build(rs.getString("ID"),rs.getString("PID"),rs.getString("JOB_TYPE"),rs.getString("STATE"),
+                        rs.getString("CRON"),rs.getString("ZONE_ID"),rs.getInt("REPEAT_COUNT"),rs.getInt("REPEAT_INTERVAL"),
+                        rs.getInt("TIME_TRIGGERED"),rs.getLong("PREV_FIRE_TIME"),rs.getLong("NEXT_FIRE_TIME"),
+                        rs.getString("HOST_IP"),rs.getString("HOST_NAME"),rs.getLong("START_TIME"),rs.getLong("END_TIME")));
+            }
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+        String nextId = null;
+        if(items.size()>query.getPageSize()){
+            items.remove(items.size()-1);
+            nextId = items.get(items.size()-1).getId();
+        }
+        return new QrtzPage<>(items,nextId,null);
+    }
+
+    @Override
+    public long countExecutes(Connection conn, QrtzQuery query) throws SQLException {
+        final List<Object> params = new ArrayList<>();
+        final String from = executeFromWhere(query,params,false);
+        return count(conn,"SELECT COUNT(1) FROM "+from,params);
+    }
+
+    private static String jobWhere(QrtzQuery query, List<Object> params, boolean withCursor){
+        final StringBuilder sql = new StringBuilder(" WHERE 1=1");
+        if(null!=query.getApplication()){
+            sql.append(" AND J.APPLICATION=?");
+            params.add(query.getApplication());
+        }
+        if(null!=query.getState()){
+            sql.append(" AND J.STATE=?");
+            params.add(query.getState());
+        }
+        if(null!=query.getJobClass()){
+            sql.append(" AND J.JOB_CLASS=?");
+            params.add(query.getJobClass());
+        }
+        if(withCursor && null!=query.getAfterId()){
+            sql.append(" AND J.ID>?");
+            params.add(new BigDecimal(query.getAfterId()));
+        }
+        return sql.toString();
+    }
+
+    // 仅在按应用或任务类过滤时关联JOB表
+    private static String executeFromWhere(QrtzQuery query, List<Object> params, boolean withCursor){
+        final boolean joinJob = null!=query.getApplication() || null!=query.getJobClass();
+        final StringBuilder sql = new StringBuilder(joinJob?"{0}EXECUTE E JOIN {0}JOB J ON E.PID=J.ID WHERE 1=1":"{0}EXECUTE E WHERE 1=1");
+        if(null!=query.getApplication()){
+            sql.append(" AND J.APPLICATION=?");
+            params.add(query.getApplication());
+        }
+        if(null!=query.getJobClass()){
+            sql.append(" AND J.JOB_CLASS=?");
+            params.add(query.getJobClass());
+        }
+        if(null!=query.getPid()){
+            sql.append(" AND E.PID=?");
+            params.add(new BigDecimal(query.getPid()));
+        }
+        if(null!=query.getState()){
+            sql.append(" AND E.STATE=?");
+            params.add(query.getState());
+        }
+        if(null!=query.getJobType()){
+            sql.append(" AND E.JOB_TYPE=?");
+            params.add(query.getJobType());
+        }
+        if(null!=query.getNextFireTimeFrom()){
+            sql.append(" AND E.NEXT_FIRE_TIME>=?");
+            params.add(new BigDecimal(query.getNextFireTimeFrom()));
+        }
+        if(null!=query.getNextFireTimeTo()){
+            sql.append(" AND E.NEXT_FIRE_TIME<?");
+            params.add(new BigDecimal(query.getNextFireTimeTo()));
+        }
+        if(withCursor && null!=query.getAfterId()){
+            sql.append(" AND E.ID>?");
+            params.add(new BigDecimal(query.getAfterId()));
+        }
+        return sql.toString();
+    }
+
+    // 绑定参数并限制返回行数(页大小+1)，各数据库分页语法不同，使用 setMaxRows 保持通用
+    private static void preparePage(PreparedStatement ps, List<Object> params, QrtzQuery query) throws SQLException {
+        for(int i=0;i<params.size();i++){
+            ps.setObject(i+1,params.get(i));
+        }
+        ps.setMaxRows(query.getPageSize()+1);
+        if(query.getFetchSize()>0){
+            ps.setFetchSize(query.getFetchSize());
+        }
+    }
+
+    private long count(Connection conn, String sql, List<Object> params) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = conn.prepareStatement(rtp(sql));
+            for(int i=0;i<params.size();i++){
+                ps.setObject(i+1,params.get(i));
+            }
+            rs = ps.executeQuery();
+            return rs.next()?rs.getLong(1):0L;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    // job可变更至目标状态的当前状态 EXECUTING: PAUSED,INIT,COMPLETE  PAUSED: EXECUTING,ERROR
+    private static String[] jobFromStates(String state){
+        if("EXECUTING".equals(state)){
+            return new String[]{"PAUSED","INIT","COMPLETE"};
+        }
+        if("PAUSED".equals(state)){
+            return new String[]{"EXECUTING","ERROR"};
+        }
+        throw new IllegalArgumentException("仅可操作状态为(EXECUTING or PAUSED):"+state);
+    }
+
+    /**
+     * 按应用(application不为空时)或job_id集合(分段IN)执行更新，sqlPrefix 以 "AND " 结尾，
+     * 若包含子查询则由本方法补齐右括号；状态值均以参数绑定(rtp 按 MessageFormat 处理，SQL 中不可出现单引号)
+     */
+    private int updateByJobs(Connection conn, String sqlPrefix, List<Object> leading, String application, List<String> job_ids) throws SQLException {
+        final String close = sqlPrefix.contains("(SELECT")?")":"";
+        int ct = 0;
+        if(null!=application){
+            PreparedStatement ps = null;
+            try {
+                ps = conn.prepareStatement(rtp(sqlPrefix+"APPLICATION=?"+close));
+                for(int i=0;i<leading.size();i++){
+                    ps.setObject(i+1,leading.get(i));
+                }
+                ps.setString(leading.size()+1,application);
+                ct += ps.executeUpdate();
+            } finally {
+                closeStatement(ps);
+            }
+            return ct;
+        }
+        for(int from=0;from<job_ids.size();from+=IN_CHUNK_SIZE){
+            final List<String> chunk = job_ids.subList(from,Math.min(from+IN_CHUNK_SIZE,job_ids.size()));
+            PreparedStatement ps = null;
+            try {
+                ps = conn.prepareStatement(rtp(sqlPrefix+"ID IN ("+placeholders(chunk.size())+")"+close));
+                for(int i=0;i<leading.size();i++){
+                    ps.setObject(i+1,leading.get(i));
+                }
+                for(int i=0;i<chunk.size();i++){
+                    ps.setBigDecimal(leading.size()+i+1,new BigDecimal(chunk.get(i)));
+                }
+                ct += ps.executeUpdate();
+            } finally {
+                closeStatement(ps);
+            }
+        }
+        return ct;
+    }
+
+    private static String placeholders(int count){
+        StringBuilder sb = new StringBuilder(count*2);
+        for(int i=0;i<count;i++){
+            sb.append(i==0?"?":",?");
+        }
+        return sb.toString();
+    }
+
+    // 部分驱动批量执行成功时返回 SUCCESS_NO_INFO(-2)，按1条计
+    private static int batchCount(int[] counts){
+        int ct = 0;
+        for(int c:counts){
+            ct += c==Statement.SUCCESS_NO_INFO?1:Math.max(c,0);
+        }
+        return ct;
+    }
+
 
 }
 
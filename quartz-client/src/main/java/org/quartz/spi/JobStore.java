@@ -20,9 +20,14 @@ package org.quartz.spi;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzJobChain;
 import org.quartz.impl.QrtzNode;
+import org.quartz.impl.QrtzPage;
+import org.quartz.impl.QrtzQuery;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -148,4 +153,30 @@ public interface JobStore {
 
     int updateExecute(QrtzExecute qrtzExecute);
 
+    // 添加任务链
+    int addJobChain(QrtzJobChain qrtzJobChain);
+    // 删除任务链
+    int deleteJobChain(String job_id, String next_job_id);
+    // 根据上游job_id获取其所有下游任务链
+    List<QrtzJobChain> getJobChainByJobId(String job_id);
+
+    // 写入立即执行信号
+    int addFireNowSignal(String id, String application, String execute_id);
+
+    // 批量添加任务(同一事务)
+    int addJobs(List<QrtzJob> qrtzJobs);
+    // 批量添加execute(同一事务)
+    int addExecutes(List<QrtzExecute> qrtzExecutes);
+    // 查询已存在的job_id
+    Set<String> findExistingJobIds(Collection<String> job_ids);
+    // 按应用或job_id集合修改job及其下执行项状态(同一事务) 返回[job更新数,execute更新数]
+    int[] updateJobStateInAll(String application, List<String> job_ids, String state);
+    // 批量修改execute状态(同一事务)
+    int updateExecuteStateBatch(List<String> execute_ids, String state);
+
+    // 游标分页查询job
+    QrtzPage<QrtzJob> getJobPage(QrtzQuery query);
+    // 游标分页查询execute
+    QrtzPage<QrtzExecute> getExecutePage(QrtzQuery query);
+
 }
@@ -0,0 +1,43 @@
+package org.quartz;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ *  触发时间错峰
+ *
+ * An annotation that spreads the fires of a {@link Job} class: every execute
+ * of the job is shifted by a stable, hash based offset of
+ * <code>0 ~ maxMillis</code> derived from its execute id, so executes sharing
+ * a schedule such as <code>0 * * * * ?</code> no longer fire in the same
+ * millisecond. The offset is applied to every computed fire time (both when
+ * the acquisition window is expanded and when the next fire time is written
+ * by a claim), so the stored NEXT_FIRE_TIME carries it and all nodes agree on
+ * it. The first fire after an execute is created or rescheduled from the
+ * client is not shifted.
+ *
+ * 将任务类的各执行项按执行项ID的稳定哈希错开 0~maxMillis 毫秒触发，使同一调度(如每分钟整点)的大量执行项不再集中在同一毫秒；
+ * 偏移量作用于每次计算出的触发时间(获取窗口展开及抢占时写入的下次触发时间)，随 NEXT_FIRE_TIME 持久化，各节点一致；
+ * 客户端新建或修改执行项后的首次触发不偏移。
+ *
+ * <p>
+ * <code>maxMillis</code> must be smaller than the shortest interval between
+ * two fires of the schedule, otherwise fires are skipped.
+ * maxMillis 须小于调度两次触发之间的最短间隔，否则会跳过触发。
+ * </p>
+ *
+ * @see org.quartz.impl.AcquiredExecute
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface FireJitter {
+
+    /**
+     * 最大偏移(毫秒)
+     */
+    long maxMillis();
+}
@@ -50,50 +50,72 @@ public interface JobListener {
      */
     String getName();
 
-//    /**
-//     * <p>
-//     * Called by the <code>{@link Scheduler}</code> when a <code>{@link org.quartz.JobDetail}</code>
-//     * is about to be executed (an associated <code>{@link Trigger}</code>
-//     * has occurred).
-//     * </p>
-//     *
-//     * <p>
-//     * This method will not be invoked if the execution of the Job was vetoed
-//     * by a <code>{@link TriggerListener}</code>.
-//     * </p>
-//     *
-//     * @see #jobExecutionVetoed(JobExecutionContext)
-//     * 当JobDetail即将执行时（相关触发器已发生），由调度器调用。
-//     * 如果作业的执行被TriggerListener否决，则不会调用此方法。
-//     * 另请参见：
-//     * 作业执行已被审查（作业执行上下文）
-//     */
-//    void jobToBeExecuted(JobExecutionContext context);
-//
-//    /**
-//     * <p>
-//     * Called by the <code>{@link Scheduler}</code> when a <code>{@link org.quartz.JobDetail}</code>
-//     * was about to be executed (an associated <code>{@link Trigger}</code>
-//     * has occurred), but a <code>{@link TriggerListener}</code> vetoed it's
-//     * execution.
-//     * </p>
-//     *
-//     * @see #jobToBeExecuted(JobExecutionContext)
-//     *
-//     * 当JobDetail即将被执行时（关联的触发器已经发生），由调度器调用，但TriggerListener否决了它的执行。
-//     * 另请参见：
-//     * jobToBeExecute（作业执行上下文）
-//     */
-//    void jobExecutionVetoed(JobExecutionContext context);
+/**
+     * <p>
+     * Called by the <code>{@link Scheduler}</code> when a job is about to be
+     * executed. Delivered asynchronously on the listener bus unless
+     * {@link #isSynchronous()} returns true.
+     * 任务即将执行时调用，除非 isSynchronous() 返回 true，否则由监听器总线异步投递。
+     * </p>
+     *
+     * <p>
+     * This method will not be invoked if the execution of the Job was vetoed.
+     * 若任务执行被否决则不会调用此方法。
+     * </p>
+     *
+     * @see #jobExecutionVetoed(JobExecutionContext)
+     */
+    default void jobToBeExecuted(JobExecutionContext context) {
+    }
 
-    
-//    /**
-//     * <p>
-//     * Called by the <code>{@link Scheduler}</code> after a <code>{@link org.quartz.JobDetail}</code>
-//     * has been executed, and be for the associated <code>Trigger</code>'s
-//     * <code>triggered(xx)</code> method has been called.
-//     * </p>
-//     */
-//    void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException);
+    /**
+     * <p>
+     * Called by the <code>{@link Scheduler}</code> when a job was about to be
+     * executed, but a synchronous listener vetoed it's execution.
+     * 任务即将执行但被某个同步监听器否决时调用。
+     * </p>
+     *
+     * @see #vetoJobExecution(JobExecutionContext)
+     */
+    default void jobExecutionVetoed(JobExecutionContext context) {
+    }
+
+    /**
+     * <p>
+     * Called by the <code>{@link Scheduler}</code> after a job has been
+     * executed.
+     * 任务执行完成后调用。
+     * </p>
+     *
+     * @param jobException the exception thrown by the job, null on success
+     */
+    default void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+    }
+
+    /**
+     * <p>
+     * Whether the events of this listener are delivered synchronously on the
+     * worker thread instead of the listener bus. Only synchronous listeners
+     * are asked to {@link #vetoJobExecution(JobExecutionContext) veto}, keep
+     * them short as they delay the job.
+     * 是否在工作线程上同步投递事件(默认异步)。只有同步监听器才能否决执行，其耗时会直接计入任务延迟。
+     * </p>
+     */
+    default boolean isSynchronous() {
+        return false;
+    }
+
+    /**
+     * <p>
+     * Called on the worker thread before the job is executed, only for
+     * {@link #isSynchronous() synchronous} listeners.
+     * 任务执行前在工作线程上调用(仅同步监听器)，返回 true 则本次不执行。
+     * </p>
+     *
+     * @return true to veto the execution
+     */
+    default boolean vetoJobExecution(JobExecutionContext context) {
+        return false;
+    }
 
 }
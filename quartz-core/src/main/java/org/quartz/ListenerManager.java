@@ -117,35 +117,35 @@ public interface ListenerManager {
 //     * @return true if the given matcher was found and removed from the listener's list of matchers
 //     */
 //    boolean setJobListenerMatchers(String listenerName, List<Matcher<Key<?>>> matchers);
-//
-//    /**
-//     * Get the set of Matchers for which the listener
-//     * will receive events if ANY of the matchers match.
-//     *
-//     *
-//     * @param listenerName the name of the listener to add the matcher to
-//     * @return the matchers registered for selecting events for the identified listener
-//     */
-//    List<Matcher<Key<?>>> getJobListenerMatchers(String listenerName);
-//
-//    /**
-//     * Remove the identified <code>{@link JobListener}</code> from the <code>Scheduler</code>.
-//     *
-//     * @return true if the identified listener was found in the list, and
-//     *         removed.
-//     */
-//    public boolean removeJobListener(String name);
 
-//    /**
-//     * Get a List containing all of the <code>{@link JobListener}</code>s in
-//     * the <code>Scheduler</code>, in the order in which they were registered.
-//     */
-//    public List<JobListener> getJobListeners();
+    /**
+     * Get the set of Matchers for which the listener
+     * will receive events if ANY of the matchers match.
+     *
+     *
+     * @param listenerName the name of the listener to add the matcher to
+     * @return the matchers registered for selecting events for the identified listener
+     */
+    List<Matcher<Key<?>>> getJobListenerMatchers(String listenerName);
 
-//    /**
-//     * Get the <code>{@link JobListener}</code> that has the given name.
-//     */
-//    public JobListener getJobListener(String name);
+    /**
+     * Remove the identified <code>{@link JobListener}</code> from the <code>Scheduler</code>.
+     *
+     * @return true if the identified listener was found in the list, and
+     *         removed.
+     */
+    public boolean removeJobListener(String name);
+
+    /**
+     * Get a List containing all of the <code>{@link JobListener}</code>s in
+     * the <code>Scheduler</code>, in the order in which they were registered.
+     */
+    public List<JobListener> getJobListeners();
+
+    /**
+     * Get the <code>{@link JobListener}</code> that has the given name.
+     */
+    public JobListener getJobListener(String name);
 //
 //    /**
 //     * Add the given <code>{@link TriggerListener}</code> to the <code>Scheduler</code>,
@@ -254,27 +254,27 @@ public interface ListenerManager {
 //     * Get the <code>{@link TriggerListener}</code> that has the given name.
 //     */
 //    public TriggerListener getTriggerListener(String name);
-//
-//    /**
-//     * Register the given <code>{@link SchedulerListener}</code> with the
-//     * <code>Scheduler</code>.
-//     */
-//    public void addSchedulerListener(SchedulerListener schedulerListener);
-//
-//    /**
-//     * Remove the given <code>{@link SchedulerListener}</code> from the
-//     * <code>Scheduler</code>.
-//     *
-//     * @return true if the identified listener was found in the list, and
-//     *         removed.
-//     */
-//    public boolean removeSchedulerListener(SchedulerListener schedulerListener);
-//
-//    /**
-//     * Get a List containing all of the <code>{@link SchedulerListener}</code>s
-//     * registered with the <code>Scheduler</code>, in the order in which they were registered.
-//     * 获取一个列表，其中包含按注册顺序向调度器注册的所有SchedulerListener。
-//     */
-//    public List<SchedulerListener> getSchedulerListeners();
+
+    /**
+     * Register the given <code>{@link SchedulerListener}</code> with the
+     * <code>Scheduler</code>.
+     */
+    public void addSchedulerListener(SchedulerListener schedulerListener);
+
+    /**
+     * Remove the given <code>{@link SchedulerListener}</code> from the
+     * <code>Scheduler</code>.
+     *
+     * @return true if the identified listener was found in the list, and
+     *         removed.
+     */
+    public boolean removeSchedulerListener(SchedulerListener schedulerListener);
+
+    /**
+     * Get a List containing all of the <code>{@link SchedulerListener}</code>s
+     * registered with the <code>Scheduler</code>, in the order in which they were registered.
+     * 获取一个列表，其中包含按注册顺序向调度器注册的所有SchedulerListener。
+     */
+    public List<SchedulerListener> getSchedulerListeners();
 
 }
\ No newline at end of file
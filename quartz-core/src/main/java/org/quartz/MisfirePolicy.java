@@ -0,0 +1,47 @@
+package org.quartz;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ *  熄火策略
+ *
+ * An annotation that chooses what the cluster recovery does with the fires
+ * an execute of the {@link Job} class missed (e.g. while the cluster was
+ * down for a DB maintenance window). The execute is always moved back onto
+ * its schedule after now; catch-up runs are queued on the recovering node
+ * and released gradually, they don't change the execute row.
+ * Without the annotation missed fires are skipped.
+ *
+ * 指定集群恢复时如何处理任务类各执行项错过的触发(如数据库维护期间)。执行项总会被重新排到当前时间之后的计划时间；
+ * 补偿执行在执行恢复的节点上排队并逐步放行，不修改执行项记录。未标注时错过的触发直接跳过。
+ *
+ * @see Instruction
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface MisfirePolicy {
+
+    /**
+     * 熄火处理方式
+     */
+    enum Instruction {
+        /** 跳过全部错过的触发 */
+        SKIP,
+        /** 补偿执行一次(以最近一次错过的触发时间为计划时间) */
+        FIRE_ONCE_NOW,
+        /** 按时间顺序补偿执行错过的触发，至多 maxCatchUp 次 */
+        FIRE_ALL
+    }
+
+    Instruction value() default Instruction.SKIP;
+
+    /**
+     * FIRE_ALL 时最多补偿执行的次数
+     */
+    int maxCatchUp() default 10;
+}
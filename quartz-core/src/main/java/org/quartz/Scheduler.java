@@ -19,8 +19,8 @@
 package org.quartz;
 
 import java.util.List;
+import java.util.Map;
 
-import org.quartz.core.ListenerManagerImpl;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
 import org.quartz.impl.QrtzJob;
@@ -370,6 +370,29 @@ public interface Scheduler {
      */
     List<JobExecutionContext> getCurrentlyExecutingJobs() throws SchedulerException;
 
+    /**
+     * Return the <code>JobExecutionContext</code>s of the given execute that
+     * are currently executing within this Scheduler instance.
+     * 返回本实例中指定执行项正在执行的上下文
+     *
+     * @see #getCurrentlyExecutingJobs()
+     */
+    List<JobExecutionContext> getCurrentlyExecutingJobs(String executeId) throws SchedulerException;
+
+    /**
+     * Return the number of jobs currently executing within this Scheduler
+     * instance, without building a list.
+     * 返回本实例正在执行的任务数
+     */
+    int getCurrentlyExecutingJobCount() throws SchedulerException;
+
+    /**
+     * Return the number of jobs currently executing within this Scheduler
+     * instance per job class.
+     * 返回本实例按任务类统计的正在执行的任务数
+     */
+    Map<String, Integer> getCurrentlyExecutingJobCountByJobClass() throws SchedulerException;
+
     /**
      * Set the <code>JobFactory</code> that will be responsible for producing 
      * instances of <code>Job</code> classes.
@@ -395,12 +418,10 @@ public interface Scheduler {
      * @see JobListener
      * @see TriggerListener
      * @see SchedulerListener
-     *  ###仅用于springboot starter接入用，不做逻辑处理###
+     *  监听器事件由调度器的监听器总线异步投递，见 {@link JobListener#isSynchronous()}
      */
-    @Deprecated
     default ListenerManager getListenerManager()  throws SchedulerException{
-        System.out.println("org.quartz.Scheduler::getListenerManager method is not defined...");
-        return new ListenerManagerImpl();
+        throw new SchedulerException("ListenerManager is not supported by " + getClass().getName());
     }
     
     ///////////////////////////////////////////////////////////////////////////
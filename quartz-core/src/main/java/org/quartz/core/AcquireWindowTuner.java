@@ -0,0 +1,240 @@
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.core;
+
+/**
+ * <p>
+ * Adapts the acquisition window (which is also the loop interval) and the
+ * early-fire tolerance of the <code>{@link QuartzSchedulerThread}</code> from
+ * what the previous loops observed: acquisition latency, the number of
+ * executes found in the window and the saturation of the thread pool.
+ * 根据上一轮观察到的获取耗时、窗口内待执行数量以及线程池饱和度，自适应调整获取窗口(即轮询间隔)与提前触发容差。
+ * </p>
+ *
+ * <p>
+ * Quiet applications drift towards the maximum window and query rarely, busy
+ * ones shrink the window so that fewer executes wait in memory and fire skew
+ * stays small. All values stay within the configured bounds.
+ * 空闲应用趋向最大窗口以减少查询，繁忙应用缩小窗口以降低触发偏差，所有取值均限制在配置范围内。
+ * </p>
+ *
+ * <p>
+ * Only the scheduler thread calls {@link #update}, the getters may be read
+ * from any thread (metrics).
+ * </p>
+ */
+public class AcquireWindowTuner {
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constants.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public static final long DEFAULT_MIN_WINDOW = 1000L;
+
+    public static final long DEFAULT_MAX_WINDOW = 5000L;
+
+    public static final long DEFAULT_MIN_FIRE_TOLERANCE = 4L;
+
+    public static final long DEFAULT_MAX_FIRE_TOLERANCE = 8L;
+
+    public static final int DEFAULT_TARGET_BATCH_SIZE = 1000;
+
+    // 获取耗时最多占窗口的 1/LATENCY_FACTOR
+    private static final long LATENCY_FACTOR = 10L;
+
+    // 线程池使用率超过该值视为饱和
+    private static final double SATURATED = 0.8D;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private final boolean adaptive;
+    private final long minWindow;
+    private final long maxWindow;
+    private final long minFireTolerance;
+    private final long maxFireTolerance;
+    private final int targetBatchSize;
+
+    private volatile long window;
+    private volatile long fireTolerance;
+    private volatile long lastAcquireTime;
+    private volatile int lastAcquireCount;
+    private volatile double poolSaturation;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * @param adaptive         false 时窗口固定为 maxWindow，容差沿用按数量计算的方式
+     * @param minWindow        最小获取窗口(毫秒)
+     * @param maxWindow        最大获取窗口(毫秒)
+     * @param minFireTolerance 最小提前触发容差(毫秒)
+     * @param maxFireTolerance 最大提前触发容差(毫秒)
+     * @param targetBatchSize  单个窗口期望获取的最大执行数
+     */
+    public AcquireWindowTuner(boolean adaptive, long minWindow, long maxWindow, long minFireTolerance, long maxFireTolerance, int targetBatchSize) {
+        if (minWindow < 100L || maxWindow < minWindow) {
+            throw new IllegalArgumentException("Illegal acquire window bounds: " + minWindow + "~" + maxWindow);
+        }
+        if (minFireTolerance < 0L || maxFireTolerance < minFireTolerance) {
+            throw new IllegalArgumentException("Illegal fire tolerance bounds: " + minFireTolerance + "~" + maxFireTolerance);
+        }
+        if (targetBatchSize < 1) {
+            throw new IllegalArgumentException("Target batch size must be positive: " + targetBatchSize);
+        }
+        this.adaptive = adaptive;
+        this.minWindow = minWindow;
+        this.maxWindow = maxWindow;
+        this.minFireTolerance = minFireTolerance;
+        this.maxFireTolerance = maxFireTolerance;
+        this.targetBatchSize = targetBatchSize;
+        this.window = maxWindow;
+        this.fireTolerance = minFireTolerance;
+    }
+
+    public AcquireWindowTuner() {
+        this(true, DEFAULT_MIN_WINDOW, DEFAULT_MAX_WINDOW, DEFAULT_MIN_FIRE_TOLERANCE, DEFAULT_MAX_FIRE_TOLERANCE, DEFAULT_TARGET_BATCH_SIZE);
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Record one acquisition and compute the window to use for the next loop
+     * and the tolerance to use for the executes just acquired.
+     * 记录一次获取，并计算下一轮的窗口以及本轮已获取执行的提前触发容差。
+     * </p>
+     *
+     * @param acquireTime  acquireNextTriggers 耗时(毫秒)
+     * @param acquireCount 本窗口获取到的执行数
+     * @param availThreads 获取前可用线程数
+     * @param poolSize     线程池大小
+     * @return 本轮使用的提前触发容差(毫秒)
+     */
+    public long update(long acquireTime, int acquireCount, int availThreads, int poolSize) {
+        double saturation = poolSize < 1 ? 0D : 1D - ((double) Math.max(availThreads, 0) / poolSize);
+        this.lastAcquireTime = acquireTime;
+        this.lastAcquireCount = acquireCount;
+        this.poolSaturation = saturation;
+
+        // 与原公式一致: 超过目标数量后每多 2 倍目标数量容差 +1ms
+        long ww = minFireTolerance + Math.max(0, acquireCount - targetBatchSize) / (2L * targetBatchSize);
+        if (adaptive && saturation >= SATURATED) {
+            ww++;
+        }
+        this.fireTolerance = clamp(ww, minFireTolerance, maxFireTolerance);
+
+        if (adaptive) {
+            final long current = this.window;
+            long next = current;
+            if (acquireCount > targetBatchSize || saturation >= SATURATED) {
+                // 繁忙: 按目标数量等比缩小，单次最多减半
+                long byDensity = acquireCount > targetBatchSize ? current * targetBatchSize / acquireCount : current * 3 / 4;
+                next = Math.max(byDensity, current / 2);
+            } else if (acquireCount < targetBatchSize / 4) {
+                // 空闲: 每轮放大 1/4
+                next = current + Math.max(current / 4, 1L);
+            }
+            // 查询耗时不能占据窗口太多
+            next = Math.max(next, acquireTime * LATENCY_FACTOR);
+            this.window = clamp(next, minWindow, maxWindow);
+        }
+        return this.fireTolerance;
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    /**
+     * 当前获取窗口(毫秒)，同时也是轮询间隔
+     */
+    public long getWindow() {
+        return window;
+    }
+
+    /**
+     * 当前提前触发容差(毫秒)
+     */
+    public long getFireTolerance() {
+        return fireTolerance;
+    }
+
+    public long getLastAcquireTime() {
+        return lastAcquireTime;
+    }
+
+    public int getLastAcquireCount() {
+        return lastAcquireCount;
+    }
+
+    public double getPoolSaturation() {
+        return poolSaturation;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    public long getMinWindow() {
+        return minWindow;
+    }
+
+    public long getMaxWindow() {
+        return maxWindow;
+    }
+
+    public long getMinFireTolerance() {
+        return minFireTolerance;
+    }
+
+    public long getMaxFireTolerance() {
+        return maxFireTolerance;
+    }
+
+    public int getTargetBatchSize() {
+        return targetBatchSize;
+    }
+
+    @Override
+    public String toString() {
+        return "AcquireWindowTuner{window=" + window + ", fireTolerance=" + fireTolerance
+                + ", lastAcquireTime=" + lastAcquireTime + ", lastAcquireCount=" + lastAcquireCount
+                + ", poolSaturation=" + poolSaturation + "}";
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.core;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.quartz.SchedulerException;
+import org.quartz.impl.QrtzExecute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Releases the catch-up runs of misfired executes (see
+ * {@link org.quartz.MisfirePolicy}) gradually: the cluster recovery queues
+ * them in a bounded queue and this thread hands them to the thread pool at
+ * most <code>rate</code> per second, and only while the pool has free
+ * threads, so a node recovering from a long pause does not start thousands
+ * of runs at once. Runs that don't fit in the queue are dropped and counted.
+ * A run the thread pool refuses is queued again at the tail; a run whose job
+ * cannot be instantiated is dropped and counted, retrying would fail alike.
+ * 逐步放行熄火执行项的补偿执行(见 MisfirePolicy)：集群恢复将其放入有界队列，本线程每秒至多放行 rate 个且仅在线程池有空闲线程时放行，
+ * 避免长时间停顿后恢复的节点一次启动大量任务；队列已满的补偿执行被丢弃并计数。
+ * 线程池拒绝的补偿执行重新放入队尾；任务无法实例化的补偿执行(重试同样失败)被丢弃并计数。
+ * </p>
+ *
+ * <p>
+ * The execute row is not touched by a catch-up run, its schedule was already
+ * moved past now by the recovery.
+ * 补偿执行不修改执行项记录，其计划已由恢复过程调整到当前时间之后。
+ * </p>
+ */
+public class CatchUpDispatcher implements Runnable {
+
+    public static final int DEFAULT_QUEUE_SIZE = 1000;
+
+    public static final double DEFAULT_RATE = 10D;
+
+    private static final Logger LOG = LoggerFactory.getLogger(CatchUpDispatcher.class);
+
+    // 线程池无空闲线程时的重试间隔
+    private static final long BUSY_WAIT_MILLIS = 50L;
+
+    private final QuartzScheduler qs;
+
+    private final QuartzSchedulerResources qsRsrcs;
+
+    private final BlockingQueue<CatchUp> queue;
+
+    // 两次放行之间的最小间隔
+    private final long intervalNanos;
+
+    private final LongAdder missed = new LongAdder();
+
+    private final LongAdder fired = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean halted = false;
+
+    private volatile Thread thread;
+
+    /**
+     * @param queueSize capacity of the catch-up queue
+     * @param rate      catch-up runs released per second at most
+     */
+    public CatchUpDispatcher(QuartzScheduler qs, QuartzSchedulerResources qsRsrcs, int queueSize, double rate) {
+        if (queueSize < 1) {
+            throw new IllegalArgumentException("Catch-up queue size must be positive.");
+        }
+        if (rate <= 0D) {
+            throw new IllegalArgumentException("Catch-up rate must be positive.");
+        }
+        this.qs = qs;
+        this.qsRsrcs = qsRsrcs;
+        this.queue = new ArrayBlockingQueue<CatchUp>(queueSize);
+        this.intervalNanos = (long) (1000000000D / rate);
+    }
+
+    /**
+     * Start the dispatcher thread, a no-op when already started.
+     */
+    public synchronized void start(String threadName, boolean daemon) {
+        if (thread != null || halted) {
+            return;
+        }
+        Thread t = new Thread(this, threadName);
+        t.setDaemon(daemon);
+        thread = t;
+        t.start();
+    }
+
+    /**
+     * <p>
+     * Record the fires an execute missed and queue its catch-up runs.
+     * 记录执行项错过的触发数并将补偿执行入队
+     * </p>
+     *
+     * @param execute        the recovered execute, with its job and job class
+     * @param missedCount    fires the execute missed
+     * @param catchUpTimes   scheduled fire times of the runs to catch up, oldest first
+     * @return the number of runs queued
+     */
+    public int enqueue(QrtzExecute execute, int missedCount, List<Long> catchUpTimes) {
+        missed.add(missedCount);
+        int ct = 0;
+        for (Long scheduledFireTime : catchUpTimes) {
+            if (!queue.offer(new CatchUp(execute, scheduledFireTime))) {
+                dropped.add(catchUpTimes.size() - ct);
+                LOG.warn("补偿执行队列已满,丢弃:{}次,{}", catchUpTimes.size() - ct, execute.getId());
+                break;
+            }
+            ct++;
+        }
+        return ct;
+    }
+
+    @Override
+    public void run() {
+        long nextReleaseNanos = System.nanoTime();
+        while (!halted) {
+            try {
+                CatchUp catchUp = queue.poll(1000L, TimeUnit.MILLISECONDS);
+                if (catchUp == null) {
+                    continue;
+                }
+                long wait;
+                while (!halted && (wait = nextReleaseNanos - System.nanoTime()) > 0L) {
+                    LockSupport.parkNanos(wait);
+                }
+                while (!halted && (qs.isInStandbyMode() || qsRsrcs.getThreadPool().getAvailableThreadCount() < 1)) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(BUSY_WAIT_MILLIS));
+                }
+                if (halted) {
+                    break;
+                }
+                if (dispatch(catchUp)) {
+                    nextReleaseNanos = System.nanoTime() + intervalNanos;
+                }
+            } catch (InterruptedException e) {
+                // 由 shutdown 唤醒
+            } catch (Throwable e) {
+                LOG.error("补偿执行异常:{}", qsRsrcs.getName(), e);
+            }
+        }
+    }
+
+    boolean dispatch(CatchUp catchUp) {
+        final QrtzExecute row = catchUp.execute;
+        final QrtzExecute ce = QrtzExecute.build(row.getId(), row.getPid(), row.getJobType(), row.getState(), row.getCron(), row.getZoneId(),
+                row.getRepeatCount(), row.getRepeatInterval(), row.getTimeTriggered(), row.getPrevFireTime(), row.getNextFireTime(),
+                row.getHostIp(), row.getHostName(), row.getStartTime(), row.getEndTime());
+        ce.setJob(row.getJob());
+        ce.setJobClazz(row.getJobClazz());
+        ce.setScheduledFireTime(catchUp.scheduledFireTime);
+        ce.setFireTime(System.currentTimeMillis());
+        JobRunShell shell;
+        try {
+            shell = qsRsrcs.getJobRunShellFactory().createJobRunShell(ce);
+            shell.initialize(qs);
+            shell.setClaimedNanos(System.nanoTime());
+        } catch (SchedulerException se) {
+            dropped.increment();
+            LOG.error("补偿执行任务初始化失败,丢弃:{},计划时间:{}", ce.getId(), catchUp.scheduledFireTime, se);
+            return false;
+        }
+        if (!qsRsrcs.getThreadPool().runInThread(shell)) {
+            // 空闲线程被其它任务抢先占用或线程池已关闭：重新入队，队列已满时丢弃
+            if (!queue.offer(catchUp)) {
+                dropped.increment();
+                LOG.warn("补偿执行队列已满,丢弃:1次,{}", ce.getId());
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(BUSY_WAIT_MILLIS));
+            return false;
+        }
+        fired.increment();
+        qsRsrcs.getSampledStatistics().jobFired();
+        LOG.info("补偿执行:{},{}-{},计划时间:{}", ce.getId(), ce.getJobType(), ce.getJob().getJobClass(), catchUp.scheduledFireTime);
+        return true;
+    }
+
+    public void shutdown() {
+        halted = true;
+        Thread t = thread;
+        if (t != null) {
+            t.interrupt();
+            try {
+                t.join(2000L);
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * @return fires missed by the executes recovered on this node
+     */
+    public long getMissedCount() {
+        return missed.sum();
+    }
+
+    /**
+     * @return catch-up runs started on this node
+     */
+    public long getFiredCount() {
+        return fired.sum();
+    }
+
+    /**
+     * @return catch-up runs dropped because the queue was full or the job
+     * could not be instantiated
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    static final class CatchUp {
+        private final QrtzExecute execute;
+        private final long scheduledFireTime;
+
+        CatchUp(QrtzExecute execute, long scheduledFireTime) {
+            this.execute = execute;
+            this.scheduledFireTime = scheduledFireTime;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package org.quartz.core;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.quartz.impl.QrtzNode;
+import org.quartz.spi.JobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Token bucket rate limits applied by the <code>{@link QuartzSchedulerThread}</code>
+ * before a fire is claimed: one bucket for the whole application and one per
+ * configured job class. Rates are cluster wide (permits per second) and are
+ * split evenly among the live nodes of the application (QRTZ_NODE rows with
+ * state Y), which are re-counted periodically.
+ * 抢占前执行的令牌桶限流：应用一个桶，配置的任务类各一个桶；速率为集群总量(每秒许可数)，
+ * 按应用下存活节点(QRTZ_NODE 状态为Y)均分，节点数定期重新统计。
+ * </p>
+ *
+ * <p>
+ * A throttled fire is not lost: the caller moves its NEXT_FIRE_TIME to the
+ * time returned by {@link #acquire}, so the execute is acquired again (by any
+ * node) once a permit is expected. Deferred fires of one bucket are spaced at
+ * the bucket's rate.
+ * 被限流的触发不会丢弃：调用方将其 NEXT_FIRE_TIME 改为 acquire 返回的时间，待有许可时再由任一节点获取；同一桶内被推迟的触发按该桶速率错开。
+ * </p>
+ *
+ * <p>
+ * Only the scheduler thread acquires permits, the getters may be read from
+ * any thread (metrics).
+ * </p>
+ */
+public class DispatchRateLimiter {
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constants.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public static final long DEFAULT_NODE_REFRESH_INTERVAL = 10000L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(DispatchRateLimiter.class);
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    // 应用维度，未配置时为null
+    private final TokenBucket application;
+
+    // 任务类维度，未配置的任务类不限流
+    private final Map<String, TokenBucket> jobClasses;
+
+    private final long nodeRefreshInterval;
+
+    private volatile int liveNodes = 1;
+
+    private long nodesRefreshedAt = 0L;
+
+    private final LongAdder deferred = new LongAdder();
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * @param applicationRate     cluster wide permits per second of the application, 0 for no limit
+     * @param jobClassRates       cluster wide permits per second by job class
+     * @param nodeRefreshInterval interval (ms) at which the live nodes are re-counted
+     */
+    public DispatchRateLimiter(double applicationRate, Map<String, Double> jobClassRates, long nodeRefreshInterval) {
+        if (applicationRate < 0D) {
+            throw new IllegalArgumentException("application rate must not be negative: " + applicationRate);
+        }
+        if (nodeRefreshInterval < 1L) {
+            throw new IllegalArgumentException("node refresh interval must be positive: " + nodeRefreshInterval);
+        }
+        this.application = applicationRate > 0D ? new TokenBucket(applicationRate) : null;
+        Map<String, TokenBucket> buckets = new HashMap<String, TokenBucket>();
+        if (null != jobClassRates) {
+            for (Map.Entry<String, Double> e : jobClassRates.entrySet()) {
+                if (null == e.getValue() || e.getValue() <= 0D) {
+                    throw new IllegalArgumentException("rate of " + e.getKey() + " must be positive: " + e.getValue());
+                }
+                buckets.put(e.getKey(), new TokenBucket(e.getValue()));
+            }
+        }
+        this.jobClasses = Collections.unmodifiableMap(buckets);
+        this.nodeRefreshInterval = nodeRefreshInterval;
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Take a permit for one fire of the job class.
+     * 为任务类的一次触发获取许可
+     * </p>
+     *
+     * @return 0 when permitted, otherwise the time (ms) the fire should be deferred to
+     */
+    public long acquire(String jobClass, long nowMillis) {
+        final long nowNanos = System.nanoTime();
+        final TokenBucket cls = jobClasses.get(jobClass);
+        if (null != cls && !cls.tryAcquire(nowNanos)) {
+            deferred.increment();
+            return cls.deferUntil(nowMillis);
+        }
+        if (null != application && !application.tryAcquire(nowNanos)) {
+            if (null != cls) {
+                cls.refund();
+            }
+            deferred.increment();
+            return application.deferUntil(nowMillis);
+        }
+        return 0L;
+    }
+
+    /**
+     * 到期时重新统计应用下存活节点数(QRTZ_NODE 状态为Y)，并据此调整本节点速率
+     */
+    public void refreshLiveNodes(JobStore jobStore, String applicationName, long nowMillis) {
+        if (nowMillis - nodesRefreshedAt < nodeRefreshInterval) {
+            return;
+        }
+        nodesRefreshedAt = nowMillis;
+        try {
+            List<QrtzNode> nodes = jobStore.getNodeByApp(applicationName);
+            int live = 0;
+            if (null != nodes) {
+                for (QrtzNode node : nodes) {
+                    if ("Y".equals(node.getState())) {
+                        live++;
+                    }
+                }
+            }
+            setLiveNodes(live);
+        } catch (Exception e) {
+            LOG.error("统计存活节点异常,沿用上次节点数:{}", liveNodes, e);
+        }
+    }
+
+    void setLiveNodes(int live) {
+        final int n = Math.max(1, live);
+        if (n == liveNodes) {
+            return;
+        }
+        liveNodes = n;
+        if (null != application) {
+            application.setNodes(n);
+        }
+        for (TokenBucket bucket : jobClasses.values()) {
+            bucket.setNodes(n);
+        }
+    }
+
+    public int getLiveNodes() {
+        return liveNodes;
+    }
+
+    /**
+     * 因限流被推迟的触发数
+     */
+    public long getDeferredCount() {
+        return deferred.sum();
+    }
+
+    /**
+     * 本节点当前的速率(每秒许可数) 应用维度键为 application，任务类维度键为类名
+     */
+    public Map<String, Double> getNodeRates() {
+        Map<String, Double> rates = new HashMap<String, Double>();
+        if (null != application) {
+            rates.put("application", application.getRate());
+        }
+        for (Map.Entry<String, TokenBucket> e : jobClasses.entrySet()) {
+            rates.put(e.getKey(), e.getValue().getRate());
+        }
+        return rates;
+    }
+
+    /**
+     * 令牌桶，容量为本节点1秒的许可数(至少1个)
+     */
+    static final class TokenBucket {
+        private final double clusterRate;
+        private double rate;
+        private double capacity;
+        private double tokens;
+        private long lastNanos;
+        // 下一个可推迟到的时间(毫秒)，用于错开被推迟的触发
+        private long nextDeferSlot;
+
+        TokenBucket(double clusterRate) {
+            this.clusterRate = clusterRate;
+            this.lastNanos = System.nanoTime();
+            setNodes(1);
+            this.tokens = capacity;
+        }
+
+        synchronized void setNodes(int nodes) {
+            this.rate = clusterRate / nodes;
+            this.capacity = Math.max(1D, rate);
+            this.tokens = Math.min(tokens, capacity);
+        }
+
+        synchronized boolean tryAcquire(long nowNanos) {
+            refill(nowNanos);
+            if (tokens >= 1D) {
+                tokens -= 1D;
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void refund() {
+            tokens = Math.min(capacity, tokens + 1D);
+        }
+
+        synchronized long deferUntil(long nowMillis) {
+            final long interval = Math.max(1L, (long) Math.ceil(1000D / rate));
+            final long available = nowMillis + (long) Math.ceil((1D - tokens) * 1000D / rate);
+            final long slot = Math.max(nextDeferSlot, available);
+            nextDeferSlot = slot + interval;
+            return slot;
+        }
+
+        synchronized double getRate() {
+            return rate;
+        }
+
+        private void refill(long nowNanos) {
+            final long elapsed = nowNanos - lastNanos;
+            if (elapsed > 0L) {
+                tokens = Math.min(capacity, tokens + elapsed * rate / 1000000000D);
+                lastNanos = nowNanos;
+            }
+        }
+    }
+}
@@ -0,0 +1,324 @@
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.quartz.impl.QrtzExecuteHistory;
+import org.quartz.spi.JobStore;
+import org.quartz.utils.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Persists the execution history of one scheduler without putting an INSERT
+ * on the worker threads: the <code>{@link JobRunShell}</code> publishes each
+ * run into a bounded lock-free ring buffer, and a single background thread
+ * drains it and writes JDBC batches through the <code>JobStore</code>.
+ * 执行记录异步批量写入: JobRunShell 将每次执行写入有界无锁环形缓冲区，由单个后台线程批量写入数据库，工作线程不再同步执行INSERT。
+ * </p>
+ *
+ * <p>
+ * When the buffer is full the {@link OverflowPolicy} decides whether the
+ * record is dropped (default) or the worker waits for room. Records older
+ * than the retention are deleted by the writer once an hour.
+ * 缓冲区满时按溢出策略丢弃(默认)或等待；超过保留天数的记录每小时清理一次。
+ * </p>
+ */
+public class ExecuteHistoryWriter implements Runnable {
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constants.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    public static final long DEFAULT_FLUSH_INTERVAL = 200L;
+
+    public static final int DEFAULT_RETENTION_DAYS = 30;
+
+    // 异常信息最大长度，与表字段一致
+    static final int MAX_ERROR_LENGTH = 255;
+
+    private static final long ONE_DAY = 86400_000L;
+
+    private static final long CLEAR_INTERVAL = 3600_000L;
+
+    // BLOCK 策略下每次等待的时间
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200L);
+
+    // 停止时等待剩余记录写入的最长时间
+    private static final long SHUTDOWN_FLUSH_TIMEOUT = 5000L;
+
+    /**
+     * 缓冲区满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 丢弃该条记录并计数 */
+        DROP,
+        /** 工作线程等待直至有空位(写入线程停止后丢弃) */
+        BLOCK
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecuteHistoryWriter.class);
+
+    private final JobStore jobStore;
+    private final String application;
+    private final RingBuffer<QrtzExecuteHistory> buffer;
+    private final int batchSize;
+    private final long flushInterval;
+    private final OverflowPolicy overflowPolicy;
+    private final int retentionDays;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile Thread thread;
+    private volatile boolean halted = false;
+    private long lastClearTime = 0L;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * @param jobStore       写入执行记录的 JobStore
+     * @param application    调度名称/应用名称
+     * @param bufferSize     缓冲区大小(向上取2的幂)
+     * @param batchSize      单批写入的最大条数
+     * @param flushInterval  缓冲区为空时的轮询间隔(毫秒)
+     * @param overflowPolicy 缓冲区满时的处理策略
+     * @param retentionDays  保留天数，&lt;1 时不清理
+     */
+    public ExecuteHistoryWriter(JobStore jobStore, String application, int bufferSize, int batchSize, long flushInterval, OverflowPolicy overflowPolicy, int retentionDays) {
+        if (jobStore == null || application == null) {
+            throw new IllegalArgumentException("JobStore and application cannot be null.");
+        }
+        if (batchSize < 1 || batchSize > bufferSize) {
+            throw new IllegalArgumentException("Illegal execute history batch size: " + batchSize + " (buffer " + bufferSize + ")");
+        }
+        if (flushInterval < 10L) {
+            throw new IllegalArgumentException("Execute history flush interval must be at least 10 ms: " + flushInterval);
+        }
+        this.jobStore = jobStore;
+        this.application = application;
+        this.buffer = new RingBuffer<QrtzExecuteHistory>(bufferSize);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP : overflowPolicy;
+        this.retentionDays = retentionDays;
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * Start the background writer thread, a no-op when already started.
+     */
+    public synchronized void start(String threadName, boolean daemon) {
+        if (thread != null || halted) {
+            return;
+        }
+        Thread t = new Thread(this, threadName);
+        t.setDaemon(daemon);
+        thread = t;
+        t.start();
+    }
+
+    /**
+     * <p>
+     * Publish one run, called from the worker threads. Never throws and never
+     * touches the database.
+     * 发布一次执行记录(工作线程调用)，不抛异常，也不访问数据库
+     * </p>
+     *
+     * @return false when the record was dropped
+     */
+    public boolean publish(QrtzExecuteHistory history) {
+        published.increment();
+        if (buffer.offer(history)) {
+            return true;
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (!halted && thread != null) {
+                LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                if (buffer.offer(history)) {
+                    return true;
+                }
+            }
+        }
+        dropped.increment();
+        return false;
+    }
+
+    @Override
+    public void run() {
+        final List<QrtzExecuteHistory> batch = new ArrayList<QrtzExecuteHistory>(batchSize);
+        while (!halted) {
+            try {
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    clearExpired();
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushInterval));
+                    continue;
+                }
+                flush(batch);
+            } catch (Throwable e) {
+                LOG.error("执行记录写入线程异常:{}", application, e);
+                batch.clear();
+            }
+        }
+        // 停止前尽量写入剩余记录
+        final long deadline = System.currentTimeMillis() + SHUTDOWN_FLUSH_TIMEOUT;
+        while (buffer.drainTo(batch, batchSize) > 0 && System.currentTimeMillis() < deadline) {
+            flush(batch);
+        }
+        int remaining = buffer.size();
+        if (remaining > 0) {
+            dropped.add(remaining);
+            LOG.warn("执行记录写入线程停止，丢弃未写入记录:{}条", remaining);
+        }
+    }
+
+    private void flush(List<QrtzExecuteHistory> batch) {
+        try {
+            int ct = jobStore.storeExecuteHistory(batch);
+            written.add(ct);
+            if (ct < batch.size()) {
+                failed.add(batch.size() - ct);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    private void clearExpired() {
+        if (retentionDays < 1) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        if (now - lastClearTime < CLEAR_INTERVAL) {
+            return;
+        }
+        lastClearTime = now;
+        int ct = jobStore.clearExecuteHistory(application, now - retentionDays * ONE_DAY);
+        if (ct > 0) {
+            LOG.info(".....已清理执行记录 {}条.....", ct);
+        }
+    }
+
+    /**
+     * Stop the writer thread, waiting (bounded) for buffered records to be written.
+     */
+    public void shutdown() {
+        halted = true;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(SHUTDOWN_FLUSH_TIMEOUT + flushInterval);
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * The root cause of the error, truncated to the column size.
+     */
+    static String truncateError(Throwable e) {
+        if (e == null) {
+            return null;
+        }
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String msg = root.getClass().getName() + ": " + root.getMessage();
+        return msg.length() > MAX_ERROR_LENGTH ? msg.substring(0, MAX_ERROR_LENGTH) : msg;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    /**
+     * 缓冲区中待写入的记录数
+     */
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    /**
+     * 因缓冲区满或停止而丢弃的记录数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * 写入数据库失败的记录数
+     */
+    public long getFailedCount() {
+        return failed.sum();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.core;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.quartz.SchedulerException;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.simpl.SystemPropGenerator;
+import org.quartz.spi.JobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Watches the QRTZ_SIGNAL table written by the client's "fire now" API on a
+ * short interval, independently of the acquisition window of the
+ * <code>{@link QuartzSchedulerThread}</code>. A signal is claimed by
+ * deleting its row, so exactly one node runs it; the execute row itself is
+ * not touched and its schedule carries on unchanged.
+ * 短间隔轮询客户端"立即执行"写入的 QRTZ_SIGNAL 表，不受调度线程获取窗口影响。
+ * 删除信号行即抢占成功(集群内只有一个节点执行)，执行项本身不做修改，原有计划不变。
+ * </p>
+ *
+ * <p>
+ * Signals are only claimed while this node has free worker threads, so a
+ * saturated node leaves them to the rest of the cluster.
+ * <code>signalSchedulingChange</code> wakes the watcher immediately.
+ * 仅在本节点有空闲工作线程时抢占信号，饱和节点交由集群其它节点处理；signalSchedulingChange 会立即唤醒轮询。
+ * </p>
+ */
+public class FireNowWatcher implements Runnable {
+
+    // 默认不启用(需先建 QRTZ_SIGNAL 表)，建议启用时配置为200毫秒左右
+    public static final long DEFAULT_POLL_INTERVAL = 0L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(FireNowWatcher.class);
+
+    private final QuartzScheduler qs;
+
+    private final QuartzSchedulerResources qsRsrcs;
+
+    private final long pollInterval;
+
+    private final LongAdder dispatched = new LongAdder();
+
+    private volatile boolean halted = false;
+
+    private volatile Thread thread;
+
+    /**
+     * @param pollInterval poll interval in milliseconds, e.g. 200
+     */
+    public FireNowWatcher(QuartzScheduler qs, QuartzSchedulerResources qsRsrcs, long pollInterval) {
+        if (pollInterval < 1) {
+            throw new IllegalArgumentException("Fire now poll interval must be positive.");
+        }
+        this.qs = qs;
+        this.qsRsrcs = qsRsrcs;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Start the watcher thread, a no-op when already started.
+     */
+    public synchronized void start(String threadName, boolean daemon) {
+        if (thread != null || halted) {
+            return;
+        }
+        Thread t = new Thread(this, threadName);
+        t.setDaemon(daemon);
+        thread = t;
+        t.start();
+    }
+
+    /**
+     * Poll right away instead of waiting for the rest of the interval.
+     */
+    public void wakeUp() {
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (!halted) {
+            try {
+                pollOnce();
+            } catch (Throwable e) {
+                LOG.error("立即执行信号轮询异常:{}", qsRsrcs.getName(), e);
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(pollInterval));
+        }
+    }
+
+    /**
+     * <p>
+     * Claim and run the pending signals that fit in the free worker threads.
+     * 抢占并执行空闲工作线程数以内的待执行信号
+     * </p>
+     *
+     * @return the number of executes handed to the thread pool
+     */
+    int pollOnce() {
+        if (qs != null && (qs.isInStandbyMode() || qs.isShuttingDown())) {
+            return 0;
+        }
+        final int available = qsRsrcs.getThreadPool().getAvailableThreadCount();
+        if (available < 1) {
+            return 0;
+        }
+        final JobStore jobStore = qsRsrcs.getJobStore();
+        final String application = jobStore.getInstanceName();
+        if (!"Y".equals(jobStore.findNodeStateByPK(application, SystemPropGenerator.hostIP()))) {
+            return 0;
+        }
+        List<QrtzExecute> executes = jobStore.acquireFireNowSignals(application, available);
+        int ct = 0;
+        for (QrtzExecute ce : executes) {
+            final long now = System.currentTimeMillis();
+            ce.setScheduledFireTime(now);
+            ce.setFireTime(now);
+            JobRunShell shell;
+            try {
+                shell = qsRsrcs.getJobRunShellFactory().createJobRunShell(ce);
+                shell.initialize(qs);
+                shell.setClaimedNanos(System.nanoTime());
+            } catch (SchedulerException se) {
+                LOG.error("立即执行任务初始化失败:{},{}", ce.getPid(), ce.getId(), se);
+                continue;
+            }
+            if (qsRsrcs.getThreadPool().runInThread(shell)) {
+                ct++;
+                dispatched.increment();
+                qsRsrcs.getSampledStatistics().jobFired();
+                LOG.info("立即执行:{},{}-{}", ce.getId(), ce.getJobType(), ce.getJob().getJobClass());
+            }
+        }
+        return ct;
+    }
+
+    public void shutdown() {
+        halted = true;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(pollInterval * 2);
+            } catch (InterruptedException ignore) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public long getPollInterval() {
+        return pollInterval;
+    }
+
+    /**
+     * @return executes started by a fire now signal on this node
+     */
+    public long getDispatchCount() {
+        return dispatched.sum();
+    }
+}
@@ -0,0 +1,71 @@
+package org.quartz.core;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Fires of one scheduler counted by the second of the minute they were
+ * dispatched at, showing how flat the load curve over a minute is (e.g.
+ * before and after enabling {@link org.quartz.FireJitter}).
+ * 单个调度器按触发所在的秒(一分钟内)统计的触发数，用以观察一分钟内负载曲线的平坦程度(如启用 FireJitter 前后)。
+ * </p>
+ */
+public class FireSpreadStatistics {
+
+    private final LongAdder[] bySecond = new LongAdder[60];
+
+    private final LongAdder jittered = new LongAdder();
+
+    public FireSpreadStatistics() {
+        for (int i = 0; i < bySecond.length; i++) {
+            bySecond[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @param fireTime 实际触发时间(毫秒)
+     * @param jitter   是否为错峰触发
+     */
+    public void record(long fireTime, boolean jitter) {
+        bySecond[(int) ((fireTime / 1000L) % 60L)].increment();
+        if (jitter) {
+            jittered.increment();
+        }
+    }
+
+    /**
+     * 按秒(0~59)统计的触发数
+     */
+    public long[] getFiresBySecondOfMinute() {
+        long[] counts = new long[bySecond.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = bySecond[i].sum();
+        }
+        return counts;
+    }
+
+    /**
+     * 峰值秒触发数与平均秒触发数之比(x100)，完全平坦时为100，无触发时为0
+     */
+    public long getPeakToMeanRatio() {
+        long total = 0L;
+        long peak = 0L;
+        for (LongAdder adder : bySecond) {
+            long c = adder.sum();
+            total += c;
+            peak = Math.max(peak, c);
+        }
+        return total == 0L ? 0L : peak * 100L * bySecond.length / total;
+    }
+
+    public long getJitteredFireCount() {
+        return jittered.sum();
+    }
+
+    public void reset() {
+        for (LongAdder adder : bySecond) {
+            adder.reset();
+        }
+        jittered.reset();
+    }
+}
@@ -0,0 +1,175 @@
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.core;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.SchedulerException;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.spi.JobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Triggers the persisted chain successors (QRTZ_JOB_CHAIN) of a job as soon
+ * as it completes, instead of waiting for their own schedule. A successor
+ * execute is claimed with the same optimistic update as a scheduled fire and
+ * run on a local worker thread; when the local pool is saturated its next
+ * fire time is pulled in to <code>now + fallbackDelay</code> so that any node
+ * of the cluster picks it up with the next acquisition.
+ * 任务完成后立即触发任务链(QRTZ_JOB_CHAIN)中的下游任务：与定时触发相同的乐观锁抢占执行项后交给本地线程池，
+ * 本地无空闲线程时将下游的下次触发时间提前至 now+fallbackDelay，由集群任意节点在下一次获取时执行。
+ * </p>
+ *
+ * <p>
+ * A successor whose own next fire time already falls within the acquisition
+ * window is left alone: it may already be held by a scheduler thread, and
+ * it fires on schedule anyway. Successors that should only run as part of a
+ * chain can be given a far-future cron or a large simple interval.
+ * 下次触发时间已落在获取窗口内的下游不做处理(可能已被调度线程获取，且很快会按计划触发)；
+ * 只需随上游触发的下游任务可配置一个足够远的cron或间隔。
+ * </p>
+ */
+public class JobChainDispatcher {
+
+    // 本地饱和时下游下次触发时间提前至 now+该值(毫秒)
+    public static final long DEFAULT_FALLBACK_DELAY = 1000L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(JobChainDispatcher.class);
+
+    private final QuartzScheduler qs;
+
+    private final QuartzSchedulerResources qsRsrcs;
+
+    private final LongAdder localDispatched = new LongAdder();
+
+    private final LongAdder clusterFallbacks = new LongAdder();
+
+    private final LongAdder claimsLost = new LongAdder();
+
+    public JobChainDispatcher(QuartzScheduler qs, QuartzSchedulerResources qsRsrcs) {
+        this.qs = qs;
+        this.qsRsrcs = qsRsrcs;
+    }
+
+    /**
+     * <p>
+     * Called on the worker thread once a job has finished for good (not
+     * vetoed, no refire pending).
+     * 任务最终完成后(未被否决且不再重试)在工作线程上调用
+     * </p>
+     *
+     * @param succeeded whether the job finished without an exception
+     */
+    public void onJobCompleted(JobExecutionContext jec, boolean succeeded) {
+        final JobStore jobStore = qsRsrcs.getJobStore();
+        final String application = jobStore.getInstanceName();
+        List<QrtzExecute> successors;
+        try {
+            successors = jobStore.findChainSuccessors(application, jec.getJobId(), succeeded);
+        } catch (Exception e) {
+            LOG.error("查询任务链下游任务异常:{}", jec.getKeyNote(), e);
+            return;
+        }
+        for (QrtzExecute ce : successors) {
+            try {
+                dispatch(ce);
+            } catch (Exception e) {
+                LOG.error("触发任务链下游任务异常:{}->{}", jec.getKeyNote(), ce.getId(), e);
+            }
+        }
+    }
+
+    private void dispatch(QrtzExecute ce) {
+        final long now = System.currentTimeMillis();
+        final long endTime = (null == ce.getEndTime() || ce.getEndTime() < 1) ? -1 : ce.getEndTime();
+        if ((endTime > 0 && endTime < now) || (null != ce.getStartTime() && ce.getStartTime() > now)) {
+            return;
+        }
+        // 已在获取窗口内：可能已被调度线程获取，交给定时触发
+        if (ce.getNextFireTime() <= now + qsRsrcs.getAcquireWindowTuner().getMaxWindow()) {
+            return;
+        }
+        final long oldPrevTime = ce.getPrevFireTime();
+        final long oldNextTime = ce.getNextFireTime();
+        final String oldState = ce.getState();
+        QrtzExecute newCe = QrtzExecute.build(ce.getId(), ce.getPid(), ce.getJobType(), ce.getState(), ce.getCron(), ce.getZoneId(), ce.getRepeatCount(), ce.getRepeatInterval(), ce.getTimeTriggered(), ce.getPrevFireTime(), ce.getNextFireTime(), ce.getHostIp(), ce.getHostName(), ce.getStartTime(), ce.getEndTime());
+        if (qsRsrcs.getThreadPool().getAvailableThreadCount() < 1) {
+            // 本地饱和：提前下次触发时间，由集群获取；此后按原计划继续计算下次触发时间
+            newCe.setNextFireTime(now + qsRsrcs.getJobChainFallbackDelay());
+            if (qsRsrcs.getJobStore().toLockAndUpdate(newCe, oldState, oldPrevTime, oldNextTime) > 0) {
+                clusterFallbacks.increment();
+            } else {
+                claimsLost.increment();
+            }
+            return;
+        }
+        // 本地执行：PREV_FIRE_TIME 作为本次触发时间，NEXT_FIRE_TIME 保持原计划
+        newCe.setPrevFireTime(now);
+        final long claimStart = System.nanoTime();
+        if (qsRsrcs.getJobStore().toLockAndUpdate(newCe, oldState, oldPrevTime, oldNextTime) < 1) {
+            claimsLost.increment();
+            qsRsrcs.getSampledStatistics().claimLost();
+            return;
+        }
+        final long claimedNanos = System.nanoTime();
+        qsRsrcs.getSampledStatistics().claimWon();
+        qs.getTimingStatistics().record(TimingStatistics.Phase.CLAIM_UPDATE, ce.getJob().getJobClass(), (claimedNanos - claimStart) / 1000L);
+        ce.setPrevFireTime(now);
+        ce.setScheduledFireTime(now);
+        ce.setFireTime(now);
+        JobRunShell shell;
+        try {
+            shell = qsRsrcs.getJobRunShellFactory().createJobRunShell(ce);
+            shell.initialize(qs);
+            shell.setClaimedNanos(claimedNanos);
+        } catch (SchedulerException se) {
+            LOG.error("任务链下游任务初始化异常:{},{}", ce.getPid(), ce.getId(), se);
+            return;
+        }
+        if (qsRsrcs.getThreadPool().runInThread(shell)) {
+            localDispatched.increment();
+            qsRsrcs.getSampledStatistics().jobFired();
+        }
+    }
+
+    /**
+     * @return successors run on a local worker thread
+     */
+    public long getLocalDispatchCount() {
+        return localDispatched.sum();
+    }
+
+    /**
+     * @return successors handed over to the cluster because the local pool was saturated
+     */
+    public long getClusterFallbackCount() {
+        return clusterFallbacks.sum();
+    }
+
+    /**
+     * @return successors whose execute row was changed by another node first
+     */
+    public long getClaimLostCount() {
+        return claimsLost.sum();
+    }
+}
@@ -23,11 +23,14 @@ import org.quartz.JobDetail;
 import org.quartz.JobExecutionException;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
+import org.quartz.core.TimingStatistics.Phase;
 import org.quartz.impl.JobDetailImpl;
 import org.quartz.impl.JobExecutionContextImpl;
 import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzExecuteHistory;
 import org.quartz.impl.triggers.CronTriggerImpl;
 import org.quartz.impl.triggers.SimpleTriggerImpl;
+import org.quartz.simpl.SystemPropGenerator;
 import org.quartz.spi.OperableTrigger;
 import org.quartz.spi.TriggerFiredBundle;
 import org.slf4j.Logger;
@@ -77,6 +80,17 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
 
     protected volatile boolean shutdownRequested = false;
 
+    // 抢锁成功时的 nanoTime，0 表示未知
+    private long claimedNanos = 0L;
+
+    // 抢占时已写入执行中记录，结束时须删除
+    private boolean inFlight = false;
+
+    // 本次执行的开始时间、重复点火次数及异常，供 complete 写入执行记录
+    private long runStartTime = 0L;
+    private int runRefireCount = 0;
+    private JobExecutionException runException = null;
+
     private final Logger log = LoggerFactory.getLogger(getClass());
 
     /*
@@ -165,6 +179,24 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
         this.jec = new JobExecutionContextImpl(this.scheduler,job,keyNote,this.eJob);
     }
 
+    /**
+     * <p>
+     * Set the <code>System.nanoTime()</code> at which the execute was claimed,
+     * so that the claim to start delay can be recorded.
+     * 设置抢锁成功时的nanoTime，用于统计抢锁到开始执行的耗时
+     * </p>
+     */
+    void setClaimedNanos(long claimedNanos) {
+        this.claimedNanos = claimedNanos;
+    }
+
+    /**
+     * 由调度线程抢占执行时设置，结束后删除抢占时写入的执行中记录
+     */
+    void setInFlight(boolean inFlight) {
+        this.inFlight = inFlight;
+    }
+
     public void requestShutdown() {
         shutdownRequested = true;
     }
@@ -172,6 +204,8 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
     @Override
     public void run() {
 //        qs.addInternalSchedulerListener(this);
+        // 登记到正在执行的任务中，供 getCurrentlyExecutingJobs 及停机时中断使用
+        qs.notifyJobStarted(jec);
         try {
 //            OperableTrigger trigger = (OperableTrigger) jec.getTrigger();
 //            JobDetail jobDetail = jec.getJobDetail();
@@ -182,14 +216,27 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
                     begin();
                 } catch (SchedulerException se) {
                     log.error("Error executing Job (" + jec.getKeyNote() + "): couldn't begin execution.", se);
-//                    qs.notifySchedulerListenersError("Error executing Job ("
-//                            + jec.getJobDetail().getKey()
-//                            + ": couldn't begin execution.", se);
+                    qs.notifySchedulerListenersError("Error executing Job (" + jec.getKeyNote() + "): couldn't begin execution.", se);
                     break;
                 }
 
                 long startTime = System.currentTimeMillis();
                 long endTime = startTime;
+                final long startNanos = System.nanoTime();
+                final String jobClass = eJob.getJob().getJobClass();
+                runStartTime = startTime;
+                runRefireCount = jec.getRefireCount();
+                if (claimedNanos != 0L) {
+                    // 只统计首次执行，重复点火不计入
+                    qs.getTimingStatistics().record(Phase.CLAIMED_TO_STARTED, jobClass, (startNanos - claimedNanos) / 1000L);
+                    claimedNanos = 0L;
+                }
+
+                // 同步监听器可否决本次执行，其余监听器经总线异步通知
+                if (qs.notifyJobListenersToBeExecuted(jec)) {
+                    log.info("Job (" + jec.getKeyNote() + ") execution vetoed by a JobListener.");
+                    break;
+                }
 
                 // execute the job
                 try {
@@ -207,6 +254,10 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
                     jobExEx = new JobExecutionException(se, false);//第二个参数refireImmediately: true.立即点火 false.不点火
                 }
                 jec.setJobRunTime(endTime - startTime); // 执行时间
+                qs.getTimingStatistics().record(Phase.RUN_TIME, jobClass, (System.nanoTime() - startNanos) / 1000L);
+                qs.getSampledStatistics().jobCompleted();
+                runException = jobExEx;
+                qs.notifyJobListenersWasExecuted(jec, jobExEx);
 
 //                CompletedExecutionInstruction instCode = CompletedExecutionInstruction.NOOP;
 //                // update the trigger
@@ -248,15 +299,22 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
                     // 不管怎么样都得退出，否则会重复执行
                     se.printStackTrace();
 //                    log.error("Error executing Job (" + jec.getJobDetail().getKey() + ": couldn't finalize execution.", se);
-//                    qs.notifySchedulerListenersError("Error executing Job (" + jec.getJobDetail().getKey() + ": couldn't finalize execution.", se);
+                    qs.notifySchedulerListenersError("Error executing Job (" + jec.getKeyNote() + "): couldn't finalize execution.", se);
 //                    continue;
                 }
+                // 立即触发任务链下游
+                qs.notifyJobChain(jec, null == jobExEx);
                 break;
             } while (true);
 
         }catch (Exception e){
             e.printStackTrace();
             log.error("异常:",e);
+        }finally {
+            qs.notifyJobFinished(jec);
+            if (inFlight) {
+                qs.notifyFiredComplete(eJob.getId(), eJob.getScheduledFireTime().getTime());
+            }
         }
 //        finally {
 //            qs.removeInternalSchedulerListener(this);
@@ -264,9 +322,29 @@ public class JobRunShell /*extends SchedulerListenerSupport*/ implements Runnabl
     }
 
     protected void begin() throws SchedulerException {
+        runException = null;
     }
 
+    /**
+     * <p>
+     * Publish the run to the execution history, if enabled. A run that will
+     * be refired immediately is passed <code>false</code>.
+     * 将本次执行写入执行记录(若已开启)，立即重新执行时 successfulExecution 为 false
+     * </p>
+     */
     protected void complete(boolean successfulExecution) throws SchedulerException {
+        final ExecuteHistoryWriter writer = qs.getExecuteHistoryWriter();
+        if (writer == null) {
+            return;
+        }
+        final String outcome = runException == null ? QrtzExecuteHistory.OUTCOME_SUCCESS
+                : (successfulExecution ? QrtzExecuteHistory.OUTCOME_ERROR : QrtzExecuteHistory.OUTCOME_REFIRE);
+        final long fireTime = jec.getFireTime() == null ? runStartTime : jec.getFireTime().getTime();
+        final long scheduledTime = jec.getScheduledFireTime() == null ? fireTime : jec.getScheduledFireTime().getTime();
+        writer.publish(new QrtzExecuteHistory(writer.getApplication(), jec.getExecuteId(), jec.getJobId(),
+                jec.getJobClassName(), jec.getJobType(), scheduledTime, fireTime, runStartTime, jec.getJobRunTime(),
+                runRefireCount, outcome, ExecuteHistoryWriter.truncateError(runException),
+                SystemPropGenerator.hostIP(), SystemPropGenerator.hostName()));
     }
 
     public void passivate() {
@@ -0,0 +1,632 @@
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.core;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Matcher;
+import org.quartz.SchedulerException;
+import org.quartz.SchedulerListener;
+import org.quartz.impl.matchers.EverythingMatcher;
+import org.quartz.utils.Key;
+import org.quartz.utils.RingBuffer;
+import org.quartz.utils.counter.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Delivers job and scheduler events to the listeners registered with a
+ * {@link ListenerManagerImpl} without blocking the worker or scheduler
+ * thread: every listener owns a bounded queue which is drained by a small
+ * pool of daemon threads, one drain task per listener at a time so that each
+ * listener still sees its events in order. A full queue drops the event.
+ * 将任务与调度器事件投递给已注册的监听器且不阻塞工作线程/调度线程：每个监听器一个有界队列，由少量守护线程排空，
+ * 同一监听器同一时刻只有一个排空任务，保证事件有序；队列满时丢弃事件。
+ * </p>
+ *
+ * <p>
+ * {@link JobListener#isSynchronous() Synchronous} job listeners are called
+ * inline on the worker thread instead, they are the only ones that may veto
+ * an execution. Queue depth, delivered/dropped/failed counts and the lag
+ * between publishing and delivering (microseconds) are kept per listener.
+ * 同步监听器直接在工作线程上调用，仅同步监听器可以否决执行。每个监听器单独记录队列深度、投递/丢弃/异常次数以及投递延迟(微秒)。
+ * </p>
+ */
+public class ListenerBus {
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constants.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public static final int DEFAULT_QUEUE_SIZE = 1024;
+
+    public static final int DEFAULT_THREAD_COUNT = 1;
+
+    // 单次排空的最大事件数，超过后让出线程给其他监听器
+    static final int DRAIN_BATCH = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(ListenerBus.class);
+
+    enum EventType {
+        JOB_TO_BE_EXECUTED,
+        JOB_EXECUTION_VETOED,
+        JOB_WAS_EXECUTED,
+        SCHEDULER_ERROR,
+        SCHEDULER_IN_STANDBY_MODE,
+        SCHEDULER_STARTING,
+        SCHEDULER_STARTED,
+        SCHEDULER_SHUTTINGDOWN,
+        SCHEDULER_SHUTDOWN
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Data members.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private final String schedulerName;
+
+    private final ListenerManagerImpl listenerManager;
+
+    private final int queueSize;
+
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean shutdown = false;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Constructors.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * @param schedulerName   调度器名称(线程名前缀，同时作为匹配器Key的sched)
+     * @param listenerManager 监听器注册表
+     * @param threadCount     投递线程数
+     * @param queueSize       每个监听器的队列容量(向上取2的幂)
+     */
+    public ListenerBus(String schedulerName, ListenerManagerImpl listenerManager, int threadCount, int queueSize) {
+        if (listenerManager == null) {
+            throw new IllegalArgumentException("ListenerManager cannot be null.");
+        }
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Listener bus thread count must be positive: " + threadCount);
+        }
+        if (queueSize < 2) {
+            throw new IllegalArgumentException("Listener bus queue size must be at least 2: " + queueSize);
+        }
+        this.schedulerName = schedulerName;
+        this.listenerManager = listenerManager;
+        this.queueSize = queueSize;
+        final String prefix = (schedulerName == null ? "Quartz" : schedulerName) + "_ListenerBus-";
+        final AtomicInteger threadNumber = new AtomicInteger();
+        // 每个监听器最多排队一个排空任务，任务队列的长度不超过监听器数量
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread t = new Thread(r, prefix + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Job events.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Ask the synchronous listeners whether to veto the execution, then
+     * publish <code>jobToBeExecuted</code> or, when vetoed,
+     * <code>jobExecutionVetoed</code>. Called on the worker thread.
+     * 先询问同步监听器是否否决，再发布 jobToBeExecuted(被否决时发布 jobExecutionVetoed)，在工作线程上调用。
+     * </p>
+     *
+     * @return true when the execution was vetoed
+     */
+    public boolean jobToBeExecuted(JobExecutionContext context) {
+        Subscriber[] subscribers = listenerManager.getJobSubscribers();
+        if (subscribers.length == 0) {
+            return false;
+        }
+        Key<?> key = null;
+        boolean vetoed = false;
+        for (Subscriber s : subscribers) {
+            if (!s.synchronous) {
+                continue;
+            }
+            if (key == null && !s.matchAll) {
+                key = jobKey(context);
+            }
+            if (!s.matches(key)) {
+                continue;
+            }
+            try {
+                if (((JobListener) s.listener).vetoJobExecution(context)) {
+                    vetoed = true;
+                    break;
+                }
+            } catch (Throwable t) {
+                s.failed.increment();
+                LOG.error("JobListener '" + s.name + "' threw an unhandled exception in vetoJobExecution.", t);
+            }
+        }
+        publishJobEvent(subscribers, vetoed ? EventType.JOB_EXECUTION_VETOED : EventType.JOB_TO_BE_EXECUTED, context, null, key);
+        return vetoed;
+    }
+
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+        Subscriber[] subscribers = listenerManager.getJobSubscribers();
+        if (subscribers.length == 0) {
+            return;
+        }
+        publishJobEvent(subscribers, EventType.JOB_WAS_EXECUTED, context, jobException, null);
+    }
+
+    private void publishJobEvent(Subscriber[] subscribers, EventType type, JobExecutionContext context, JobExecutionException jobException, Key<?> key) {
+        Event event = null;
+        for (Subscriber s : subscribers) {
+            if (key == null && !s.matchAll) {
+                key = jobKey(context);
+            }
+            if (!s.matches(key)) {
+                continue;
+            }
+            if (event == null) {
+                // 同一事件对象在所有监听器间共享
+                event = new Event(type, context, jobException, null, null);
+            }
+            if (s.synchronous) {
+                deliver(s, event);
+            } else {
+                enqueue(s, event);
+            }
+        }
+    }
+
+    private Key<?> jobKey(JobExecutionContext context) {
+        return new Key<Object>(context.getJobClassName() == null ? "" : context.getJobClassName(), schedulerName);
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Scheduler events.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public void schedulerError(String msg, SchedulerException cause) {
+        publishSchedulerEvent(EventType.SCHEDULER_ERROR, msg, cause);
+    }
+
+    public void schedulerInStandbyMode() {
+        publishSchedulerEvent(EventType.SCHEDULER_IN_STANDBY_MODE, null, null);
+    }
+
+    public void schedulerStarting() {
+        publishSchedulerEvent(EventType.SCHEDULER_STARTING, null, null);
+    }
+
+    public void schedulerStarted() {
+        publishSchedulerEvent(EventType.SCHEDULER_STARTED, null, null);
+    }
+
+    public void schedulerShuttingdown() {
+        publishSchedulerEvent(EventType.SCHEDULER_SHUTTINGDOWN, null, null);
+    }
+
+    public void schedulerShutdown() {
+        publishSchedulerEvent(EventType.SCHEDULER_SHUTDOWN, null, null);
+    }
+
+    private void publishSchedulerEvent(EventType type, String msg, SchedulerException cause) {
+        Subscriber[] subscribers = listenerManager.getSchedulerSubscribers();
+        if (subscribers.length == 0) {
+            return;
+        }
+        Event event = new Event(type, null, null, msg, cause);
+        for (Subscriber s : subscribers) {
+            enqueue(s, event);
+        }
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Dispatching.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    private void enqueue(Subscriber s, Event event) {
+        if (shutdown) {
+            s.dropped.increment();
+            dropped.increment();
+            return;
+        }
+        Dispatcher dispatcher = s.dispatcher(this);
+        if (!dispatcher.queue.offer(event)) {
+            s.dropped.increment();
+            dropped.increment();
+            return;
+        }
+        dispatcher.schedule();
+    }
+
+    private static void deliver(Subscriber s, Event event) {
+        try {
+            event.deliverTo(s.listener);
+            s.delivered.increment();
+        } catch (Throwable t) {
+            s.failed.increment();
+            LOG.error("Listener '" + s.name + "' threw an unhandled exception on " + event.type + ".", t);
+        }
+        s.lag.record((System.nanoTime() - event.publishNanos) / 1000L);
+    }
+
+    /**
+     * 单个监听器的排空任务，scheduled 保证同一时刻只有一个线程消费其队列
+     */
+    final class Dispatcher implements Runnable {
+
+        private final Subscriber subscriber;
+
+        final RingBuffer<Event> queue;
+
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        Dispatcher(Subscriber subscriber) {
+            this.subscriber = subscriber;
+            this.queue = new RingBuffer<Event>(queueSize);
+        }
+
+        void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                Event event;
+                int n = 0;
+                while (n++ < DRAIN_BATCH && (event = queue.poll()) != null) {
+                    deliver(subscriber, event);
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // 排空期间有新事件入队且未被调度时重新提交
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    /**
+     * <p>
+     * A registered listener as seen by the bus, created and kept by the
+     * {@link ListenerManagerImpl}.
+     * 总线视角的已注册监听器，由 ListenerManagerImpl 创建并维护
+     * </p>
+     */
+    static final class Subscriber {
+
+        final Object listener;
+
+        final String name;
+
+        final boolean synchronous;
+
+        private volatile Matcher<Key<?>>[] matchers;
+
+        private volatile boolean matchAll;
+
+        private volatile Dispatcher dispatcher;
+
+        final LongAdder delivered = new LongAdder();
+
+        final LongAdder dropped = new LongAdder();
+
+        final LongAdder failed = new LongAdder();
+
+        final Histogram lag = new Histogram();
+
+        Subscriber(Object listener, String name, boolean synchronous, List<Matcher<Key<?>>> matchers) {
+            this.listener = listener;
+            this.name = name;
+            this.synchronous = synchronous;
+            setMatchers(matchers);
+        }
+
+        @SuppressWarnings("unchecked")
+        void setMatchers(List<Matcher<Key<?>>> matchers) {
+            boolean all = matchers == null || matchers.isEmpty();
+            if (!all) {
+                for (Matcher<Key<?>> m : matchers) {
+                    if (m instanceof EverythingMatcher) {
+                        all = true;
+                        break;
+                    }
+                }
+            }
+            this.matchers = all ? null : matchers.toArray(new Matcher[matchers.size()]);
+            this.matchAll = all;
+        }
+
+        boolean matches(Key<?> key) {
+            if (matchAll) {
+                return true;
+            }
+            Matcher<Key<?>>[] ms = this.matchers;
+            if (ms == null) {
+                return true;
+            }
+            for (Matcher<Key<?>> m : ms) {
+                if (m.isMatch(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Dispatcher dispatcher(ListenerBus bus) {
+            Dispatcher d = dispatcher;
+            if (d == null) {
+                synchronized (this) {
+                    d = dispatcher;
+                    if (d == null) {
+                        d = bus.new Dispatcher(this);
+                        dispatcher = d;
+                    }
+                }
+            }
+            return d;
+        }
+
+        int getQueueDepth() {
+            Dispatcher d = dispatcher;
+            return d == null ? 0 : d.queue.size();
+        }
+    }
+
+    /**
+     * 一次事件，在所有匹配的监听器间共享
+     */
+    static final class Event {
+
+        final EventType type;
+
+        final JobExecutionContext context;
+
+        final JobExecutionException jobException;
+
+        final String msg;
+
+        final SchedulerException cause;
+
+        final long publishNanos = System.nanoTime();
+
+        Event(EventType type, JobExecutionContext context, JobExecutionException jobException, String msg, SchedulerException cause) {
+            this.type = type;
+            this.context = context;
+            this.jobException = jobException;
+            this.msg = msg;
+            this.cause = cause;
+        }
+
+        void deliverTo(Object listener) {
+            switch (type) {
+                case JOB_TO_BE_EXECUTED:
+                    ((JobListener) listener).jobToBeExecuted(context);
+                    break;
+                case JOB_EXECUTION_VETOED:
+                    ((JobListener) listener).jobExecutionVetoed(context);
+                    break;
+                case JOB_WAS_EXECUTED:
+                    ((JobListener) listener).jobWasExecuted(context, jobException);
+                    break;
+                case SCHEDULER_ERROR:
+                    ((SchedulerListener) listener).schedulerError(msg, cause);
+                    break;
+                case SCHEDULER_IN_STANDBY_MODE:
+                    ((SchedulerListener) listener).schedulerInStandbyMode();
+                    break;
+                case SCHEDULER_STARTING:
+                    ((SchedulerListener) listener).schedulerStarting();
+                    break;
+                case SCHEDULER_STARTED:
+                    ((SchedulerListener) listener).schedulerStarted();
+                    break;
+                case SCHEDULER_SHUTTINGDOWN:
+                    ((SchedulerListener) listener).schedulerShuttingdown();
+                    break;
+                case SCHEDULER_SHUTDOWN:
+                    ((SchedulerListener) listener).schedulerShutdown();
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Lifecycle & metrics.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    /**
+     * <p>
+     * Stop accepting events and wait (at most <code>waitMillis</code>) for the
+     * queued ones to be delivered.
+     * 停止接收事件，并最多等待 waitMillis 毫秒投递已入队的事件。
+     * </p>
+     */
+    public void shutdown(long waitMillis) {
+        shutdown = true;
+        long deadline = System.currentTimeMillis() + waitMillis;
+        // 先等队列排空，排空任务会自行重新提交
+        while (System.currentTimeMillis() < deadline && getQueuedCount() > 0) {
+            try {
+                Thread.sleep(10L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Math.max(deadline - System.currentTimeMillis(), 0L), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int left = getQueuedCount();
+        if (left > 0) {
+            LOG.warn("Listener bus of " + schedulerName + " shut down with " + left + " undelivered event(s).");
+        }
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    /**
+     * @return 所有监听器队列中待投递的事件数
+     */
+    public int getQueuedCount() {
+        int count = 0;
+        for (Subscriber s : listenerManager.getJobSubscribers()) {
+            count += s.getQueueDepth();
+        }
+        for (Subscriber s : listenerManager.getSchedulerSubscribers()) {
+            count += s.getQueueDepth();
+        }
+        return count;
+    }
+
+    /**
+     * @return 因队列已满或已关闭而丢弃的事件总数
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return 当前已注册监听器的名称
+     */
+    public String[] getListenerNames() {
+        Subscriber[] jobs = listenerManager.getJobSubscribers();
+        Subscriber[] scheds = listenerManager.getSchedulerSubscribers();
+        String[] names = new String[jobs.length + scheds.length];
+        int i = 0;
+        for (Subscriber s : jobs) {
+            names[i++] = s.name;
+        }
+        for (Subscriber s : scheds) {
+            names[i++] = s.name;
+        }
+        return names;
+    }
+
+    /**
+     * <p>
+     * Metrics of the named listener: queue depth, delivered/dropped/failed
+     * counts and delivery lag percentiles (microseconds). Empty when the
+     * listener is not registered.
+     * 指定监听器的指标：队列深度、投递/丢弃/异常次数及投递延迟百分位(微秒)，未注册时为空。
+     * </p>
+     */
+    public Map<String, Long> getListenerMetrics(String listenerName) {
+        Map<String, Long> metrics = new LinkedHashMap<String, Long>();
+        Subscriber s = find(listenerManager.getJobSubscribers(), listenerName);
+        if (s == null) {
+            s = find(listenerManager.getSchedulerSubscribers(), listenerName);
+        }
+        if (s == null) {
+            return metrics;
+        }
+        metrics.put("synchronous", s.synchronous ? 1L : 0L);
+        metrics.put("queueDepth", (long) s.getQueueDepth());
+        metrics.put("delivered", s.delivered.sum());
+        metrics.put("dropped", s.dropped.sum());
+        metrics.put("failed", s.failed.sum());
+        metrics.put("lagP50Micros", s.lag.getValueAtPercentile(50));
+        metrics.put("lagP99Micros", s.lag.getValueAtPercentile(99));
+        metrics.put("lagMaxMicros", s.lag.getMax());
+        return metrics;
+    }
+
+    /**
+     * @return the delivery lag histogram (microseconds) of the named listener, null when not registered
+     */
+    public Histogram getLagHistogram(String listenerName) {
+        Subscriber s = find(listenerManager.getJobSubscribers(), listenerName);
+        if (s == null) {
+            s = find(listenerManager.getSchedulerSubscribers(), listenerName);
+        }
+        return s == null ? null : s.lag;
+    }
+
+    private static Subscriber find(Subscriber[] subscribers, String name) {
+        for (Subscriber s : subscribers) {
+            if (s.name.equals(name)) {
+                return s;
+            }
+        }
+        return null;
+    }
+}
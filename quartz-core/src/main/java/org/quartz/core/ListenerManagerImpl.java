@@ -1,5 +1,8 @@
 package org.quartz.core;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -8,6 +11,7 @@ import java.util.Map;
 import org.quartz.JobListener;
 import org.quartz.ListenerManager;
 import org.quartz.Matcher;
+import org.quartz.SchedulerListener;
 import org.quartz.TriggerListener;
 import org.quartz.impl.matchers.EverythingMatcher;
 import org.quartz.utils.Key;
@@ -24,7 +28,14 @@ public class ListenerManagerImpl implements ListenerManager {
 //    private Map<String, List<Matcher<TriggerKey>>> globalTriggerListenersMatchers = new LinkedHashMap<String, List<Matcher<TriggerKey>>>(10);
     private Map<String, List<Matcher<Key<?>>>> globalTriggerListenersMatchers = new LinkedHashMap<String, List<Matcher<Key<?>>>>(10);
 
-//    private ArrayList<SchedulerListener> schedulerListeners = new ArrayList<SchedulerListener>(10);
+    private ArrayList<SchedulerListener> schedulerListeners = new ArrayList<SchedulerListener>(10);
+
+    // 供监听器总线无锁读取的快照，注册表变化时在锁内重建
+    private volatile ListenerBus.Subscriber[] jobSubscribers = EMPTY_SUBSCRIBERS;
+
+    private volatile ListenerBus.Subscriber[] schedulerSubscribers = EMPTY_SUBSCRIBERS;
+
+    private static final ListenerBus.Subscriber[] EMPTY_SUBSCRIBERS = new ListenerBus.Subscriber[0];
 
 //    @Override
 //    public void addJobListener(JobListener jobListener, Matcher<Key<?>> ... matchers) {
@@ -45,6 +56,7 @@ public class ListenerManagerImpl implements ListenerManager {
                 matchersL.add(EverythingMatcher.allJobs());
             }
             globalJobListenersMatchers.put(jobListener.getName(), matchersL);
+            refreshJobSubscribers();
         }
     }
 //
@@ -67,6 +79,7 @@ public class ListenerManagerImpl implements ListenerManager {
                 matchersL.add(EverythingMatcher.allJobs());
             }
             globalJobListenersMatchers.put(jobListener.getName(), matchersL);
+            refreshJobSubscribers();
         }
     }
 //
@@ -97,16 +110,16 @@ public class ListenerManagerImpl implements ListenerManager {
 //            return matchers.remove(matcher);
 //        }
 //    }
-//    @Override
-//    public List<Matcher<Key<?>>> getJobListenerMatchers(String listenerName) {
-//        synchronized (globalJobListeners) {
-//            List<Matcher<Key<?>>> matchers = globalJobListenersMatchers.get(listenerName);
-//            if(matchers == null){
-//                return null;
-//            }
-//            return Collections.unmodifiableList(matchers);
-//        }
-//    }
+    @Override
+    public List<Matcher<Key<?>>> getJobListenerMatchers(String listenerName) {
+        synchronized (globalJobListeners) {
+            List<Matcher<Key<?>>> matchers = globalJobListenersMatchers.get(listenerName);
+            if(matchers == null){
+                return null;
+            }
+            return Collections.unmodifiableList(matchers);
+        }
+    }
 //    @Override
 //    public boolean setJobListenerMatchers(String listenerName, List<Matcher<Key<?>>> matchers)  {
 //        if(matchers == null){
@@ -121,24 +134,27 @@ public class ListenerManagerImpl implements ListenerManager {
 //            return true;
 //        }
 //    }
-//    @Override
-//    public boolean removeJobListener(String name) {
-//        synchronized (globalJobListeners) {
-//            return (globalJobListeners.remove(name) != null);
-//        }
-//    }
-//    @Override
-//    public List<JobListener> getJobListeners() {
-//        synchronized (globalJobListeners) {
-//            return java.util.Collections.unmodifiableList(new LinkedList<JobListener>(globalJobListeners.values()));
-//        }
-//    }
-//    @Override
-//    public JobListener getJobListener(String name) {
-//        synchronized (globalJobListeners) {
-//            return globalJobListeners.get(name);
-//        }
-//    }
+    @Override
+    public boolean removeJobListener(String name) {
+        synchronized (globalJobListeners) {
+            globalJobListenersMatchers.remove(name);
+            boolean removed = globalJobListeners.remove(name) != null;
+            refreshJobSubscribers();
+            return removed;
+        }
+    }
+    @Override
+    public List<JobListener> getJobListeners() {
+        synchronized (globalJobListeners) {
+            return java.util.Collections.unmodifiableList(new LinkedList<JobListener>(globalJobListeners.values()));
+        }
+    }
+    @Override
+    public JobListener getJobListener(String name) {
+        synchronized (globalJobListeners) {
+            return globalJobListeners.get(name);
+        }
+    }
 //    @Override
 //    public void addTriggerListener(TriggerListener triggerListener, Matcher<Key<?>> ... matchers) {
 //        addTriggerListener(triggerListener, Arrays.asList(matchers));
@@ -249,23 +265,84 @@ public class ListenerManagerImpl implements ListenerManager {
 //        }
 //    }
 //
-//    @Override
-//    public void addSchedulerListener(SchedulerListener schedulerListener) {
-//        synchronized (schedulerListeners) {
-//            schedulerListeners.add(schedulerListener);
-//        }
-//    }
-//    @Override
-//    public boolean removeSchedulerListener(SchedulerListener schedulerListener) {
-//        synchronized (schedulerListeners) {
-//            return schedulerListeners.remove(schedulerListener);
-//        }
-//    }
-//    @Override
-//    public List<SchedulerListener> getSchedulerListeners() {
-//        synchronized (schedulerListeners) {
-//            return java.util.Collections.unmodifiableList(new ArrayList<SchedulerListener>(schedulerListeners));
-//        }
-//    }
+    @Override
+    public void addSchedulerListener(SchedulerListener schedulerListener) {
+        synchronized (schedulerListeners) {
+            schedulerListeners.add(schedulerListener);
+            refreshSchedulerSubscribers();
+        }
+    }
+    @Override
+    public boolean removeSchedulerListener(SchedulerListener schedulerListener) {
+        synchronized (schedulerListeners) {
+            boolean removed = schedulerListeners.remove(schedulerListener);
+            refreshSchedulerSubscribers();
+            return removed;
+        }
+    }
+    @Override
+    public List<SchedulerListener> getSchedulerListeners() {
+        synchronized (schedulerListeners) {
+            return java.util.Collections.unmodifiableList(new ArrayList<SchedulerListener>(schedulerListeners));
+        }
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Listener bus snapshots.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    ListenerBus.Subscriber[] getJobSubscribers() {
+        return jobSubscribers;
+    }
+
+    ListenerBus.Subscriber[] getSchedulerSubscribers() {
+        return schedulerSubscribers;
+    }
+
+    /**
+     * 在 globalJobListeners 锁内调用，沿用仍注册着的同一监听器实例的订阅者(保留其队列与指标)
+     */
+    private void refreshJobSubscribers() {
+        Map<Object, ListenerBus.Subscriber> previous = new IdentityHashMap<Object, ListenerBus.Subscriber>();
+        for (ListenerBus.Subscriber sub : jobSubscribers) {
+            previous.put(sub.listener, sub);
+        }
+        List<ListenerBus.Subscriber> subscribers = new ArrayList<ListenerBus.Subscriber>(globalJobListeners.size());
+        for (Map.Entry<String, JobListener> entry : globalJobListeners.entrySet()) {
+            List<Matcher<Key<?>>> matchers = globalJobListenersMatchers.get(entry.getKey());
+            ListenerBus.Subscriber sub = previous.get(entry.getValue());
+            if (sub == null) {
+                sub = new ListenerBus.Subscriber(entry.getValue(), entry.getKey(), entry.getValue().isSynchronous(), matchers);
+            } else {
+                sub.setMatchers(matchers);
+            }
+            subscribers.add(sub);
+        }
+        jobSubscribers = subscribers.toArray(EMPTY_SUBSCRIBERS);
+    }
+
+    /**
+     * 在 schedulerListeners 锁内调用
+     */
+    private void refreshSchedulerSubscribers() {
+        Map<Object, ListenerBus.Subscriber> previous = new IdentityHashMap<Object, ListenerBus.Subscriber>();
+        for (ListenerBus.Subscriber sub : schedulerSubscribers) {
+            previous.put(sub.listener, sub);
+        }
+        List<ListenerBus.Subscriber> subscribers = new ArrayList<ListenerBus.Subscriber>(schedulerListeners.size());
+        for (SchedulerListener listener : schedulerListeners) {
+            ListenerBus.Subscriber sub = previous.get(listener);
+            if (sub == null) {
+                String name = listener.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(listener));
+                sub = new ListenerBus.Subscriber(listener, name, false, null);
+            }
+            subscribers.add(sub);
+        }
+        schedulerSubscribers = subscribers.toArray(EMPTY_SUBSCRIBERS);
+    }
 
 }
@@ -1,19 +1,78 @@
-//package org.quartz.core;
-//
-//public class NullSampledStatisticsImpl implements SampledStatistics {
-//    public long getJobsCompletedMostRecentSample() {
-//        return 0;
-//    }
-//
-//    public long getJobsExecutingMostRecentSample() {
-//        return 0;
-//    }
-//
-//    public long getJobsScheduledMostRecentSample() {
-//        return 0;
-//    }
-//
-//    public void shutdown() {
-//        // nothing to do
-//    }
-//}
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.core;
+
+import org.quartz.utils.counter.sampled.TimeStampedCounterValue;
+
+/**
+ * 未开启抽样统计时使用的空实现
+ */
+public class NullSampledStatisticsImpl implements SampledStatistics {
+
+    private static final TimeStampedCounterValue[] EMPTY = new TimeStampedCounterValue[0];
+
+    public void jobFired() {
+    }
+
+    public void jobCompleted() {
+    }
+
+    public void claimWon() {
+    }
+
+    public void claimLost() {
+    }
+
+    public void executesAcquired(int count) {
+    }
+
+    public void rowsRecovered(int count) {
+    }
+
+    public long getJobsFiredPerSecond() {
+        return 0;
+    }
+
+    public long getJobsCompletedPerSecond() {
+        return 0;
+    }
+
+    public long getClaimsWonPerSecond() {
+        return 0;
+    }
+
+    public long getClaimsLostPerSecond() {
+        return 0;
+    }
+
+    public long getExecutesAcquiredPerSecond() {
+        return 0;
+    }
+
+    public long getRecoveredRowsPerSecond() {
+        return 0;
+    }
+
+    public TimeStampedCounterValue[] getSampleHistory(String counterName) {
+        return EMPTY;
+    }
+
+    public void shutdown() {
+        // nothing to do
+    }
+}
@@ -19,18 +19,28 @@
 package org.quartz.core;
 
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.quartz.InterruptableJob;
 import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
 import org.quartz.JobListener;
+import org.quartz.ListenerManager;
 import org.quartz.SchedulerException;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
@@ -38,10 +48,13 @@ import org.quartz.impl.QrtzJob;
 import org.quartz.impl.QrtzNode;
 import org.quartz.impl.SchedulerRepository;
 import org.quartz.simpl.PropertySettingJobFactory;
+import org.quartz.simpl.SimpleTimeBroker;
 import org.quartz.simpl.SystemPropGenerator;
 import org.quartz.spi.JobFactory;
 import org.quartz.spi.SchedulerPlugin;
 import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TimeBroker;
+import org.quartz.utils.counter.Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -69,6 +82,9 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      */
 
+    // 关闭时等待监听器总线投递剩余事件的最长时间(毫秒)
+    private static final long LISTENER_BUS_SHUTDOWN_WAIT = 2000L;
+
     private static String VERSION_MAJOR = "UNKNOWN";
     private static String VERSION_MINOR = "UNKNOWN";
     private static String VERSION_ITERATION = "UNKNOWN";
@@ -121,15 +137,35 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 
 //    private SchedulerContext context = new SchedulerContext();
 
-//    private ListenerManager listenerManager = new ListenerManagerImpl();
+    private ListenerManagerImpl listenerManager = new ListenerManagerImpl();
+
+    // 已注册监听器的异步投递总线
+    private ListenerBus listenerBus;
+
+    // 任务链下游触发，未启用时为null
+    private JobChainDispatcher jobChainDispatcher;
+
+    // 立即执行信号轮询，未启用时为null
+    private FireNowWatcher fireNowWatcher;
+
+    // 熄火补偿执行
+    private CatchUpDispatcher catchUpDispatcher;
     
     private HashMap<String, JobListener> internalJobListeners = new HashMap<String, JobListener>(10);
 
+    // 内部监听器快照，工作线程无锁读取
+    private volatile JobListener[] internalJobListenerSnapshot = new JobListener[0];
+
 //    private HashMap<String, TriggerListener> internalTriggerListeners = new HashMap<String, TriggerListener>(10);
 
 //    private ArrayList<SchedulerListener> internalSchedulerListeners = new ArrayList<SchedulerListener>(10);
 
     private JobFactory jobFactory = new PropertySettingJobFactory();
+
+    // 各阶段耗时直方图
+    private final TimingStatistics timingStatistics = new TimingStatistics();
+
+    private final FireSpreadStatistics fireSpreadStatistics = new FireSpreadStatistics();
     
     ExecutingJobsManager jobMgr = null;
 
@@ -147,7 +183,7 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
     private volatile boolean shuttingDown = false;
 //    private boolean boundRemotely = false;
 
-//    private QuartzSchedulerMBean jmxBean = null;
+    private QuartzSchedulerMBeanImpl jmxBean = null;
     
     private Date initialStart = null;
 
@@ -175,6 +211,14 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
      */
     public QuartzScheduler(QuartzSchedulerResources resources, long idleWaitTime, @Deprecated long dbRetryInterval) throws SchedulerException {
         this.resources = resources;
+        this.listenerBus = new ListenerBus(resources.getName(), listenerManager, resources.getListenerBusThreadCount(), resources.getListenerBusQueueSize());
+        if (resources.isJobChainEnabled()) {
+            this.jobChainDispatcher = new JobChainDispatcher(this, resources);
+        }
+        if (resources.getFireNowPollInterval() > 0) {
+            this.fireNowWatcher = new FireNowWatcher(this, resources, resources.getFireNowPollInterval());
+        }
+        this.catchUpDispatcher = new CatchUpDispatcher(this, resources, resources.getCatchUpQueueSize(), resources.getCatchUpRate());
         if (resources.getJobStore() instanceof JobListener) {
             addInternalJobListener((JobListener)resources.getJobStore());
         }
@@ -191,6 +235,13 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 //        errLogger = new ErrorLogger();
 //        addInternalSchedulerListener(errLogger);
         signaler = new SchedulerSignalerImpl(this, this.schedThread);
+        if (resources.getJMXExport()) {
+            try {
+                registerJMX();
+            } catch (Exception e) {
+                throw new SchedulerException("Unable to register scheduler with MBeanServer.", e);
+            }
+        }
         getLog().info("Quartz Scheduler v." + getVersion() + " created.");
     }
 
@@ -292,26 +343,26 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         return log;
     }
     
-//    /**
-//     * Register the scheduler in the local MBeanServer.
-//     */
-//    private void registerJMX() throws Exception {
-//        String jmxObjectName = resources.getJMXObjectName();
-//        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-//        jmxBean = new QuartzSchedulerMBeanImpl(this);
-//        mbs.registerMBean(jmxBean, new ObjectName(jmxObjectName));
-//    }
-//
-//    /**
-//     * Unregister the scheduler from the local MBeanServer.
-//     */
-//    private void unregisterJMX() throws Exception {
-//        String jmxObjectName = resources.getJMXObjectName();
-//        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
-//        mbs.unregisterMBean(new ObjectName(jmxObjectName));
-//        jmxBean.setSampledStatisticsEnabled(false);
-//        getLog().info("Scheduler unregistered from name '" + jmxObjectName + "' in the local MBeanServer.");
-//    }
+    /**
+     * Register the scheduler in the local MBeanServer.
+     */
+    private void registerJMX() throws Exception {
+        String jmxObjectName = resources.getJMXObjectName();
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        jmxBean = new QuartzSchedulerMBeanImpl(this);
+        mbs.registerMBean(jmxBean, new ObjectName(jmxObjectName));
+        getLog().info("Scheduler registered with name '" + jmxObjectName + "' in the local MBeanServer.");
+    }
+
+    /**
+     * Unregister the scheduler from the local MBeanServer.
+     */
+    private void unregisterJMX() throws Exception {
+        String jmxObjectName = resources.getJMXObjectName();
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        mbs.unregisterMBean(new ObjectName(jmxObjectName));
+        getLog().info("Scheduler unregistered from name '" + jmxObjectName + "' in the local MBeanServer.");
+    }
 
 //    /**
 //     * <p>
@@ -470,13 +521,20 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         }
         // QTZ-212 : calling new schedulerStarting() method on the listeners
         // right after entering start()
-//        notifySchedulerListenersStarting();
+        notifySchedulerListenersStarting();
         if (initialStart == null) {
             initialStart = new Date();
             // 这里是保证 clusterMisfireHandler.preProcess() 优先执行
             this.resources.getJobStore().schedulerStarted();
+            if (resources.getExecuteHistoryWriter() != null) {
+                resources.getExecuteHistoryWriter().start(resources.getName() + "_ExecuteHistoryWriter", resources.getMakeSchedulerThreadDaemon());
+            }
             // 任务扫描
             this.schedThread.start();
+            if (fireNowWatcher != null) {
+                fireNowWatcher.start(resources.getName() + "_FireNowWatcher", resources.getMakeSchedulerThreadDaemon());
+            }
+            catchUpDispatcher.start(resources.getName() + "_CatchUpDispatcher", resources.getMakeSchedulerThreadDaemon());
             startPlugins();
         } else {
             resources.getJobStore().schedulerResumed();
@@ -484,7 +542,7 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         schedThread.togglePause(false);
 //        getLog().info("Scheduler " + resources.getUniqueIdentifier() + " started.");
         getLog().info("Scheduler " + SystemPropGenerator.hostIP() + " started.");
-//        notifySchedulerListenersStarted();
+        notifySchedulerListenersStarted();
     }
     @Override
     public void startDelayed(final int seconds) throws SchedulerException
@@ -522,7 +580,7 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         schedThread.togglePause(true);
 //        getLog().info("Scheduler " + resources.getUniqueIdentifier() + " paused.");
         getLog().info("Scheduler " + SystemPropGenerator.hostIP() + " paused.");
-//        notifySchedulerListenersInStandbyMode();
+        notifySchedulerListenersInStandbyMode();
     }
 
     /**
@@ -545,10 +603,9 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 //    public int numJobsExecuted() {
 //        return jobMgr.getNumJobsFired();
 //    }
-//    @Override
-//    public Class<?> getJobStoreClass() {
-//        return resources.getJobStore().getClass();
-//    }
+    public Class<?> getJobStoreClass() {
+        return resources.getJobStore().getClass();
+    }
     @Override
     public boolean supportsPersistence() {
         return resources.getJobStore().supportsPersistence();
@@ -566,6 +623,69 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         return resources.getThreadPool().getPoolSize();
     }
 
+    /**
+     * <p>
+     * Current acquisition window, early-fire tolerance and the load figures
+     * they were derived from.
+     * 当前获取窗口、提前触发容差以及其依据的负载指标
+     * </p>
+     */
+    public AcquireWindowTuner getAcquireWindowTuner() {
+        return resources.getAcquireWindowTuner();
+    }
+
+    /**
+     * <p>
+     * Actual minus scheduled fire time of the dispatched executes, in
+     * microseconds; negative values are early fires.
+     * 实际触发时间减计划触发时间(微秒)，负数为提前触发
+     * </p>
+     */
+    public Histogram getFireSkewHistogram() {
+        return schedThread.getFireSkewHistogram();
+    }
+
+    /**
+     * <p>
+     * Phase timing histograms (scheduled to claimed, claimed to started, run
+     * time, acquisition query, claim update, fire skew) of this scheduler.
+     * 本调度器各阶段耗时直方图
+     * </p>
+     */
+    public TimingStatistics getTimingStatistics() {
+        return timingStatistics;
+    }
+
+    /**
+     * <p>
+     * Fires of this scheduler by second of the minute.
+     * 本调度器按秒(一分钟内)统计的触发分布
+     * </p>
+     */
+    public FireSpreadStatistics getFireSpreadStatistics() {
+        return fireSpreadStatistics;
+    }
+
+    /**
+     * <p>
+     * Sampled throughput counters of this scheduler.
+     * 本调度器的抽样吞吐统计
+     * </p>
+     */
+    public SampledStatistics getSampledStatistics() {
+        return resources.getSampledStatistics();
+    }
+
+    /**
+     * <p>
+     * The execution history writer of this scheduler, null when disabled.
+     * 执行记录异步写入器，未开启时为null
+     * </p>
+     */
+    public ExecuteHistoryWriter getExecuteHistoryWriter() {
+        return resources.getExecuteHistoryWriter();
+    }
+
     /**
      * <p>
      * Halts the <code>QuartzScheduler</code>'s firing of <code>{@link org.quartz.Trigger}s</code>,
@@ -628,7 +748,11 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         // }
         standby();
         schedThread.halt(waitForJobsToComplete);
-//        notifySchedulerListenersShuttingdown();
+        if (fireNowWatcher != null) {
+            fireNowWatcher.shutdown();
+        }
+        catchUpDispatcher.shutdown();
+        notifySchedulerListenersShuttingdown();
         if( (resources.isInterruptJobsOnShutdown() && !waitForJobsToComplete) || 
                 (resources.isInterruptJobsOnShutdownWithWait() && waitForJobsToComplete)) {
             List<JobExecutionContext> jobs = getCurrentlyExecutingJobs();
@@ -647,12 +771,16 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         
         resources.getThreadPool().shutdown(waitForJobsToComplete);
         closed = true;
-//        if (resources.getJMXExport()) {
-//            try {
-//                unregisterJMX();
-//            } catch (Exception e) {
-//            }
-//        }
+        // 线程池停止后再停止写入线程，尽量写入已完成的执行记录
+        if (resources.getExecuteHistoryWriter() != null) {
+            resources.getExecuteHistoryWriter().shutdown();
+        }
+        if (resources.getJMXExport()) {
+            try {
+                unregisterJMX();
+            } catch (Exception e) {
+            }
+        }
 
 //        if(boundRemotely) {
 //            try {
@@ -663,7 +791,10 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         
         shutdownPlugins();
         resources.getJobStore().shutdown();
-//        notifySchedulerListenersShutdown();
+        resources.getSampledStatistics().shutdown();
+        notifySchedulerListenersShutdown();
+        // 尽量投递完已入队的事件(含 schedulerShutdown)
+        listenerBus.shutdown(LISTENER_BUS_SHUTDOWN_WAIT);
         SchedulerRepository.getInstance().remove(resources.getName());
         holdToPreventGC.clear();
         getLog().info("Scheduler " + resources.getUniqueIdentifier() + " shutdown complete.");
@@ -716,6 +847,52 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         return jobMgr.getExecutingJobs();
     }
 
+    /**
+     * <p>
+     * The currently executing contexts of the given execute, in this
+     * Scheduler instance only.
+     * 本实例中指定执行项正在执行的上下文
+     * </p>
+     */
+    @Override
+    public List<JobExecutionContext> getCurrentlyExecutingJobs(String executeId) {
+        return jobMgr.getExecutingJobs(executeId);
+    }
+
+    /**
+     * <p>
+     * The number of jobs currently executing in this Scheduler instance, O(1).
+     * 本实例正在执行的任务数
+     * </p>
+     */
+    @Override
+    public int getCurrentlyExecutingJobCount() {
+        return jobMgr.getNumJobsCurrentlyExecuting();
+    }
+
+    /**
+     * <p>
+     * The number of currently executing jobs per job class.
+     * 按任务类统计的正在执行的任务数
+     * </p>
+     */
+    @Override
+    public Map<String, Integer> getCurrentlyExecutingJobCountByJobClass() {
+        return jobMgr.getNumJobsCurrentlyExecutingByJobClass();
+    }
+
+    void notifyJobStarted(JobExecutionContext context) {
+        jobMgr.register(context);
+    }
+
+    void notifyJobFinished(JobExecutionContext context) {
+        jobMgr.deregister(context);
+    }
+
+    void notifyFiredComplete(String executeId, long scheduledTime) {
+        resources.getJobStore().firedComplete(executeId, scheduledTime);
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     ///
     /// Scheduling-related Methods
@@ -1032,9 +1209,147 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 //        return resources.getJobStore().getCalendarNames();
 //    }
 
-//    public ListenerManager getListenerManager() {
-//        return listenerManager;
-//    }
+    public ListenerManager getListenerManager() {
+        return listenerManager;
+    }
+
+    public ListenerBus getListenerBus() {
+        return listenerBus;
+    }
+
+    /**
+     * @return the job chain dispatcher, or null when job chains are disabled
+     */
+    public JobChainDispatcher getJobChainDispatcher() {
+        return jobChainDispatcher;
+    }
+
+    /**
+     * @return the fire now signal watcher, or null when it is disabled
+     */
+    public FireNowWatcher getFireNowWatcher() {
+        return fireNowWatcher;
+    }
+
+    /**
+     * @return the dispatcher of misfire catch-up runs
+     */
+    public CatchUpDispatcher getCatchUpDispatcher() {
+        return catchUpDispatcher;
+    }
+
+    /**
+     * @return the dispatch rate limiter, or null when no limit is configured
+     */
+    public DispatchRateLimiter getDispatchRateLimiter() {
+        return resources.getDispatchRateLimiter();
+    }
+
+    /**
+     * @return whether this node holds the application's leader lease
+     */
+    public boolean isClusterLeader() {
+        return resources.getJobStore().isClusterLeader();
+    }
+
+    /**
+     * @return the fencing token of the held leader lease, or -1
+     */
+    public long getLeaderFencingToken() {
+        return resources.getJobStore().getLeaderFencingToken();
+    }
+
+    /**
+     * @return the number of in-flight fires taken over from dead nodes
+     */
+    public long getTakenOverFiredCount() {
+        return resources.getJobStore().getTakenOverFiredCount();
+    }
+
+    /**
+     * @return the offset (in milliseconds) applied to the local clock, 0 when not synchronized
+     */
+    public long getClockOffset() {
+        final TimeBroker broker = resources.getTimeBroker();
+        return broker instanceof SimpleTimeBroker ? ((SimpleTimeBroker) broker).getOffset() : 0L;
+    }
+
+    /**
+     * @return the number of clock synchronizations whose offset exceeded the maximum skew
+     */
+    public long getClockSkewAlarmCount() {
+        return resources.getJobStore().getClockSkewAlarmCount();
+    }
+
+    /**
+     * @return the state of the database circuit breaker: CLOSED, OPEN or HALF_OPEN
+     */
+    public String getDbCircuitState() {
+        return resources.getJobStore().getDbCircuitState();
+    }
+
+    /**
+     * @return the number of consecutive failures to obtain a database connection
+     */
+    public int getDbConsecutiveFailures() {
+        return resources.getJobStore().getDbConsecutiveFailures();
+    }
+
+    /**
+     * @return the number of times the database circuit breaker opened
+     */
+    public long getDbCircuitOpenCount() {
+        return resources.getJobStore().getDbCircuitOpenCount();
+    }
+
+    /**
+     * @return the number of database accesses rejected while the circuit breaker was open
+     */
+    public long getDbCircuitRejectedCount() {
+        return resources.getJobStore().getDbCircuitRejectedCount();
+    }
+
+    /**
+     * @return whether the job store is firing from its in-memory schedule during a database outage
+     */
+    public boolean isDegradedFiring() {
+        return resources.getJobStore().isDegradedFiring();
+    }
+
+    /**
+     * @return the number of jobs fired from the in-memory schedule
+     */
+    public long getDegradedFireCount() {
+        return resources.getJobStore().getDegradedFireCount();
+    }
+
+    /**
+     * @return the number of degraded transitions that conflicted with the database when reconciled
+     */
+    public long getDegradedConflictCount() {
+        return resources.getJobStore().getDegradedConflictCount();
+    }
+
+    /**
+     * @return the number of executes held by the in-memory replica
+     */
+    public int getReplicaRowCount() {
+        return resources.getJobStore().getReplicaRowCount();
+    }
+
+    /**
+     * @return the number of syncs, full loads included, of the in-memory replica
+     */
+    public long getReplicaSyncCount() {
+        return resources.getJobStore().getReplicaSyncCount();
+    }
+
+    /**
+     * @return the number of rows read by the in-memory replica
+     */
+    public long getReplicaRowsRead() {
+        return resources.getJobStore().getReplicaRowsRead();
+    }
     
     /**
      * <p>
@@ -1048,6 +1363,7 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
         }
         synchronized (internalJobListeners) {
             internalJobListeners.put(jobListener.getName(), jobListener);
+            internalJobListenerSnapshot = internalJobListeners.values().toArray(new JobListener[0]);
         }
     }
 
@@ -1355,6 +1671,79 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 //        }
 //    }
 
+    /**
+     * <p>
+     * Notify the internal job listeners inline, then the registered ones
+     * through the listener bus. Called on the worker thread.
+     * 先在当前线程通知内部任务监听器，再经监听器总线通知已注册的监听器，在工作线程上调用。
+     * </p>
+     *
+     * @return true when a synchronous listener vetoed the execution
+     */
+    boolean notifyJobListenersToBeExecuted(JobExecutionContext jec) {
+        boolean vetoed = listenerBus.jobToBeExecuted(jec);
+        for (JobListener jl : internalJobListenerSnapshot) {
+            try {
+                if (vetoed) {
+                    jl.jobExecutionVetoed(jec);
+                } else {
+                    jl.jobToBeExecuted(jec);
+                }
+            } catch (Exception e) {
+                getLog().error("Internal JobListener '" + jl.getName() + "' threw exception: " + e.getMessage(), e);
+            }
+        }
+        return vetoed;
+    }
+
+    void notifyJobListenersWasExecuted(JobExecutionContext jec, JobExecutionException je) {
+        for (JobListener jl : internalJobListenerSnapshot) {
+            try {
+                jl.jobWasExecuted(jec, je);
+            } catch (Exception e) {
+                getLog().error("Internal JobListener '" + jl.getName() + "' threw exception: " + e.getMessage(), e);
+            }
+        }
+        listenerBus.jobWasExecuted(jec, je);
+    }
+
+    /**
+     * <p>
+     * Trigger the chain successors of a job that finished for good. Called on
+     * the worker thread, does nothing when job chains are disabled.
+     * 触发已最终完成任务的任务链下游，在工作线程上调用，未启用任务链时不做处理。
+     * </p>
+     */
+    void notifyJobChain(JobExecutionContext jec, boolean succeeded) {
+        if (jobChainDispatcher != null && !isShuttingDown()) {
+            jobChainDispatcher.onJobCompleted(jec, succeeded);
+        }
+    }
+
+    public void notifySchedulerListenersError(String msg, SchedulerException se) {
+        listenerBus.schedulerError(msg, se);
+    }
+
+    public void notifySchedulerListenersInStandbyMode() {
+        listenerBus.schedulerInStandbyMode();
+    }
+
+    public void notifySchedulerListenersStarting() {
+        listenerBus.schedulerStarting();
+    }
+
+    public void notifySchedulerListenersStarted() {
+        listenerBus.schedulerStarted();
+    }
+
+    public void notifySchedulerListenersShuttingdown() {
+        listenerBus.schedulerShuttingdown();
+    }
+
+    public void notifySchedulerListenersShutdown() {
+        listenerBus.schedulerShutdown();
+    }
+
 //    public void notifySchedulerListenersError(String msg, SchedulerException se) {
 //        // build a list of all scheduler listeners that are to be notified...
 //        List<SchedulerListener> schedListeners = buildSchedulerListenerList();
@@ -1860,8 +2249,26 @@ public class QuartzScheduler implements RemotableQuartzScheduler {
 //
 /////////////////////////////////////////////////////////////////////////////
 
+/**
+ * <p>
+ * Lock-free registry of the executions currently running in this scheduler
+ * instance. <code>{@link JobRunShell}</code> registers its context before the
+ * job runs and deregisters it afterwards; counts (total, per execute id, per
+ * job class) are O(1), listings are snapshots bounded by the pool size.
+ * 当前实例正在执行的任务的无锁登记表，由 JobRunShell 在执行前后登记/注销；总数、按执行项及任务类的计数均为O(1)，列表为快照。
+ * </p>
+ */
 class ExecutingJobsManager implements JobListener {
-    HashMap<String, JobExecutionContext> executingJobs = new HashMap<String, JobExecutionContext>();
+    // 正在执行的上下文(按对象标识，同一执行项可能并发执行)
+    private final ConcurrentHashMap<JobExecutionContext, Boolean> executingJobs = new ConcurrentHashMap<JobExecutionContext, Boolean>(64);
+
+    // 执行项ID -> 正在执行的个数
+    private final ConcurrentHashMap<String, AtomicInteger> countByExecuteId = new ConcurrentHashMap<String, AtomicInteger>(64);
+
+    // 任务类 -> 正在执行的个数
+    private final ConcurrentHashMap<String, AtomicInteger> countByJobClass = new ConcurrentHashMap<String, AtomicInteger>(16);
+
+    private final AtomicInteger numJobsExecuting = new AtomicInteger(0);
 
     AtomicInteger numJobsFired = new AtomicInteger(0);
 
@@ -1873,41 +2280,93 @@ class ExecutingJobsManager implements JobListener {
         return getClass().getName();
     }
 
-//    public int getNumJobsCurrentlyExecuting() {
-//        synchronized (executingJobs) {
-//            return executingJobs.size();
-//        }
-//    }
-//    @Override
-//    public void jobToBeExecuted(JobExecutionContext context) {
-//        numJobsFired.incrementAndGet();
-//        synchronized (executingJobs) {
-//            executingJobs.put(((OperableTrigger)context.getTrigger()).getFireInstanceId(), context);
-//        }
-//    }
-//    @Override
-//    public void jobWasExecuted(JobExecutionContext context,JobExecutionException jobException) {
-//        synchronized (executingJobs) {
-//            executingJobs.remove(((OperableTrigger)context.getTrigger()).getFireInstanceId());
-//        }
-//    }
+    /**
+     * 登记开始执行
+     */
+    void register(JobExecutionContext context) {
+        if (executingJobs.putIfAbsent(context, Boolean.TRUE) != null) {
+            return;
+        }
+        numJobsFired.incrementAndGet();
+        numJobsExecuting.incrementAndGet();
+        increment(countByExecuteId, context.getExecuteId());
+        increment(countByJobClass, context.getJobClassName());
+    }
 
-    public int getNumJobsFired() {
-        return numJobsFired.get();
+    /**
+     * 注销(执行结束)
+     */
+    void deregister(JobExecutionContext context) {
+        if (executingJobs.remove(context) == null) {
+            return;
+        }
+        numJobsExecuting.decrementAndGet();
+        decrement(countByExecuteId, context.getExecuteId());
+        decrement(countByJobClass, context.getJobClassName());
     }
 
-    public List<JobExecutionContext> getExecutingJobs() {
-        synchronized (executingJobs) {
-            return java.util.Collections.unmodifiableList(new ArrayList<JobExecutionContext>(executingJobs.values()));
+    private static void increment(ConcurrentHashMap<String, AtomicInteger> counts, String key) {
+        if (key == null) {
+            return;
         }
+        counts.compute(key, (k, v) -> {
+            if (v == null) {
+                return new AtomicInteger(1);
+            }
+            v.incrementAndGet();
+            return v;
+        });
     }
 
-//    @Override
-//    public void jobExecutionVetoed(JobExecutionContext context) {
-//
-//    }
+    private static void decrement(ConcurrentHashMap<String, AtomicInteger> counts, String key) {
+        if (key == null) {
+            return;
+        }
+        // 计数为0时移除，避免执行项ID无限累积
+        counts.computeIfPresent(key, (k, v) -> v.decrementAndGet() <= 0 ? null : v);
+    }
 
+    public int getNumJobsCurrentlyExecuting() {
+        return numJobsExecuting.get();
+    }
 
+    public int getNumJobsCurrentlyExecuting(String executeId) {
+        AtomicInteger count = countByExecuteId.get(executeId);
+        return count == null ? 0 : count.get();
+    }
 
+    /**
+     * 任务类 -> 正在执行的个数(快照)
+     */
+    public Map<String, Integer> getNumJobsCurrentlyExecutingByJobClass() {
+        Map<String, Integer> counts = new TreeMap<String, Integer>();
+        for (Map.Entry<String, AtomicInteger> e : countByJobClass.entrySet()) {
+            int count = e.getValue().get();
+            if (count > 0) {
+                counts.put(e.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    public int getNumJobsFired() {
+        return numJobsFired.get();
+    }
+
+    public List<JobExecutionContext> getExecutingJobs() {
+        return Collections.unmodifiableList(new ArrayList<JobExecutionContext>(executingJobs.keySet()));
+    }
 
+    public List<JobExecutionContext> getExecutingJobs(String executeId) {
+        if (getNumJobsCurrentlyExecuting(executeId) == 0) {
+            return Collections.emptyList();
+        }
+        List<JobExecutionContext> jobs = new ArrayList<JobExecutionContext>(2);
+        for (JobExecutionContext context : executingJobs.keySet()) {
+            if (executeId.equals(context.getExecuteId())) {
+                jobs.add(context);
+            }
+        }
+        return Collections.unmodifiableList(jobs);
+    }
 }
@@ -22,10 +22,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.quartz.management.ManagementRESTServiceConfiguration;
+import org.quartz.simpl.SimpleTimeBroker;
 import org.quartz.simpl.SystemPropGenerator;
 import org.quartz.spi.JobStore;
 import org.quartz.spi.SchedulerPlugin;
 import org.quartz.spi.ThreadPool;
+import org.quartz.spi.TimeBroker;
 
 /**
  * <p>
@@ -75,10 +77,9 @@ public class QuartzSchedulerResources {
 
     private boolean threadsInheritInitializersClassLoadContext = false;
 
-//    @Deprecated
-//    private boolean jmxExport;
-//    @Deprecated
-//    private String jmxObjectName;
+    private boolean jmxExport;
+
+    private String jmxObjectName;
 
     private ManagementRESTServiceConfiguration managementRESTServiceConfiguration;
 
@@ -91,6 +92,34 @@ public class QuartzSchedulerResources {
 
     private boolean interruptJobsOnShutdown = false;
     private boolean interruptJobsOnShutdownWithWait = false;
+
+    private AcquireWindowTuner acquireWindowTuner = new AcquireWindowTuner();
+
+    private boolean preciseDispatch = false;
+
+    private long preciseDispatchSpinNanos = 0L;
+
+    private SampledStatistics sampledStatistics = new NullSampledStatisticsImpl();
+
+    private ExecuteHistoryWriter executeHistoryWriter;
+
+    private int listenerBusThreadCount = ListenerBus.DEFAULT_THREAD_COUNT;
+
+    private int listenerBusQueueSize = ListenerBus.DEFAULT_QUEUE_SIZE;
+
+    private boolean jobChainEnabled = false;
+
+    private long jobChainFallbackDelay = JobChainDispatcher.DEFAULT_FALLBACK_DELAY;
+
+    private long fireNowPollInterval = FireNowWatcher.DEFAULT_POLL_INTERVAL;
+
+    private DispatchRateLimiter dispatchRateLimiter;
+
+    private TimeBroker timeBroker = new SimpleTimeBroker();
+
+    private int catchUpQueueSize = CatchUpDispatcher.DEFAULT_QUEUE_SIZE;
+
+    private double catchUpRate = CatchUpDispatcher.DEFAULT_RATE;
     
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -456,45 +485,43 @@ public class QuartzSchedulerResources {
 //        this.rmiBindName = rmiBindName;
 //    }
 //
-//    /**
-//     * Get whether the QuartzScheduler should be registered with the local
-//     * MBeanServer.
-//     */
-//    public boolean getJMXExport() {
-//        return jmxExport;
-//    }
-//
-//    /**
-//     * Set whether the QuartzScheduler should be registered with the local
-//     * MBeanServer.
-//     */
-//    @Deprecated
-//    public void setJMXExport(boolean jmxExport) {
-//        this.jmxExport = jmxExport;
-//    }
-//
-//    /**
-//     * Get the name under which the QuartzScheduler should be registered with
-//     * the local MBeanServer.  If unset, defaults to the value calculated by
-//     * <code>generateJMXObjectName<code>.
-//     *
-//     * @see #generateJMXObjectName(String, String)
-//     */
-//    public String getJMXObjectName() {
-//        return (jmxObjectName == null) ? generateJMXObjectName(name, instanceId) : jmxObjectName;
-//    }
-//
-//    /**
-//     * Set the name under which the QuartzScheduler should be registered with
-//     * the local MBeanServer.  If unset, defaults to the value calculated by
-//     * <code>generateJMXObjectName<code>.
-//     *
-//     * @see #generateJMXObjectName(String, String)
-//     */
-//    @Deprecated
-//    public void setJMXObjectName(String jmxObjectName) {
-//        this.jmxObjectName = jmxObjectName;
-//    }
+    /**
+     * Get whether the QuartzScheduler should be registered with the local
+     * MBeanServer.
+     */
+    public boolean getJMXExport() {
+        return jmxExport;
+    }
+
+    /**
+     * Set whether the QuartzScheduler should be registered with the local
+     * MBeanServer.
+     */
+    public void setJMXExport(boolean jmxExport) {
+        this.jmxExport = jmxExport;
+    }
+
+    /**
+     * Get the name under which the QuartzScheduler should be registered with
+     * the local MBeanServer.  If unset, defaults to the value calculated by
+     * <code>generateJMXObjectName<code>.
+     *
+     * @see #generateJMXObjectName(String, String)
+     */
+    public String getJMXObjectName() {
+        return (jmxObjectName == null) ? generateJMXObjectName(name, getInstanceId()) : jmxObjectName;
+    }
+
+    /**
+     * Set the name under which the QuartzScheduler should be registered with
+     * the local MBeanServer.  If unset, defaults to the value calculated by
+     * <code>generateJMXObjectName<code>.
+     *
+     * @see #generateJMXObjectName(String, String)
+     */
+    public void setJMXObjectName(String jmxObjectName) {
+        this.jmxObjectName = jmxObjectName;
+    }
 
 //    /**
 //     * Get the ThreadExecutor which runs the QuartzSchedulerThread
@@ -510,18 +537,18 @@ public class QuartzSchedulerResources {
 //        this.threadExecutor = threadExecutor;
 //    }
 
-//    /**
-//     * Create the name under which this scheduler should be registered in JMX.
-//     * <p>
-//     * The name is composed as:
-//     * quartz:type=QuartzScheduler,name=<i>[schedName]</i>,instance=<i>[schedInstId]</i>
-//     * </p>
-//     */
-//    public static String generateJMXObjectName(String schedName, String schedInstId) {
-//        return "quartz:type=QuartzScheduler" + ",name="
-//            + schedName.replaceAll(":|=|\n", ".")
-//            + ",instance=" + schedInstId;
-//    }
+    /**
+     * Create the name under which this scheduler should be registered in JMX.
+     * <p>
+     * The name is composed as:
+     * quartz:type=QuartzScheduler,name=<i>[schedName]</i>,instance=<i>[schedInstId]</i>
+     * </p>
+     */
+    public static String generateJMXObjectName(String schedName, String schedInstId) {
+        return "quartz:type=QuartzScheduler" + ",name="
+            + schedName.replaceAll(":|=|\n", ".")
+            + ",instance=" + schedInstId.replaceAll(":|=|\n", ".");
+    }
 
     /**
      * 默认是 0 ，具体参见配置: org.quartz.scheduler.batchTriggerAcquisitionFireAheadTimeWindow
@@ -566,6 +593,242 @@ public class QuartzSchedulerResources {
     }
 
 
+    /**
+     * <p>
+     * Get the tuner that adapts the acquisition window and early-fire tolerance
+     * of the <code>{@link QuartzSchedulerThread}</code>.
+     * 获取自适应获取窗口/提前触发容差的调节器
+     * </p>
+     */
+    public AcquireWindowTuner getAcquireWindowTuner() {
+        return acquireWindowTuner;
+    }
+
+    public void setAcquireWindowTuner(AcquireWindowTuner acquireWindowTuner) {
+        if (acquireWindowTuner == null) {
+            throw new IllegalArgumentException("AcquireWindowTuner cannot be null.");
+        }
+        this.acquireWindowTuner = acquireWindowTuner;
+    }
+
+    /**
+     * <p>
+     * Whether the scheduler thread waits on <code>System.nanoTime()</code>
+     * deadlines and fires on the scheduled time instead of up to the fire
+     * tolerance early.
+     * 是否精确触发(基于nanoTime等待至计划时间，而非提前容差毫秒触发)
+     * </p>
+     */
+    public boolean isPreciseDispatch() {
+        return preciseDispatch;
+    }
+
+    public void setPreciseDispatch(boolean preciseDispatch) {
+        this.preciseDispatch = preciseDispatch;
+    }
+
+    /**
+     * <p>
+     * How many nanoseconds before the deadline the precise dispatcher stops
+     * parking and spins, 0 disables spinning.
+     * 精确触发时截止前自旋的纳秒数，0为不自旋
+     * </p>
+     */
+    public long getPreciseDispatchSpinNanos() {
+        return preciseDispatchSpinNanos;
+    }
+
+    public void setPreciseDispatchSpinNanos(long preciseDispatchSpinNanos) {
+        if (preciseDispatchSpinNanos < 0 || preciseDispatchSpinNanos > 1000000L) {
+            throw new IllegalArgumentException("Precise dispatch spin must be between 0 and 1000000 nanos.");
+        }
+        this.preciseDispatchSpinNanos = preciseDispatchSpinNanos;
+    }
+
+    /**
+     * <p>
+     * Sampled throughput counters (jobs fired/completed, claims won/lost,
+     * acquired executes, recovered rows), a no-op implementation when disabled.
+     * 抽样吞吐统计，未开启时为空实现
+     * </p>
+     */
+    public SampledStatistics getSampledStatistics() {
+        return sampledStatistics;
+    }
+
+    public void setSampledStatistics(SampledStatistics sampledStatistics) {
+        if (sampledStatistics == null) {
+            throw new IllegalArgumentException("SampledStatistics cannot be null.");
+        }
+        this.sampledStatistics = sampledStatistics;
+    }
+
+    /**
+     * <p>
+     * The asynchronous execution history writer, null when disabled.
+     * 执行记录异步写入器，未开启时为null
+     * </p>
+     */
+    public ExecuteHistoryWriter getExecuteHistoryWriter() {
+        return executeHistoryWriter;
+    }
+
+    public void setExecuteHistoryWriter(ExecuteHistoryWriter executeHistoryWriter) {
+        this.executeHistoryWriter = executeHistoryWriter;
+    }
+
+    /**
+     * <p>
+     * Number of threads delivering listener events.
+     * 投递监听器事件的线程数
+     * </p>
+     */
+    public int getListenerBusThreadCount() {
+        return listenerBusThreadCount;
+    }
+
+    public void setListenerBusThreadCount(int listenerBusThreadCount) {
+        if (listenerBusThreadCount < 1) {
+            throw new IllegalArgumentException("Listener bus thread count must be positive.");
+        }
+        this.listenerBusThreadCount = listenerBusThreadCount;
+    }
+
+    /**
+     * <p>
+     * Capacity of the event queue of each listener, events are dropped when
+     * it is full.
+     * 每个监听器的事件队列容量，队列满时丢弃事件
+     * </p>
+     */
+    public int getListenerBusQueueSize() {
+        return listenerBusQueueSize;
+    }
+
+    public void setListenerBusQueueSize(int listenerBusQueueSize) {
+        if (listenerBusQueueSize < 2) {
+            throw new IllegalArgumentException("Listener bus queue size must be at least 2.");
+        }
+        this.listenerBusQueueSize = listenerBusQueueSize;
+    }
+
+    /**
+     * <p>
+     * Whether a finished job immediately triggers its persisted chain
+     * successors (QRTZ_JOB_CHAIN).
+     * 任务完成后是否立即触发任务链(QRTZ_JOB_CHAIN)中的下游任务
+     * </p>
+     */
+    public boolean isJobChainEnabled() {
+        return jobChainEnabled;
+    }
+
+    public void setJobChainEnabled(boolean jobChainEnabled) {
+        this.jobChainEnabled = jobChainEnabled;
+    }
+
+    /**
+     * <p>
+     * Delay (in milliseconds) used to pull a successor's next fire time in
+     * when the local node has no free thread, so that any node picks it up.
+     * 本地无空闲线程时，将下游任务的下次触发时间提前至 now+该延迟(毫秒)，交由集群任意节点获取
+     * </p>
+     */
+    public long getJobChainFallbackDelay() {
+        return jobChainFallbackDelay;
+    }
+
+    public void setJobChainFallbackDelay(long jobChainFallbackDelay) {
+        if (jobChainFallbackDelay < 0) {
+            throw new IllegalArgumentException("Job chain fallback delay must not be negative.");
+        }
+        this.jobChainFallbackDelay = jobChainFallbackDelay;
+    }
+
+    /**
+     * <p>
+     * Interval (in milliseconds) at which the "fire now" signals (QRTZ_SIGNAL)
+     * are polled, 0 disables the watcher.
+     * 立即执行信号(QRTZ_SIGNAL)的轮询间隔(毫秒)，0表示不启用
+     * </p>
+     */
+    public long getFireNowPollInterval() {
+        return fireNowPollInterval;
+    }
+
+    public void setFireNowPollInterval(long fireNowPollInterval) {
+        if (fireNowPollInterval < 0) {
+            throw new IllegalArgumentException("Fire now poll interval must not be negative.");
+        }
+        this.fireNowPollInterval = fireNowPollInterval;
+    }
+
+    /**
+     * <p>
+     * Rate limits applied before a fire is claimed, or null when no limit is
+     * configured.
+     * 抢占前执行的限流，未配置限流时为null
+     * </p>
+     */
+    public DispatchRateLimiter getDispatchRateLimiter() {
+        return dispatchRateLimiter;
+    }
+
+    public void setDispatchRateLimiter(DispatchRateLimiter dispatchRateLimiter) {
+        this.dispatchRateLimiter = dispatchRateLimiter;
+    }
+
+    /**
+     * <p>
+     * The clock of fire windows and claims, shared with the job store.
+     * 获取窗口及抢占使用的时钟(与 JobStore 共用)
+     * </p>
+     */
+    public TimeBroker getTimeBroker() {
+        return timeBroker;
+    }
+
+    public void setTimeBroker(TimeBroker timeBroker) {
+        if (timeBroker == null) {
+            throw new IllegalArgumentException("TimeBroker cannot be null.");
+        }
+        this.timeBroker = timeBroker;
+    }
+
+    /**
+     * <p>
+     * Capacity of the queue of misfire catch-up runs.
+     * 熄火补偿执行队列容量
+     * </p>
+     */
+    public int getCatchUpQueueSize() {
+        return catchUpQueueSize;
+    }
+
+    public void setCatchUpQueueSize(int catchUpQueueSize) {
+        if (catchUpQueueSize < 1) {
+            throw new IllegalArgumentException("Catch-up queue size must be positive.");
+        }
+        this.catchUpQueueSize = catchUpQueueSize;
+    }
+
+    /**
+     * <p>
+     * Misfire catch-up runs released per second at most.
+     * 每秒至多放行的熄火补偿执行数
+     * </p>
+     */
+    public double getCatchUpRate() {
+        return catchUpRate;
+    }
+
+    public void setCatchUpRate(double catchUpRate) {
+        if (catchUpRate <= 0D) {
+            throw new IllegalArgumentException("Catch-up rate must be positive.");
+        }
+        this.catchUpRate = catchUpRate;
+    }
+
     public ManagementRESTServiceConfiguration getManagementRESTServiceConfiguration() {
         return managementRESTServiceConfiguration;
     }
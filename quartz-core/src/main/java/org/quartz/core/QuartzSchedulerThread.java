@@ -18,19 +18,23 @@
 
 package org.quartz.core;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
-import java.util.TimeZone;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import org.quartz.JobPersistenceException;
 import org.quartz.SchedulerException;
 import org.quartz.Trigger;
+import org.quartz.impl.AcquiredExecute;
 import org.quartz.impl.QrtzExecute;
-import org.quartz.impl.triggers.CronTriggerImpl;
-import org.quartz.impl.triggers.SimpleTriggerImpl;
 import org.quartz.simpl.SystemPropGenerator;
+import org.quartz.spi.JobStore;
+import org.quartz.core.TimingStatistics.Phase;
+import org.quartz.utils.counter.Histogram;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +82,10 @@ public class QuartzSchedulerThread extends Thread {
 
     private int idleWaitVariablness = 7 * 1000;
 
+    // 计算 nanoTime 截止时间的基准(毫秒时间与纳秒时间的对应关系)
+    private long baseMillis;
+    private long baseNanos;
+
 //    private final Logger log = LoggerFactory.getLogger(getClass());
     private final Logger LOG = LoggerFactory.getLogger(QuartzSchedulerThread.class);
 
@@ -219,6 +227,17 @@ public class QuartzSchedulerThread extends Thread {
         return paused;
     }
 
+    /**
+     * <p>
+     * Histogram of actual minus scheduled fire time, in microseconds, of the
+     * executes dispatched by this thread (one thread per application).
+     * 本线程(即本应用)实际触发时间与计划触发时间之差的直方图(微秒)
+     * </p>
+     */
+    Histogram getFireSkewHistogram() {
+        return qs.getTimingStatistics().getHistogram(Phase.FIRE_SKEW);
+    }
+
     /**
      *  信号调度变更(认定下一次点火时间)
      * <p>
@@ -266,8 +285,6 @@ public class QuartzSchedulerThread extends Thread {
 //        }
 //    }
 
-    private static long LOOP_INTERVAL = 5000L;
-    private static long LOOP_WINDOW = 8L;
     /**
      * <p>
      * The main processing loop of the <code>QuartzSchedulerThread</code>.
@@ -283,13 +300,25 @@ public class QuartzSchedulerThread extends Thread {
         int acquiresFailed = 0;
         final String application = qsRsrcs.getJobStore().getInstanceName();
         final String hostIP = SystemPropGenerator.hostIP();
-        long now = System.currentTimeMillis()/1000*1000; // 这个时间不调整
+        // 获取窗口(即轮询间隔)及提前触发容差均由 tuner 根据负载自适应调整
+        final AcquireWindowTuner tuner = qsRsrcs.getAcquireWindowTuner();
+        // 精确触发: 基于 nanoTime 截止时间 park 等待，不再提前 ww 毫秒触发
+        final boolean preciseDispatch = qsRsrcs.isPreciseDispatch();
+        final long spinNanos = qsRsrcs.getPreciseDispatchSpinNanos();
+        final TimingStatistics timings = qs.getTimingStatistics();
+        final FireSpreadStatistics spread = qs.getFireSpreadStatistics();
+        // 限流，未配置时为null
+        final DispatchRateLimiter limiter = qsRsrcs.getDispatchRateLimiter();
+        final SampledStatistics sampled = qsRsrcs.getSampledStatistics();
+        long now = currentTimeMillis()/1000*1000; // 这个时间不调整
 //        long _t = System.currentTimeMillis();
         while (!halted.get()) {
 //            System.out.println("##scheduler耗时:"+(System.currentTimeMillis()-_t));
 //            _t = System.currentTimeMillis();
+            // 本轮窗口，循环内不变
+            final long loopInterval = tuner.getWindow();
             try {
-                long _ts = System.currentTimeMillis(); // 这个是减去sleep的时间了的
+                long _ts = currentTimeMillis(); // 这个是减去sleep的时间了的
                 // check if we're supposed to pause... 检查我们是否应该暂停。。。
 
                 // 加锁
@@ -298,19 +327,30 @@ public class QuartzSchedulerThread extends Thread {
                 synchronized (sigLock) {
 //                    final String state = qsRsrcs.getJobStore().findNodeStateByPK(application,hostIP);
                     int _stop = 0;
+                    String state;
                     // 是否暂停，是否停止
-                    while (!"Y".equals(qsRsrcs.getJobStore().findNodeStateByPK(application,hostIP)) /*&& !halted.get()*/) {
-                        _stop=_stop>10?1:1+_stop;
-                        try {
+                    while (!"Y".equals(state = qsRsrcs.getJobStore().findNodeStateByPK(application,hostIP)) && !halted.get()) {
+                        long wait;
+                        if (null == state) {
+                            // 未能读取节点状态(数据库异常或节点已被清理)，按退避等待而非固定间隔
+                            if (acquiresFailed < Integer.MAX_VALUE){
+                                acquiresFailed++;
+                            }
+                            wait = computeDelayForRepeatedErrors(qsRsrcs.getJobStore(), acquiresFailed);
+                        } else {
+                            _stop=_stop>10?1:1+_stop;
                             // 适当延长等待时间，减少空转
-//                            sigLock.wait(LOOP_INTERVAL*(_stop/3==0?1:2)-LOOP_WINDOW);
-                            sigLock.wait(LOOP_INTERVAL*(_stop/3==0?1:2));
-                            _ts = System.currentTimeMillis(); // 必须要重置，否则获取执行信息会出现时间误差
+//                            wait = LOOP_INTERVAL*(_stop/3==0?1:2)-LOOP_WINDOW;
+                            wait = tuner.getMaxWindow()*(_stop/3==0?1:2);
+                            // reset failure counter when paused, so that we don't wait again after unpausing
+                            // 暂停时重置失败计数器，这样我们就不会在取消暂停后再次等待
+                            acquiresFailed = 0;
+                        }
+                        try {
+                            sigLock.wait(wait);
+                            _ts = currentTimeMillis(); // 必须要重置，否则获取执行信息会出现时间误差
                         } catch (InterruptedException ignore) {
                         }
-                        // reset failure counter when paused, so that we don't wait again after unpausing
-                        // 暂停时重置失败计数器，这样我们就不会在取消暂停后再次等待
-                        acquiresFailed = 0;
                     }
                     if (halted.get()) {
                         break;
@@ -338,25 +378,36 @@ public class QuartzSchedulerThread extends Thread {
                 // 获取可用执行线程个数,确保可有
                 int availThreadCount = qsRsrcs.getThreadPool().blockForAvailableThreads();
                 if(availThreadCount > 0) { // will always be true, due to semantics of blockForAvailableThreads... 将始终为真，由于blockForAvailableThreads的语义。。。
-                    List<QrtzExecute> executeList = null;
+                    List<AcquiredExecute> executeList = null;
 //                    long _tew = _ts+LOOP_INTERVAL*2; // time end window
-                    long _tew = _ts+LOOP_INTERVAL; // time end window
+                    long _tew = _ts+loopInterval; // time end window
+                    long ww;
 //                    // 清除调度信号变更
 //                    clearSignaledSchedulingChange();
                     try {
-                        if ((System.currentTimeMillis()) > _tew) {
+                        if ((currentTimeMillis()) > _tew) {
                             LOG.error("线程池饱和已造成任务丢弃(=_=)!");
 //                            continue;
                         }
+                        long _ta = System.nanoTime();
                         executeList = qsRsrcs.getJobStore().acquireNextTriggers(application,now,_tew);
                         acquiresFailed = 0;
+                        _ta = System.nanoTime()-_ta;
+                        timings.record(Phase.ACQUIRE_QUERY,_ta/1000L);
+                        sampled.executesAcquired(null==executeList?0:executeList.size());
+                        // 根据获取耗时、窗口内数量及线程池饱和度调整下一轮窗口及本轮容差
+                        ww = tuner.update(_ta/1000000L, null==executeList?0:executeList.size(), availThreadCount, qsRsrcs.getThreadPool().getPoolSize());
+                        if (LOG.isDebugEnabled() && tuner.getWindow() != loopInterval) {
+                            LOG.debug("获取窗口调整:{}->{}, {}",loopInterval,tuner.getWindow(),tuner);
+                        }
                         if (executeList == null || executeList.isEmpty()) {
                             continue;
                         }
                     } catch (JobPersistenceException | RuntimeException jpe) {
                         if (acquiresFailed == 0) {
                             LOG.error("An error occurred while scanning for the next triggers to fire.",jpe);
-//                            qs.notifySchedulerListenersError("An error occurred while scanning for the next triggers to fire.",jpe);
+                            qs.notifySchedulerListenersError("An error occurred while scanning for the next triggers to fire.",
+                                    jpe instanceof SchedulerException ? (SchedulerException) jpe : new SchedulerException(jpe));
                         }
                         if (acquiresFailed < Integer.MAX_VALUE){
                             acquiresFailed++;
@@ -379,14 +430,16 @@ public class QuartzSchedulerThread extends Thread {
                     }else{
                         // 循环等待
                         //1.直至误差时间内(6毫秒)
-                        long ww = executeList.size()-1000<0 ? 4L : ((executeList.size()-1000L)/2000L)+4L ;
-                        ww= Math.min(ww, 8L);
+                        calibrateClock(preciseDispatch);
+                        if(null!=limiter){
+                            limiter.refreshLiveNodes(qsRsrcs.getJobStore(),application,currentTimeMillis());
+                        }
 //                        while( !executeList.isEmpty() && (System.currentTimeMillis()-now)<=LOOP_INTERVAL*2 ){
-                        while( !executeList.isEmpty() && (System.currentTimeMillis()-now)<=LOOP_INTERVAL ){
-                            long _et  = System.currentTimeMillis();
-                            QrtzExecute ce = null; // executeList.get(0);
+                        while( !executeList.isEmpty() && (currentTimeMillis()-now)<=loopInterval ){
+                            long _et  = currentTimeMillis();
+                            AcquiredExecute ce = null; // executeList.get(0);
                             for( int i = 0;i< executeList.size();i++ ){
-                                QrtzExecute el = executeList.get(i);
+                                AcquiredExecute el = executeList.get(i);
                                 // 这是要马上执行的任务
                                 if( el.getNextFireTime()-_et <= ww){
                                     ce=el;
@@ -402,12 +455,18 @@ public class QuartzSchedulerThread extends Thread {
                                 }
                             }
                             executeList.remove(ce); // 一定要移除，否则无法退出while循环!!!
+                            final long scheduledTime = ce.getNextFireTime();
                             // 延迟
-                            long w = 0;
-                            if((w = (ce.getNextFireTime()-System.currentTimeMillis()-ww)) >0 ){
-                                try {
-                                    Thread.sleep(w);
-                                }catch (Exception e){
+                            // 精确模式下提前 ww 毫秒仅用于抢锁，真正触发在下方等待至计划时间
+                            if(preciseDispatch){
+                                parkUntil(deadlineNanos(scheduledTime-ww),spinNanos);
+                            }else{
+                                long w = 0;
+                                if((w = (scheduledTime-currentTimeMillis()-ww)) >0 ){
+                                    try {
+                                        Thread.sleep(w);
+                                    }catch (Exception e){
+                                    }
                                 }
                             }
 
@@ -415,30 +474,68 @@ public class QuartzSchedulerThread extends Thread {
                             //## 尝试获取任务锁
                             //1.判断是否是本次执行
                             //2.修改下一次执行时间(next_file_time)
-                            if( !tryAcquireLockAndUpdate(ce) && null!=ce.setFireTime(System.currentTimeMillis()) ){
-                                LOG.info("任务未能获取执行锁或任务已暂停:{},{}-{}",ce.getId(),ce.getJobType(),ce.getJob().getJobClass());
-                                continue;
-                            }
-//                            log.error("=>已执行:{}->{},{}<=",ce.getId(),ce.getJobType(),ce.getJob().getJobClass()+"#"+ce.getExecuteIdx());
-//                            System.out.println(DateUtil.N()+"=>已执行:"+ce.getId()+","+ce.getJobType()+"-"+ce.getJob().getJobClass()+"#"+ce.getExecuteIdx());
-
-                            JobRunShell shell = null;
-                            try {
-                                // 创建jobShell
-                                shell = qsRsrcs.getJobRunShellFactory().createJobRunShell(ce);
-                                // 1.创建job实例并补充上下文及参数
-                                // 2.设置JobExecutionContext
-                                shell.initialize(qs);
-                            } catch (SchedulerException se) {
-                                se.printStackTrace();
-                                // todo： 是否重试需要根据job配置来,同时重试后仍然失败是否需要将state改为ERROR？。。。这里暂且如此
-                                continue;
-                            }
-                            // 这一句很关键，所有的执行都经这个方法调用
-                            // 所有任务都会被包装为 Runnable 对象然后扔进线程池执行，具体执行逻辑见 MeeThreadPool#run
-                            if (qsRsrcs.getThreadPool().runInThread(shell) == false) {
-                                // todo： 是否重试需要根据job配置来,同时重试后仍然失败是否需要将state改为ERROR？。。。这里暂且如此
-                                continue;
+                            // 同一计划时刻的其余触发(如同一cron的多个执行项)与之合并为一次批量抢占
+                            // 被限流的触发推迟 NEXT_FIRE_TIME，不执行
+                            final List<Claim> claims = prepareClaims(ce,executeList,limiter);
+                            final long claimStart = System.nanoTime();
+                            claim(claims);
+                            final long claimedNanos = System.nanoTime();
+                            // 批量抢占的耗时按触发数均摊，每个触发记一次
+                            final long claimMicros = (claimedNanos-claimStart)/1000L/claims.size();
+                            for(Claim c:claims){
+                                final AcquiredExecute fire = c.fire;
+                                final String jobClass = fire.getSource().getJob().getJobClass();
+                                timings.record(Phase.CLAIM_UPDATE,jobClass,claimMicros);
+                                if( c.deferred ){
+                                    LOG.debug("任务已限流,推迟至:{},{}-{}",c.newCe.getNextFireTime(),fire.getId(),jobClass);
+                                    continue;
+                                }
+                                if( !c.won || !c.runnable ){
+                                    sampled.claimLost();
+                                    LOG.info("任务未能获取执行锁或任务已暂停:{},{}-{}",fire.getId(),fire.getType(),jobClass);
+                                    continue;
+                                }
+                                sampled.claimWon();
+                                timings.record(Phase.SCHEDULED_TO_CLAIMED,jobClass,(claimedNanos-deadlineNanos(scheduledTime))/1000L);
+                                // 仅抢占成功的触发才生成 QrtzExecute，JobExecutionContext 在 initialize 时读取触发时间
+                                final QrtzExecute execute = fire.toQrtzExecute();
+                                execute.setFireTime(preciseDispatch?Math.max(scheduledTime,currentTimeMillis()):currentTimeMillis());
+//                                log.error("=>已执行:{}->{},{}<=",ce.getId(),ce.getJobType(),ce.getJob().getJobClass()+"#"+ce.getExecuteIdx());
+//                                System.out.println(DateUtil.N()+"=>已执行:"+ce.getId()+","+ce.getJobType()+"-"+ce.getJob().getJobClass()+"#"+ce.getExecuteIdx());
+
+                                JobRunShell shell = null;
+                                try {
+                                    // 创建jobShell
+                                    shell = qsRsrcs.getJobRunShellFactory().createJobRunShell(execute);
+                                    // 1.创建job实例并补充上下文及参数
+                                    // 2.设置JobExecutionContext
+                                    shell.initialize(qs);
+                                    shell.setClaimedNanos(claimedNanos);
+                                    shell.setInFlight(c.recorded);
+                                } catch (SchedulerException se) {
+                                    se.printStackTrace();
+                                    if( c.recorded ){
+                                        qsRsrcs.getJobStore().firedComplete(execute.getId(),scheduledTime);
+                                    }
+                                    // todo： 是否重试需要根据job配置来,同时重试后仍然失败是否需要将state改为ERROR？。。。这里暂且如此
+                                    continue;
+                                }
+                                final long dueNanos = deadlineNanos(scheduledTime);
+                                if(preciseDispatch){
+                                    parkUntil(dueNanos,spinNanos);
+                                }
+                                timings.record(Phase.FIRE_SKEW,jobClass,(System.nanoTime()-dueNanos)/1000L);
+                                // 这一句很关键，所有的执行都经这个方法调用
+                                // 所有任务都会被包装为 Runnable 对象然后扔进线程池执行，具体执行逻辑见 MeeThreadPool#run
+                                if (qsRsrcs.getThreadPool().runInThread(shell) == false) {
+                                    if( c.recorded ){
+                                        qsRsrcs.getJobStore().firedComplete(execute.getId(),scheduledTime);
+                                    }
+                                    // todo： 是否重试需要根据job配置来,同时重试后仍然失败是否需要将state改为ERROR？。。。这里暂且如此
+                                    continue;
+                                }
+                                sampled.jobFired();
+                                spread.record(execute.getFireTime().getTime(),fire.getSource().getJitter()>0);
                             }
 
                         }
@@ -487,29 +584,32 @@ public class QuartzSchedulerThread extends Thread {
                 long st = 0;
                 // if ( (sleep_time = (TIME_CHECK_INTERVAL-(System.currentTimeMillis() - _start)-2))>0 )
 //                if((st = (LOOP_INTERVAL*2-(System.currentTimeMillis()-now)-4)) >0 ){
-                if((st = (LOOP_INTERVAL-(System.currentTimeMillis()-now)-2)) >0 ){
+                if((st = (loopInterval-(currentTimeMillis()-now)-2)) >0 ){
                     try {
                         Thread.sleep(st);
                     } catch (InterruptedException e) {
                         e.printStackTrace();
                     }
                 }
-                // 限制错误
-                if(acquiresFailed>3){
-                    try {
-                        Thread.sleep(LOOP_INTERVAL*(acquiresFailed>6?3:2));
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
+                // 获取失败时按 JobStore 的退避(及断路器)等待，可被 halt 唤醒
+                if(acquiresFailed>0 && !halted.get()){
+                    final long delay = computeDelayForRepeatedErrors(qsRsrcs.getJobStore(), acquiresFailed);
+                    synchronized (sigLock) {
+                        try {
+                            if (!halted.get()) {
+                                sigLock.wait(delay);
+                            }
+                        } catch (InterruptedException ignore) {
+                        }
                     }
-                    acquiresFailed=acquiresFailed>9?0:acquiresFailed;
                 }
                 if( st<-10 && st%5==0 ){
                     LOG.error("当前次任务轮询超时:"+st);
                 }
                 // 防止因轮询超时的必要手段
                 now = st<-1000?
-                        System.currentTimeMillis()/1000*1000 :
-                        System.currentTimeMillis()+(st<-10?st:0);
+                        currentTimeMillis()/1000*1000 :
+                        currentTimeMillis()+(st<-10?st:0);
             }
         } // while (!halted)
 
@@ -518,77 +618,157 @@ public class QuartzSchedulerThread extends Thread {
         qsRsrcs = null;
     }
 
-    private boolean tryAcquireLockAndUpdate(QrtzExecute ce)  {
+    /**
+     * 建立毫秒时间与 nanoTime 的对应关系，精确模式下等待毫秒时钟跳变以消除亚毫秒偏差(最多1毫秒)
+     */
+    private void calibrateClock(boolean precise) {
+        long ms = currentTimeMillis();
+        if (precise) {
+            long next;
+            while ((next = currentTimeMillis()) == ms) {
+            }
+            ms = next;
+        }
+        baseNanos = System.nanoTime();
+        baseMillis = ms;
+    }
+
+    // 集群统一时钟(开启时钟同步时与数据库时钟对齐)，窗口、抢占及触发时间均以此为准
+    private long currentTimeMillis() {
+        return qsRsrcs.getTimeBroker().currentTimeMillis();
+    }
+
+    private long deadlineNanos(long fireTimeMillis) {
+        return baseNanos + (fireTimeMillis - baseMillis) * 1000000L;
+    }
+
+    /**
+     * park 至截止时间，最后 spinNanos 纳秒自旋；被中断时与 Thread.sleep 一致，清除中断标志并直接返回
+     */
+    static void parkUntil(long deadlineNanos, long spinNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > spinNanos) {
+            LockSupport.parkNanos(remaining - spinNanos);
+            if (Thread.interrupted()) {
+                return;
+            }
+        }
+        while (deadlineNanos - System.nanoTime() > 0) {
+            // spin
+        }
+    }
+
+    // 单次批量抢占的最大触发数
+    static final int MAX_CLAIM_BATCH = 64;
+
+    /**
+     * 一次抢占：触发、抢占时写入的新值及结果
+     */
+    static final class Claim {
+        final AcquiredExecute fire;
+        final QrtzExecute newCe;
+        // 已完成或调度异常时仅更新记录，不执行任务
+        final boolean runnable;
+        // 被限流，仅推迟 NEXT_FIRE_TIME
+        final boolean deferred;
+        boolean won;
+        // 抢占时已写入执行中记录，结束(或未能执行)时须删除
+        boolean recorded;
+
+        Claim(AcquiredExecute fire, QrtzExecute newCe, boolean runnable) {
+            this(fire, newCe, runnable, false);
+        }
+
+        Claim(AcquiredExecute fire, QrtzExecute newCe, boolean runnable, boolean deferred) {
+            this.fire = fire;
+            this.newCe = newCe;
+            this.runnable = runnable;
+            this.deferred = deferred;
+        }
+    }
+
+    /**
+     * 取出与 ce 计划时刻相同的其余触发(至多 MAX_CLAIM_BATCH 个，含 ce)，并计算各自抢占时写入的新值
+     */
+    private List<Claim> prepareClaims(AcquiredExecute ce, List<AcquiredExecute> executeList, DispatchRateLimiter limiter) {
+        final List<Claim> claims = new ArrayList<Claim>(4);
+        final long now = currentTimeMillis();
+        claims.add(prepareClaim(ce,now,limiter));
+        for (Iterator<AcquiredExecute> it = executeList.iterator(); it.hasNext() && claims.size() < MAX_CLAIM_BATCH; ) {
+            final AcquiredExecute el = it.next();
+            if (el.getNextFireTime() == ce.getNextFireTime()) {
+                it.remove();
+                claims.add(prepareClaim(el,now,limiter));
+            }
+        }
+        return claims;
+    }
+
+    private Claim prepareClaim(AcquiredExecute ce, long now, DispatchRateLimiter limiter) {
+        final long deferTo = null == limiter ? 0L : limiter.acquire(ce.getSource().getJob().getJobClass(),now);
+        if (deferTo <= 0L) {
+            return prepareClaim(ce,now);
+        }
+        // 仅将 NEXT_FIRE_TIME 推迟至有许可时，状态、上次触发时间不变(获取时已按 repeatCount 递增的已触发次数需还原)
+        final AcquiredExecute.Source source = ce.getSource();
+        final int tt = source.getRepeatCount()>0 && ce.getTimeTriggered()>0 ? ce.getTimeTriggered()-1 : ce.getTimeTriggered();
+        return new Claim(ce,ce.toQrtzExecute(source.getState(),tt,ce.getPrevFireTime(),deferTo,source.getRow().getEndTime()),false,true);
+    }
+
+    private void claim(List<Claim> claims) {
+        final List<QrtzExecute> newCes = new ArrayList<QrtzExecute>(claims.size());
+        final List<AcquiredExecute> olds = new ArrayList<AcquiredExecute>(claims.size());
+        // 将执行的触发在抢占事务内写入执行中记录(启用心跳时)
+        final boolean[] fires = new boolean[claims.size()];
+        for (int i = 0; i < fires.length; i++) {
+            final Claim c = claims.get(i);
+            newCes.add(c.newCe);
+            olds.add(c.fire);
+            fires[i] = c.runnable && !c.deferred;
+        }
+        final int[] counts = qsRsrcs.getJobStore().toLockAndFire(newCes,olds,fires);
+        for (int i = 0; i < claims.size(); i++) {
+            final Claim c = claims.get(i);
+            c.won = null != counts && i < counts.length && counts[i] > 0;
+            // 返回后 fires[i] 仅对写入了执行中记录的触发为 true
+            c.recorded = c.won && fires[i];
+        }
+    }
+
+    private Claim prepareClaim(AcquiredExecute ce, long now)  {
         // 1.计算更新 prev_fire_time、next_fire_time .... etc
-        long now = System.currentTimeMillis();
-        final String jobType = ce.getJobType();
-        final Long endTime = (null==ce.getEndTime() || ce.getEndTime()<1) ?-1:ce.getEndTime();
+        final AcquiredExecute.Source source = ce.getSource();
+        final long endTime = source.getEndTime();
         // 这两个字段相当于是版本，也可以理解为锁
-        long old_prev_time = ce.getPrevFireTime();
-        long old_next_time = ce.getNextFireTime();
-        final String old_state = ce.getState();
-        Date nextFireTime = new Date(ce.getNextFireTime());
-//        QrtzExecute newCe = new QrtzExecute(ce.getId(),ce.getPid(),ce.getJobType(),ce.getState(),ce.getCron(),ce.getZoneId(),ce.getRepeatCount(),ce.getRepeatInterval(),ce.getTimeTriggered(),ce.getPrevFireTime(),ce.getNextFireTime(),ce.getHostIp(),ce.getHostName(),ce.getStartTime(),ce.getEndTime());
-        QrtzExecute newCe = QrtzExecute.build(ce.getId(),ce.getPid(),ce.getJobType(),ce.getState(),ce.getCron(),ce.getZoneId(),ce.getRepeatCount(),ce.getRepeatInterval(),ce.getTimeTriggered(),ce.getPrevFireTime(),ce.getNextFireTime(),ce.getHostIp(),ce.getHostName(),ce.getStartTime(),ce.getEndTime());
+        final long old_prev_time = ce.getPrevFireTime();
+        final long old_next_time = ce.getNextFireTime();
+        AcquiredExecute.State state = source.getState();
+        long prevFireTime = old_prev_time;
+        long nextFireTime = old_next_time;
+        int tt = ce.getTimeTriggered();
+        Long newEndTime = source.getRow().getEndTime();
         try {
-            if ("CRON".equals(jobType)) {
-                CronTriggerImpl cronTrigger = new CronTriggerImpl()
-                        .setCronExpression(newCe.getCron())
-                        .setStartTime(new Date(newCe.getStartTime()))
-                        .setEndTime(new Date(endTime))
-                        .setTimeZone(TimeZone.getTimeZone(newCe.getZoneId()));
-//                if(endTime>0){
-//                    cronTrigger.setEndTime(new Date(endTime));
-//                }
-//                Date _ds = nextFireTime;
-                nextFireTime = cronTrigger.getFireTimeAfter(nextFireTime);
-//                System.out.println("CRON=>"+ (_ds.getTime()>now)+" | "+(nextFireTime.getTime()>now));
-                if (nextFireTime == null) {
-                    LOG.info("01任务已执行完成:{}",newCe.getId());
-//                old_state = ce.getState();
-                    newCe.setEndTime(now);
-                    newCe.setState("COMPLETE");
-                    qsRsrcs.getJobStore().toLockAndUpdate(newCe,old_state,old_prev_time,old_next_time);
-                    return Boolean.FALSE;
-                } else {
-                    newCe.setPrevFireTime(newCe.getNextFireTime());
-                    newCe.setNextFireTime(nextFireTime.getTime());
+            // 已编译的调度在同一执行项的各次触发间共享，不再每次解析cron
+            final Date next = source.fireTimeAfter(old_next_time,tt);
+            if (source.getType() == AcquiredExecute.Type.CRON) {
+                if (next == null) {
+                    LOG.info("01任务已执行完成:{}",ce.getId());
+                    return new Claim(ce,ce.toQrtzExecute(AcquiredExecute.State.COMPLETE,tt,prevFireTime,nextFireTime,now),false);
                 }
             } else {
-                SimpleTriggerImpl simpleTrigger = new SimpleTriggerImpl()
-                        .setStartTime(new Date(newCe.getStartTime()))
-                        .setEndTime(new Date(endTime))
-                        .setRepeatCount(newCe.getRepeatCount())
-                        .setRepeatInterval(newCe.getRepeatInterval())
-                        .setTimesTriggered(newCe.getTimeTriggered());
-//                if(endTime>0){
-//                    simpleTrigger.setEndTime(new Date(endTime));
-//                }
-//                Date _ds = nextFireTime;
-                nextFireTime = simpleTrigger.getFireTimeAfter(nextFireTime);
-//                System.out.println("CRON=>"+ (_ds.getTime()>now)+" | "+(nextFireTime.getTime()>now));
-                Integer tt = newCe.getTimeTriggered();
-                if (nextFireTime == null || (endTime > 0 && endTime < now) || (newCe.getRepeatCount()>0 && tt > newCe.getRepeatCount())) {
-//                old_state = ce.getState();
-                    newCe.setTimeTriggered(tt>0?tt-1:tt);
-                    newCe.setEndTime(now);
-                    LOG.info("02任务已执行完成:{}",newCe.getId());
-                    newCe.setState("COMPLETE");
-                    qsRsrcs.getJobStore().toLockAndUpdate(newCe,old_state,old_prev_time,old_next_time);
-                    return Boolean.FALSE;
-                } else {
-                    newCe.setPrevFireTime(newCe.getNextFireTime());
-                    newCe.setNextFireTime(nextFireTime.getTime());
+                if (next == null || (endTime > 0 && endTime < now) || (source.getRepeatCount()>0 && tt > source.getRepeatCount())) {
+                    LOG.info("02任务已执行完成:{}",ce.getId());
+                    return new Claim(ce,ce.toQrtzExecute(AcquiredExecute.State.COMPLETE,tt>0?tt-1:tt,prevFireTime,nextFireTime,now),false);
                 }
             }
+            prevFireTime = old_next_time;
+            nextFireTime = next.getTime();
         }catch (Exception e){
             e.printStackTrace();
-            newCe.setState("ERROR");
+            state = AcquiredExecute.State.ERROR;
         }
         // 如果是异常则不需要执行任务
-        return qsRsrcs.getJobStore().toLockAndUpdate(newCe,old_state,old_prev_time,old_next_time)>0
-//                && !"COMPLETE".equals(newCe.getState())
-                && !"ERROR".equals(newCe.getState());
+        return new Claim(ce,ce.toQrtzExecute(state,tt,prevFireTime,nextFireTime,newEndTime),state != AcquiredExecute.State.ERROR);
     }
 //    private boolean tryAcquireLockAndUpdate(QrtzExecute ce)  {
 //        // 1.计算更新 prev_fire_time、next_fire_time .... etc
@@ -634,29 +814,27 @@ public class QuartzSchedulerThread extends Thread {
     private static final long MIN_DELAY = 20;
     private static final long MAX_DELAY = 600000;
 
-//    // 计算重复错误的延迟 acquiresFailed:一般为>1的值
-//    private static long computeDelayForRepeatedErrors(JobStore jobStore, int acquiresFailed) {
-//        long delay;
-//        try {
-//            // 默认15000(15秒) 具体配置见: org.quartz.scheduler.dbFailureRetryInterval
-//            delay = jobStore.getAcquireRetryDelay(acquiresFailed);
-////            delay = LOOP_INTERVAL*2;
-//        } catch (Exception ignored) {
-//            // we're trying to be useful in case of error states, not cause
-//            // additional errors..
-//            // 我们试图在出现错误状态时发挥作用，而不是导致额外的错误。。
-//            delay = 100;
-//        }
-//        // sanity check per getAcquireRetryDelay specification 根据getAcquireMetricDelay规范进行健全性检查
-//        if (delay < MIN_DELAY){
-//            delay = MIN_DELAY;
-//        }
-//        // 延迟 10分钟
-//        if (delay > MAX_DELAY){
-//            delay = MAX_DELAY;
-//        }
-//        return delay;
-//    }
+    // 计算重复错误的延迟 acquiresFailed:连续失败次数(>=1)，上限见 org.quartz.scheduler.dbFailureRetryInterval
+    private static long computeDelayForRepeatedErrors(JobStore jobStore, int acquiresFailed) {
+        long delay;
+        try {
+            delay = jobStore.getAcquireRetryDelay(acquiresFailed);
+        } catch (Exception ignored) {
+            // we're trying to be useful in case of error states, not cause
+            // additional errors..
+            // 我们试图在出现错误状态时发挥作用，而不是导致额外的错误。。
+            delay = 100;
+        }
+        // sanity check per getAcquireRetryDelay specification 根据getAcquireMetricDelay规范进行健全性检查
+        if (delay < MIN_DELAY){
+            delay = MIN_DELAY;
+        }
+        // 延迟 10分钟
+        if (delay > MAX_DELAY){
+            delay = MAX_DELAY;
+        }
+        return delay;
+    }
 //
 //    private boolean releaseIfScheduleChangedSignificantly(List<OperableTrigger> triggers, long triggerTime) {
 //        // 一般是:通知点火时间 < 任务点火时间
@@ -22,6 +22,7 @@ import java.rmi.Remote;
 import java.rmi.RemoteException;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.quartz.JobExecutionContext;
 import org.quartz.SchedulerException;
@@ -83,6 +84,12 @@ public interface RemotableQuartzScheduler extends Remote {
     
     List<JobExecutionContext> getCurrentlyExecutingJobs() throws SchedulerException, RemoteException;
 
+    List<JobExecutionContext> getCurrentlyExecutingJobs(String executeId) throws SchedulerException, RemoteException;
+
+    int getCurrentlyExecutingJobCount() throws SchedulerException, RemoteException;
+
+    Map<String, Integer> getCurrentlyExecutingJobCountByJobClass() throws SchedulerException, RemoteException;
+
 //    Date scheduleJob(JobDetail jobDetail, Trigger trigger) throws SchedulerException, RemoteException;
 //    default Date scheduleJob(JobCfg jobCfg, ExecuteCfg executeCfg) throws SchedulerException, RemoteException{
 //        throw new SchedulerException("Undefined logic!");
@@ -1,8 +1,76 @@
-//package org.quartz.core;
-//
-//public interface SampledStatistics {
-//    long getJobsScheduledMostRecentSample();
-//    long getJobsExecutingMostRecentSample();
-//    long getJobsCompletedMostRecentSample();
-//    void shutdown();
-//}
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.core;
+
+import org.quartz.utils.counter.sampled.TimeStampedCounterValue;
+
+/**
+ * <p>
+ * Sampled throughput counters of one scheduler. Each counter is reset on
+ * every sample, so the most recent sample is the number of events of the last
+ * sampling interval; the per second getters divide it by the interval.
+ * 单个调度器的抽样吞吐计数，每次采样后清零，最近一次采样即上一个采样间隔内的事件数。
+ * </p>
+ */
+public interface SampledStatistics {
+
+    /** 触发(交给工作线程)的任务数 */
+    String JOBS_FIRED = "jobsFired";
+    /** 执行完成的任务数 */
+    String JOBS_COMPLETED = "jobsCompleted";
+    /** 抢锁成功数 */
+    String CLAIMS_WON = "claimsWon";
+    /** 抢锁失败数(被其他节点抢到或数据已变化) */
+    String CLAIMS_LOST = "claimsLost";
+    /** 获取窗口查询到的执行数 */
+    String EXECUTES_ACQUIRED = "executesAcquired";
+    /** 集群恢复(执行及任务)更新的行数 */
+    String RECOVERED_ROWS = "recoveredRows";
+
+    void jobFired();
+
+    void jobCompleted();
+
+    void claimWon();
+
+    void claimLost();
+
+    void executesAcquired(int count);
+
+    void rowsRecovered(int count);
+
+    long getJobsFiredPerSecond();
+
+    long getJobsCompletedPerSecond();
+
+    long getClaimsWonPerSecond();
+
+    long getClaimsLostPerSecond();
+
+    long getExecutesAcquiredPerSecond();
+
+    long getRecoveredRowsPerSecond();
+
+    /**
+     * @param counterName one of the counter name constants
+     * @return the retained samples of the counter, newest first; empty when unknown or disabled
+     */
+    TimeStampedCounterValue[] getSampleHistory(String counterName);
+
+    void shutdown();
+}
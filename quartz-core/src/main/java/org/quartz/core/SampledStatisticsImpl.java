@@ -1,108 +1,179 @@
-//package org.quartz.core;
-//
-//import java.util.Timer;
-//
-//import org.quartz.JobDetail;
-//import org.quartz.JobExecutionContext;
-//import org.quartz.JobExecutionException;
-//import org.quartz.JobListener;
-//import org.quartz.SchedulerListener;
-//import org.quartz.Trigger;
-//import org.quartz.listeners.SchedulerListenerSupport;
-//import org.quartz.utils.counter.CounterConfig;
-//import org.quartz.utils.counter.CounterManager;
-//import org.quartz.utils.counter.CounterManagerImpl;
-//import org.quartz.utils.counter.sampled.SampledCounter;
-//import org.quartz.utils.counter.sampled.SampledCounterConfig;
-//import org.quartz.utils.counter.sampled.SampledRateCounterConfig;
-//
-//// 抽样统计信息
-//public class SampledStatisticsImpl extends SchedulerListenerSupport implements SampledStatistics, JobListener, SchedulerListener {
-//    @SuppressWarnings("unused")
-//    private final QuartzScheduler scheduler;
-//
-//    private static final String NAME = "QuartzSampledStatistics";
-//
-//    private static final int DEFAULT_HISTORY_SIZE = 30;
-//    private static final int DEFAULT_INTERVAL_SECS = 1;
-//    private final static SampledCounterConfig DEFAULT_SAMPLED_COUNTER_CONFIG = new SampledCounterConfig(DEFAULT_INTERVAL_SECS,
-//            DEFAULT_HISTORY_SIZE, true, 0L);
-//    @SuppressWarnings("unused")
-//    private final static SampledRateCounterConfig DEFAULT_SAMPLED_RATE_COUNTER_CONFIG = new SampledRateCounterConfig(DEFAULT_INTERVAL_SECS,
-//            DEFAULT_HISTORY_SIZE, true);
-//
-//    private volatile CounterManager counterManager;
-//    private final SampledCounter jobsScheduledCount;
-//    private final SampledCounter jobsExecutingCount;
-//    private final SampledCounter jobsCompletedCount;
-//
-//    SampledStatisticsImpl(QuartzScheduler scheduler) {
-//        this.scheduler = scheduler;
-//        counterManager = new CounterManagerImpl(new Timer(NAME+"Timer"));
-//        jobsScheduledCount = createSampledCounter(DEFAULT_SAMPLED_COUNTER_CONFIG);
-//        jobsExecutingCount = createSampledCounter(DEFAULT_SAMPLED_COUNTER_CONFIG);
-//        jobsCompletedCount = createSampledCounter(DEFAULT_SAMPLED_COUNTER_CONFIG);
-//
-//        scheduler.addInternalSchedulerListener(this);
-//        scheduler.addInternalJobListener(this);
-//    }
-//    @Override
-//    public void shutdown() {
-//        counterManager.shutdown(true);
-//    }
-//
-//    private SampledCounter createSampledCounter(CounterConfig defaultCounterConfig) {
-//        return (SampledCounter) counterManager.createCounter(defaultCounterConfig);
-//    }
-//
-//    /**
-//     * Clears the collected statistics. Resets all counters to zero
-//     */
-//    public void clearStatistics() {
-//        jobsScheduledCount.getAndReset();
-//        jobsExecutingCount.getAndReset();
-//        jobsCompletedCount.getAndReset();
-//    }
-//    @Override
-//    public long getJobsCompletedMostRecentSample() {
-//        return jobsCompletedCount.getMostRecentSample().getCounterValue();
-//    }
-//
-//    public long getJobsExecutingMostRecentSample() {
-//        return jobsExecutingCount.getMostRecentSample().getCounterValue();
-//    }
-//
-//    public long getJobsScheduledMostRecentSample() {
-//        return jobsScheduledCount.getMostRecentSample().getCounterValue();
-//    }
-//
-//    public String getName() {
-//        return NAME;
-//    }
-//
-//    @Override
-//    public void jobScheduled(Trigger trigger) {
-//        jobsScheduledCount.increment();
-//    }
-//
-//    public void jobExecutionVetoed(JobExecutionContext context) {
-//        /**/
-//    }
-//
-//    public void jobToBeExecuted(JobExecutionContext context) {
-//        jobsExecutingCount.increment();
-//    }
-//
-////    public void jobWasExecuted(JobExecutionContext context,JobExecutionException jobException) {
-////        jobsCompletedCount.increment();
-////    }
-//
-//    @Override
-//    public void jobAdded(JobDetail jobDetail) {
-//        /**/
-//    }
-//
-//    public void jobDeleted(String jobName, String groupName) {
-//        /**/
-//    }
-//}
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.quartz.utils.counter.CounterManager;
+import org.quartz.utils.counter.CounterManagerImpl;
+import org.quartz.utils.counter.sampled.SampledCounter;
+import org.quartz.utils.counter.sampled.SampledCounterConfig;
+import org.quartz.utils.counter.sampled.TimeStampedCounterValue;
+
+/**
+ * <p>
+ * {@link SampledStatistics} backed by {@link SampledCounter}s. Recording is a
+ * LongAdder increment, all counters are sampled by the single shared ticker of
+ * a {@link CounterManagerImpl}.
+ * 基于采样计数器的抽样统计，记录只是一次 LongAdder 自增，由共享时钟统一采样。
+ * </p>
+ */
+public class SampledStatisticsImpl implements SampledStatistics {
+
+    public static final int DEFAULT_HISTORY_SIZE = 30;
+    public static final int DEFAULT_INTERVAL_SECS = 1;
+
+    private static final TimeStampedCounterValue[] EMPTY = new TimeStampedCounterValue[0];
+
+    private final int intervalSecs;
+    private final CounterManager counterManager;
+    private final Map<String, SampledCounter> counters = new LinkedHashMap<String, SampledCounter>();
+    private final SampledCounter jobsFired;
+    private final SampledCounter jobsCompleted;
+    private final SampledCounter claimsWon;
+    private final SampledCounter claimsLost;
+    private final SampledCounter executesAcquired;
+    private final SampledCounter recoveredRows;
+
+    public SampledStatisticsImpl() {
+        this(DEFAULT_INTERVAL_SECS, DEFAULT_HISTORY_SIZE);
+    }
+
+    /**
+     * @param intervalSecs 采样间隔(秒)
+     * @param historySize  保留的采样个数
+     */
+    public SampledStatisticsImpl(int intervalSecs, int historySize) {
+        if (intervalSecs < 1 || historySize < 1) {
+            throw new IllegalArgumentException("Illegal sampled statistics config: intervalSecs=" + intervalSecs + ", historySize=" + historySize);
+        }
+        this.intervalSecs = intervalSecs;
+        this.counterManager = new CounterManagerImpl();
+        SampledCounterConfig config = new SampledCounterConfig(intervalSecs, historySize, true, 0L);
+        jobsFired = createSampledCounter(JOBS_FIRED, config);
+        jobsCompleted = createSampledCounter(JOBS_COMPLETED, config);
+        claimsWon = createSampledCounter(CLAIMS_WON, config);
+        claimsLost = createSampledCounter(CLAIMS_LOST, config);
+        executesAcquired = createSampledCounter(EXECUTES_ACQUIRED, config);
+        recoveredRows = createSampledCounter(RECOVERED_ROWS, config);
+    }
+
+    private SampledCounter createSampledCounter(String name, SampledCounterConfig config) {
+        SampledCounter counter = (SampledCounter) counterManager.createCounter(config);
+        counters.put(name, counter);
+        return counter;
+    }
+
+    private long perSecond(SampledCounter counter) {
+        TimeStampedCounterValue sample = counter.getMostRecentSample();
+        return sample == null ? 0 : sample.getCounterValue() / intervalSecs;
+    }
+
+    /**
+     * Clears the collected statistics. Resets all counters to zero
+     */
+    public void clearStatistics() {
+        for (SampledCounter counter : counters.values()) {
+            counter.getAndReset();
+        }
+    }
+
+    @Override
+    public void jobFired() {
+        jobsFired.increment();
+    }
+
+    @Override
+    public void jobCompleted() {
+        jobsCompleted.increment();
+    }
+
+    @Override
+    public void claimWon() {
+        claimsWon.increment();
+    }
+
+    @Override
+    public void claimLost() {
+        claimsLost.increment();
+    }
+
+    @Override
+    public void executesAcquired(int count) {
+        if (count > 0) {
+            executesAcquired.increment(count);
+        }
+    }
+
+    @Override
+    public void rowsRecovered(int count) {
+        if (count > 0) {
+            recoveredRows.increment(count);
+        }
+    }
+
+    @Override
+    public long getJobsFiredPerSecond() {
+        return perSecond(jobsFired);
+    }
+
+    @Override
+    public long getJobsCompletedPerSecond() {
+        return perSecond(jobsCompleted);
+    }
+
+    @Override
+    public long getClaimsWonPerSecond() {
+        return perSecond(claimsWon);
+    }
+
+    @Override
+    public long getClaimsLostPerSecond() {
+        return perSecond(claimsLost);
+    }
+
+    @Override
+    public long getExecutesAcquiredPerSecond() {
+        return perSecond(executesAcquired);
+    }
+
+    @Override
+    public long getRecoveredRowsPerSecond() {
+        return perSecond(recoveredRows);
+    }
+
+    @Override
+    public TimeStampedCounterValue[] getSampleHistory(String counterName) {
+        SampledCounter counter = counters.get(counterName);
+        return counter == null ? EMPTY : counter.getAllSampleValues();
+    }
+
+    public int getIntervalSecs() {
+        return intervalSecs;
+    }
+
+    CounterManager getCounterManager() {
+        return counterManager;
+    }
+
+    @Override
+    public void shutdown() {
+        counterManager.shutdown(true);
+    }
+}
@@ -18,6 +18,9 @@
 
 package org.quartz.core;
 
+import java.util.List;
+
+import org.quartz.impl.QrtzExecute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.quartz.spi.SchedulerSignaler;
@@ -81,6 +84,21 @@ public class SchedulerSignalerImpl implements SchedulerSignaler {
     @Override
     public void signalSchedulingChange(long candidateNewNextFireTime) {
         schedThread.signalSchedulingChange(candidateNewNextFireTime);
+        // 立即检查是否有待执行的信号
+        FireNowWatcher watcher = sched.getFireNowWatcher();
+        if (watcher != null) {
+            watcher.wakeUp();
+        }
+    }
+
+    @Override
+    public void notifyRowsRecovered(int count) {
+        sched.getSampledStatistics().rowsRecovered(count);
+    }
+
+    @Override
+    public void notifyMisfired(QrtzExecute execute, int missed, List<Long> catchUpFireTimes) {
+        sched.getCatchUpDispatcher().enqueue(execute, missed, catchUpFireTimes);
     }
 //    @Override
 //    public void notifySchedulerListenersJobDeleted(Key key) {
@@ -0,0 +1,138 @@
+
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+
+package org.quartz.core;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.quartz.utils.counter.Histogram;
+
+/**
+ * <p>
+ * Lock-free phase timing histograms of one scheduler (i.e. one application),
+ * kept both for the whole application and per job class. All values are in
+ * microseconds.
+ * 单个调度器(即单个应用)各阶段耗时的无锁直方图，分应用整体与任务类两个维度，单位均为微秒。
+ * </p>
+ *
+ * @see Phase
+ */
+public class TimingStatistics {
+
+    /**
+     * 记录的阶段
+     */
+    public enum Phase {
+        /** 计划触发时间 -> 抢锁成功(提前抢锁时为负数) */
+        SCHEDULED_TO_CLAIMED(true),
+        /** 抢锁成功 -> 工作线程开始执行 */
+        CLAIMED_TO_STARTED(false),
+        /** 任务执行耗时 */
+        RUN_TIME(false),
+        /** 获取窗口内执行的查询耗时(仅应用维度) */
+        ACQUIRE_QUERY(false),
+        /** 抢锁(计算下次触发时间并UPDATE)耗时，批量抢占时为按触发数均摊的耗时 */
+        CLAIM_UPDATE(false),
+        /** 实际触发时间 -> 计划触发时间，负数为提前触发 */
+        FIRE_SKEW(true);
+
+        private final boolean signed;
+
+        Phase(boolean signed) {
+            this.signed = signed;
+        }
+
+        public boolean isSigned() {
+            return signed;
+        }
+    }
+
+    // 任务类维度上限，防止任务类过多时无限膨胀
+    static final int MAX_JOB_CLASSES = 512;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final Histogram[] application = newHistograms();
+
+    private final ConcurrentHashMap<String, Histogram[]> byJobClass = new ConcurrentHashMap<String, Histogram[]>();
+
+    private static Histogram[] newHistograms() {
+        Histogram[] histograms = new Histogram[PHASES.length];
+        for (Phase phase : PHASES) {
+            histograms[phase.ordinal()] = new Histogram(phase.isSigned());
+        }
+        return histograms;
+    }
+
+    /**
+     * Record a value for the application only.
+     */
+    public void record(Phase phase, long micros) {
+        application[phase.ordinal()].record(micros);
+    }
+
+    /**
+     * Record a value for the application and for the given job class.
+     */
+    public void record(Phase phase, String jobClass, long micros) {
+        application[phase.ordinal()].record(micros);
+        if (jobClass == null) {
+            return;
+        }
+        Histogram[] histograms = byJobClass.get(jobClass);
+        if (histograms == null) {
+            if (byJobClass.size() >= MAX_JOB_CLASSES) {
+                return;
+            }
+            Histogram[] created = newHistograms();
+            histograms = byJobClass.putIfAbsent(jobClass, created);
+            if (histograms == null) {
+                histograms = created;
+            }
+        }
+        histograms[phase.ordinal()].record(micros);
+    }
+
+    /**
+     * @return the application wide histogram of the phase
+     */
+    public Histogram getHistogram(Phase phase) {
+        return application[phase.ordinal()];
+    }
+
+    /**
+     * @return the histogram of the phase for the job class, or null when nothing was recorded for it
+     */
+    public Histogram getHistogram(Phase phase, String jobClass) {
+        Histogram[] histograms = byJobClass.get(jobClass);
+        return histograms == null ? null : histograms[phase.ordinal()];
+    }
+
+    public Set<String> getJobClassNames() {
+        return Collections.unmodifiableSet(byJobClass.keySet());
+    }
+
+    public void reset() {
+        for (Histogram h : application) {
+            h.reset();
+        }
+        byJobClass.clear();
+    }
+}
@@ -1,313 +1,283 @@
-//package org.quartz.core.jmx;
-//
-//import java.util.Date;
-//import java.util.List;
-//import java.util.Map;
-//
-//import javax.management.openmbean.CompositeData;
-//import javax.management.openmbean.TabularData;
-//
-//public interface QuartzSchedulerMBean {
-//    static final String SCHEDULER_STARTED = "schedulerStarted";
-//    static final String SCHEDULER_PAUSED = "schedulerPaused";
-//    static final String SCHEDULER_SHUTDOWN = "schedulerShutdown";
-//    static final String SCHEDULER_ERROR = "schedulerError";
-//
-//    static final String JOB_ADDED = "jobAdded";
-//    static final String JOB_DELETED = "jobDeleted";
-//    static final String JOB_SCHEDULED = "jobScheduled";
-//    static final String JOB_UNSCHEDULED = "jobUnscheduled";
-//
-//    static final String JOBS_PAUSED = "jobsPaused";
-//    static final String JOBS_RESUMED = "jobsResumed";
-//
-//    static final String JOB_EXECUTION_VETOED = "jobExecutionVetoed";
-//    static final String JOB_TO_BE_EXECUTED = "jobToBeExecuted";
-//    static final String JOB_WAS_EXECUTED = "jobWasExecuted";
-//
-//    static final String TRIGGER_FINALIZED = "triggerFinalized";
-//
-//    static final String TRIGGERS_PAUSED = "triggersPaused";
-//    static final String TRIGGERS_RESUMED = "triggersResumed";
-//
-//    static final String SCHEDULING_DATA_CLEARED = "schedulingDataCleared";
-//
-//    static final String SAMPLED_STATISTICS_ENABLED = "sampledStatisticsEnabled";
-//    static final String SAMPLED_STATISTICS_RESET = "sampledStatisticsReset";
-//
-//    String getSchedulerName();
-//
-//    String getSchedulerInstanceId();
-//
-//    boolean isStandbyMode();
-//
-//    boolean isShutdown();
-//
-//    String getVersion();
-//
-//    String getJobStoreClassName();
-//
-//    String getThreadPoolClassName();
-//
-//    int getThreadPoolSize();
-//
-//    long getJobsScheduledMostRecentSample();
-//
-//    long getJobsExecutedMostRecentSample();
-//
-//    long getJobsCompletedMostRecentSample();
-//
-//    Map<String, Long> getPerformanceMetrics();
-//
-//    /**
-//     * @return TabularData of CompositeData:JobExecutionContext
-//     * @throws Exception
-//     */
-//    TabularData getCurrentlyExecutingJobs() throws Exception;
-//
-////    /**
-////     * @return TabularData of CompositeData:JobDetail
-////     * @throws Exception
-////     * @see JobDetailSupport
-////     */
-////    TabularData getAllJobDetails() throws Exception;
-//
-////    /**
-////     * @return List of CompositeData:[CronTrigger|SimpleTrigger]
-////     * @throws Exception
-////     * @see TriggerSupport
-////     */
-////    List<CompositeData> getAllTriggers() throws Exception;
-//
-////    List<String> getJobGroupNames() throws Exception;
-//
-//    List<String> getJobNames(String groupName) throws Exception;
-//
-//    /**
-//     * @return CompositeData:JobDetail
-//     * @throws Exception
-//     * @see JobDetailSupport
-//     */
-//    CompositeData getJobDetail(String jobName, String jobGroupName) throws Exception;
-//
-//    boolean isStarted();
-//
-//    void start() throws Exception;
-//
-//    void shutdown();
-//
-//    void standby();
-//
-//    void clear() throws Exception;
-//
-//    /**
-//     * Schedule an existing job with an existing trigger.
-//     *
-//     * @param jobName
-//     * @param jobGroup
-//     * @param triggerName
-//     * @param triggerGroup
-//     * @return date of nextFireTime
-//     * @throws Exception
-//     */
-//    Date scheduleJob(String jobName, String jobGroup,String triggerName, String triggerGroup) throws Exception;
-//
-//    /**
-//     * Schedules a job using the given Cron/Simple triggerInfo.
-//     *
-//     * The triggerInfo and jobDetailInfo must contain well-known attribute values.
-//     *     TriggerInfo attributes: name, group, description, calendarName, priority,
-//     *       CronExpression | (startTime, endTime, repeatCount, repeatInterval)
-//     *     JobDetailInfo attributes: name, group, description, jobClass, jobDataMap, durability,
-//     *       shouldRecover
-//     */
-//    void scheduleBasicJob(Map<String, Object> jobDetailInfo, Map<String, Object> triggerInfo)throws Exception;
-//
-//    /**
-//     * Schedules an arbitrary job described by abstractJobInfo using a trigger specified by abstractTriggerInfo.
-//     *
-//     * AbtractTriggerInfo and AbstractJobInfo must contain the following String attributes.
-//     *     AbstractTriggerInfo: triggerClass, the fully-qualified class name of a concrete Trigger type
-//     *     AbstractJobInfo: jobDetailClass, the fully-qualified class name of a concrete JobDetail type
-//     *
-//     * If the Trigger and JobDetail can be successfully instantiated, the remaining attributes will be
-//     * reflectively applied to those instances. The remaining attributes are limited to the types:
-//     *   Integer, Double, Float, String, Boolean, Date, Character, Map<String, Object>.
-//     * Maps are further limited to containing values from the same set of types, less Map itself.
-//     *
-//     * @throws Exception
-//     */
-//    void scheduleJob(Map<String, Object> abstractJobInfo,Map<String, Object> abstractTriggerInfo) throws Exception;
-//
-//    /**
-//     * Schedules the specified job using a trigger described by abstractTriggerInfo, which must contain the
-//     * fully-qualified trigger class name under the key "triggerClass."  That trigger type must contain a
-//     * no-arg constructor and have public access. Other attributes are applied reflectively and are limited
-//     * to the types:
-//     *   Integer, Double, Float, String, Boolean, Date, Character, Map<String, Object>.
-//     * Maps are limited to containing values from the same set of types, less Map itself.
-//     *
-//     * @param jobName
-//     * @param jobGroup
-//     * @param abstractTriggerInfo
-//     * @throws Exception
-//     */
-//    void scheduleJob(String jobName, Map<String, Object> abstractTriggerInfo) throws Exception;
-//
-//    boolean unscheduleJob(String triggerName, String triggerGroup) throws Exception;
-//
-//    boolean interruptJob(String jobName, String jobGroupName) throws Exception;
-//
-//    boolean interruptJob(String fireInstanceId) throws Exception;
-//
-////    void triggerJob(String jobName, Map<String, String> jobDataMap) throws Exception;
-//
-//    boolean deleteJob(String jobName) throws Exception;
-//
-//    void addJob(CompositeData jobDetail, boolean replace) throws Exception;
-//
-//    /**
-//     * Adds a durable job described by abstractJobInfo, which must contain the fully-qualified JobDetail
-//     * class name under the key "jobDetailClass."  That JobDetail type must contain a no-arg constructor
-//     * and have public access. Other attributes are applied reflectively and are limited
-//     * to the types:
-//     *   Integer, Double, Float, String, Boolean, Date, Character, Map<String, Object>.
-//     * Maps are limited to containing values from the same set of types, less Map itself.
-//     *  添加由abstractJobInfo描述的持久作业，该作业必须在键“jobDetailClass”下包含完全限定的JobDetail类名。
-//     *  该JobDetail类型必须包含无参数构造函数并具有公共访问权限。
-//     *  其他属性是反射式应用的，仅限于以下类型：整数、双精度、浮点、字符串、布尔值、日期、字符、映射。Map仅限于包含来自同一组类型的值，较少包含Map本身。
-//     *
-//     * @param abstractJobInfo map of attributes defining job abstractJobInfo-定义作业替换的属性映射-是否用相同的键替换预先存在的作业
-//     * @param replace whether or not to replace a pre-existing job with the same key 是否用相同的密钥替换预先存在的作业
-//     * @throws Exception
-//     */
-//    void addJob(Map<String, Object> abstractJobInfo, boolean replace) throws Exception;
-//
-//    void pauseJobGroup(final String triggerName) throws Exception;
-//
-////    /**
-////     * Pause all jobs whose group starts with jobGroupPrefix
-////     * @throws Exception
-////     */
-////    void pauseJobsStartingWith(String jobGroupPrefix) throws Exception;
-////
-////    /**
-////     * Pause all jobs whose group ends with jobGroupSuffix
-////     */
-////    void pauseJobsEndingWith(String jobGroupSuffix) throws Exception;
-////
-////    /**
-////     * Pause all jobs whose group contains jobGroupToken
-////     */
-////    void pauseJobsContaining(String jobGroupToken) throws Exception;
-//
-//    /**
-//     * Pause all jobs whose group is anything
-//     */
-//    void pauseJobsAll() throws Exception;
-//
-//    /**
-//     * Resume all jobs in the given group
-//     */
-//    void resumeJobGroup(String jobGroup) throws Exception;
-//
-////    /**
-////     * Resume all jobs whose group starts with jobGroupPrefix
-////     */
-////    void resumeJobsStartingWith(String jobGroupPrefix) throws Exception;
-////
-////    /**
-////     * Resume all jobs whose group ends with jobGroupSuffix
-////     */
-////    void resumeJobsEndingWith(String jobGroupSuffix) throws Exception;
-////
-////    /**
-////     * Resume all jobs whose group contains jobGroupToken
-////     */
-////    void resumeJobsContaining(String jobGroupToken) throws Exception;
-//
-//    /**
-//     * Resume all jobs whose group is anything
-//     */
-//    void resumeJobsAll() throws Exception;
-//
-//    void pauseJob(String jobName) throws Exception;
-//
-//    void resumeJob(String jobName, String jobGroupName)    throws Exception;
-//
-////    List<String> getTriggerGroupNames() throws Exception;
-//
-////    List<String> getTriggerNames(String triggerGroupName) throws Exception;
-//
-//    CompositeData getTrigger(String triggerName, String triggerGroupName) throws Exception;
-//
-//    String getTriggerState(String triggerName, String triggerGroupName) throws Exception;
-//
-//    /**
-//     * @return List of CompositeData:[CronTrigger|SimpleTrigger] for the specified job.
-//     * @see TriggerSupport
-//     */
-//    List<CompositeData> getTriggersOfJob(String jobName) throws Exception;
-//
-////    Set<String> getPausedTriggerGroups() throws Exception;
-//
-//    void pauseAllTriggers() throws Exception;
-//
-////    void resumeAllTriggers() throws Exception;
-//
-////    void pauseTriggerGroup(String triggerGroup) throws Exception;
-//
-////    /**
-////     * Pause all triggers whose group starts with triggerGroupPrefix
-////     */
-////    void pauseTriggersStartingWith(String triggerGroupPrefix) throws Exception;
-////
-////    /**
-////     * Pause all triggers whose group ends with triggerGroupSuffix
-////     */
-////    void pauseTriggersEndingWith(String suffix) throws Exception;
-////
-////    /**
-////     * Pause all triggers whose group contains triggerGroupToken
-////     */
-////    void pauseTriggersContaining(String triggerGroupToken) throws Exception;
-////
-////    /**
-////     * Pause all triggers whose group is anything
-////     */
-////    void pauseTriggersAll() throws Exception;
-//
-//    void resumeTriggerGroup(String triggerGroup) throws Exception;
-//
-////    /**
-////     * Resume all triggers whose group starts with triggerGroupPrefix
-////     */
-////    void resumeTriggersStartingWith(String triggerGroupPrefix) throws Exception;
-////
-////    /**
-////     * Resume all triggers whose group ends with triggerGroupSuffix
-////     */
-////    void resumeTriggersEndingWith(String triggerGroupSuffix) throws Exception;
-//
-//    /**
-//     * Resume all triggers whose group contains triggerGroupToken
-//     */
-//    void resumeTriggersContaining(String triggerGroupToken) throws Exception;
-//
-//    /**
-//     * Resume all triggers whose group is anything
-//     */
-//    void resumeTriggersAll() throws Exception;
-//
-//    void pauseTrigger(String triggerName, String triggerGroupName) throws Exception;
-//
-//    void resumeTrigger(String triggerName, String triggerGroupName) throws Exception;
-//
-////    List<String> getCalendarNames() throws Exception;
-//
-////    void deleteCalendar(String name) throws Exception;
-//
-//    void setSampledStatisticsEnabled(boolean enabled);
-//
-//    boolean isSampledStatisticsEnabled();
-//}
+package org.quartz.core.jmx;
+
+import java.util.Map;
+
+/**
+ * <p>
+ * Management interface of a running <code>QuartzScheduler</code>: state,
+ * acquisition tuning and phase timing percentiles (microseconds).
+ * 调度器管理接口: 状态、获取窗口以及各阶段耗时百分位(微秒)
+ * </p>
+ *
+ * <p>
+ * The phase metrics are keyed <code>[PHASE].[count|mean|p50|p90|p99|p999|max]</code>,
+ * e.g. <code>RUN_TIME.p99</code>, see {@link org.quartz.core.TimingStatistics.Phase}.
+ * </p>
+ */
+public interface QuartzSchedulerMBean {
+
+    String getSchedulerName();
+
+    String getSchedulerInstanceId();
+
+    boolean isStarted();
+
+    boolean isStandbyMode();
+
+    boolean isShutdown();
+
+    String getVersion();
+
+    String getJobStoreClassName();
+
+    String getThreadPoolClassName();
+
+    int getThreadPoolSize();
+
+    /**
+     * 当前获取窗口(毫秒)
+     */
+    long getAcquireWindow();
+
+    /**
+     * 当前提前触发容差(毫秒)
+     */
+    long getFireTolerance();
+
+    long getFireSkewP50Micros();
+
+    long getFireSkewP99Micros();
+
+    long getFireSkewMaxMicros();
+
+    long getScheduledToClaimedP99Micros();
+
+    long getClaimedToStartedP99Micros();
+
+    long getRunTimeP99Micros();
+
+    long getAcquireQueryP99Micros();
+
+    /**
+     * 抢锁UPDATE耗时的P99(微秒)：每个触发记一次，同一计划时刻合并的批量抢占按批次耗时除以触发数均摊
+     */
+    long getClaimUpdateP99Micros();
+
+    /**
+     * 以下吞吐指标取自最近一次采样，未开启抽样统计时为0
+     */
+    long getJobsFiredPerSecond();
+
+    long getJobsCompletedPerSecond();
+
+    long getClaimsWonPerSecond();
+
+    long getClaimsLostPerSecond();
+
+    long getExecutesAcquiredPerSecond();
+
+    long getRecoveredRowsPerSecond();
+
+    /**
+     * 待写入/已丢弃的执行记录数，未开启执行记录时为0
+     */
+    int getExecuteHistoryPendingCount();
+
+    long getExecuteHistoryDroppedCount();
+
+    /**
+     * 已注册的任务/调度器监听器名称
+     */
+    String[] getListenerNames();
+
+    /**
+     * 指定监听器的队列深度、投递/丢弃/异常次数及投递延迟(微秒)，未注册时为空
+     */
+    Map<String, Long> getListenerMetrics(String listenerName);
+
+    /**
+     * 监听器总线因队列已满而丢弃的事件数
+     */
+    long getListenerEventDroppedCount();
+
+    /**
+     * 任务链下游在本地立即执行的次数，未启用任务链时为0
+     */
+    long getJobChainLocalDispatchCount();
+
+    /**
+     * 本地线程池饱和、任务链下游交由集群获取的次数
+     */
+    long getJobChainClusterFallbackCount();
+
+    /**
+     * 任务链下游执行项已被其它节点修改而抢占失败的次数
+     */
+    long getJobChainClaimLostCount();
+
+    /**
+     * 本节点经立即执行信号启动的任务数，未启用时为0
+     */
+    long getFireNowDispatchCount();
+
+    /**
+     * 因限流被推迟的触发数，未配置限流时为0
+     */
+    long getRateLimitDeferredCount();
+
+    /**
+     * 本节点当前的限流速率(每秒许可数)，应用维度键为 application，任务类维度键为类名
+     */
+    Map<String, Double> getRateLimitNodeRates();
+
+    /**
+     * 本节点集群恢复的执行项错过的触发数
+     */
+    long getMisfiredCount();
+
+    /**
+     * 本节点已启动的熄火补偿执行数
+     */
+    long getCatchUpFiredCount();
+
+    /**
+     * 因队列已满而丢弃的熄火补偿执行数
+     */
+    long getCatchUpDroppedCount();
+
+    /**
+     * 待放行的熄火补偿执行数
+     */
+    int getCatchUpPendingCount();
+
+    /**
+     * 本节点是否持有应用的主节点租约(未启用租约时为false)
+     */
+    boolean isClusterLeader();
+
+    /**
+     * 本节点所持主节点租约的防护令牌，非主节点时为-1
+     */
+    long getLeaderFencingToken();
+
+    /**
+     * 已接管的失效节点(或本节点重启前)执行中任务数(未启用心跳时为0)
+     */
+    long getTakenOverFiredCount();
+
+    /**
+     * 本机时钟相对数据库时钟的偏差(毫秒，未启用时钟同步时为0)
+     */
+    long getClockOffset();
+
+    /**
+     * 与数据库时钟偏差超过阈值的次数
+     */
+    long getClockSkewAlarmCount();
+
+    /**
+     * 数据库断路器状态：CLOSED/OPEN/HALF_OPEN
+     */
+    String getDbCircuitState();
+
+    /**
+     * 获取数据库连接的连续失败次数
+     */
+    int getDbConsecutiveFailures();
+
+    /**
+     * 数据库断路器打开的次数
+     */
+    long getDbCircuitOpenCount();
+
+    /**
+     * 断路器打开期间被直接拒绝的数据库访问次数
+     */
+    long getDbCircuitRejectedCount();
+
+    /**
+     * 是否正在按内存调度降级触发
+     */
+    boolean isDegradedFiring();
+
+    /**
+     * 降级期间触发的任务数
+     */
+    long getDegradedFireCount();
+
+    /**
+     * 降级状态变更对账时的冲突数
+     */
+    long getDegradedConflictCount();
+
+    /**
+     * 执行项内存副本中可触发的执行项数
+     */
+    int getReplicaRowCount();
+
+    /**
+     * 执行项内存副本的同步次数(含全量加载)
+     */
+    long getReplicaSyncCount();
+
+    /**
+     * 执行项内存副本同步时读取的行数
+     */
+    long getReplicaRowsRead();
+
+    /**
+     * 本实例正在执行的任务数
+     */
+    int getCurrentlyExecutingJobCount();
+
+    /**
+     * 按任务类统计的正在执行的任务数
+     */
+    Map<String, Integer> getCurrentlyExecutingJobCountByJobClass();
+
+    /**
+     * 正在执行的任务(任务ID#执行项ID#任务类)
+     */
+    String[] getCurrentlyExecutingJobs();
+
+    /**
+     * 应用维度全部阶段的指标
+     */
+    Map<String, Long> getPerformanceMetrics();
+
+    /**
+     * 已记录耗时的任务类
+     */
+    String[] getJobClassNames();
+
+    /**
+     * 指定任务类全部阶段的指标，未记录时为空
+     */
+    Map<String, Long> getJobClassMetrics(String jobClass);
+
+    /**
+     * 按秒(0~59)统计的触发数
+     */
+    long[] getFiresBySecondOfMinute();
+
+    /**
+     * 峰值秒触发数与平均秒触发数之比(x100)，越接近100负载越平坦
+     */
+    long getFireSpreadPeakToMeanRatio();
+
+    /**
+     * 错峰(FireJitter)触发数
+     */
+    long getJitteredFireCount();
+
+    /**
+     * 清空阶段耗时及触发分布统计
+     */
+    void resetTimingStatistics();
+
+    void start() throws Exception;
+
+    void standby();
+
+    void shutdown();
+}
@@ -0,0 +1,359 @@
+package org.quartz.impl;
+
+import org.quartz.CronExpression;
+import org.quartz.FireJitter;
+import org.quartz.impl.triggers.SimpleTriggerImpl;
+import org.quartz.spi.OperableTrigger;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * <p>
+ * Compact, internal form of an acquired execute, used between acquisition
+ * and dispatch instead of <code>{@link QrtzExecute}</code>. Every fire of the
+ * acquisition window (the row itself and its expanded fires) only holds its
+ * own fire times as primitives plus a reference to a {@link Source} shared by
+ * all fires of the same row: the row, its job and job class, enum-coded type
+ * and state, and the compiled schedule (the cron expression is parsed once
+ * per row instead of once per fire). A <code>QrtzExecute</code> is only
+ * materialised for the fire that is actually claimed.
+ * 获取窗口内执行项的紧凑内部表示(获取至分发之间使用，QrtzExecute 仍作为对外DTO)：每次触发只保存自身的触发时间(基本类型)，
+ * 同一执行项展开的各次触发共享 Source(原始记录、job及任务类、枚举化的类型与状态、已编译的调度)，cron表达式每行只解析一次；
+ * 仅在抢占成功时才生成 QrtzExecute。
+ * </p>
+ *
+ * <p>
+ * CRON executes with the same expression and time zone share one
+ * {@link CronSchedule} per acquisition: the expression is parsed once per
+ * group and every fire time it computes is memoised, so executes sharing a
+ * schedule compute their fire-time sequence once and only apply their own
+ * start/end bounds on top of it.
+ * 同一次获取内，cron表达式及时区相同的执行项共享一个 CronSchedule：表达式每组只解析一次，计算过的触发时间被缓存，
+ * 各执行项仅在其上叠加自身的开始/结束时间。
+ * </p>
+ *
+ * <p>
+ * Executes of a job class annotated with {@link FireJitter} carry a stable
+ * per-execute offset that is added to every fire time computed here.
+ * 任务类标注 FireJitter 时，此处计算的每个触发时间均加上该执行项固定的偏移量。
+ * </p>
+ *
+ * <p>
+ * A <code>Source</code> is used by the scheduler thread of one application
+ * only and is not thread safe.
+ * Source 仅由单个应用的调度线程使用，非线程安全。
+ * </p>
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className AcquiredExecute
+ */
+public final class AcquiredExecute {
+
+    /**
+     * 任务类型
+     */
+    public enum Type {
+        CRON, SIMPLE;
+
+        public static Type of(String jobType) {
+            if ("CRON".equals(jobType)) {
+                return CRON;
+            }
+            if ("SIMPLE".equals(jobType)) {
+                return SIMPLE;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 执行项状态
+     */
+    public enum State {
+        EXECUTING, PAUSED, COMPLETE, ERROR, INIT;
+
+        public static State of(String state) {
+            for (State s : values()) {
+                if (s.name().equals(state)) {
+                    return s;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * <p>
+     * Compiled cron expression shared by all executes with the same
+     * expression and time zone, memoising <code>getTimeAfter</code>.
+     * 相同cron表达式及时区的执行项共享的已编译调度，缓存 getTimeAfter 的结果
+     * </p>
+     */
+    public static final class CronSchedule {
+        private final CronExpression expression;
+        // afterTime -> 下次触发时间，-1 即无后续触发
+        private final Map<Long, Long> memo = new HashMap<Long, Long>();
+
+        public CronSchedule(String cron, String zoneId) throws Exception {
+            this.expression = new CronExpression(cron);
+            this.expression.setTimeZone(TimeZone.getTimeZone(zoneId));
+        }
+
+        /**
+         * 分组键：表达式+时区
+         */
+        public static String key(String cron, String zoneId) {
+            return cron + "#" + zoneId;
+        }
+
+        public Date timeAfter(long afterTime) {
+            final Long cached = memo.get(afterTime);
+            if (null != cached) {
+                return cached < 0 ? null : new Date(cached);
+            }
+            final Date next = expression.getTimeAfter(new Date(afterTime));
+            memo.put(afterTime, null == next ? -1L : next.getTime());
+            return next;
+        }
+
+        int memoSize() {
+            return memo.size();
+        }
+    }
+
+    /**
+     * 同一执行项(同一行记录)展开的各次触发共享的部分
+     */
+    public static final class Source {
+        private final QrtzExecute row;
+        private final Type type;
+        private final State state;
+        private final long startTime;
+        // <1 即不限制
+        private final long endTime;
+        private final int repeatCount;
+        private final int repeatInterval;
+        // 错峰偏移(毫秒)，0 即不偏移
+        private final long jitter;
+        // 已编译的调度，首次使用时创建(CRON 为 cron，SIMPLE 为 schedule)
+        private CronSchedule cron;
+        private OperableTrigger schedule;
+
+        public Source(QrtzExecute row) {
+            this(row, null);
+        }
+
+        /**
+         * @param cron schedule shared with other CRON executes of the same
+         *             expression and time zone, or null to compile one for this row
+         */
+        public Source(QrtzExecute row, CronSchedule cron) {
+            this.row = row;
+            this.type = Type.of(row.getJobType());
+            this.state = State.of(row.getState());
+            this.startTime = null == row.getStartTime() ? 0L : row.getStartTime();
+            this.endTime = (null == row.getEndTime() || row.getEndTime() < 1) ? -1L : row.getEndTime();
+            this.repeatCount = null == row.getRepeatCount() ? -1 : row.getRepeatCount();
+            this.repeatInterval = null == row.getRepeatInterval() ? 0 : row.getRepeatInterval();
+            this.cron = cron;
+            final FireJitter spread = null == row.getJobClazz() ? null : row.getJobClazz().getAnnotation(FireJitter.class);
+            this.jitter = null == spread ? 0L : jitterOf(row.getId(), spread.maxMillis());
+        }
+
+        /**
+         * <p>
+         * Next fire time strictly after <code>afterTime</code> according to the
+         * row's own start/end time, or null when the schedule is exhausted.
+         * With a jitter the next nominal fire time after
+         * <code>afterTime</code> is shifted by it, so both a shifted and a
+         * not yet shifted stored time lead to the same next fire.
+         * 按执行项自身的开始/结束时间计算 afterTime 之后的下次触发时间，已结束时返回null；
+         * 有错峰偏移时取 afterTime 之后的下一个原始触发时间再加上偏移，故已偏移与未偏移的存储时间得到相同的下次触发。
+         * </p>
+         *
+         * @param timesTriggered fires so far, only used by SIMPLE executes
+         * @throws Exception when the cron expression or the simple schedule is invalid
+         */
+        public Date fireTimeAfter(long afterTime, int timesTriggered) throws Exception {
+            final Date nominal = nominalFireTimeAfter(afterTime, timesTriggered);
+            return (null == nominal || jitter == 0L) ? nominal : new Date(nominal.getTime() + jitter);
+        }
+
+        private Date nominalFireTimeAfter(long afterTime, int timesTriggered) throws Exception {
+            if (type == Type.CRON) {
+                return cronFireTimeAfter(afterTime);
+            }
+            if (null == schedule) {
+                schedule = compile();
+            }
+            ((SimpleTriggerImpl) schedule).setTimesTriggered(timesTriggered);
+            return schedule.getFireTimeAfter(new Date(afterTime));
+        }
+
+        /**
+         * 与 CronTriggerImpl#getFireTimeAfter 一致：开始时间(舍去毫秒)之前从开始时间前一秒起算，超过结束时间返回null
+         */
+        private Date cronFireTimeAfter(long afterTime) throws Exception {
+            if (null == cron) {
+                cron = new CronSchedule(row.getCron(), row.getZoneId());
+            }
+            final long start = startTime - Math.floorMod(startTime, 1000L);
+            if (endTime > 0 && start > endTime) {
+                throw new IllegalArgumentException("End time cannot be before start time");
+            }
+            if (start > afterTime) {
+                afterTime = start - 1000L;
+            }
+            if (endTime > 0 && afterTime >= endTime) {
+                return null;
+            }
+            final Date pot = cron.timeAfter(afterTime);
+            if (endTime > 0 && null != pot && pot.getTime() > endTime) {
+                return null;
+            }
+            return pot;
+        }
+
+        private OperableTrigger compile() throws Exception {
+            if (type == Type.SIMPLE) {
+                return new SimpleTriggerImpl()
+                        .setStartTime(new Date(startTime))
+                        .setEndTime(new Date(endTime))
+                        .setRepeatCount(repeatCount)
+                        .setRepeatInterval(repeatInterval);
+            }
+            throw new IllegalArgumentException("not support jobType! " + row.getJobType());
+        }
+
+        public QrtzExecute getRow() {
+            return row;
+        }
+
+        public QrtzJob getJob() {
+            return row.getJob();
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getStartTime() {
+            return startTime;
+        }
+
+        public long getEndTime() {
+            return endTime;
+        }
+
+        public int getRepeatCount() {
+            return repeatCount;
+        }
+
+        public int getRepeatInterval() {
+            return repeatInterval;
+        }
+
+        public long getJitter() {
+            return jitter;
+        }
+    }
+
+    /**
+     * 按执行项ID的稳定哈希计算 0~maxMillis 的偏移量，各节点结果一致
+     */
+    public static long jitterOf(String executeId, long maxMillis) {
+        if (maxMillis <= 0L || null == executeId) {
+            return 0L;
+        }
+        long h = executeId.hashCode();
+        // murmur3 fmix64，使相邻ID分布均匀
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return Math.floorMod(h, maxMillis + 1L);
+    }
+
+    private final Source source;
+    private final long prevFireTime;
+    private final long nextFireTime;
+    private final int timeTriggered;
+
+    public AcquiredExecute(Source source, long prevFireTime, long nextFireTime, int timeTriggered) {
+        this.source = source;
+        this.prevFireTime = prevFireTime;
+        this.nextFireTime = nextFireTime;
+        this.timeTriggered = timeTriggered;
+    }
+
+    /**
+     * Materialise this fire as it is stored (the shell's view of the execute).
+     * 按当前触发生成 QrtzExecute(即任务执行时看到的执行项)
+     */
+    public QrtzExecute toQrtzExecute() {
+        final QrtzExecute row = source.row;
+        QrtzExecute execute = toQrtzExecute(source.state, timeTriggered, prevFireTime, nextFireTime, row.getEndTime());
+        execute.setScheduledFireTime(nextFireTime);
+        return execute;
+    }
+
+    /**
+     * Materialise this fire with the given mutable columns, e.g. the values
+     * written by a claim.
+     * 以指定的可变字段生成 QrtzExecute(如抢占时写入的新值)
+     */
+    public QrtzExecute toQrtzExecute(State state, int timeTriggered, long prevFireTime, long nextFireTime, Long endTime) {
+        final QrtzExecute row = source.row;
+        QrtzExecute execute = QrtzExecute.build(row.getId(), row.getPid(), row.getJobType(), state.name(), row.getCron(), row.getZoneId(),
+                row.getRepeatCount(), row.getRepeatInterval(), timeTriggered, prevFireTime, nextFireTime,
+                row.getHostIp(), row.getHostName(), row.getStartTime(), endTime);
+        execute.setJob(row.getJob());
+        execute.setJobClazz(row.getJobClazz());
+        return execute;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    public String getId() {
+        return source.row.getId();
+    }
+
+    public Type getType() {
+        return source.type;
+    }
+
+    public long getPrevFireTime() {
+        return prevFireTime;
+    }
+
+    public long getNextFireTime() {
+        return nextFireTime;
+    }
+
+    public int getTimeTriggered() {
+        return timeTriggered;
+    }
+
+    @Override
+    public String toString() {
+        return "AcquiredExecute{" +
+                "id='" + source.row.getId() + '\'' +
+                ", type=" + source.type +
+                ", state=" + source.state +
+                ", prevFireTime=" + prevFireTime +
+                ", nextFireTime=" + nextFireTime +
+                ", timeTriggered=" + timeTriggered +
+                '}';
+    }
+}
@@ -366,6 +366,15 @@ public class MeeThreadPool implements ThreadPool {
         return corePoolSize;
     }
 
+    @Override
+    public int getAvailableThreadCount() {
+        if (poolExecutor == null || poolExecutor.isShutdown()) {
+            return 0;
+        }
+        // 排队中的任务会先占用空闲线程
+        return Math.max(0, poolExecutor.getMaximumPoolSize() - poolExecutor.getActiveCount() - poolExecutor.getQueue().size());
+    }
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -98,6 +98,10 @@ public class QrtzExecute implements Serializable {
      * 扩展:类对象
      * */
     private transient Class<? extends Job> jobClazz;
+    /**
+     * 扩展:变更版本(取执行项与任务 VERSION 的较大者，仅副本同步时读取)
+     * */
+    private transient long _version;
 
 //    public QrtzExecute(Long id,Long pid,/*Integer executeIdx,*/String jobType,String state,String cron,String zoneId,Integer repeatCount,Integer repeatInterval,Integer timeTriggered,Long prevFireTime,Long nextFireTime,String hostIp,String hostName,Long startTime,Long endTime){
 //        this.id=id;
@@ -292,6 +296,15 @@ public class QrtzExecute implements Serializable {
         return this;
     }
 
+    public long getVersion() {
+        return _version;
+    }
+
+    public QrtzExecute setVersion(long version) {
+        this._version = version;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "QrtzExecute{" +
@@ -0,0 +1,176 @@
+package org.quartz.impl;
+
+import java.io.Serializable;
+
+/**
+ * QrtzExecuteHistory
+ * <p>
+ * One run of an execute, written asynchronously to QRTZ_EXECUTE_HISTORY.
+ * 单次执行记录，异步写入 QRTZ_EXECUTE_HISTORY
+ * </p>
+ */
+public class QrtzExecuteHistory implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /** 执行成功 */
+    public static final String OUTCOME_SUCCESS = "SUCCESS";
+    /** 执行异常 */
+    public static final String OUTCOME_ERROR = "ERROR";
+    /** 执行异常且立即重新执行 */
+    public static final String OUTCOME_REFIRE = "REFIRE";
+
+    /**
+     * 调度名称/应用名称
+     */
+    private final String application;
+    /**
+     * 执行项(QRTZ_EXECUTE::ID)
+     */
+    private final String executeId;
+    /**
+     * 任务(QRTZ_JOB::ID)
+     */
+    private final String jobId;
+    /**
+     * 任务全类名
+     */
+    private final String jobClass;
+    /**
+     * 任务类型
+     */
+    private final String jobType;
+    /**
+     * 计划触发时间
+     */
+    private final long scheduledTime;
+    /**
+     * 实际触发时间
+     */
+    private final long fireTime;
+    /**
+     * 开始执行时间
+     */
+    private final long startTime;
+    /**
+     * 执行耗时(毫秒)
+     */
+    private final long runTime;
+    /**
+     * 重复点火次数
+     */
+    private final int refireCount;
+    /**
+     * 执行结果 SUCCESS/ERROR/REFIRE
+     */
+    private final String outcome;
+    /**
+     * 异常信息
+     */
+    private final String errorMessage;
+    /**
+     * 执行机器地址
+     */
+    private final String hostIp;
+    /**
+     * 执行机器名称
+     */
+    private final String hostName;
+
+    public QrtzExecuteHistory(String application, String executeId, String jobId, String jobClass, String jobType, long scheduledTime, long fireTime, long startTime, long runTime, int refireCount, String outcome, String errorMessage, String hostIp, String hostName) {
+        this.application = application;
+        this.executeId = executeId;
+        this.jobId = jobId;
+        this.jobClass = jobClass;
+        this.jobType = jobType;
+        this.scheduledTime = scheduledTime;
+        this.fireTime = fireTime;
+        this.startTime = startTime;
+        this.runTime = runTime;
+        this.refireCount = refireCount;
+        this.outcome = outcome;
+        this.errorMessage = errorMessage;
+        this.hostIp = hostIp;
+        this.hostName = hostName;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public String getExecuteId() {
+        return executeId;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getJobClass() {
+        return jobClass;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public long getScheduledTime() {
+        return scheduledTime;
+    }
+
+    public long getFireTime() {
+        return fireTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public long getEndTime() {
+        return startTime + runTime;
+    }
+
+    public long getRunTime() {
+        return runTime;
+    }
+
+    public int getRefireCount() {
+        return refireCount;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public String getHostIp() {
+        return hostIp;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    @Override
+    public String toString() {
+        return "QrtzExecuteHistory{" +
+                "application='" + application + '\'' +
+                ", executeId=" + executeId +
+                ", jobId=" + jobId +
+                ", jobClass='" + jobClass + '\'' +
+                ", jobType='" + jobType + '\'' +
+                ", scheduledTime=" + scheduledTime +
+                ", fireTime=" + fireTime +
+                ", startTime=" + startTime +
+                ", runTime=" + runTime +
+                ", refireCount=" + refireCount +
+                ", outcome='" + outcome + '\'' +
+                ", errorMessage='" + errorMessage + '\'' +
+                ", hostIp='" + hostIp + '\'' +
+                ", hostName='" + hostName + '\'' +
+                '}';
+    }
+}
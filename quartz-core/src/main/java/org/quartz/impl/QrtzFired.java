@@ -0,0 +1,95 @@
+package org.quartz.impl;
+
+import java.io.Serializable;
+
+/**
+ * QrtzFired
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className QrtzFired
+ */
+public class QrtzFired implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 执行项(QRTZ_EXECUTE::ID)
+     */
+    private String executeId;
+    /**
+     * 计划触发时间
+     */
+    private Long schedTime;
+    /**
+     * 调度名称/应用名称
+     */
+    private String application;
+    /**
+     * 执行节点IP
+     */
+    private String hostIp;
+    /**
+     * 抢占时间
+     */
+    private Long firedTime;
+
+    public QrtzFired(String executeId, Long schedTime, String application, String hostIp, Long firedTime) {
+        this.executeId = executeId;
+        this.schedTime = schedTime;
+        this.application = application;
+        this.hostIp = hostIp;
+        this.firedTime = firedTime;
+    }
+
+    public String getExecuteId() {
+        return executeId;
+    }
+
+    public void setExecuteId(String executeId) {
+        this.executeId = executeId;
+    }
+
+    public Long getSchedTime() {
+        return schedTime;
+    }
+
+    public void setSchedTime(Long schedTime) {
+        this.schedTime = schedTime;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public void setApplication(String application) {
+        this.application = application;
+    }
+
+    public String getHostIp() {
+        return hostIp;
+    }
+
+    public void setHostIp(String hostIp) {
+        this.hostIp = hostIp;
+    }
+
+    public Long getFiredTime() {
+        return firedTime;
+    }
+
+    public void setFiredTime(Long firedTime) {
+        this.firedTime = firedTime;
+    }
+
+    @Override
+    public String toString() {
+        return "QrtzFired{" +
+                "executeId='" + executeId + '\'' +
+                ", schedTime=" + schedTime +
+                ", application='" + application + '\'' +
+                ", hostIp='" + hostIp + '\'' +
+                ", firedTime=" + firedTime +
+                '}';
+    }
+}
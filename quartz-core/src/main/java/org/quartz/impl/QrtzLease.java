@@ -0,0 +1,81 @@
+package org.quartz.impl;
+
+import java.io.Serializable;
+
+/**
+ * QrtzLease
+ *
+ * @author shaoow
+ * @version 1.0
+ * @className QrtzLease
+ */
+public class QrtzLease implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 调度名称/应用名称
+     */
+    private String application;
+    /**
+     * 当前持有者(节点实例ID)
+     */
+    private String holder;
+    /**
+     * 防护令牌(每次换主加1)
+     */
+    private Long fence;
+    /**
+     * 租约到期时间
+     */
+    private Long leaseUntil;
+
+    public QrtzLease(String application, String holder, Long fence, Long leaseUntil) {
+        this.application = application;
+        this.holder = holder;
+        this.fence = fence;
+        this.leaseUntil = leaseUntil;
+    }
+
+    public String getApplication() {
+        return application;
+    }
+
+    public void setApplication(String application) {
+        this.application = application;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public void setHolder(String holder) {
+        this.holder = holder;
+    }
+
+    public Long getFence() {
+        return fence;
+    }
+
+    public void setFence(Long fence) {
+        this.fence = fence;
+    }
+
+    public Long getLeaseUntil() {
+        return leaseUntil;
+    }
+
+    public void setLeaseUntil(Long leaseUntil) {
+        this.leaseUntil = leaseUntil;
+    }
+
+    @Override
+    public String toString() {
+        return "QrtzLease{" +
+                "application='" + application + '\'' +
+                ", holder='" + holder + '\'' +
+                ", fence=" + fence +
+                ", leaseUntil=" + leaseUntil +
+                '}';
+    }
+}
@@ -20,9 +20,11 @@ package org.quartz.impl;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import org.quartz.JobExecutionContext;
+import org.quartz.ListenerManager;
 import org.quartz.Scheduler;
 import org.quartz.SchedulerException;
 import org.quartz.core.QuartzScheduler;
@@ -234,6 +236,36 @@ public class StdScheduler implements Scheduler {
         return sched.getCurrentlyExecutingJobs();
     }
 
+    /**
+     * <p>
+     * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+     * </p>
+     */
+    @Override
+    public List<JobExecutionContext> getCurrentlyExecutingJobs(String executeId) {
+        return sched.getCurrentlyExecutingJobs(executeId);
+    }
+
+    /**
+     * <p>
+     * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+     * </p>
+     */
+    @Override
+    public int getCurrentlyExecutingJobCount() {
+        return sched.getCurrentlyExecutingJobCount();
+    }
+
+    /**
+     * <p>
+     * Calls the equivalent method on the 'proxied' <code>QuartzScheduler</code>.
+     * </p>
+     */
+    @Override
+    public Map<String, Integer> getCurrentlyExecutingJobCountByJobClass() {
+        return sched.getCurrentlyExecutingJobCountByJobClass();
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     ///
     /// Scheduling-related Methods
@@ -597,13 +629,13 @@ public class StdScheduler implements Scheduler {
         sched.setJobFactory(factory);
     }
 
-//    /**
-//     * @see org.quartz.Scheduler#getListenerManager()
-//     */
-//    @Override
-//    public ListenerManager getListenerManager() throws SchedulerException {
-//        return sched.getListenerManager();
-//    }
+    /**
+     * @see org.quartz.Scheduler#getListenerManager()
+     */
+    @Override
+    public ListenerManager getListenerManager() throws SchedulerException {
+        return sched.getListenerManager();
+    }
 //    @Override
 //    public boolean interrupt(Key jobKey) throws UnableToInterruptJobException {
 //        return sched.interrupt(jobKey);
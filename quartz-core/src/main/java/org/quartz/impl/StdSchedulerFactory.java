@@ -23,6 +23,16 @@ import org.quartz.SchedulerConfigException;
 import org.quartz.SchedulerException;
 import org.quartz.SchedulerFactory;
 import org.quartz.TriggerListener;
+import org.quartz.core.AcquireWindowTuner;
+import org.quartz.core.CatchUpDispatcher;
+import org.quartz.core.DispatchRateLimiter;
+import org.quartz.core.ExecuteHistoryWriter;
+import org.quartz.core.FireNowWatcher;
+import org.quartz.core.JobChainDispatcher;
+import org.quartz.core.ListenerBus;
+import org.quartz.core.NullSampledStatisticsImpl;
+import org.quartz.core.SampledStatistics;
+import org.quartz.core.SampledStatisticsImpl;
 import org.quartz.core.JobRunShellFactory;
 import org.quartz.core.QuartzScheduler;
 import org.quartz.core.QuartzSchedulerResources;
@@ -31,7 +41,9 @@ import org.quartz.ee.jta.JTAJobRunShellFactory;
 import org.quartz.ee.jta.UserTransactionHelper;
 import org.quartz.impl.jdbcjobstore.JobStoreSupport;
 import org.quartz.management.ManagementRESTServiceConfiguration;
+import org.quartz.simpl.SeqGenUtil;
 import org.quartz.simpl.SimpleThreadPool;
+import org.quartz.simpl.SimpleTimeBroker;
 import org.quartz.simpl.SystemPropGenerator;
 import org.quartz.spi.ClassLoadHelper;
 import org.quartz.spi.JobFactory;
@@ -59,7 +71,9 @@ import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -138,8 +152,85 @@ public class StdSchedulerFactory implements SchedulerFactory {
 
     public static final String PROP_SCHED_MAX_BATCH_SIZE = "org.quartz.scheduler.batchTriggerAcquisitionMaxCount";
 
-//    public static final String PROP_SCHED_JMX_EXPORT = "org.quartz.scheduler.jmx.export";
-//    public static final String PROP_SCHED_JMX_OBJECT_NAME = "org.quartz.scheduler.jmx.objectName";
+    public static final String PROP_SCHED_ACQUIRE_WINDOW_ADAPTIVE = "org.quartz.scheduler.acquireWindow.adaptive";
+
+    public static final String PROP_SCHED_ACQUIRE_WINDOW_MIN = "org.quartz.scheduler.acquireWindow.min";
+
+    public static final String PROP_SCHED_ACQUIRE_WINDOW_MAX = "org.quartz.scheduler.acquireWindow.max";
+
+    public static final String PROP_SCHED_ACQUIRE_WINDOW_TARGET_BATCH_SIZE = "org.quartz.scheduler.acquireWindow.targetBatchSize";
+
+    public static final String PROP_SCHED_FIRE_TOLERANCE_MIN = "org.quartz.scheduler.fireTolerance.min";
+
+    public static final String PROP_SCHED_FIRE_TOLERANCE_MAX = "org.quartz.scheduler.fireTolerance.max";
+
+    public static final String PROP_SCHED_PRECISE_DISPATCH = "org.quartz.scheduler.preciseDispatch";
+
+    public static final String PROP_SCHED_PRECISE_DISPATCH_SPIN_NANOS = "org.quartz.scheduler.preciseDispatch.spinNanos";
+
+    public static final String PROP_SCHED_SAMPLED_STATISTICS_ENABLED = "org.quartz.scheduler.sampledStatistics.enabled";
+
+    public static final String PROP_SCHED_SAMPLED_STATISTICS_INTERVAL_SECS = "org.quartz.scheduler.sampledStatistics.intervalSecs";
+
+    public static final String PROP_SCHED_SAMPLED_STATISTICS_HISTORY_SIZE = "org.quartz.scheduler.sampledStatistics.historySize";
+
+    public static final String PROP_SCHED_EXECUTE_HISTORY_ENABLED = "org.quartz.scheduler.executeHistory.enabled";
+
+    public static final String PROP_SCHED_EXECUTE_HISTORY_BUFFER_SIZE = "org.quartz.scheduler.executeHistory.bufferSize";
+
+    public static final String PROP_SCHED_EXECUTE_HISTORY_BATCH_SIZE = "org.quartz.scheduler.executeHistory.batchSize";
+
+    public static final String PROP_SCHED_EXECUTE_HISTORY_FLUSH_INTERVAL = "org.quartz.scheduler.executeHistory.flushInterval";
+
+    public static final String PROP_SCHED_EXECUTE_HISTORY_OVERFLOW_POLICY = "org.quartz.scheduler.executeHistory.overflowPolicy";
+
+    public static final String PROP_SCHED_EXECUTE_HISTORY_RETENTION_DAYS = "org.quartz.scheduler.executeHistory.retentionDays";
+
+    public static final String PROP_SCHED_LISTENER_BUS_THREAD_COUNT = "org.quartz.scheduler.listenerBus.threadCount";
+
+    public static final String PROP_SCHED_LISTENER_BUS_QUEUE_SIZE = "org.quartz.scheduler.listenerBus.queueSize";
+
+    public static final String PROP_SCHED_JOB_CHAIN_ENABLED = "org.quartz.scheduler.jobChain.enabled";
+
+    public static final String PROP_SCHED_JOB_CHAIN_FALLBACK_DELAY = "org.quartz.scheduler.jobChain.fallbackDelay";
+
+    public static final String PROP_SCHED_FIRE_NOW_POLL_INTERVAL = "org.quartz.scheduler.fireNow.pollInterval";
+
+    public static final String PROP_SCHED_ID_WORKER = "org.quartz.scheduler.idWorker";
+
+    public static final String PROP_SCHED_RATE_LIMIT_APPLICATION = "org.quartz.scheduler.rateLimit.application";
+
+    public static final String PROP_SCHED_RATE_LIMIT_JOB_CLASS_PREFIX = "org.quartz.scheduler.rateLimit.jobClass";
+
+    public static final String PROP_SCHED_RATE_LIMIT_NODE_REFRESH_INTERVAL = "org.quartz.scheduler.rateLimit.nodeRefreshInterval";
+
+    public static final String PROP_SCHED_CATCH_UP_QUEUE_SIZE = "org.quartz.scheduler.catchUp.queueSize";
+
+    public static final String PROP_SCHED_CATCH_UP_RATE = "org.quartz.scheduler.catchUp.rate";
+
+    public static final String PROP_SCHED_LEADER_LEASE_DURATION = "org.quartz.scheduler.leaderLease.duration";
+
+    public static final String PROP_SCHED_HOUSEKEEPING_THREAD_COUNT = "org.quartz.scheduler.housekeeping.threadCount";
+
+    public static final String PROP_SCHED_HEARTBEAT_INTERVAL = "org.quartz.scheduler.heartbeat.interval";
+
+    public static final String PROP_SCHED_HEARTBEAT_DEAD_TIMEOUT = "org.quartz.scheduler.heartbeat.deadTimeout";
+
+    public static final String PROP_SCHED_CLOCK_SYNC_INTERVAL = "org.quartz.scheduler.clockSync.interval";
+
+    public static final String PROP_SCHED_CLOCK_SYNC_MAX_SKEW = "org.quartz.scheduler.clockSync.maxSkew";
+
+    public static final String PROP_SCHED_DEGRADED_MAX_DURATION = "org.quartz.scheduler.degraded.maxDuration";
+
+    public static final String PROP_SCHED_DEGRADED_JOURNAL = "org.quartz.scheduler.degraded.journal";
+
+    public static final String PROP_SCHED_REPLICA_SYNC_INTERVAL = "org.quartz.scheduler.replica.syncInterval";
+
+    public static final String PROP_SCHED_REPLICA_FULL_INTERVAL = "org.quartz.scheduler.replica.fullInterval";
+
+    public static final String PROP_SCHED_JMX_EXPORT = "org.quartz.scheduler.jmx.export";
+
+    public static final String PROP_SCHED_JMX_OBJECT_NAME = "org.quartz.scheduler.jmx.objectName";
 
 //    public static final String PROP_SCHED_JMX_PROXY = "org.quartz.scheduler.jmx.proxy";
 
@@ -165,6 +256,10 @@ public class StdSchedulerFactory implements SchedulerFactory {
 
     public static final String PROP_SCHED_DB_FAILURE_RETRY_INTERVAL = "org.quartz.scheduler.dbFailureRetryInterval";
 
+    public static final String PROP_SCHED_DB_FAILURE_THRESHOLD = "org.quartz.scheduler.dbFailureThreshold";
+
+    public static final String PROP_SCHED_DB_FAILURE_BASE_DELAY = "org.quartz.scheduler.dbFailureBaseDelay";
+
     public static final String PROP_SCHED_MAKE_SCHEDULER_THREAD_DAEMON = "org.quartz.scheduler.makeSchedulerThreadDaemon";
 
     public static final String PROP_SCHED_SCHEDULER_THREADS_INHERIT_CONTEXT_CLASS_LOADER_OF_INITIALIZING_THREAD = "org.quartz.scheduler.threadsInheritContextClassLoaderOfInitializer";
@@ -588,6 +683,15 @@ public class StdSchedulerFactory implements SchedulerFactory {
         if (dbFailureRetry < 0) {
             throw new SchedulerException(PROP_SCHED_DB_FAILURE_RETRY_INTERVAL + " of less than 0 ms is not legal.");
         }
+        // 数据库失败退避的初始等待(毫秒，逐次翻倍至 dbFailureRetryInterval)及打开断路器的连续失败次数(0 即不打开)
+        long dbFailureBaseDelay = cfg.getLongProperty(PROP_SCHED_DB_FAILURE_BASE_DELAY, 100L);
+        if (dbFailureBaseDelay <= 0) {
+            throw new SchedulerConfigException(PROP_SCHED_DB_FAILURE_BASE_DELAY + " must be positive.");
+        }
+        int dbFailureThreshold = cfg.getIntProperty(PROP_SCHED_DB_FAILURE_THRESHOLD, 5);
+        if (dbFailureThreshold < 0) {
+            throw new SchedulerConfigException(PROP_SCHED_DB_FAILURE_THRESHOLD + " must not be negative.");
+        }
 
         boolean makeSchedulerThreadDaemon = cfg.getBooleanProperty(PROP_SCHED_MAKE_SCHEDULER_THREAD_DAEMON);
         boolean threadsInheritInitalizersClassLoader = cfg.getBooleanProperty(PROP_SCHED_SCHEDULER_THREADS_INHERIT_CONTEXT_CLASS_LOADER_OF_INITIALIZING_THREAD);
@@ -595,11 +699,149 @@ public class StdSchedulerFactory implements SchedulerFactory {
         long batchTimeWindow = cfg.getLongProperty(PROP_SCHED_BATCH_TIME_WINDOW, 0L);
         int maxBatchSize = cfg.getIntProperty(PROP_SCHED_MAX_BATCH_SIZE, 1);
 
+        // 自适应获取窗口及提前触发容差
+        AcquireWindowTuner acquireWindowTuner;
+        try {
+            acquireWindowTuner = new AcquireWindowTuner(
+                    cfg.getBooleanProperty(PROP_SCHED_ACQUIRE_WINDOW_ADAPTIVE, true),
+                    cfg.getLongProperty(PROP_SCHED_ACQUIRE_WINDOW_MIN, AcquireWindowTuner.DEFAULT_MIN_WINDOW),
+                    cfg.getLongProperty(PROP_SCHED_ACQUIRE_WINDOW_MAX, AcquireWindowTuner.DEFAULT_MAX_WINDOW),
+                    cfg.getLongProperty(PROP_SCHED_FIRE_TOLERANCE_MIN, AcquireWindowTuner.DEFAULT_MIN_FIRE_TOLERANCE),
+                    cfg.getLongProperty(PROP_SCHED_FIRE_TOLERANCE_MAX, AcquireWindowTuner.DEFAULT_MAX_FIRE_TOLERANCE),
+                    cfg.getIntProperty(PROP_SCHED_ACQUIRE_WINDOW_TARGET_BATCH_SIZE, AcquireWindowTuner.DEFAULT_TARGET_BATCH_SIZE));
+        } catch (IllegalArgumentException e) {
+            throw new SchedulerConfigException("Illegal acquire window configuration: " + e.getMessage(), e);
+        }
+        boolean preciseDispatch = cfg.getBooleanProperty(PROP_SCHED_PRECISE_DISPATCH, false);
+        long preciseDispatchSpinNanos = cfg.getLongProperty(PROP_SCHED_PRECISE_DISPATCH_SPIN_NANOS, 0L);
+        if (preciseDispatchSpinNanos < 0 || preciseDispatchSpinNanos > 1000000L) {
+            throw new SchedulerException(PROP_SCHED_PRECISE_DISPATCH_SPIN_NANOS + " must be between 0 and 1000000 ns.");
+        }
+        // 抽样吞吐统计
+        SampledStatistics sampledStatistics = new NullSampledStatisticsImpl();
+        if (cfg.getBooleanProperty(PROP_SCHED_SAMPLED_STATISTICS_ENABLED, false)) {
+            try {
+                sampledStatistics = new SampledStatisticsImpl(
+                        cfg.getIntProperty(PROP_SCHED_SAMPLED_STATISTICS_INTERVAL_SECS, SampledStatisticsImpl.DEFAULT_INTERVAL_SECS),
+                        cfg.getIntProperty(PROP_SCHED_SAMPLED_STATISTICS_HISTORY_SIZE, SampledStatisticsImpl.DEFAULT_HISTORY_SIZE));
+            } catch (IllegalArgumentException e) {
+                throw new SchedulerConfigException("Illegal sampled statistics configuration: " + e.getMessage(), e);
+            }
+        }
+        // 监听器总线
+        int listenerBusThreadCount = cfg.getIntProperty(PROP_SCHED_LISTENER_BUS_THREAD_COUNT, ListenerBus.DEFAULT_THREAD_COUNT);
+        if (listenerBusThreadCount < 1) {
+            throw new SchedulerConfigException(PROP_SCHED_LISTENER_BUS_THREAD_COUNT + " must be positive.");
+        }
+        int listenerBusQueueSize = cfg.getIntProperty(PROP_SCHED_LISTENER_BUS_QUEUE_SIZE, ListenerBus.DEFAULT_QUEUE_SIZE);
+        if (listenerBusQueueSize < 2) {
+            throw new SchedulerConfigException(PROP_SCHED_LISTENER_BUS_QUEUE_SIZE + " must be at least 2.");
+        }
+        // 任务链
+        boolean jobChainEnabled = cfg.getBooleanProperty(PROP_SCHED_JOB_CHAIN_ENABLED, false);
+        long jobChainFallbackDelay = cfg.getLongProperty(PROP_SCHED_JOB_CHAIN_FALLBACK_DELAY, JobChainDispatcher.DEFAULT_FALLBACK_DELAY);
+        if (jobChainFallbackDelay < 0) {
+            throw new SchedulerConfigException(PROP_SCHED_JOB_CHAIN_FALLBACK_DELAY + " must not be negative.");
+        }
+        // 立即执行信号轮询间隔，0表示不启用
+        long fireNowPollInterval = cfg.getLongProperty(PROP_SCHED_FIRE_NOW_POLL_INTERVAL, FireNowWatcher.DEFAULT_POLL_INTERVAL);
+        if (fireNowPollInterval < 0) {
+            throw new SchedulerConfigException(PROP_SCHED_FIRE_NOW_POLL_INTERVAL + " must not be negative.");
+        }
+        // 主键生成工作节点号(0~1023)，未配置时调度节点启动时从数据库租用
+        int idWorker = cfg.getIntProperty(PROP_SCHED_ID_WORKER, -1);
+        if (idWorker > -1) {
+            try {
+                SeqGenUtil.setWorkerId(idWorker);
+            } catch (IllegalArgumentException e) {
+                throw new SchedulerConfigException(PROP_SCHED_ID_WORKER + " must be within 0~1023.");
+            }
+        }
+
+        // 限流(集群每秒许可数，按存活节点均分)，应用及任务类均未配置时不启用
+        DispatchRateLimiter dispatchRateLimiter = null;
+        Properties rateLimitProps = cfg.getPropertyGroup(PROP_SCHED_RATE_LIMIT_JOB_CLASS_PREFIX, true);
+        double applicationRate = cfg.getDoubleProperty(PROP_SCHED_RATE_LIMIT_APPLICATION, 0D);
+        if (applicationRate > 0D || !rateLimitProps.isEmpty()) {
+            Map<String, Double> jobClassRates = new HashMap<String, Double>();
+            try {
+                for (String jobClass : rateLimitProps.stringPropertyNames()) {
+                    jobClassRates.put(jobClass, Double.valueOf(rateLimitProps.getProperty(jobClass).trim()));
+                }
+                dispatchRateLimiter = new DispatchRateLimiter(applicationRate, jobClassRates,
+                        cfg.getLongProperty(PROP_SCHED_RATE_LIMIT_NODE_REFRESH_INTERVAL, DispatchRateLimiter.DEFAULT_NODE_REFRESH_INTERVAL));
+            } catch (IllegalArgumentException e) {
+                throw new SchedulerConfigException("Illegal rate limit configuration: " + e.getMessage(), e);
+            }
+        }
+
+        // 熄火补偿执行队列容量及每秒放行数
+        int catchUpQueueSize = cfg.getIntProperty(PROP_SCHED_CATCH_UP_QUEUE_SIZE, CatchUpDispatcher.DEFAULT_QUEUE_SIZE);
+        if (catchUpQueueSize < 1) {
+            throw new SchedulerConfigException(PROP_SCHED_CATCH_UP_QUEUE_SIZE + " must be positive.");
+        }
+        double catchUpRate = cfg.getDoubleProperty(PROP_SCHED_CATCH_UP_RATE, CatchUpDispatcher.DEFAULT_RATE);
+        if (catchUpRate <= 0D) {
+            throw new SchedulerConfigException(PROP_SCHED_CATCH_UP_RATE + " must be positive.");
+        }
+
+        // 主节点租约时长(毫秒)，0 即不启用
+        long leaderLeaseDuration = cfg.getLongProperty(PROP_SCHED_LEADER_LEASE_DURATION, 0L);
+        if (leaderLeaseDuration != 0L && leaderLeaseDuration < 3000L) {
+            throw new SchedulerConfigException(PROP_SCHED_LEADER_LEASE_DURATION + " must be 0 (disabled) or at least 3000.");
+        }
+
+        // JVM 共享检查线程池的线程数，0 即每个应用一个检查线程
+        int housekeepingThreadCount = cfg.getIntProperty(PROP_SCHED_HOUSEKEEPING_THREAD_COUNT, 0);
+        if (housekeepingThreadCount < 0) {
+            throw new SchedulerConfigException(PROP_SCHED_HOUSEKEEPING_THREAD_COUNT + " must not be negative.");
+        }
+
+        // 节点心跳间隔及失效判定时间(毫秒)，心跳间隔 0 即不启用
+        long heartbeatInterval = cfg.getLongProperty(PROP_SCHED_HEARTBEAT_INTERVAL, 0L);
+        if (heartbeatInterval != 0L && heartbeatInterval < 1000L) {
+            throw new SchedulerConfigException(PROP_SCHED_HEARTBEAT_INTERVAL + " must be 0 (disabled) or at least 1000.");
+        }
+        long heartbeatDeadTimeout = cfg.getLongProperty(PROP_SCHED_HEARTBEAT_DEAD_TIMEOUT, 0L);
+        if (heartbeatDeadTimeout != 0L && heartbeatDeadTimeout < 2 * heartbeatInterval) {
+            throw new SchedulerConfigException(PROP_SCHED_HEARTBEAT_DEAD_TIMEOUT + " must be 0 (three heartbeats) or at least twice " + PROP_SCHED_HEARTBEAT_INTERVAL + ".");
+        }
+
+        // 与数据库时钟同步的间隔及最大允许偏差(毫秒)，同步间隔 0 即不启用
+        long clockSyncInterval = cfg.getLongProperty(PROP_SCHED_CLOCK_SYNC_INTERVAL, 0L);
+        if (clockSyncInterval != 0L && clockSyncInterval < 1000L) {
+            throw new SchedulerConfigException(PROP_SCHED_CLOCK_SYNC_INTERVAL + " must be 0 (disabled) or at least 1000.");
+        }
+        long clockMaxSkew = cfg.getLongProperty(PROP_SCHED_CLOCK_SYNC_MAX_SKEW, 500L);
+        if (clockMaxSkew <= 0L) {
+            throw new SchedulerConfigException(PROP_SCHED_CLOCK_SYNC_MAX_SKEW + " must be positive.");
+        }
+
+        // 数据库不可用时主节点按内存调度降级触发的最长时间(毫秒，须启用租约)，0 即不启用
+        long degradedMaxDuration = cfg.getLongProperty(PROP_SCHED_DEGRADED_MAX_DURATION, 0L);
+        if (degradedMaxDuration < 0L) {
+            throw new SchedulerConfigException(PROP_SCHED_DEGRADED_MAX_DURATION + " must not be negative.");
+        }
+        if (degradedMaxDuration > 0L && leaderLeaseDuration == 0L) {
+            throw new SchedulerConfigException(PROP_SCHED_DEGRADED_MAX_DURATION + " requires " + PROP_SCHED_LEADER_LEASE_DURATION + ".");
+        }
+        String degradedJournal = cfg.getStringProperty(PROP_SCHED_DEGRADED_JOURNAL, null);
+
+        // 执行项内存副本的增量同步及全量对账间隔(毫秒)，同步间隔 0 即不启用(每轮查询数据库)
+        long replicaSyncInterval = cfg.getLongProperty(PROP_SCHED_REPLICA_SYNC_INTERVAL, 0L);
+        if (replicaSyncInterval != 0L && replicaSyncInterval < 1000L) {
+            throw new SchedulerConfigException(PROP_SCHED_REPLICA_SYNC_INTERVAL + " must be 0 (disabled) or at least 1000.");
+        }
+        long replicaFullInterval = cfg.getLongProperty(PROP_SCHED_REPLICA_FULL_INTERVAL, 600000L);
+        if (replicaSyncInterval > 0L && replicaFullInterval < replicaSyncInterval) {
+            throw new SchedulerConfigException(PROP_SCHED_REPLICA_FULL_INTERVAL + " must not be less than " + PROP_SCHED_REPLICA_SYNC_INTERVAL + ".");
+        }
+
         boolean interruptJobsOnShutdown = cfg.getBooleanProperty(PROP_SCHED_INTERRUPT_JOBS_ON_SHUTDOWN, false);
         boolean interruptJobsOnShutdownWithWait = cfg.getBooleanProperty(PROP_SCHED_INTERRUPT_JOBS_ON_SHUTDOWN_WITH_WAIT, false);
 
-//        boolean jmxExport = cfg.getBooleanProperty(PROP_SCHED_JMX_EXPORT);
-//        String jmxObjectName = cfg.getStringProperty(PROP_SCHED_JMX_OBJECT_NAME);
+        boolean jmxExport = cfg.getBooleanProperty(PROP_SCHED_JMX_EXPORT);
+        String jmxObjectName = cfg.getStringProperty(PROP_SCHED_JMX_OBJECT_NAME);
         
 //        boolean jmxProxy = cfg.getBooleanProperty(PROP_SCHED_JMX_PROXY);
 //        String jmxProxyClass = cfg.getStringProperty(PROP_SCHED_JMX_PROXY_CLASS);
@@ -1021,6 +1263,8 @@ public class StdSchedulerFactory implements SchedulerFactory {
         // Fire everything up
         // ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
         try {
+            // 调度线程与 JobStore 共用的时钟，开启时钟同步时按数据库时间校正
+            final SimpleTimeBroker timeBroker = new SimpleTimeBroker();
             JobRunShellFactory jrsf = null; // Create correct run-shell factory...
             if (userTXLocation != null) {
                 UserTransactionHelper.setUserTxLocation(userTXLocation);
@@ -1065,6 +1309,20 @@ public class StdSchedulerFactory implements SchedulerFactory {
             if (js instanceof JobStoreSupport) {
                 JobStoreSupport jjs = (JobStoreSupport)js;
                 jjs.setDbRetryInterval(dbFailureRetry);
+                jjs.setDbFailureBaseDelay(dbFailureBaseDelay);
+                jjs.setDbFailureThreshold(dbFailureThreshold);
+                jjs.setLeaderLeaseDuration(leaderLeaseDuration);
+                jjs.setHousekeepingThreadCount(housekeepingThreadCount);
+                jjs.setHeartbeatInterval(heartbeatInterval);
+                jjs.setHeartbeatDeadTimeout(heartbeatDeadTimeout);
+                // 调度线程与 JobStore 共用同一时钟
+                jjs.setTimeBroker(timeBroker);
+                jjs.setClockSyncInterval(clockSyncInterval);
+                jjs.setClockMaxSkew(clockMaxSkew);
+                jjs.setDegradedMaxDuration(degradedMaxDuration);
+                jjs.setDegradedJournal(degradedJournal);
+                jjs.setReplicaSyncInterval(replicaSyncInterval);
+                jjs.setReplicaFullInterval(replicaFullInterval);
                 if(threadsInheritInitalizersClassLoader){
                     jjs.setThreadsInheritInitializersClassLoadContext(threadsInheritInitalizersClassLoader);
                 }
@@ -1076,14 +1334,27 @@ public class StdSchedulerFactory implements SchedulerFactory {
             rsrcs.setThreadName(threadName);
 //            rsrcs.setInstanceId(schedInstId);
             rsrcs.setJobRunShellFactory(jrsf);
+            rsrcs.setTimeBroker(timeBroker);
             rsrcs.setMakeSchedulerThreadDaemon(makeSchedulerThreadDaemon);
             rsrcs.setThreadsInheritInitializersClassLoadContext(threadsInheritInitalizersClassLoader);
             rsrcs.setBatchTimeWindow(batchTimeWindow);
             rsrcs.setMaxBatchSize(maxBatchSize);
+            rsrcs.setAcquireWindowTuner(acquireWindowTuner);
+            rsrcs.setPreciseDispatch(preciseDispatch);
+            rsrcs.setPreciseDispatchSpinNanos(preciseDispatchSpinNanos);
+            rsrcs.setSampledStatistics(sampledStatistics);
+            rsrcs.setListenerBusThreadCount(listenerBusThreadCount);
+            rsrcs.setListenerBusQueueSize(listenerBusQueueSize);
+            rsrcs.setJobChainEnabled(jobChainEnabled);
+            rsrcs.setJobChainFallbackDelay(jobChainFallbackDelay);
+            rsrcs.setFireNowPollInterval(fireNowPollInterval);
+            rsrcs.setDispatchRateLimiter(dispatchRateLimiter);
+            rsrcs.setCatchUpQueueSize(catchUpQueueSize);
+            rsrcs.setCatchUpRate(catchUpRate);
             rsrcs.setInterruptJobsOnShutdown(interruptJobsOnShutdown);
             rsrcs.setInterruptJobsOnShutdownWithWait(interruptJobsOnShutdownWithWait);
-//            rsrcs.setJMXExport(jmxExport);
-//            rsrcs.setJMXObjectName(jmxObjectName);
+            rsrcs.setJMXExport(jmxExport);
+            rsrcs.setJMXObjectName(jmxObjectName);
             if (managementRESTServiceEnabled) {
                 ManagementRESTServiceConfiguration managementRESTServiceConfiguration = new ManagementRESTServiceConfiguration();
                 managementRESTServiceConfiguration.setBind(managementRESTServiceHostAndPort);
@@ -1110,6 +1381,20 @@ public class StdSchedulerFactory implements SchedulerFactory {
             tp.initialize();
             tpInited = true;
             rsrcs.setJobStore(js);
+            // 执行记录异步写入
+            if (cfg.getBooleanProperty(PROP_SCHED_EXECUTE_HISTORY_ENABLED, false)) {
+                String policy = cfg.getStringProperty(PROP_SCHED_EXECUTE_HISTORY_OVERFLOW_POLICY, ExecuteHistoryWriter.OverflowPolicy.DROP.name());
+                try {
+                    rsrcs.setExecuteHistoryWriter(new ExecuteHistoryWriter(js, application,
+                            cfg.getIntProperty(PROP_SCHED_EXECUTE_HISTORY_BUFFER_SIZE, ExecuteHistoryWriter.DEFAULT_BUFFER_SIZE),
+                            cfg.getIntProperty(PROP_SCHED_EXECUTE_HISTORY_BATCH_SIZE, ExecuteHistoryWriter.DEFAULT_BATCH_SIZE),
+                            cfg.getLongProperty(PROP_SCHED_EXECUTE_HISTORY_FLUSH_INTERVAL, ExecuteHistoryWriter.DEFAULT_FLUSH_INTERVAL),
+                            ExecuteHistoryWriter.OverflowPolicy.valueOf(policy.trim().toUpperCase()),
+                            cfg.getIntProperty(PROP_SCHED_EXECUTE_HISTORY_RETENTION_DAYS, ExecuteHistoryWriter.DEFAULT_RETENTION_DAYS)));
+                } catch (IllegalArgumentException e) {
+                    throw new SchedulerConfigException("Illegal execute history configuration: " + e.getMessage(), e);
+                }
+            }
             // add plugins
             for (int i = 0; i < plugins.length; i++) {
                 rsrcs.addSchedulerPlugin(plugins[i]);
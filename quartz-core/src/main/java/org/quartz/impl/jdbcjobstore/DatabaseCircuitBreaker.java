@@ -0,0 +1,169 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.impl.jdbcjobstore;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Failure policy shared by all database access of one job store. Every
+ * connection attempt reports its outcome; after <code>threshold</code>
+ * consecutive failures the breaker opens and rejects attempts without
+ * touching the data source until a probe is due, then lets a single caller
+ * through: its success closes the breaker, its failure reopens it for a
+ * longer time.
+ * 同一 JobStore 所有数据库访问共用的失败策略：每次获取连接均报告结果，连续失败 threshold 次后断路器打开，
+ * 到探测时间前直接拒绝(不访问数据源)，之后仅放行一个调用方探测：成功即关闭，失败则以更长的时间重新打开。
+ * </p>
+ *
+ * <p>
+ * Delays grow exponentially from <code>baseDelay</code> up to
+ * <code>maxDelay</code> and are jittered over their upper half, so nodes
+ * that lost the database together do not come back in lockstep.
+ * 等待时间自 baseDelay 起指数增长至 maxDelay，并在后半段随机抖动，避免同时失联的节点同步重连。
+ * </p>
+ */
+final class DatabaseCircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseCircuitBreaker.class);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    // 连续失败多少次后打开，0 即不打开(仍按退避等待)
+    private volatile int threshold = 5;
+    private volatile long baseDelay = 100L;
+    private volatile long maxDelay = 15000L;
+
+    private State state = State.CLOSED;
+    // 连续失败次数及打开后连续探测失败次数
+    private int failures = 0;
+    private int probes = 0;
+    // 打开时下一次探测的时间(System.nanoTime)
+    private long probeAtNanos = 0L;
+
+    private final AtomicLong openCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    void setThreshold(int threshold) {
+        this.threshold = threshold;
+    }
+
+    void setBaseDelay(long baseDelay) {
+        this.baseDelay = baseDelay;
+    }
+
+    void setMaxDelay(long maxDelay) {
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * <p>
+     * Whether a database access may be attempted now; when the breaker is
+     * open and a probe is due, only the first caller is let through.
+     * 当前是否允许访问数据库；断路器打开且已到探测时间时仅放行第一个调用方。
+     * </p>
+     */
+    synchronized boolean allow() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.nanoTime() - probeAtNanos >= 0L) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            LOG.info("数据库已恢复，断路器关闭(此前连续失败{}次)", failures);
+        }
+        state = State.CLOSED;
+        failures = 0;
+        probes = 0;
+    }
+
+    synchronized void onFailure() {
+        if (failures < Integer.MAX_VALUE) {
+            failures++;
+        }
+        if (state == State.HALF_OPEN) {
+            probes++;
+            open();
+        } else if (state == State.CLOSED && threshold > 0 && failures >= threshold) {
+            probes = 1;
+            open();
+        }
+    }
+
+    private void open() {
+        final long delay = backoff(probes);
+        state = State.OPEN;
+        probeAtNanos = System.nanoTime() + delay * 1000000L;
+        openCount.incrementAndGet();
+        LOG.warn("数据库连续失败{}次，断路器打开，{}ms后探测", failures, delay);
+    }
+
+    /**
+     * <p>
+     * Jittered exponential delay for the given attempt (1-based):
+     * <code>d = min(maxDelay, baseDelay * 2^(attempt-1))</code>, uniformly
+     * drawn from <code>[d/2, d]</code>.
+     * 第 attempt 次(自1起)的抖动指数退避：d = min(maxDelay, baseDelay*2^(attempt-1))，在 [d/2, d] 内均匀取值。
+     * </p>
+     */
+    long backoff(int attempt) {
+        final long base = Math.max(1L, baseDelay);
+        final long max = Math.max(base, maxDelay);
+        final int shift = Math.min(Math.max(0, attempt - 1), 62);
+        // 左移溢出时直接取上限
+        final long delay = shift >= Long.numberOfLeadingZeros(base) - 1 ? max : Math.min(max, base << shift);
+        final long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    /**
+     * 距下一次探测的时间(毫秒)，未打开时为0
+     */
+    synchronized long millisToProbe() {
+        if (state != State.OPEN) {
+            return 0L;
+        }
+        return Math.max(0L, (probeAtNanos - System.nanoTime()) / 1000000L);
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    synchronized int getConsecutiveFailures() {
+        return failures;
+    }
+
+    long getOpenCount() {
+        return openCount.get();
+    }
+
+    long getRejectedCount() {
+        return rejectedCount.get();
+    }
+}
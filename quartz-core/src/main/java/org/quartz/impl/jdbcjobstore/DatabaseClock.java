@@ -0,0 +1,122 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.impl.jdbcjobstore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.simpl.SimpleTimeBroker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Keeps a {@link SimpleTimeBroker} aligned with the database clock. Each
+ * synchronization reads the database time a few times and keeps the sample
+ * with the shortest round trip, assuming the database read its clock half
+ * way through it: <code>offset = dbTime - (sent + rtt / 2)</code>, with an
+ * error of at most <code>rtt / 2</code>.
+ * 使 SimpleTimeBroker 与数据库时钟对齐：每次同步读取数据库时间若干次，取往返耗时最短的一次，
+ * 按数据库在往返中点读取时钟计算偏差 offset = 数据库时间 - (发送时间 + rtt/2)，误差不超过 rtt/2。
+ * </p>
+ *
+ * <p>
+ * An offset beyond <code>maxSkew</code> is still applied, so the node keeps
+ * deciding on the database time, but is reported as an alarm: the host
+ * clock should be fixed.
+ * 偏差超过 maxSkew 时仍然生效(节点继续按数据库时间判断)，但记录告警，应校正该主机时钟。
+ * </p>
+ */
+final class DatabaseClock {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DatabaseClock.class);
+
+    // 每次同步的采样次数
+    static final int SAMPLES = 3;
+
+    private final SimpleTimeBroker broker;
+    private final long maxSkew;
+
+    // 最近一次同步的往返耗时(毫秒)，未同步时为-1
+    private volatile long lastRtt = -1L;
+    // 最近一次同步的本机时间
+    private volatile long lastSync = 0L;
+    private final AtomicLong alarms = new AtomicLong();
+
+    DatabaseClock(SimpleTimeBroker broker, long maxSkew) {
+        this.broker = broker;
+        this.maxSkew = maxSkew;
+    }
+
+    /**
+     * <p>
+     * Measure the offset to the database clock and apply it to the broker.
+     * 测量与数据库时钟的偏差并设置到 broker。
+     * </p>
+     *
+     * @return the applied offset in milliseconds
+     */
+    long sync(DriverDelegate delegate, Connection conn) throws SQLException {
+        long bestRtt = Long.MAX_VALUE;
+        long bestOffset = 0L;
+        for (int i = 0; i < SAMPLES; i++) {
+            final long sent = System.currentTimeMillis();
+            final long t0 = System.nanoTime();
+            final long dbTime = delegate.selectDatabaseTime(conn);
+            final long rtt = (System.nanoTime() - t0) / 1000000L;
+            if (rtt < bestRtt) {
+                bestRtt = rtt;
+                bestOffset = dbTime - (sent + rtt / 2);
+            }
+        }
+        final long previous = broker.getOffset();
+        broker.setOffset(bestOffset);
+        lastRtt = bestRtt;
+        lastSync = System.currentTimeMillis();
+        if (Math.abs(bestOffset) > maxSkew) {
+            alarms.incrementAndGet();
+            LOG.error("本机时钟与数据库时钟偏差过大:{}ms(阈值{}ms,往返{}ms)，已按数据库时间调度，请校正主机时钟", bestOffset, maxSkew, bestRtt);
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("数据库时钟偏差:{}ms(上次{}ms,往返{}ms)", bestOffset, previous, bestRtt);
+        }
+        return bestOffset;
+    }
+
+    /**
+     * 距上次同步是否已达 interval(毫秒)
+     */
+    boolean isDue(long interval) {
+        return System.currentTimeMillis() - lastSync >= interval;
+    }
+
+    long millisToNextSync(long interval) {
+        return lastSync + interval - System.currentTimeMillis();
+    }
+
+    long getOffset() {
+        return broker.getOffset();
+    }
+
+    long getLastRtt() {
+        return lastRtt;
+    }
+
+    long getAlarmCount() {
+        return alarms.get();
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.impl.jdbcjobstore;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.impl.AcquiredExecute;
+import org.quartz.impl.QrtzExecute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * In-memory schedule of the executes this node last acquired, used to keep
+ * firing while the database is unreachable. Every acquisition and claim
+ * refreshes it with the row values last seen in <code>QRTZ_EXECUTE</code>;
+ * during an outage the windows are computed from it and each claim is
+ * recorded as a transition instead of being written.
+ * 本节点最近获取的执行项的内存调度，用于数据库不可用时继续触发：每次获取及抢占均以最近所见的 QRTZ_EXECUTE 行值刷新；
+ * 中断期间据此计算获取窗口，抢占改为记录状态变更而不写库。
+ * </p>
+ *
+ * <p>
+ * The journal keeps, per execute, the values before the first degraded fire
+ * and after the last one; when the database returns they are applied with
+ * the usual optimistic update (<code>WHERE STATE/PREV_FIRE_TIME/NEXT_FIRE_TIME
+ * = old</code>), so a row changed meanwhile is left as is and counted as a
+ * conflict. With a journal file every transition is also appended to it,
+ * so transitions survive a restart and are reconciled at the next start.
+ * 变更记录按执行项保存首次降级触发前及最后一次触发后的值，数据库恢复后以常规乐观更新写入(WHERE 旧值)，
+ * 期间已被修改的行保持不变并计为冲突；配置记录文件时每次变更同时追加写入，重启后于下次启动时对账。
+ * </p>
+ */
+final class DegradedSchedule {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DegradedSchedule.class);
+
+    /**
+     * 执行项在库中的最新值(本节点所见)
+     */
+    static final class Entry {
+        final AcquiredExecute.Source source;
+        // 库中的已触发次数(获取时按 repeatCount 递增前)
+        final int timeTriggered;
+        final long prevFireTime;
+        final long nextFireTime;
+
+        Entry(AcquiredExecute.Source source, int timeTriggered, long prevFireTime, long nextFireTime) {
+            this.source = source;
+            this.timeTriggered = timeTriggered;
+            this.prevFireTime = prevFireTime;
+            this.nextFireTime = nextFireTime;
+        }
+    }
+
+    /**
+     * 一个执行项在降级期间的状态变更：首次变更前的值及最后一次变更后的值
+     */
+    static final class Transition {
+        final String oldState;
+        final long oldPrevFireTime;
+        final long oldNextFireTime;
+        QrtzExecute latest;
+
+        Transition(String oldState, long oldPrevFireTime, long oldNextFireTime, QrtzExecute latest) {
+            this.oldState = oldState;
+            this.oldPrevFireTime = oldPrevFireTime;
+            this.oldNextFireTime = oldNextFireTime;
+            this.latest = latest;
+        }
+    }
+
+    private final long maxDuration;
+    private final File journalFile;
+
+    private final Map<String, Entry> entries = new HashMap<String, Entry>();
+    private final Map<String, Transition> journal = new LinkedHashMap<String, Transition>();
+    // 数据库首次失败的时间，可用时为0
+    private long downSince = 0L;
+    private boolean active = false;
+
+    private final AtomicLong fires = new AtomicLong();
+    private final AtomicLong reconciled = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+
+    DegradedSchedule(long maxDuration, File journalFile) {
+        this.maxDuration = maxDuration;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * <p>
+     * Refresh the schedule with an acquired window: the first fire of each
+     * execute carries its row values; executes due by the window end but no
+     * longer returned were paused, removed or moved by another node.
+     * 以获取到的窗口刷新调度：各执行项的第一个触发即行值；窗口结束前应触发但未再获取到的执行项已被暂停、删除或由其他节点推进。
+     * </p>
+     */
+    synchronized void remember(List<AcquiredExecute> acquired, long tew) {
+        final Set<String> seen = new HashSet<String>();
+        for (AcquiredExecute fire : acquired) {
+            if (seen.add(fire.getId())) {
+                final AcquiredExecute.Source source = fire.getSource();
+                entries.put(fire.getId(), new Entry(source, storedTimeTriggered(source, fire.getTimeTriggered()),
+                        fire.getPrevFireTime(), fire.getNextFireTime()));
+            }
+        }
+        for (Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            final Map.Entry<String, Entry> e = it.next();
+            if (e.getValue().nextFireTime <= tew && !seen.contains(e.getKey())) {
+                it.remove();
+            }
+        }
+    }
+
+    // 获取时已按 repeatCount 将已触发次数加1，还原为库中的值
+    private static int storedTimeTriggered(AcquiredExecute.Source source, int timeTriggered) {
+        return source.getRepeatCount() > 0 && timeTriggered > 0 ? timeTriggered - 1 : timeTriggered;
+    }
+
+    /**
+     * 抢占后刷新：成功的按写入的新值推进，失败的移除(行已被其他节点修改，下次获取时重新加入)
+     */
+    synchronized void claimed(List<QrtzExecute> newCes, List<AcquiredExecute> olds, int[] counts) {
+        for (int i = 0; i < newCes.size(); i++) {
+            if (null != counts && i < counts.length && counts[i] > 0) {
+                advance(olds.get(i).getSource(), newCes.get(i));
+            } else {
+                entries.remove(newCes.get(i).getId());
+            }
+        }
+    }
+
+    private void advance(AcquiredExecute.Source source, QrtzExecute newCe) {
+        if (AcquiredExecute.State.EXECUTING.name().equals(newCe.getState())) {
+            entries.put(newCe.getId(), new Entry(source, newCe.getTimeTriggered(), newCe.getPrevFireTime(), newCe.getNextFireTime()));
+        } else {
+            entries.remove(newCe.getId());
+        }
+    }
+
+    synchronized void failed(long now) {
+        if (downSince == 0L) {
+            downSince = now;
+            LOG.warn("数据库不可用，进入降级判断:{}条调度在内存中", entries.size());
+        }
+    }
+
+    /**
+     * <p>
+     * Whether this node may fire from memory now: it owns the executes (holds
+     * the leader lease) and the outage started no more than
+     * <code>maxDuration</code> ago.
+     * 当前是否可按内存调度触发：本节点持有执行项(主节点租约)，且中断开始不超过 maxDuration。
+     * </p>
+     */
+    synchronized boolean allowed(long now, boolean owner) {
+        final boolean allowed = owner && downSince > 0L && now - downSince <= maxDuration;
+        if (active && !allowed) {
+            active = false;
+            LOG.error("降级触发已停止(超过{}ms或已失去主节点租约)，待数据库恢复后对账:{}条", maxDuration, journal.size());
+        }
+        return allowed;
+    }
+
+    /**
+     * 进入(或保持)降级，返回当前调度的快照及中断开始时间之后应触发的执行项
+     */
+    synchronized List<Entry> activate() {
+        if (!active) {
+            active = true;
+            LOG.warn("数据库不可用，按内存调度降级触发:{}条,至多{}ms", entries.size(), maxDuration);
+        }
+        return new ArrayList<Entry>(entries.values());
+    }
+
+    synchronized long getDownSince() {
+        return downSince;
+    }
+
+    synchronized boolean isActive() {
+        return active;
+    }
+
+    synchronized boolean hasPending() {
+        return !journal.isEmpty() || (null != journalFile && journalFile.length() > 0L);
+    }
+
+    /**
+     * 记录降级抢占(视为全部成功)并推进内存调度，返回各触发的结果
+     */
+    synchronized int[] journal(List<QrtzExecute> newCes, List<AcquiredExecute> olds, boolean[] fired) {
+        final int[] counts = new int[newCes.size()];
+        for (int i = 0; i < counts.length; i++) {
+            final QrtzExecute newCe = newCes.get(i);
+            final AcquiredExecute old = olds.get(i);
+            final Transition t = journal.get(newCe.getId());
+            if (null == t) {
+                journal.put(newCe.getId(), new Transition(old.getSource().getState().name(), old.getPrevFireTime(), old.getNextFireTime(), newCe));
+            } else {
+                t.latest = newCe;
+            }
+            append(old, newCe);
+            advance(old.getSource(), newCe);
+            if (fired[i]) {
+                fires.incrementAndGet();
+            }
+            counts[i] = 1;
+        }
+        return counts;
+    }
+
+    // 追加写入记录文件: ID,旧状态,旧上次,旧下次,新状态,已触发次数,新上次,新下次,结束时间,IP,主机名
+    private void append(AcquiredExecute old, QrtzExecute newCe) {
+        if (null == journalFile) {
+            return;
+        }
+        final StringBuilder line = new StringBuilder(128);
+        line.append(newCe.getId()).append('\t').append(old.getSource().getState().name())
+                .append('\t').append(old.getPrevFireTime()).append('\t').append(old.getNextFireTime())
+                .append('\t').append(newCe.getState()).append('\t').append(newCe.getTimeTriggered())
+                .append('\t').append(newCe.getPrevFireTime()).append('\t').append(newCe.getNextFireTime())
+                .append('\t').append(text(newCe.getEndTime())).append('\t').append(text(newCe.getHostIp()))
+                .append('\t').append(text(newCe.getHostName())).append('\n');
+        Writer out = null;
+        try {
+            out = new OutputStreamWriter(new FileOutputStream(journalFile, true), StandardCharsets.UTF_8);
+            out.write(line.toString());
+        } catch (IOException e) {
+            LOG.error("写入降级记录文件失败(仅保留于内存):{}", journalFile, e);
+        } finally {
+            close(out);
+        }
+    }
+
+    private static String text(Object value) {
+        return null == value ? "" : value.toString();
+    }
+
+    /**
+     * <p>
+     * Apply the journal (the file's transitions first, then the in-memory
+     * ones) with optimistic updates and commit. The journal is cleared only
+     * once the commit succeeded.
+     * 以乐观更新写入变更记录(先文件再内存)并提交，提交成功后才清除记录。
+     * </p>
+     *
+     * @return the number of executes brought up to date
+     */
+    synchronized int reconcile(DriverDelegate delegate, Connection conn) throws SQLException {
+        final Map<String, Transition> all = readJournalFile();
+        for (Map.Entry<String, Transition> e : journal.entrySet()) {
+            final Transition t = all.get(e.getKey());
+            if (null == t) {
+                all.put(e.getKey(), e.getValue());
+            } else {
+                t.latest = e.getValue().latest;
+            }
+        }
+        if (all.isEmpty()) {
+            return 0;
+        }
+        final List<String> conflicted = new ArrayList<String>();
+        int ok = 0;
+        for (Map.Entry<String, Transition> e : all.entrySet()) {
+            final Transition t = e.getValue();
+            if (delegate.toLockAndUpdate(conn, t.latest, t.oldState, t.oldPrevFireTime, t.oldNextFireTime) > 0) {
+                ok++;
+            } else {
+                conflicted.add(e.getKey());
+            }
+        }
+        conn.commit();
+        journal.clear();
+        truncateJournalFile();
+        for (String id : conflicted) {
+            // 行已被修改，以库中的值为准
+            entries.remove(id);
+        }
+        reconciled.addAndGet(ok);
+        conflicts.addAndGet(conflicted.size());
+        if (conflicted.isEmpty()) {
+            LOG.info("降级期间的状态变更已对账:{}条", ok);
+        } else {
+            LOG.warn("降级期间的状态变更已对账:{}条，冲突(期间已被修改，以库中为准):{}", ok, conflicted);
+        }
+        return ok;
+    }
+
+    /**
+     * 数据库已恢复(对账之后调用)
+     */
+    synchronized void recovered() {
+        if (downSince > 0L) {
+            LOG.info("数据库已恢复，退出降级");
+        }
+        downSince = 0L;
+        active = false;
+    }
+
+    private Map<String, Transition> readJournalFile() {
+        final Map<String, Transition> all = new LinkedHashMap<String, Transition>();
+        if (null == journalFile || !journalFile.isFile()) {
+            return all;
+        }
+        BufferedReader in = null;
+        try {
+            in = new BufferedReader(new InputStreamReader(new FileInputStream(journalFile), StandardCharsets.UTF_8));
+            String line;
+            while (null != (line = in.readLine())) {
+                final String[] f = line.split("\t", -1);
+                if (f.length < 11) {
+                    // 写入中断的残行
+                    LOG.warn("忽略不完整的降级记录:{}", line);
+                    continue;
+                }
+                final QrtzExecute latest = QrtzExecute.build(f[0], null, null, f[4], null, null, null, null,
+                        Integer.valueOf(f[5]), Long.valueOf(f[6]), Long.valueOf(f[7]), empty(f[9]), empty(f[10]), null,
+                        f[8].isEmpty() ? null : Long.valueOf(f[8]));
+                final Transition t = all.get(f[0]);
+                if (null == t) {
+                    all.put(f[0], new Transition(f[1], Long.parseLong(f[2]), Long.parseLong(f[3]), latest));
+                } else {
+                    t.latest = latest;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.error("读取降级记录文件失败:{}", journalFile, e);
+        } finally {
+            close(in);
+        }
+        return all;
+    }
+
+    private static String empty(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private void truncateJournalFile() {
+        if (null == journalFile || !journalFile.isFile()) {
+            return;
+        }
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(journalFile, false);
+        } catch (IOException e) {
+            LOG.error("清空降级记录文件失败(下次对账时将计为冲突):{}", journalFile, e);
+        } finally {
+            close(out);
+        }
+    }
+
+    private static void close(Closeable c) {
+        if (null != c) {
+            try {
+                c.close();
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    long getMaxDuration() {
+        return maxDuration;
+    }
+
+    long getFireCount() {
+        return fires.get();
+    }
+
+    long getReconciledCount() {
+        return reconciled.get();
+    }
+
+    long getConflictCount() {
+        return conflicts.get();
+    }
+}
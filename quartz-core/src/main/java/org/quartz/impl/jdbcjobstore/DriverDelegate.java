@@ -18,13 +18,20 @@
 package org.quartz.impl.jdbcjobstore;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.List;
+import java.util.Map;
 
 import org.quartz.impl.QrtzApp;
+import org.quartz.impl.QrtzFired;
+import org.quartz.impl.QrtzLease;
+import org.quartz.impl.AcquiredExecute;
 import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzExecuteHistory;
 import org.quartz.impl.QrtzJob;
 import org.quartz.impl.QrtzNode;
 import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.TimeBroker;
 import org.slf4j.Logger;
 
 /**
@@ -659,8 +666,62 @@ public interface DriverDelegate {
 
     List<QrtzExecute> selectExecuteAndJobToAcquire(Connection conn, String application, long _tsw,long _tew,String state);
 
+    // 查询应用下执行项或所属任务的变更版本(VERSION)不小于 since 的执行项及任务(不限状态)，since 为 Long.MIN_VALUE 时查询全部
+    List<QrtzExecute> selectExecuteAndJobChangedSince(Connection conn, String application, long since) throws SQLException;
+
     int toLockAndUpdate(Connection conn, QrtzExecute newCe, String oldState, long oldPrevTime, long oldNextTime);
 
+    // 批量抢占(一次 executeBatch)，按顺序返回各条的更新行数，驱动未返回逐条行数(SUCCESS_NO_INFO)时原样返回
+    int[] toLockAndUpdate(Connection conn, List<QrtzExecute> newCes, List<AcquiredExecute> olds) throws SQLException;
+
+    // 查询任务链中上游任务完成后待触发的下游执行项(下游任务及执行项均需为EXECUTING)
+    List<QrtzExecute> selectChainSuccessors(Connection conn, String application, String pid, boolean succeeded);
+
+    // 查询应用下最早的立即执行信号 信号ID->执行项ID，查询失败时抛出异常(信号保留待重试)
+    Map<String, String> selectFireNowSignals(Connection conn, String application, int maxCount) throws SQLException;
+
+    // 删除(即抢占)立即执行信号，返回1表示抢占成功
+    int deleteFireNowSignal(Connection conn, String id) throws SQLException;
+
+    // 根据执行项ID查询执行项及任务，不存在时返回null
+    QrtzExecute selectExecuteAndJobById(Connection conn, String executeId) throws SQLException;
+
+    // 查询应用的主节点租约，无记录时返回null
+    QrtzLease selectLease(Connection conn, String application) throws SQLException;
+
+    // 写入应用的首个租约(FENCE=1)
+    int insertLease(Connection conn, String application, String holder, long leaseUntil) throws SQLException;
+
+    // 租约已到期(LEASE_UNTIL<now)时抢占租约并将 FENCE 加1，返回1表示成为主节点
+    int acquireLease(Connection conn, String application, String holder, long leaseUntil, long now) throws SQLException;
+
+    // 持有者以 FENCE 续约(或以过去的时间释放)，返回0表示租约已被他人取得
+    int renewLease(Connection conn, String application, String holder, long fence, long leaseUntil) throws SQLException;
+
+    // 批量写入执行中记录(与抢占同一事务)
+    int[] insertFired(Connection conn, List<QrtzFired> fired) throws SQLException;
+
+    // 删除执行中记录，返回0表示已被删除(执行完成或已被其他节点接管)
+    int deleteFired(Connection conn, String executeId, long schedTime) throws SQLException;
+
+    // 查询已丢失的执行中记录：其它节点 TIME_CHECK<aliveSince(或节点已被清理) 的，以及本节点重启前(FIRED_TIME<startedAt)遗留的
+    List<QrtzFired> selectLostFired(Connection conn, String application, String hostIP, long startedAt, long aliveSince) throws SQLException;
+
+    // 查询数据库当前时间(毫秒，按数据库类型选择时间函数)
+    long selectDatabaseTime(Connection conn) throws SQLException;
+
+    // 设置写入变更版本(VERSION)所用的时钟，未设置时取本机时间
+    void setTimeBroker(TimeBroker timeBroker);
+
+    // 设置是否写入变更版本(VERSION)，仅启用执行项副本时开启(须先执行 VERSION 列的迁移脚本)
+    void setWriteVersion(boolean writeVersion);
+
+    // 批量写入执行记录(JDBC batch)
+    int insertExecuteHistory(Connection conn, List<QrtzExecuteHistory> histories) throws SQLException;
+
+    // 清理应用下触发时间早于 before 的执行记录
+    int clearExecuteHistory(Connection conn, String application, long before) throws SQLException;
+
 
 
     String[] getDBInfo(Connection conn);
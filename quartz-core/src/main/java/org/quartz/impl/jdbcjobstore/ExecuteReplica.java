@@ -0,0 +1,197 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.impl.jdbcjobstore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Node-local copy of the executes of one application that may fire, so the
+ * acquisition window is computed from memory instead of scanning
+ * <code>QRTZ_EXECUTE</code> every loop. It is loaded in full on first use
+ * and every <code>fullInterval</code>; in between, every
+ * <code>syncInterval</code> it reads only the rows whose
+ * <code>VERSION</code> (added by <code>replica_version_*_v1.3.sql</code> and
+ * stamped by every core and client write once enabled, claims included) or
+ * whose job's <code>VERSION</code> is not older than the previous sync minus
+ * {@link #VERSION_OVERLAP}.
+ * 单个应用可触发执行项的节点本地副本，获取窗口由内存计算而不再每轮扫描 QRTZ_EXECUTE。首次使用时及每隔 fullInterval 全量加载；
+ * 其间每隔 syncInterval 仅读取执行项或所属任务的 VERSION(由 replica_version_*_v1.3.sql 添加，开启后核心与客户端每次写入均会更新，含抢占)不早于上次同步减去回看时间的行。
+ * </p>
+ *
+ * <p>
+ * Claims made by this node are applied at once, so the next window does not
+ * wait for a sync; claims lost to other nodes are applied as the same
+ * transition (all nodes compute the same one) and corrected by the next
+ * sync when they differ. Deleted rows are only noticed by the full
+ * reconciliation; until then claiming them simply fails.
+ * 本节点的抢占结果立即应用，下一窗口无需等待同步；被其它节点抢占的按相同的变更应用(各节点计算结果一致)，不一致时由下一次同步纠正。
+ * 被删除的行仅在全量对账时移除，此前对其抢占只会失败。
+ * </p>
+ */
+final class ExecuteReplica {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ExecuteReplica.class);
+
+    // 增量同步的回看时间(毫秒)：覆盖写入方之间的时钟偏差及事务提交延迟
+    static final long VERSION_OVERLAP = 10000L;
+
+    private final String application;
+    private final long syncInterval;
+    private final long fullInterval;
+
+    // 执行项ID -> 可触发的执行项(含任务)
+    private final Map<String, QrtzExecute> rows = new HashMap<String, QrtzExecute>();
+    private boolean loaded = false;
+    // 上一次同步及全量加载开始时的时间
+    private long lastSyncAt = 0L;
+    private long lastFullAt = 0L;
+
+    private final AtomicLong syncCount = new AtomicLong();
+    private final AtomicLong fullCount = new AtomicLong();
+    private final AtomicLong rowsRead = new AtomicLong();
+
+    ExecuteReplica(String application, long syncInterval, long fullInterval) {
+        this.application = application;
+        this.syncInterval = syncInterval;
+        this.fullInterval = fullInterval;
+    }
+
+    /**
+     * <p>
+     * The executes that may fire in <code>[tsw, tew]</code>, with the same
+     * conditions as the acquisition query; syncs first when due. The rows
+     * returned are copies the caller may modify.
+     * 窗口 [tsw, tew] 内可触发的执行项(条件与获取查询一致)，到期时先同步；返回的为副本，调用方可修改。
+     * </p>
+     */
+    synchronized List<QrtzExecute> window(DriverDelegate delegate, Connection conn, long now, long tsw, long tew) throws SQLException {
+        sync(delegate, conn, now);
+        final List<QrtzExecute> dataList = new ArrayList<QrtzExecute>(8);
+        for (QrtzExecute row : rows.values()) {
+            final Long next = row.getNextFireTime();
+            final Long start = row.getStartTime();
+            if (null != next && next >= tsw && next <= tew && null != start && start <= tew) {
+                dataList.add(copy(row));
+            }
+        }
+        return dataList;
+    }
+
+    synchronized void sync(DriverDelegate delegate, Connection conn, long now) throws SQLException {
+        if (!loaded || now - lastFullAt >= fullInterval) {
+            final List<QrtzExecute> all = delegate.selectExecuteAndJobChangedSince(conn, application, Long.MIN_VALUE);
+            final int before = rows.size();
+            rows.clear();
+            merge(all);
+            if (loaded && LOG.isDebugEnabled()) {
+                LOG.debug("执行项副本全量对账:{},{}->{}", application, before, rows.size());
+            }
+            loaded = true;
+            lastSyncAt = lastFullAt = now;
+            fullCount.incrementAndGet();
+            rowsRead.addAndGet(all.size());
+            return;
+        }
+        if (now - lastSyncAt < syncInterval) {
+            return;
+        }
+        final List<QrtzExecute> changed = delegate.selectExecuteAndJobChangedSince(conn, application, lastSyncAt - VERSION_OVERLAP);
+        merge(changed);
+        lastSyncAt = now;
+        syncCount.incrementAndGet();
+        rowsRead.addAndGet(changed.size());
+    }
+
+    // 可触发的行写入副本，其余(已暂停、完成等)移除
+    private void merge(List<QrtzExecute> changed) {
+        for (QrtzExecute row : changed) {
+            if (live(row)) {
+                rows.put(row.getId(), row);
+            } else {
+                rows.remove(row.getId());
+            }
+        }
+    }
+
+    // 与获取查询一致：执行项为EXECUTING，任务不为COMPLETE、INIT、PAUSED
+    private static boolean live(QrtzExecute row) {
+        final QrtzJob job = row.getJob();
+        final String jobState = null == job ? null : job.getState();
+        return "EXECUTING".equals(row.getState()) && null != jobState
+                && !"COMPLETE".equals(jobState) && !"INIT".equals(jobState) && !"PAUSED".equals(jobState);
+    }
+
+    /**
+     * <p>
+     * Apply the values written by claims (won or lost) to the copy.
+     * 将抢占(无论成败)写入的值应用到副本。
+     * </p>
+     */
+    synchronized void claimed(List<QrtzExecute> newCes) {
+        for (QrtzExecute newCe : newCes) {
+            final QrtzExecute row = rows.get(newCe.getId());
+            if (null == row) {
+                continue;
+            }
+            if (!"EXECUTING".equals(newCe.getState())) {
+                rows.remove(newCe.getId());
+                continue;
+            }
+            row.setPrevFireTime(newCe.getPrevFireTime());
+            row.setNextFireTime(newCe.getNextFireTime());
+            row.setTimeTriggered(newCe.getTimeTriggered());
+            row.setEndTime(newCe.getEndTime());
+        }
+    }
+
+    private static QrtzExecute copy(QrtzExecute row) {
+        final QrtzExecute copy = QrtzExecute.build(row.getId(), row.getPid(), row.getJobType(), row.getState(), row.getCron(), row.getZoneId(),
+                row.getRepeatCount(), row.getRepeatInterval(), row.getTimeTriggered(), row.getPrevFireTime(), row.getNextFireTime(),
+                row.getHostIp(), row.getHostName(), row.getStartTime(), row.getEndTime());
+        copy.setJob(row.getJob());
+        copy.setVersion(row.getVersion());
+        return copy;
+    }
+
+    synchronized int size() {
+        return rows.size();
+    }
+
+    long getSyncCount() {
+        return syncCount.get();
+    }
+
+    long getFullCount() {
+        return fullCount.get();
+    }
+
+    long getRowsRead() {
+        return rowsRead.get();
+    }
+}
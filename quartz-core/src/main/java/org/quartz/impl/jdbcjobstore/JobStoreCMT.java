@@ -160,15 +160,18 @@ public class JobStoreCMT extends JobStoreSupport {
 
     @Override
     protected Connection getNonManagedTXConnection() throws JobPersistenceException {
+        checkCircuit();
         Connection conn = null;
         try {
             conn = DBConnectionManager.getInstance().getConnection(getNonManagedTXDataSource());
         } catch (SQLException sqle) {
-            sqle.printStackTrace();
+            connectionObtained(false);
             throw new JobPersistenceException("Failed to obtain DB connection from data source '" + getNonManagedTXDataSource() + "': " + sqle.toString(), sqle);
         } catch (Throwable e) {
+            connectionObtained(false);
             throw new JobPersistenceException("Failed to obtain DB connection from data source '" + getNonManagedTXDataSource() + "': " + e.toString(), e);
         }
+        connectionObtained(conn != null);
         if (conn == null) { 
             throw new JobPersistenceException("Could not get connection from DataSource '" + getNonManagedTXDataSource() + "'");
         }
@@ -17,33 +17,56 @@
 
 package org.quartz.impl.jdbcjobstore;
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.quartz.Job;
 import org.quartz.JobPersistenceException;
+import org.quartz.MisfirePolicy;
 import org.quartz.SchedulerConfigException;
 import org.quartz.SchedulerException;
+import org.quartz.impl.AcquiredExecute;
 import org.quartz.impl.QrtzApp;
 import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzExecuteHistory;
 import org.quartz.impl.QrtzJob;
+import org.quartz.impl.QrtzFired;
 import org.quartz.impl.QrtzNode;
 import org.quartz.impl.triggers.CronTriggerImpl;
 import org.quartz.impl.triggers.SimpleTriggerImpl;
+import org.quartz.simpl.SeqGenUtil;
+import org.quartz.simpl.SimpleTimeBroker;
 import org.quartz.simpl.SystemPropGenerator;
 import org.quartz.spi.ClassLoadHelper;
 import org.quartz.spi.JobStore;
+import org.quartz.spi.OperableTrigger;
 import org.quartz.spi.SchedulerSignaler;
+import org.quartz.spi.TimeBroker;
 import org.quartz.utils.DBConnectionManager;
+import org.quartz.utils.HousekeepingExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -133,6 +156,8 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
     private boolean acquireTriggersWithinLock = false;
     
     private long dbRetryInterval = 15000L; // 15 secs
+    // 数据库访问失败时的退避及断路器，dbRetryInterval 为退避上限
+    private final DatabaseCircuitBreaker circuitBreaker = new DatabaseCircuitBreaker();
     
     private boolean makeThreadsDaemons = false;
 
@@ -140,6 +165,40 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
     private ClassLoader initializersLoader = null;
     
     private boolean doubleCheckLockMisfireHandler = true;
+
+    // 主节点租约时长(毫秒)，0 即不启用(沿用 QRTZ_APP 抢占)
+    private long leaderLeaseDuration = 0L;
+    private volatile LeaderLease leaderLease = null;
+    // JVM 共享检查线程池的线程数，0 即每个应用一个独立的检查线程
+    private int housekeepingThreadCount = 0;
+    // 节点心跳间隔(毫秒)，0 即不启用(TIME_CHECK 每天刷新一次，不记录执行中任务)
+    private long heartbeatInterval = 0L;
+    // 节点失效判定时间(毫秒)，0 即心跳间隔的3倍
+    private long heartbeatDeadTimeout = 0L;
+    // 调度器启动时间，此前本节点写入的执行中记录视为已丢失
+    private volatile long startedAt = 0L;
+    private final AtomicLong takenOverFired = new AtomicLong();
+    // 未指定工作节点号时从 QRTZ_LEASE 租用的ID生成器工作节点号(本JVM共用，由各调度器续约)及其租约时长(毫秒)
+    private static volatile WorkerIdLease workerIdLease = null;
+    private static final long WORKER_ID_LEASE = 600000L;
+    // 删除失败(或数据库不可用时)待重试的执行中记录，由下一次心跳或检查删除
+    private final Queue<QrtzFired> pendingFiredDeletes = new ConcurrentLinkedQueue<QrtzFired>();
+    // 集群统一时钟，与调度线程共用
+    private TimeBroker timeBroker = new SimpleTimeBroker();
+    // 与数据库时钟同步的间隔(毫秒)，0 即不同步；偏差超过 clockMaxSkew 时告警
+    private long clockSyncInterval = 0L;
+    private long clockMaxSkew = 500L;
+    private volatile DatabaseClock databaseClock = null;
+    // 数据库不可用时按内存调度降级触发的最长时间(毫秒，须启用租约)，0 即不启用；journal 为本地记录文件(可选)
+    private long degradedMaxDuration = 0L;
+    private String degradedJournal = null;
+    private volatile DegradedSchedule degradedSchedule = null;
+    // 最近一次读取到的本节点状态，降级期间沿用
+    private volatile String lastNodeState = null;
+    // 执行项内存副本的增量同步间隔(毫秒)，0 即不启用(每轮查询数据库)；fullInterval 为全量对账间隔
+    private long replicaSyncInterval = 0L;
+    private long replicaFullInterval = 600000L;
+    private volatile ExecuteReplica executeReplica = null;
     
 //    private final Logger log = LoggerFactory.getLogger(getClass());
     private final Logger log = LoggerFactory.getLogger(JobStoreSupport.class);
@@ -148,6 +207,8 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
     
     private volatile boolean schedulerRunning = false;
     private volatile boolean shutdown = false;
+    // 驱动的 executeBatch 不返回逐条行数(SUCCESS_NO_INFO)时改为逐条抢占
+    private volatile boolean batchClaimUnsupported = false;
     
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -352,6 +413,31 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
      */
     public void setDbRetryInterval(long dbRetryInterval) {
         this.dbRetryInterval = dbRetryInterval;
+        this.circuitBreaker.setMaxDelay(dbRetryInterval);
+    }
+
+    /**
+     * <p>
+     * Set the number of consecutive failures to obtain a connection after
+     * which database access is rejected without touching the data source
+     * until a probe succeeds; 0 never rejects (failures are still backed
+     * off). The default is 5.
+     * 设置获取连接连续失败多少次后打开断路器(探测成功前直接拒绝，不访问数据源)，0 即不打开(仍退避)，默认5。
+     * </p>
+     */
+    public void setDbFailureThreshold(int dbFailureThreshold) {
+        this.circuitBreaker.setThreshold(dbFailureThreshold);
+    }
+
+    /**
+     * <p>
+     * Set the first retry delay (in milliseconds) after a database failure;
+     * later delays double up to the db retry interval. The default is 100.
+     * 设置数据库失败后首次重试的等待时间(毫秒)，之后逐次翻倍至 dbRetryInterval，默认100。
+     * </p>
+     */
+    public void setDbFailureBaseDelay(long dbFailureBaseDelay) {
+        this.circuitBreaker.setBaseDelay(dbFailureBaseDelay);
     }
     
     /**
@@ -595,6 +681,381 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
         this.doubleCheckLockMisfireHandler = doubleCheckLockMisfireHandler;
     }
 
+    /**
+     * <p>
+     * Get the duration (in milliseconds) of the application's leader lease,
+     * 0 when the lease is not used.
+     * 获取应用主节点租约的时长(毫秒)，0 即不启用租约。
+     * </p>
+     */
+    public long getLeaderLeaseDuration() {
+        return leaderLeaseDuration;
+    }
+
+    /**
+     * <p>
+     * Set the duration (in milliseconds) of the application's leader lease
+     * (table <code>QRTZ_LEASE</code>). Only the lease holder runs recovery and
+     * purge; the others sleep until the lease expires, so the failover time
+     * is bounded by this duration. 0 keeps every node competing for
+     * <code>QRTZ_APP</code> on each check.
+     * 设置应用主节点租约(QRTZ_LEASE)的时长(毫秒)：仅持有者执行恢复及清理，其余节点休眠至租约到期，故障切换时间不超过该时长；
+     * 0 即各节点每次检查均抢占 QRTZ_APP。
+     * </p>
+     */
+    public void setLeaderLeaseDuration(long leaderLeaseDuration) {
+        this.leaderLeaseDuration = leaderLeaseDuration;
+    }
+
+    public int getHousekeepingThreadCount() {
+        return housekeepingThreadCount;
+    }
+
+    /**
+     * <p>
+     * Set the size of the JVM-wide executor that runs the cluster checks of
+     * all schedulers hosted in this JVM; 0 starts one check thread per
+     * scheduler.
+     * 设置 JVM 内所有调度器共用的集群检查线程池大小(以首个启动的调度器为准)，0 即每个调度器一个检查线程。
+     * </p>
+     */
+    public void setHousekeepingThreadCount(int housekeepingThreadCount) {
+        this.housekeepingThreadCount = housekeepingThreadCount;
+    }
+
+    public long getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    /**
+     * <p>
+     * Set the interval (in milliseconds) at which every node refreshes its
+     * <code>QRTZ_NODE.TIME_CHECK</code>, together with the cluster check.
+     * When set, every claimed fire is recorded in <code>QRTZ_FIRED</code>
+     * until it completes, and the records of nodes that missed their
+     * heartbeat for the dead timeout are taken over by the survivors.
+     * 0 refreshes <code>TIME_CHECK</code> once a day and records nothing.
+     * All nodes of an application must use the same setting.
+     * 设置节点心跳间隔(毫秒)：随集群检查刷新 QRTZ_NODE.TIME_CHECK；启用后每次抢占成功的触发写入 QRTZ_FIRED 直至执行完成，
+     * 心跳超时的节点的执行中记录由存活节点接管。0 即每天刷新一次且不记录执行中任务。同一应用的各节点须配置一致。
+     * </p>
+     */
+    public void setHeartbeatInterval(long heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+
+    /**
+     * 节点失效判定时间(毫秒)，未配置时为心跳间隔的3倍
+     */
+    public long getHeartbeatDeadTimeout() {
+        return heartbeatDeadTimeout>0 ? heartbeatDeadTimeout : heartbeatInterval*3;
+    }
+
+    /**
+     * <p>
+     * Set the time (in milliseconds) without heartbeat after which a node is
+     * considered dead; its in-flight fires are then taken over within one
+     * more heartbeat. 0 uses three heartbeat intervals.
+     * 设置节点失效判定时间(毫秒)：超过该时间无心跳的节点视为失效，其执行中记录在之后一个心跳间隔内被接管；0 即心跳间隔的3倍。
+     * </p>
+     */
+    public void setHeartbeatDeadTimeout(long heartbeatDeadTimeout) {
+        this.heartbeatDeadTimeout = heartbeatDeadTimeout;
+    }
+
+    @Override
+    public long getTakenOverFiredCount() {
+        return takenOverFired.get();
+    }
+
+    public TimeBroker getTimeBroker() {
+        return timeBroker;
+    }
+
+    /**
+     * <p>
+     * Set the clock used for fire windows, heartbeats, leases and recovery
+     * thresholds; the scheduler thread uses the same one. Clock
+     * synchronization requires a {@link SimpleTimeBroker}.
+     * 设置获取窗口、心跳、租约及恢复阈值使用的时钟(与调度线程共用)，时钟同步须为 SimpleTimeBroker。
+     * </p>
+     */
+    public void setTimeBroker(TimeBroker timeBroker) {
+        this.timeBroker = timeBroker;
+    }
+
+    public long getClockSyncInterval() {
+        return clockSyncInterval;
+    }
+
+    /**
+     * <p>
+     * Set the interval (in milliseconds) at which the offset to the database
+     * clock is measured, with the cluster check, and applied to the time
+     * broker; 0 uses the local clock as is.
+     * 设置随集群检查测量与数据库时钟偏差并设置到时钟的间隔(毫秒)，0 即直接使用本机时钟。
+     * </p>
+     */
+    public void setClockSyncInterval(long clockSyncInterval) {
+        this.clockSyncInterval = clockSyncInterval;
+    }
+
+    public long getClockMaxSkew() {
+        return clockMaxSkew;
+    }
+
+    /**
+     * 设置本机与数据库时钟的最大允许偏差(毫秒)，超过时记录告警
+     */
+    public void setClockMaxSkew(long clockMaxSkew) {
+        this.clockMaxSkew = clockMaxSkew;
+    }
+
+    @Override
+    public long getClockSkewAlarmCount() {
+        final DatabaseClock clock = databaseClock;
+        return null == clock ? 0L : clock.getAlarmCount();
+    }
+
+    /**
+     * <p>
+     * The delay before the scheduler thread retries a failed acquisition:
+     * jittered exponential backoff, and no earlier than the next probe while
+     * the circuit breaker is open.
+     * 调度线程获取失败后的重试等待：抖动指数退避，断路器打开时不早于下一次探测。
+     * </p>
+     */
+    @Override
+    public long getAcquireRetryDelay(int failureCount) {
+        return Math.max(circuitBreaker.backoff(failureCount),circuitBreaker.millisToProbe());
+    }
+
+    public long getDegradedMaxDuration() {
+        return degradedMaxDuration;
+    }
+
+    /**
+     * <p>
+     * Set how long (in milliseconds) the leader keeps firing the executes it
+     * last acquired from memory while the database is unreachable; requires
+     * the leader lease, and firing also stops once the lease held at the
+     * start of the outage runs out. 0 disables degraded firing.
+     * 设置数据库不可用时主节点按内存调度继续触发最近获取的执行项的最长时间(毫秒)；须启用租约，且所持租约到期后同样停止。0 即不启用。
+     * </p>
+     */
+    public void setDegradedMaxDuration(long degradedMaxDuration) {
+        this.degradedMaxDuration = degradedMaxDuration;
+    }
+
+    public String getDegradedJournal() {
+        return degradedJournal;
+    }
+
+    /**
+     * <p>
+     * Set the local file the degraded transitions are appended to, so they
+     * are reconciled even after a restart; by default they are only kept in
+     * memory.
+     * 设置降级期间状态变更追加写入的本地文件(重启后仍可对账)，默认仅保留于内存。
+     * </p>
+     */
+    public void setDegradedJournal(String degradedJournal) {
+        this.degradedJournal = degradedJournal;
+    }
+
+    public long getReplicaSyncInterval() {
+        return replicaSyncInterval;
+    }
+
+    /**
+     * <p>
+     * Set how often (in milliseconds) the in-memory copy of the executes
+     * reads the rows changed since its previous sync; the acquisition window
+     * is then computed from memory. Requires the <code>VERSION</code>
+     * columns of <code>QRTZ_JOB</code> and <code>QRTZ_EXECUTE</code> added
+     * by <code>replica_version_*_v1.3.sql</code> (checked at startup), and
+     * every client writing the tables must stamp them too. 0 disables the
+     * copy and <code>VERSION</code> is not written.
+     * 设置执行项内存副本读取上次同步以来变更行的间隔(毫秒)，获取窗口改由内存计算；须先执行 replica_version_*_v1.3.sql 添加 VERSION 列(启动时校验)，
+     * 且写入这两张表的客户端也须开启变更版本。0 即不启用，此时不写入 VERSION。
+     * </p>
+     */
+    public void setReplicaSyncInterval(long replicaSyncInterval) {
+        this.replicaSyncInterval = replicaSyncInterval;
+    }
+
+    public long getReplicaFullInterval() {
+        return replicaFullInterval;
+    }
+
+    /**
+     * <p>
+     * Set how often (in milliseconds) the in-memory copy is reloaded in full,
+     * which also drops deleted rows and any change missed by the incremental
+     * sync.
+     * 设置内存副本全量重新加载的间隔(毫秒)，同时移除已删除的行及增量同步遗漏的变更。
+     * </p>
+     */
+    public void setReplicaFullInterval(long replicaFullInterval) {
+        this.replicaFullInterval = replicaFullInterval;
+    }
+
+    @Override
+    public int getReplicaRowCount() {
+        final ExecuteReplica replica = executeReplica;
+        return null == replica ? 0 : replica.size();
+    }
+
+    @Override
+    public long getReplicaSyncCount() {
+        final ExecuteReplica replica = executeReplica;
+        return null == replica ? 0L : replica.getSyncCount() + replica.getFullCount();
+    }
+
+    @Override
+    public long getReplicaRowsRead() {
+        final ExecuteReplica replica = executeReplica;
+        return null == replica ? 0L : replica.getRowsRead();
+    }
+
+    @Override
+    public boolean isDegradedFiring() {
+        final DegradedSchedule ds = degradedSchedule;
+        return null != ds && ds.isActive();
+    }
+
+    @Override
+    public long getDegradedFireCount() {
+        final DegradedSchedule ds = degradedSchedule;
+        return null == ds ? 0L : ds.getFireCount();
+    }
+
+    @Override
+    public long getDegradedConflictCount() {
+        final DegradedSchedule ds = degradedSchedule;
+        return null == ds ? 0L : ds.getConflictCount();
+    }
+
+    // 本节点是否可按内存调度降级触发：持有主节点租约且中断未超过最长时间
+    private boolean degradedAllowed(DegradedSchedule ds) {
+        final long now = currentTimeMillis();
+        ds.failed(now);
+        final LeaderLease lease = leaderLease;
+        return ds.allowed(now,null!=lease && lease.isLeader(now));
+    }
+
+    private void remember(List<AcquiredExecute> executeList, long _tew) {
+        final DegradedSchedule ds = degradedSchedule;
+        if( null!=ds ){
+            ds.remember(executeList,_tew);
+        }
+    }
+
+    // 数据库可用时先对账降级期间的状态变更
+    private void reconcileDegraded(Connection conn) throws SQLException, JobPersistenceException {
+        final DegradedSchedule ds = degradedSchedule;
+        if( null==ds ){
+            return;
+        }
+        if( ds.hasPending() ){
+            ds.reconcile(getDelegate(),conn);
+        }
+        ds.recovered();
+    }
+
+    /**
+     * 按内存调度计算降级窗口：中断开始之后至 _tew 的触发(中断前的触发已在数据库可用时处理)
+     */
+    private List<AcquiredExecute> degradedWindow(DegradedSchedule ds, long _tew) {
+        final long since = ds.getDownSince();
+        final List<AcquiredExecute> executeList = new ArrayList<AcquiredExecute>(8);
+        for( DegradedSchedule.Entry e:ds.activate() ){
+            if( e.nextFireTime<since || e.nextFireTime>_tew ){
+                continue;
+            }
+            final AcquiredExecute.Source source = e.source;
+            // 与获取时一致，有指定重复次数时已触发次数加1
+            final int timeTriggered = source.getRepeatCount()>0 ? e.timeTriggered+1 : e.timeTriggered;
+            executeList.add(new AcquiredExecute(source,e.prevFireTime,e.nextFireTime,timeTriggered));
+            final Long endTime = source.getRow().getEndTime();
+            if( null!=endTime && (endTime<=0 || endTime>_tew ) ){
+                expand(source,e.nextFireTime,timeTriggered,endTime,_tew,executeList);
+            }
+        }
+        return executeList;
+    }
+
+    @Override
+    public String getDbCircuitState() {
+        return circuitBreaker.getState().name();
+    }
+
+    @Override
+    public int getDbConsecutiveFailures() {
+        return circuitBreaker.getConsecutiveFailures();
+    }
+
+    @Override
+    public long getDbCircuitOpenCount() {
+        return circuitBreaker.getOpenCount();
+    }
+
+    @Override
+    public long getDbCircuitRejectedCount() {
+        return circuitBreaker.getRejectedCount();
+    }
+
+    /**
+     * <p>
+     * Check the circuit breaker before obtaining a connection; subclasses
+     * obtaining connections themselves call this and report the outcome
+     * with {@link #connectionObtained(boolean)}.
+     * 获取连接前检查断路器；自行获取连接的子类须调用此方法并以 connectionObtained 报告结果。
+     * </p>
+     */
+    protected void checkCircuit() throws JobPersistenceException {
+        if( !circuitBreaker.allow() ){
+            throw new JobPersistenceException("Database circuit breaker is open, next probe in "
+                    + circuitBreaker.millisToProbe() + " ms.");
+        }
+    }
+
+    protected void connectionObtained(boolean success) {
+        if( success ){
+            circuitBreaker.onSuccess();
+        }else{
+            circuitBreaker.onFailure();
+        }
+    }
+
+    // 断路器打开期间的失败不再打印堆栈
+    private void logDbFailure(String msg, Exception e) {
+        if( circuitBreaker.getState()==DatabaseCircuitBreaker.State.CLOSED ){
+            log.error(msg,e);
+        }else{
+            log.warn(msg+":{}",e.getMessage());
+        }
+    }
+
+    /**
+     * 集群统一时钟的当前时间(开启时钟同步时为数据库时间)
+     */
+    protected long currentTimeMillis() {
+        return timeBroker.currentTimeMillis();
+    }
+
+    @Override
+    public boolean isClusterLeader() {
+        final LeaderLease lease = leaderLease;
+        return null != lease && lease.isLeader(currentTimeMillis());
+    }
+
+    @Override
+    public long getLeaderFencingToken() {
+        final LeaderLease lease = leaderLease;
+        return null == lease ? -1L : lease.getFence();
+    }
+
 //    /**
 //     * 默认15s, 具体可参见配置: org.quartz.scheduler.dbFailureRetryInterval
 //     * @param failureCount the number of successive failures seen so far
@@ -609,14 +1070,126 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
         Connection conn = null;
         try {
             conn = getConnection();
-            return getDelegate().findNodeStateByPK(conn,application,hostIP);
+            return lastNodeState = getDelegate().findNodeStateByPK(conn,application,hostIP);
         }catch (Exception e){
-            e.printStackTrace();
+            logDbFailure("查询节点状态异常",e);
+            final DegradedSchedule ds = degradedSchedule;
+            if( null!=ds && degradedAllowed(ds) ){
+                // 降级期间沿用最近一次的状态
+                return lastNodeState;
+            }
             return null;
         }finally {
             cleanupConnection(conn);
         }
     }
+    @Override
+    public int storeExecuteHistory(List<QrtzExecuteHistory> histories) {
+        Connection conn = null;
+        try {
+            conn = getNonManagedTXConnection();
+            int ct = getDelegate().insertExecuteHistory(conn, histories);
+            commitConnection(conn);
+            return ct;
+        }catch (Exception e){
+            rollbackConnection(conn);
+            log.error("写入执行记录失败:{}条",histories.size(),e);
+            return 0;
+        }finally {
+            cleanupConnection(conn);
+        }
+    }
+
+    @Override
+    public int clearExecuteHistory(String application, long before) {
+        Connection conn = null;
+        try {
+            conn = getNonManagedTXConnection();
+            int ct = getDelegate().clearExecuteHistory(conn, application, before);
+            commitConnection(conn);
+            return ct;
+        }catch (Exception e){
+            rollbackConnection(conn);
+            log.error("清理执行记录失败:{},{}",application,before,e);
+            return 0;
+        }finally {
+            cleanupConnection(conn);
+        }
+    }
+
+    @Override
+    public List<QrtzExecute> findChainSuccessors(String application, String jobId, boolean succeeded) {
+        List<QrtzExecute> executeList = new ArrayList<QrtzExecute>(4);
+        Connection conn = null;
+        try {
+            conn = getNonManagedTXConnection();
+            List<QrtzExecute> dataList = getDelegate().selectChainSuccessors(conn, application, jobId, succeeded);
+            commitConnection(conn);
+            for (QrtzExecute item : dataList) {
+                if (prepareForLocalRun(item)) {
+                    executeList.add(item);
+                }
+            }
+        } catch (Exception e) {
+            rollbackConnection(conn);
+            log.error("查询任务链下游任务失败:{},{}", application, jobId, e);
+        } finally {
+            cleanupConnection(conn);
+        }
+        return executeList;
+    }
+
+    @Override
+    public List<QrtzExecute> acquireFireNowSignals(String application, int maxCount) {
+        List<QrtzExecute> executeList = new ArrayList<QrtzExecute>(4);
+        Connection conn = null;
+        try {
+            conn = getNonManagedTXConnection();
+            Map<String, String> signals = getDelegate().selectFireNowSignals(conn, application, maxCount);
+            for (Map.Entry<String, String> signal : signals.entrySet()) {
+                // 删除成功即抢占成功，其它节点删除数为0
+                if (getDelegate().deleteFireNowSignal(conn, signal.getKey()) < 1) {
+                    continue;
+                }
+                QrtzExecute item = getDelegate().selectExecuteAndJobById(conn, signal.getValue());
+                if (null == item || !application.equals(item.getJob().getApplication())) {
+                    log.warn("立即执行信号对应的执行项不存在，已忽略:{}", signal);
+                    continue;
+                }
+                if (prepareForLocalRun(item)) {
+                    executeList.add(item);
+                }
+            }
+            commitConnection(conn);
+        } catch (Exception e) {
+            rollbackConnection(conn);
+            executeList.clear();
+            log.error("获取立即执行信号失败:{}", application, e);
+        } finally {
+            cleanupConnection(conn);
+        }
+        return executeList;
+    }
+
+    /**
+     * 加载任务类并设置本机信息，与 acquireNextTriggers 一致，任务类无效时返回false
+     */
+    private boolean prepareForLocalRun(QrtzExecute item) {
+        final String jobClass = item.getJob().getJobClass();
+        if (null == jobClass || "".equals(jobClass.trim()) || null == getClassLoadHelper()) {
+            return false;
+        }
+        try {
+            item.setJobClazz(getClassLoadHelper().loadClass(jobClass, Job.class));
+        } catch (Exception e) {
+            log.error("类不存在：{}", jobClass, e);
+            return false;
+        }
+        item.setHostIp(SystemPropGenerator.hostIP());
+        item.setHostName(SystemPropGenerator.hostName());
+        return true;
+    }
+
     @Override
     public int toLockAndUpdate(QrtzExecute newCe, String oldState, long oldPrevTime, long oldNextTime) {
         Connection conn = null;
@@ -626,7 +1199,7 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
 //            log.info("写入:{},{}",ct,newCe);
             return ct;
         }catch (Exception e){
-            e.printStackTrace();
+            log.error("claim error:{},{}",newCe.getId(),oldState,e);
             return 0;
         }finally {
             try {
@@ -634,12 +1207,239 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                     conn.commit();
                 }
             }catch (Exception e){
-                e.printStackTrace();
+                log.error("claim commit error:{}",newCe.getId(),e);
+            }
+            cleanupConnection(conn);
+        }
+    }
+
+    /**
+     * <p>
+     * Claim several fires with one JDBC batch in one transaction. Each claim
+     * is still guarded by its own old state and fire times, so losing one
+     * claim does not affect the others. Falls back to one update per claim
+     * when the connection is in auto-commit mode or the driver does not
+     * report per-statement update counts.
+     * 在同一事务内以一次JDBC批量更新抢占多个触发，各条仍以各自的旧状态及触发时间作为条件，互不影响；
+     * 连接为自动提交或驱动不返回逐条更新行数时退化为逐条抢占。
+     * </p>
+     */
+    @Override
+    public int[] toLockAndUpdate(List<QrtzExecute> newCes, List<AcquiredExecute> olds) {
+        if(batchClaimUnsupported || newCes.size()<2){
+            return JobStore.super.toLockAndUpdate(newCes,olds);
+        }
+        Connection conn = null;
+        try {
+            conn = getConnection();
+            if(conn.getAutoCommit()){
+                batchClaimUnsupported = true;
+                return JobStore.super.toLockAndUpdate(newCes,olds);
             }
+            final int[] counts = claimOn(conn,newCes,olds);
+            commitConnection(conn);
+            return counts;
+        }catch (Exception e){
+            log.error("batch claim error:{}",newCes.size(),e);
+            rollbackConnection(conn);
+            return new int[newCes.size()];
+        }finally {
             cleanupConnection(conn);
         }
     }
 
+    /**
+     * <p>
+     * Claim on the given connection without committing. The rows are updated
+     * in ascending execute ID order, so nodes claiming the same fire instant
+     * lock them in the same order and never deadlock; the counts are returned
+     * in the order of <code>newCes</code>. Rolls back and claims one by one
+     * when the driver does not report per-statement update counts.
+     * 在同一连接内抢占(不提交)：按执行项ID升序更新，各节点对同一触发时刻的行以相同顺序加锁，避免相互死锁，返回的行数与 newCes 顺序一致；
+     * 驱动不返回逐条行数时回滚后逐条执行。
+     * </p>
+     */
+    private int[] claimOn(Connection conn, List<QrtzExecute> newCes, List<AcquiredExecute> olds) throws SQLException, JobPersistenceException {
+        final int[] order = lockOrder(newCes);
+        final List<QrtzExecute> lockCes = new ArrayList<QrtzExecute>(order.length);
+        final List<AcquiredExecute> lockOlds = new ArrayList<AcquiredExecute>(order.length);
+        for(int i:order){
+            lockCes.add(newCes.get(i));
+            lockOlds.add(olds.get(i));
+        }
+        int[] counts = null;
+        if(!batchClaimUnsupported && newCes.size()>1){
+            counts = getDelegate().toLockAndUpdate(conn,lockCes,lockOlds);
+            for(int ct:counts){
+                if(ct==Statement.SUCCESS_NO_INFO){
+                    // 无法区分抢占成功与否，回滚后逐条执行
+                    rollbackConnection(conn);
+                    batchClaimUnsupported = true;
+                    log.warn("JDBC驱动批量更新未返回逐条行数,抢占改为逐条更新");
+                    counts = null;
+                    break;
+                }
+            }
+        }
+        if(null==counts){
+            counts = new int[newCes.size()];
+            for(int i=0;i<counts.length;i++){
+                final AcquiredExecute old = lockOlds.get(i);
+                counts[i] = getDelegate().toLockAndUpdate(conn,lockCes.get(i),old.getSource().getState().name(),old.getPrevFireTime(),old.getNextFireTime());
+            }
+        }
+        final int[] result = new int[counts.length];
+        for(int i=0;i<counts.length;i++){
+            result[order[i]] = counts[i]>0?counts[i]:0;
+        }
+        return result;
+    }
+
+    // 按执行项ID(数值)升序的下标
+    private static int[] lockOrder(final List<QrtzExecute> newCes) {
+        final Integer[] boxed = new Integer[newCes.size()];
+        for(int i=0;i<boxed.length;i++){
+            boxed[i] = i;
+        }
+        Arrays.sort(boxed,new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return new BigDecimal(newCes.get(a).getId()).compareTo(new BigDecimal(newCes.get(b).getId()));
+            }
+        });
+        final int[] order = new int[boxed.length];
+        for(int i=0;i<order.length;i++){
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    /**
+     * <p>
+     * Claim and, with the heartbeat enabled, insert the in-flight records of
+     * the won fires in the same transaction, so a fire is never running
+     * without a record that survivors can take over.
+     * 抢占并(启用心跳时)在同一事务内写入抢占成功的触发的执行中记录，保证运行中的任务总有可被接管的记录。
+     * </p>
+     */
+    @Override
+    public int[] toLockAndFire(List<QrtzExecute> newCes, List<AcquiredExecute> olds, boolean[] fires) {
+        final DegradedSchedule ds = degradedSchedule;
+        // 降级窗口内的触发仅记录，不访问数据库
+        if(null!=ds && ds.isActive()){
+            Arrays.fill(fires,false);
+            return ds.journal(newCes,olds,fires);
+        }
+        final int[] counts = claimAndFire(newCes,olds,fires);
+        if(null!=ds){
+            ds.claimed(newCes,olds,counts);
+        }
+        final ExecuteReplica replica = executeReplica;
+        if(null!=replica){
+            replica.claimed(newCes);
+        }
+        return counts;
+    }
+
+    // 返回后 fires[i] 仅对写入了执行中记录的触发为 true
+    private int[] claimAndFire(List<QrtzExecute> newCes, List<AcquiredExecute> olds, boolean[] fires) {
+        if(heartbeatInterval<=0){
+            Arrays.fill(fires,false);
+            return toLockAndUpdate(newCes,olds);
+        }
+        Connection conn = null;
+        try {
+            conn = getConnection();
+            final int[] counts = claimOn(conn,newCes,olds);
+            final long now = currentTimeMillis();
+            final List<QrtzFired> fired = new ArrayList<QrtzFired>(counts.length);
+            for(int i=0;i<counts.length;i++){
+                fires[i] = counts[i]>0 && fires[i];
+                if(fires[i]){
+                    // 计划触发时间即抢占前的 NEXT_FIRE_TIME
+                    fired.add(new QrtzFired(newCes.get(i).getId(),olds.get(i).getNextFireTime(),getInstanceName(),SystemPropGenerator.hostIP(),now));
+                }
+            }
+            if(!fired.isEmpty()){
+                getDelegate().insertFired(conn,fired);
+            }
+            commitConnection(conn);
+            return counts;
+        }catch (Exception e){
+            log.error("claim and fire error:{}",newCes.size(),e);
+            rollbackConnection(conn);
+            Arrays.fill(fires,false);
+            return new int[newCes.size()];
+        }finally {
+            cleanupConnection(conn);
+        }
+    }
+
+    /**
+     * <p>
+     * Delete the in-flight record written when the fire was claimed. Only
+     * called for claims that wrote one, whatever the mode is by now; while
+     * firing degraded, or when the delete fails, the record is queued and
+     * deleted by the next heartbeat or check, so a completed fire is never
+     * taken over and run again.
+     * 删除抢占时写入的执行中记录(仅对写入了记录的触发调用，与当前是否降级无关)；降级期间或删除失败时放入队列，
+     * 由下一次心跳或检查删除，避免已完成的触发被接管后再次执行。
+     * </p>
+     */
+    @Override
+    public void firedComplete(String executeId, long scheduledTime) {
+        if(heartbeatInterval<=0){
+            return;
+        }
+        final QrtzFired fired = new QrtzFired(executeId,scheduledTime,getInstanceName(),SystemPropGenerator.hostIP(),0L);
+        if(isDegradedFiring()){
+            pendingFiredDeletes.add(fired);
+            return;
+        }
+        Connection conn = null;
+        try {
+            conn = getConnection();
+            getDelegate().deleteFired(conn,executeId,scheduledTime);
+            commitConnection(conn);
+        }catch (Exception e){
+            logDbFailure("删除执行中记录异常,稍后重试:"+executeId+","+scheduledTime,e);
+            rollbackConnection(conn);
+            pendingFiredDeletes.add(fired);
+        }finally {
+            cleanupConnection(conn);
+        }
+    }
+
+    /**
+     * 重试删除待删除的执行中记录并提交，失败时保留剩余记录待下次重试
+     */
+    void retryFiredDeletes(Connection conn) throws SQLException, JobPersistenceException {
+        if(pendingFiredDeletes.isEmpty()){
+            return;
+        }
+        final List<QrtzFired> batch = new ArrayList<QrtzFired>();
+        QrtzFired fired;
+        while(null!=(fired=pendingFiredDeletes.poll())){
+            batch.add(fired);
+        }
+        try {
+            for(QrtzFired f:batch){
+                // 已被接管(删除)时影响行数为0
+                getDelegate().deleteFired(conn,f.getExecuteId(),f.getSchedTime());
+            }
+            conn.commit();
+        }catch (SQLException | JobPersistenceException | RuntimeException e){
+            rollbackConnection(conn);
+            pendingFiredDeletes.addAll(batch);
+            throw e;
+        }
+        log.info("已重试删除执行中记录:{}条,{}",batch.size(),getInstanceName());
+    }
+
+    int getPendingFiredDeleteCount() {
+        return pendingFiredDeletes.size();
+    }
+
     //---------------------------------------------------------------------------
     // interface methods
     //---------------------------------------------------------------------------
@@ -722,12 +1522,49 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
         if(initializersLoader != null){
             clusterMisfireHandler.setContextClassLoader(initializersLoader);
         }
+        if(leaderLeaseDuration>0){
+            leaderLease = new LeaderLease(getInstanceName(),getInstanceId(),leaderLeaseDuration);
+        }
+        if(clockSyncInterval>0){
+            if(timeBroker instanceof SimpleTimeBroker){
+                databaseClock = new DatabaseClock((SimpleTimeBroker)timeBroker,clockMaxSkew);
+                // 启动恢复前先对齐时钟
+                clusterMisfireHandler.syncClock();
+            }else{
+                log.warn("时钟同步须使用SimpleTimeBroker，已忽略:{}",timeBroker.getClass().getName());
+            }
+        }
+        if(degradedMaxDuration>0){
+            if(null==leaderLease){
+                throw new SchedulerConfigException("Degraded firing requires the leader lease (org.quartz.scheduler.leaderLease.duration).");
+            }
+            degradedSchedule = new DegradedSchedule(degradedMaxDuration,null==degradedJournal?null:new File(degradedJournal));
+            // 上次运行遗留的降级记录
+            clusterMisfireHandler.reconcileDegraded();
+        }
+        if(replicaSyncInterval>0){
+            // 首次获取时全量加载
+            clusterMisfireHandler.checkVersionColumns();
+            executeReplica = new ExecuteReplica(application,replicaSyncInterval,replicaFullInterval);
+        }
+        startedAt = currentTimeMillis();
+        if(heartbeatInterval>0){
+            clusterMisfireHandler.checkFiredTable();
+        }
+        clusterMisfireHandler.allocateWorkerId();
         // 前置处理(仅启动时一次)
         clusterMisfireHandler.preProcess(); // 写入app,写入node 清理历史数据
-        clusterMisfireHandler.recoverJob(); // 恢复job
-        clusterMisfireHandler.recoverExecute(System.currentTimeMillis()/1000*1000); // 恢复execute
+        // 启用租约时仅主节点执行启动恢复
+        if( clusterMisfireHandler.lead() ){
+            clusterMisfireHandler.recoverJob(); // 恢复job
+            clusterMisfireHandler.recoverExecute(currentTimeMillis()/1000*1000); // 恢复execute
+        }
         FIRST_CHECK=false; // 标志位，表示前置处理已经完成
-        clusterMisfireHandler.start();
+        if( housekeepingThreadCount>0 ){
+            clusterMisfireHandler.startOn(HousekeepingExecutor.acquire(housekeepingThreadCount));
+        }else{
+            clusterMisfireHandler.start();
+        }
         schedulerRunning = true;
         getLog().debug("JobStore background threads started (as scheduler was started).");
     }
@@ -802,14 +1639,18 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
     }
     
     protected Connection getConnection() throws JobPersistenceException {
+        checkCircuit();
         Connection conn;
         try {
             conn = DBConnectionManager.getInstance().getConnection(getDataSource());
         } catch (SQLException sqle) {
+            connectionObtained(false);
             throw new JobPersistenceException("Failed to obtain DB connection from data source '" + getDataSource() + "': " + sqle.toString(), sqle);
         } catch (Throwable e) {
+            connectionObtained(false);
             throw new JobPersistenceException("Failed to obtain DB connection from data source '" + getDataSource() + "': " + e.toString(), e);
         }
+        connectionObtained(conn != null);
         if (conn == null) { 
             throw new JobPersistenceException("Could not get connection from DataSource '" + getDataSource() + "'");
         }
@@ -833,42 +1674,45 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
     }
 
     @Override
-    public List<QrtzExecute> acquireNextTriggers(final String application,final long _tsw,final long _tew) throws JobPersistenceException {
-        long scheduledFireTime = -1;
-        if ((scheduledFireTime=System.currentTimeMillis()) > _tew) {
-//            throw new IllegalArgumentException();
-        }
+    public List<AcquiredExecute> acquireNextTriggers(final String application,final long _tsw,final long _tew) throws JobPersistenceException {
         final String hostIP = SystemPropGenerator.hostIP();
         final String hostName = SystemPropGenerator.hostName();
-        List<QrtzExecute> executeList = new ArrayList<QrtzExecute>(8);
+        List<AcquiredExecute> executeList = new ArrayList<AcquiredExecute>(8);
         final int MAX_DO_LOOP_RETRY = 3;
         int currentLoopCount = 0;
+        Exception lastFailure = null;
         do {
             currentLoopCount ++;
+            // 上一次失败时可能已加入部分执行项
+            executeList.clear();
             Connection conn=null;
             try {
                 conn = getConnection();
+                // 0. 数据库恢复后先对账降级期间的状态变更
+                reconcileDegraded(conn);
                 // 1. 获取窗口内的执行任务
                 // 2. 根据任务时间配置计算膨胀任务
                 // 3. 返回记录
-//                List<Key> keys = getDelegate().selectTriggerToAcquire(conn, noLaterThan + timeWindow, getMisfireTime(), maxCount);
-                List<QrtzExecute> dataList = getDelegate().selectExecuteAndJobToAcquire(conn,application,_tsw,_tew,"EXECUTING");
+                // 启用内存副本时由副本计算窗口，仅在同步到期时查询变更行
+                final ExecuteReplica replica = executeReplica;
+                List<QrtzExecute> dataList = null==replica ?
+                        getDelegate().selectExecuteAndJobToAcquire(conn,application,_tsw,_tew,"EXECUTING") :
+                        replica.window(getDelegate(),conn,currentTimeMillis(),_tsw,_tew);
                 // No trigger is ready to fire yet. 触发器还没有准备好点火
                 if (dataList == null || dataList.isEmpty()){
+                    remember(executeList,_tew);
                     return executeList;
                 }
                 // 打乱顺序可能在集群环境下有执行优势
                 Collections.shuffle(dataList);
+                // 相同cron表达式及时区的执行项共享已编译的调度及已计算的触发时间
+                final Map<String,AcquiredExecute.CronSchedule> cronSchedules = new HashMap<String,AcquiredExecute.CronSchedule>();
                 for( QrtzExecute item:dataList){
-                    final String jobType = item.getJobType(); // SIMPLE、CRON
-                    final Long endTime = item.getEndTime();
                     final Integer repeatCount = item.getRepeatCount();
                     item.setHostIp(hostIP);
                     item.setHostName(hostName);
-//                    item.setTimeTriggered( ("SIMPLE".equals(jobType))? (item.getTimeTriggered()+1) : item.getTimeTriggered());
                     // timeTriggered 是与 repeatCount 绑定的，有指定重复次数才会更新已触发次数
                     item.setTimeTriggered( repeatCount!=null && repeatCount>0 ? (item.getTimeTriggered()+1) : item.getTimeTriggered() );
-                    item.setScheduledFireTime(scheduledFireTime);
                     // 类加载
                     final String jobClass = item.getJob().getJobClass();
                     if( !"".equals(jobClass.trim()) && null!=getClassLoadHelper() ){
@@ -886,157 +1730,92 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                         // 不是任务类
                         continue;
                     }
-                    executeList.add(item);
-//                    if( null!=endTime && (endTime<=0 || endTime<=_tew ) ){
-                    if( null!=endTime && (endTime<=0 || endTime>_tew ) ){
-                        List<Date> dateList = null;
-                        if("CRON".equals(jobType)){
-                            final String cron = item.getCron();
-                            Long nextFireTime = item.getNextFireTime();
-                            Long startTime = item.getStartTime();
-//                            Long _endTime = endTime<=0?_tew:(endTime>_tew?null:endTime);
-                            Long _endTime = endTime<=0?_tew:(endTime>_tew?_tew:endTime);
-                            String _zoneId = item.getZoneId();
-                            if( _endTime==null || _endTime<1 || _endTime>_tew || nextFireTime > _tew ){
-                                continue;
-                            }
-                            dateList=this.getExecuteCronTimes(cron,nextFireTime,startTime,_endTime,_zoneId);
-//                            if(!( _endTime!=null && nextFireTime <=  _tew
-//                                    && (dateList=this.getExecuteCronTimes(cron,nextFireTime,startTime,_endTime,_zoneId)) !=null && !dateList.isEmpty()
-//                            )){
-//                                continue;
-//                            }
-                        }else if("SIMPLE".equals(jobType)){
-                            Long nextFireTime = item.getNextFireTime();
-                            Long startTime = item.getStartTime();
-//                            Long _endTime = endTime<=0?_tew:(endTime>_tew?null:endTime);
-                            Long _endTime = endTime<=0?_tew:(endTime>_tew?_tew:endTime);
-                            // Integer repeatCount = item.getRepeatCount();
-                            Integer timeTriggered = item.getTimeTriggered();
-                            Integer repeatInterval = item.getRepeatInterval();
-                            if( _endTime==null || _endTime<1 || (repeatCount>0 && timeTriggered>=repeatCount) || nextFireTime+repeatInterval > _tew ){
-                                continue;
-                            }
-                            dateList=this.getExecuteSimpleTimes(nextFireTime,startTime,_endTime,repeatCount,(long)repeatInterval,timeTriggered );
-//                            if(!( _endTime!=null && (repeatCount>0 && timeTriggered<repeatCount)
-//                                    && nextFireTime+repeatInterval <=  _tew
-//                                    && (dateList=this.getExecuteSimpleTimes(nextFireTime,startTime,_endTime,repeatCount,(long)repeatInterval,timeTriggered )) !=null && !dateList.isEmpty()
-//                            )){
-//                                continue;
-//                            }
-                        }else{
-                            log.error("not support jobType! {}",item);
-                        }
-                        // 遍历处理
-                        final QrtzJob job = item.getJob();
-                        for( int i =0;i<dateList.size();i++ ){
-                            Date date = dateList.get(i);
-                            QrtzExecute _execute = QrtzExecute.build(
-                                    item.getId(),
-                                    item.getPid(),
-                                    /*item.getExecuteIdx(),*/
-                                    item.getJobType(),
-                                    item.getState(),
-                                    item.getCron(),
-                                    item.getZoneId(),
-                                    item.getRepeatCount(),
-                                    item.getRepeatInterval(),
-                                    item.getTimeTriggered()+i+1,
-//                                    i==0?item.getPrevFireTime():dateList.get(i-1).getTime(),// prevFireTime
-                                    i==0?item.getNextFireTime():dateList.get(i-1).getTime(),// prevFireTime
-                                    date.getTime(), // nextFireTime
-                                    item.getHostIp(),
-                                    item.getHostName(),
-                                    item.getStartTime(),
-                                    item.getEndTime());
-                            _execute.setJobClazz(item.getJobClazz());
-                            _execute.setJob(job);
-                            executeList.add(_execute);
-                        }
+                    // 同一执行项的各次触发共享 source(含已编译的调度)
+                    final AcquiredExecute.Source source = new AcquiredExecute.Source(item,sharedCron(cronSchedules,item));
+                    executeList.add(new AcquiredExecute(source,item.getPrevFireTime(),item.getNextFireTime(),item.getTimeTriggered()));
+                    final Long endTime = item.getEndTime();
+                    if( null!=endTime && (endTime<=0 || endTime>_tew ) ){
+                        expand(source,item.getNextFireTime(),item.getTimeTriggered(),endTime,_tew,executeList);
                     }
                 }
+                remember(executeList,_tew);
                 return executeList;
             } catch (Exception ee) {
-//                throw new JobPersistenceException("Couldn't acquire next trigger: ", ee);
-                log.error("Couldn't acquire next trigger: {},{}",application,hostIP, ee);
+                lastFailure = ee;
+                logDbFailure("Couldn't acquire next trigger: "+application+","+hostIP, ee);
             }finally {
                 cleanupConnection(conn);
             }
-        } while (currentLoopCount<=MAX_DO_LOOP_RETRY);
-        // Return the acquired trigger list
-        return executeList;
+            // 断路器已打开时重试只会被直接拒绝，交由调度线程退避
+        } while (currentLoopCount<=MAX_DO_LOOP_RETRY && circuitBreaker.getState()==DatabaseCircuitBreaker.State.CLOSED);
+        final DegradedSchedule ds = degradedSchedule;
+        if( null!=ds && degradedAllowed(ds) ){
+            return degradedWindow(ds,_tew);
+        }
+        // 抛出异常以便调度线程累计失败次数并按 computeDelayForRepeatedErrors 退避
+        if( lastFailure instanceof JobPersistenceException ){
+            throw (JobPersistenceException)lastFailure;
+        }
+        throw new JobPersistenceException("Couldn't acquire next trigger: "+application+","+hostIP, lastFailure);
     }
 
-    private List<Date> getExecuteCronTimes(String cron, Long execTime, Long startTime, Long endTime,String zoneId){
-        List<Date> resultList = new ArrayList<>();
-        Date nextFireTime = new Date(execTime);
-        CronTriggerImpl cronTrigger=null;
-        try {
-            cronTrigger = new CronTriggerImpl()
-                    .setCronExpression(cron)
-                    .setStartTime(new Date(startTime))
-                    .setEndTime(new Date(endTime))
-                    .setTimeZone(TimeZone.getTimeZone(zoneId));
-        }catch (Exception e){
-            e.printStackTrace();
-        }
-        if(null==cronTrigger){
-            return resultList;
+    /**
+     * 取(或创建)执行项所在分组的共享cron调度，非CRON或表达式无效时返回null(由 Source 自行编译并报告异常)
+     */
+    private AcquiredExecute.CronSchedule sharedCron(Map<String,AcquiredExecute.CronSchedule> cronSchedules, QrtzExecute item){
+        if(AcquiredExecute.Type.of(item.getJobType())!=AcquiredExecute.Type.CRON || null==item.getCron()){
+            return null;
         }
-        do {
+        final String key = AcquiredExecute.CronSchedule.key(item.getCron(),item.getZoneId());
+        AcquiredExecute.CronSchedule cron = cronSchedules.get(key);
+        if(null==cron && !cronSchedules.containsKey(key)){
             try {
-                nextFireTime = cronTrigger.getFireTimeAfter(nextFireTime);
-//                // 存在时间回调，故此需要判断过滤
-//                if(execTime!=null && nextFireTime!=null && execTime.equals(nextFireTime.getTime())){
-//                    continue;
-//                }
-                if(null==nextFireTime || nextFireTime.getTime()>endTime ){
-                    break;
-                }
-                resultList.add(nextFireTime);
+                cron = new AcquiredExecute.CronSchedule(item.getCron(),item.getZoneId());
             }catch (Exception e){
-                e.printStackTrace();
-                return resultList;
+                cron = null;
             }
-        }while (nextFireTime!=null && nextFireTime.getTime()<=endTime);
-        return resultList;
+            cronSchedules.put(key,cron);
+        }
+        return cron;
     }
 
-    private List<Date> getExecuteSimpleTimes(Long execTime,Long startTime,Long endTime,Integer repeatCount,Long repeatInterval,Integer timesTriggered){
-        List<Date> resultList = new ArrayList<>();
-        Date nextFireTime = new Date(execTime);
-        SimpleTriggerImpl simpleTrigger=null;
-        try {
-            simpleTrigger = new SimpleTriggerImpl()
-                    .setStartTime(new Date(startTime))
-                    .setEndTime(new Date(endTime))
-                    .setRepeatCount(repeatCount)
-                    .setRepeatInterval(repeatInterval)
-                    .setTimesTriggered(timesTriggered);
-        }catch (Exception e){
-            e.printStackTrace();
-        }
-        if(null==simpleTrigger){
-            return resultList;
+    /**
+     * 将窗口内(至 _tew)的后续触发展开加入列表，各次触发仅保存自身的触发时间及已触发次数
+     */
+    private void expand(AcquiredExecute.Source source, long nextFireTime, int timeTriggered, long endTime, long _tew, List<AcquiredExecute> executeList){
+        final long _endTime = endTime<=0?_tew:(endTime>_tew?_tew:endTime);
+        final boolean simple;
+        if(source.getType()==AcquiredExecute.Type.CRON){
+            if( nextFireTime > _tew ){
+                return;
+            }
+            simple = false;
+        }else if(source.getType()==AcquiredExecute.Type.SIMPLE){
+            final int repeatCount = source.getRepeatCount();
+            if( (repeatCount>0 && timeTriggered>=repeatCount) || nextFireTime+source.getRepeatInterval() > _tew ){
+                return;
+            }
+            simple = true;
+        }else{
+            log.error("not support jobType! {}",source.getRow());
+            return;
         }
-        do {
+        long prev = nextFireTime;
+        for(int i=0;;i++){
+            Date date;
             try {
-//                nextFireTime = simpleTrigger.getFireTimeAfter((timesTriggered>=0 && timesTriggered<=1)?new Date(startTime):nextFireTime);
-                nextFireTime = simpleTrigger.getFireTimeAfter(nextFireTime);
-//                // 存在时间回调，故此需要判断过滤
-//                if(execTime!=null && nextFireTime!=null && execTime.equals(nextFireTime.getTime())){
-//                    continue;
-//                }
-                if(null==nextFireTime || nextFireTime.getTime()>endTime ){
-                    break;
-                }
-                resultList.add(nextFireTime);
+                date = source.fireTimeAfter(prev,timeTriggered);
             }catch (Exception e){
                 e.printStackTrace();
-                return resultList;
+                return;
+            }
+            // SIMPLE 在窗口结束时刻(含)不再触发，CRON 可在窗口结束时刻触发
+            if(null==date || (simple?date.getTime()>=_endTime:date.getTime()>_endTime)){
+                return;
             }
-        }while (nextFireTime!=null && nextFireTime.getTime()<=endTime);
-        return resultList;
+            executeList.add(new AcquiredExecute(source,prev,date.getTime(),timeTriggered+i+1));
+            prev = date.getTime();
+        }
     }
 
     /**
@@ -1054,6 +1833,8 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                     }
                     delegate = delegateClass.newInstance();
                     delegate.initialize(getLog(), tablePrefix,application, instanceId, getClassLoadHelper(), canUseProperties(), getDriverDelegateInitString());
+                    delegate.setTimeBroker(timeBroker);
+                    delegate.setWriteVersion(replicaSyncInterval>0);
                 } catch (InstantiationException e) {
                     throw new NoSuchDelegateException("Couldn't create delegate: " + e.getMessage(), e);
                 } catch (IllegalAccessException e) {
@@ -1078,6 +1859,20 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
 //        schedSignaler.signalSchedulingChange(candidateNewNextFireTime);
 //    }
 
+    // 集群恢复更新的行数计入抽样统计
+    protected void notifyRowsRecovered(int count) {
+        if (count > 0 && schedSignaler != null) {
+            schedSignaler.notifyRowsRecovered(count);
+        }
+    }
+
+    // 熄火的执行项交由调度器统计并补偿执行
+    protected void notifyMisfired(QrtzExecute execute, int missed, List<Long> catchUpFireTimes) {
+        if (schedSignaler != null) {
+            schedSignaler.notifyMisfired(execute, missed, catchUpFireTimes);
+        }
+    }
+
     //---------------------------------------------------------------------------
     // Cluster management methods 集群管理方法
     //---------------------------------------------------------------------------
@@ -1617,7 +2412,10 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
     /////////////////////////////////////////////////////////////////////////////
 
     private volatile boolean FIRST_CHECK = true;
-    private static Object lockCheck = new Object();
+    // 单个执行项最多统计的错过触发数(如长时间停机后的秒级任务)
+    private static final int MAX_MISSED_COUNTED = 10000;
+    // 集群检查互斥(实例级，同一 JVM 内的多个应用互不阻塞)
+    private final Object lockCheck = new Object();
     // 集群及熄火任务处理
     final class ClusterMisfireHandler extends Thread{
 
@@ -1637,126 +2435,606 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
             this.setName(getInstanceId()+ "_ClusterMisfireHandler");
             this.setDaemon(getMakeThreadsDaemons());
         }
+        // 共享检查线程池(org.quartz.scheduler.housekeeping.threadCount>0)时使用，独立线程时为null
+        private ScheduledExecutorService housekeeping = null;
+        private ScheduledFuture<?> nextCheck = null;
+        // QRTZ_APP 抢占模式：本次检查的基准时间及上次检查算得的休眠时间
+        private long _start = currentTimeMillis()/1000*1000;
+        private long lastSleep = 0L;
+        private boolean checked = false;
+        // 租约模式：上次恢复时间
+        private long lastRecover = 0L;
+        // 启用心跳时：下一次完整检查的时间，其间仅写入心跳
+        private long fullCheckAt = 0L;
+        // 最近一次成功访问数据库(心跳或检查)的时间，及与数据库断连超过失效时间后重新连通的时间
+        private long lastContactAt = 0L;
+        private long reconnectedAt = 0L;
+
         public void shutdown() {
             shutdown = true;
             this.interrupt();
+            if( null!=housekeeping ){
+                // 等待进行中的检查结束
+                synchronized (lockCheck){
+                    if( null!=nextCheck ){
+                        nextCheck.cancel(false);
+                    }
+                    releaseLease();
+                }
+                HousekeepingExecutor.release();
+                housekeeping = null;
+            }
+        }
+
+        /**
+         * <p>
+         * Run the checks on the JVM-wide housekeeping executor instead of
+         * starting this thread: every check schedules the next one after the
+         * wait it computed, so several applications share a few threads.
+         * 在 JVM 共享的检查线程池中执行检查(不启动本线程)：每次检查结束后按算得的等待时间调度下一次，多个应用共用少量线程。
+         * </p>
+         */
+        void startOn(ScheduledExecutorService executor){
+            housekeeping = executor;
+            nextCheck = executor.schedule(this::tick,0L,TimeUnit.MILLISECONDS);
+        }
+
+        private void tick(){
+            synchronized (lockCheck){
+                if( shutdown ){
+                    return;
+                }
+                final long wait = checkOnce();
+                if( !shutdown ){
+                    nextCheck = housekeeping.schedule(this::tick,Math.max(1L,wait),TimeUnit.MILLISECONDS);
+                }
+            }
         }
+
         @Override
         public void run(){
+            while (!shutdown){
+                final long wait;
+                synchronized (lockCheck){
+                    wait = checkOnce();
+                }
+                // 休眠等待下一次
+                if( !shutdown && wait>0 ){
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(wait);
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            }
             synchronized (lockCheck){
-//            long _t = System.currentTimeMillis();
-             final String application = getInstanceName();
-             long _start  = System.currentTimeMillis()/1000*1000;
-              while (!shutdown){
-//                  System.out.println("support耗时:"+(System.currentTimeMillis()-_t));
-//                  _t=System.currentTimeMillis();
-//                  getLog().info("........PROCESS...........");
-
-                  Connection conn = null;
-                  /***** try start... *****/
-                  try {
-                      // String hostName = SystemPropGenerator.hostName();
-                      // ## 加锁
-                      //1.获取qrtz_app记录
-                      conn = getNonManagedTXConnection();
-
-                      //1.获取节点并判断是否被清理，若无则continue
-                      QrtzNode node = getDelegate().findQrtzNodeByAppHost(conn,application,hostIP);
-                      // 节点有可能被清理掉，故此需要判断；同时需要注意 state=N的节点也许要写出处理 recover
-                      if( null==node ){
-                          getLog().info("node is empty or state is N : {},{}",application,hostIP);
-                          // 只有节点 state=Y 的节点才可以参与后续recover的操作，同时也减少后续的读写
-                          continue;
-                      }
-
-                      // 2.获取并判断app是否被清理，若无测continue
-                      QrtzApp app = getDelegate().getAppByApplication(conn,application );
-                      if( null==app ){
-                          getLog().info("APPLICATION is empty:{},{} ",application,hostIP);
-                          continue;
-                      }
-                      long tw = TIME_CHECK_INTERVAL/10*3;  // 70% 减少并发
-                      if( (app.getTimeNext()-_start)>tw ){
-                          continue;
-                      }
-                      // 2.更新qrtz_app以获取锁
-                      app.setTimePre(app.getTimeNext());
-                      app.setTimeNext(_start+TIME_CHECK_INTERVAL);
-                      app.setTimeInterval(TIME_CHECK_INTERVAL);
-
-                      // 3.尝试获取锁
-                      int ct = getDelegate().updateQrtzAppByApp(conn,app);
-                      // 4.同步app状态至node(仅对 app_state=Y && node_state=Y 的) || 更新检查时间
-                      if( "N".equals(app.getState()) &&  "Y".equals(node.getState()) ){
-                          node.setState("N");
-                          node.setTimeCheck(_start);
-                          getDelegate().updateQrtzNodeOfState(conn,node);
-                      }else if( (_start - node.getTimeCheck()) >= ONE_DAY ){
-                          node.setTimeCheck(_start);
-                          getDelegate().updateQrtzNodeOfTimeCheck(conn,node);
-                      }
-                      // 5.获取app锁的才可执行 clear 清理以及 recover 恢复，以减少读写
-                      if( ct>0 ){
-                          getLog().info(">>> In process Cluster "+getInstanceId()+" ! <<<");
-                          //3.更新time_check (根据频度) 86400_000L=24小时(一天)
-                          if(FIRST_CHECK==false) {
-                              // 5.1 每隔7天清理一次所有quartz记录,从 app 到 execute (每间隔七天&&上午零点或十点)
-//                              if ((_start - PRE_CLEAR_TIME) >= ONE_DAY * 7 && LocalDateTime.now().getHour() - 10 == 0) {
-                              final LocalDateTime ndt = LocalDateTime.now();
-                              if ( ndt.getDayOfMonth()/7==0 && ndt.getHour() - 10 == 0 && ndt.getMinute() - 20 == 0) {
-                                  getDelegate().clearHistoryData(conn, 366 * ONE_DAY);// 1年=1天*366
-//                                  PRE_CLEAR_TIME = _start;// update time
-                              }
-                              // 5.2 recover(恢复)执行项信息
-                              recoverExecute(_start/*conn,app,node*/);
-                              // 5.3 recover(恢复)修正job配置信息
-                              recoverJob(/*conn,app,node*/);
-                          }
-                      }
-                  }catch (Exception e){
-                      e.printStackTrace();
-                  }
-                  finally {
-                      // ## 休眠8S
-                      // 这个8S是当前次循环所耗费的总时间,所以这里的休眠时间一般小于8S
-                      // getLog().info("invoke sleep ... ");
-//                      System.out.println("invoke sleep ... ");
-                      // 休眠等待下一次
-                      long sleep_time = 0;
-                      if ( (sleep_time = (TIME_CHECK_INTERVAL-(System.currentTimeMillis() - _start)-2))>0 ) {
-                          try {
-                              conn.commit();
-                              cleanupConnection(conn);
-//                              getLog().info("SLEEP ：{} ",sleep_time);
-                              TimeUnit.MILLISECONDS.sleep(sleep_time);
-                          } catch (Exception e) {
-                          }
-                      }
-//                      _start=System.currentTimeMillis();
-                      // 防止因轮询超时的必要手段
-                      _start = sleep_time<-1000?
-                              System.currentTimeMillis()/1000*1000 :
-                              System.currentTimeMillis()+(sleep_time<-10?sleep_time:0);
-                  }
-                  /***** try end... *****/
-//                  long sleep_time = 0;
-//                  if ( (sleep_time = (TIME_CHECK_INTERVAL-(System.currentTimeMillis() - _start)-2))>4 ) {
-//                      try {
-////                              getLog().info("to sleep ：{} ",sleep_time);
-////                          TimeUnit.MILLISECONDS.sleep(sleep_time);
-//                          lockCheck.wait(sleep_time);
-////                              try {
-////                                  conn.commit();
-////                              } catch (SQLException e) {
-////                                  e.printStackTrace();
-////                              }
-////                          cleanupConnection(conn);
-//                      } catch (InterruptedException e) {
-//                      }
-//                  }
-              }
+                releaseLease();
+            }
+        }
+
+        /**
+         * 执行一次集群检查，返回距下一次检查的等待时间(毫秒)；启用心跳时完整检查之间按心跳间隔写入心跳
+         */
+        private long checkOnce(){
+            // 断路器打开时等待至下一次探测(已含抖动)，不访问数据库
+            final long blocked = circuitBreaker.millisToProbe();
+            if( blocked>0 ){
+                return blocked;
+            }
+            final DatabaseClock clock = databaseClock;
+            if( null!=clock && clock.isDue(clockSyncInterval) ){
+                syncClock();
+            }
+            long wait;
+            if( heartbeatInterval<=0 ){
+                wait = null!=leaderLease ? checkWithLease() : checkByApp();
+            }else{
+                if( currentTimeMillis()>=fullCheckAt ){
+                    // 完整检查同时写入心跳
+                    final long full = null!=leaderLease ? checkWithLease() : checkByApp();
+                    fullCheckAt = currentTimeMillis()+Math.max(0L,full);
+                }else{
+                    beat();
+                }
+                wait = Math.max(1L,Math.min(heartbeatInterval,fullCheckAt-currentTimeMillis()));
+            }
+            if( null!=clock ){
+                wait = Math.min(wait,Math.max(1L,clock.millisToNextSync(clockSyncInterval)));
+            }
+            return wait;
+        }
+
+        /**
+         * 对账降级期间(或上次运行遗留)的状态变更，失败时保留记录待下次数据库访问时重试
+         */
+        void reconcileDegraded(){
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                JobStoreSupport.this.reconcileDegraded(conn);
+            }catch (Exception e){
+                logDbFailure("降级记录对账异常:"+getInstanceName()+","+hostIP,e);
+                rollbackConnection(conn);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        /**
+         * 测量与数据库时钟的偏差并设置到时钟，失败时保留原偏差并在下一次检查时重试
+         */
+        void syncClock(){
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                databaseClock.sync(getDelegate(),conn);
+            }catch (Exception e){
+                log.error("数据库时钟同步异常:{},{}",getInstanceName(),hostIP,e);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        // 是否需要刷新节点的 TIME_CHECK：启用心跳时过半个心跳间隔即刷新，否则每天一次
+        private boolean heartbeatDue(long now, long timeCheck){
+            return heartbeatInterval>0 ? (now-timeCheck)>=heartbeatInterval/2 : (now-timeCheck)>=ONE_DAY;
+        }
+
+        /**
+         * 两次完整检查之间的心跳：刷新本节点 TIME_CHECK 并接管失效节点的执行中记录(启用租约时仅主节点接管)
+         */
+        void beat(){
+            final String application = getInstanceName();
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                final long now = currentTimeMillis();
+                getDelegate().updateQrtzNodeOfTimeCheck(conn,new QrtzNode(application,hostIP,hostName,null,now/1000*1000));
+                conn.commit();
+                contacted(conn,now);
+                if( null==leaderLease || leaderLease.isLeader(now) ){
+                    takeOverLost(conn,now);
+                }
+            }catch (Exception e){
+                log.error("节点心跳异常:{},{}",application,hostIP,e);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        /**
+         * 心跳或检查成功访问数据库后调用：距上次访问超过失效时间(含启动)即记为重新连通；
+         * 并重试删除此前删除失败的执行中记录(失败时保留至下一次)
+         */
+        private void contacted(Connection conn, long now){
+            if( now-lastContactAt>getHeartbeatDeadTimeout() ){
+                reconnectedAt = now;
+            }
+            lastContactAt = now;
+            try {
+                retryFiredDeletes(conn);
+            }catch (Exception e){
+                logDbFailure("重试删除执行中记录异常:"+getInstanceName()+","+hostIP,e);
+            }
+            final WorkerIdLease lease = workerIdLease;
+            if( null!=lease ){
+                try {
+                    synchronized (lease){
+                        // 长时间未能续约，工作节点号已被其他节点占用时重新分配
+                        if( !lease.renew(getDelegate(),conn,now) ){
+                            workerIdAllocated(lease.allocate(getDelegate(),conn,(int)SeqGenUtil.getWorkerId(),now));
+                        }
+                    }
+                }catch (Exception e){
+                    logDbFailure("ID生成器工作节点号续约异常:"+getInstanceName()+","+hostIP,e);
+                    rollbackConnection(conn);
+                }
+            }
+        }
+
+        /**
+         * <p>
+         * Lease a worker id for the id generator from the database, unless
+         * one is pinned (<code>org.quartz.scheduler.idWorker</code>, the
+         * system property <code>org.quartz.idWorker</code>) or a scheduler of
+         * this JVM already leased one; the lease is shared by the JVM and
+         * renewed by every scheduler, so it outlives a restarted scheduler.
+         * When it fails the hash of the host IP and the process id is kept,
+         * loudly.
+         * 未指定工作节点号(且本JVM未租用)时从数据库租用ID生成器工作节点号，本JVM共用并由各调度器续约(调度器重启后仍有效)；
+         * 失败时沿用主机IP与进程号的哈希并告警。
+         * </p>
+         */
+        void allocateWorkerId(){
+            synchronized (JobStoreSupport.class){
+                if( null!=workerIdLease || SeqGenUtil.isWorkerIdAssigned() ){
+                    return;
+                }
+                allocateWorkerIdInternal();
+            }
+        }
+
+        private void allocateWorkerIdInternal(){
+            String holder = hostIP+"#"+ManagementFactory.getRuntimeMXBean().getName();
+            holder = holder.length()>100 ? holder.substring(0,100) : holder;
+            final WorkerIdLease lease = new WorkerIdLease(holder,WORKER_ID_LEASE,(int)SeqGenUtil.MAX_WORKER);
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                workerIdAllocated(lease.allocate(getDelegate(),conn,(int)SeqGenUtil.getWorkerId(),currentTimeMillis()));
+                workerIdLease = lease;
+            }catch (Exception e){
+                log.error("未能从 {}LEASE 租用ID生成器工作节点号，沿用主机IP与进程号的哈希:{}，多个JVM间可能重复导致主键冲突，请配置 org.quartz.scheduler.idWorker",
+                        getTablePrefix(),SeqGenUtil.getWorkerId(),e);
+                rollbackConnection(conn);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        private void workerIdAllocated(int id){
+            if( id<0 ){
+                log.error("ID生成器工作节点号均已被占用，沿用:{}，多个JVM间可能重复导致主键冲突",SeqGenUtil.getWorkerId());
+                return;
+            }
+            SeqGenUtil.setWorkerId(id);
+        }
+
+        /**
+         * 启动时校验 QRTZ_JOB 及 QRTZ_EXECUTE 的 VERSION 列已由迁移脚本添加，否则开启副本后所有写入(含抢占)均将失败
+         */
+        void checkVersionColumns() throws SchedulerConfigException {
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                getDelegate().selectExecuteAndJobChangedSince(conn,getInstanceName(),Long.MAX_VALUE);
+            }catch (Exception e){
+                throw new SchedulerConfigException("Execute replica is enabled but column VERSION of tables "+getTablePrefix()+"JOB and "+getTablePrefix()+"EXECUTE is missing, run replica_version_<database>_v1.3.sql first.",e);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        /**
+         * 启动时校验执行中记录表(QRTZ_FIRED)可用，否则抢占时写入失败将导致所有触发均无法执行
+         */
+        void checkFiredTable() throws SchedulerConfigException {
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                getDelegate().selectLostFired(conn,getInstanceName(),hostIP,0L,0L);
+            }catch (Exception e){
+                throw new SchedulerConfigException("Heartbeat is enabled but table "+getTablePrefix()+"FIRED is not usable.",e);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        /**
+         * <p>
+         * Take over the in-flight records of dead nodes (no heartbeat within
+         * the dead timeout, or node row purged) and those this node left
+         * before its restart. Every record goes to the node whose delete
+         * succeeds; a fire of a job class whose <code>MisfirePolicy</code> is
+         * not <code>SKIP</code> is run once more for its scheduled time after
+         * the commit, the others are only reported as lost. Until this node
+         * has been connected for one dead timeout (after startup or an
+         * outage longer than that), peers' stale heartbeats may only mean
+         * they could not reach the database either, so only this node's own
+         * records are taken over.
+         * 接管失效节点(心跳超时或节点已被清理)及本节点重启前遗留的执行中记录：删除成功的节点负责该记录；
+         * 任务类熄火策略非 SKIP 的在提交后按原计划时间补偿执行一次，其余仅记录为丢失。
+         * 本节点(启动或断连超过失效时间后)重新连通未满一个失效时间时，其它节点心跳过期可能同样只是无法访问数据库，此时仅接管本节点的记录。
+         * </p>
+         */
+        private void takeOverLost(Connection conn, long now) throws SQLException, JobPersistenceException {
+            final String application = getInstanceName();
+            final List<QrtzFired> lost = getDelegate().selectLostFired(conn,application,hostIP,startedAt,now-getHeartbeatDeadTimeout());
+            if( !lost.isEmpty() && now-reconnectedAt<getHeartbeatDeadTimeout() ){
+                // 重新连通未满一个失效时间：断连期间其它节点的心跳同样可能无法写入，过期不代表失效，仅接管本节点重启前遗留的记录
+                for( Iterator<QrtzFired> it = lost.iterator(); it.hasNext(); ){
+                    if( !hostIP.equals(it.next().getHostIp()) ){
+                        it.remove();
+                    }
+                }
+            }
+            if( lost.isEmpty() ){
+                return;
+            }
+            final List<Runnable> refire = new ArrayList<Runnable>();
+            int taken = 0;
+            for( QrtzFired fired:lost ){
+                // 已被其他节点接管(或原节点已执行完成)
+                if( getDelegate().deleteFired(conn,fired.getExecuteId(),fired.getSchedTime())<1 ){
+                    continue;
+                }
+                taken++;
+                handleLost(conn,fired,refire);
+            }
+            if( taken>0 && fenced(conn) ){
+                conn.commit();
+                takenOverFired.addAndGet(taken);
+                log.warn("已接管执行中任务:{}条,{},{}",taken,application,hostIP);
+                for(Runnable r:refire){
+                    r.run();
+                }
+            }
+        }
+
+        private void handleLost(Connection conn, QrtzFired fired, List<Runnable> refire) throws SQLException, JobPersistenceException {
+            final QrtzExecute execute = getDelegate().selectExecuteAndJobById(conn,fired.getExecuteId());
+            if( null==execute || null==execute.getJob() ){
+                log.warn("执行中任务已丢失(执行项已删除):{}",fired);
+                return;
+            }
+            final String jobClass = execute.getJob().getJobClass();
+            Class<? extends Job> jobClazz = null;
+            try {
+                jobClazz = getClassLoadHelper().loadClass(jobClass, Job.class);
+            }catch (Exception e){
+                log.error("类不存在：{}",jobClass,e);
+                return;
+            }
+            final MisfirePolicy policy = jobClazz.getAnnotation(MisfirePolicy.class);
+            if( null==policy || policy.value()==MisfirePolicy.Instruction.SKIP ){
+                log.warn("执行中任务已丢失:{},{}",fired,jobClass);
+                return;
+            }
+            log.warn("执行中任务已丢失,按熄火策略补偿执行一次:{},{}",fired,jobClass);
+            execute.setJobClazz(jobClazz);
+            final List<Long> catchUpFireTimes = Collections.singletonList(fired.getSchedTime());
+            refire.add(() -> notifyMisfired(execute,1,catchUpFireTimes));
+        }
+
+        /**
+         * <p>
+         * One check without a leader lease: every node reads its node row and
+         * <code>QRTZ_APP</code>, and the node whose update of
+         * <code>QRTZ_APP</code> succeeds runs purge and recovery.
+         * 未启用租约时的一次检查：各节点读取自身节点及 QRTZ_APP，更新 QRTZ_APP 成功的节点执行清理及恢复。
+         * </p>
+         */
+        private long checkByApp(){
+            if( checked ){
+                // 防止因轮询超时的必要手段
+                final long now = currentTimeMillis();
+                _start = lastSleep<-1000 ? now/1000*1000 : now+(lastSleep<-10?lastSleep:0);
+            }
+            checked = true;
+            Connection conn = null;
+            /***** try start... *****/
+            try {
+                conn = getNonManagedTXConnection();
+                checkApp(conn,getInstanceName());
+            }catch (Exception e){
+                logDbFailure("集群检查异常:"+getInstanceName()+","+hostIP,e);
+            }
+            finally {
+                // 这个间隔是当前次检查所耗费的总时间,所以这里的休眠时间一般小于 TIME_CHECK_INTERVAL
+                lastSleep = TIME_CHECK_INTERVAL-(currentTimeMillis() - _start)-2;
+                try {
+                    if( null!=conn ){
+                        conn.commit();
+                    }
+                } catch (Exception ignore) {
+                }
+                cleanupConnection(conn);
+            }
+            /***** try end... *****/
+            return lastSleep;
+        }
+
+        private void checkApp(Connection conn, String application) throws Exception {
+            //1.获取节点并判断是否被清理，若无则返回
+            QrtzNode node = getDelegate().findQrtzNodeByAppHost(conn,application,hostIP);
+            contacted(conn,currentTimeMillis());
+            // 节点有可能被清理掉，故此需要判断；同时需要注意 state=N的节点也许要写出处理 recover
+            if( null==node ){
+                getLog().info("node is empty or state is N : {},{}",application,hostIP);
+                // 只有节点 state=Y 的节点才可以参与后续recover的操作，同时也减少后续的读写
+                return;
+            }
+            // 2.获取并判断app是否被清理，若无则返回
+            QrtzApp app = getDelegate().getAppByApplication(conn,application );
+            if( null==app ){
+                getLog().info("APPLICATION is empty:{},{} ",application,hostIP);
+                return;
+            }
+            long tw = TIME_CHECK_INTERVAL/10*3;  // 70% 减少并发
+            if( (app.getTimeNext()-_start)>tw ){
+                // 启用心跳时未轮到抢占 QRTZ_APP 也须刷新心跳并接管失效节点
+                if( heartbeatInterval>0 ){
+                    if( heartbeatDue(_start,node.getTimeCheck()) ){
+                        node.setTimeCheck(_start);
+                        getDelegate().updateQrtzNodeOfTimeCheck(conn,node);
+                    }
+                    takeOverLost(conn,currentTimeMillis());
+                }
+                return;
+            }
+            // 2.更新qrtz_app以获取锁
+            app.setTimePre(app.getTimeNext());
+            app.setTimeNext(_start+TIME_CHECK_INTERVAL);
+            app.setTimeInterval(TIME_CHECK_INTERVAL);
+
+            // 3.尝试获取锁
+            int ct = getDelegate().updateQrtzAppByApp(conn,app);
+            // 4.同步app状态至node(仅对 app_state=Y && node_state=Y 的) || 更新检查时间
+            if( "N".equals(app.getState()) &&  "Y".equals(node.getState()) ){
+                node.setState("N");
+                node.setTimeCheck(_start);
+                getDelegate().updateQrtzNodeOfState(conn,node);
+            }else if( heartbeatDue(_start,node.getTimeCheck()) ){
+                node.setTimeCheck(_start);
+                getDelegate().updateQrtzNodeOfTimeCheck(conn,node);
+            }
+            // 任一节点均可接管，逐条删除保证只被接管一次
+            if( heartbeatInterval>0 ){
+                takeOverLost(conn,currentTimeMillis());
+            }
+            // 5.获取app锁的才可执行 clear 清理以及 recover 恢复，以减少读写
+            if( ct>0 ){
+                getLog().info(">>> In process Cluster "+getInstanceId()+" ! <<<");
+                //3.更新time_check (根据频度) 86400_000L=24小时(一天)
+                if(FIRST_CHECK==false) {
+                    // 5.1 每隔7天清理一次所有quartz记录,从 app 到 execute (每间隔七天&&上午零点或十点)
+                    final LocalDateTime ndt = LocalDateTime.now();
+                    if ( ndt.getDayOfMonth()/7==0 && ndt.getHour() - 10 == 0 && ndt.getMinute() - 20 == 0) {
+                        getDelegate().clearHistoryData(conn, 366 * ONE_DAY);// 1年=1天*366
+                    }
+                    // 5.2 recover(恢复)执行项信息
+                    recoverExecute(_start/*conn,app,node*/);
+                    // 5.3 recover(恢复)修正job配置信息
+                    recoverJob(/*conn,app,node*/);
+                }
+            }
+        }
+
+        /**
+         * 启用租约时尝试成为主节点，返回本节点是否可执行恢复；未启用租约时总是返回true
+         */
+        private boolean lead(){
+            if( null==leaderLease ){
+                return true;
+            }
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                final long now = currentTimeMillis();
+                if( leaderLease.acquireOrRenew(getDelegate(),conn,now) ){
+                    // 随后即执行启动恢复
+                    lastRecover = now;
+                    return true;
+                }
+                return false;
+            }catch (Exception e){
+                logDbFailure("获取主节点租约异常:"+getInstanceName()+","+hostIP,e);
+                return false;
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        /**
+         * 启用租约时在恢复事务提交前校验防护令牌(同时续约)，已被其他节点接管则回滚本次恢复
+         */
+        private boolean fenced(Connection conn) throws SQLException, JobPersistenceException {
+            if( null==leaderLease ){
+                return true;
+            }
+            if( leaderLease.fence(getDelegate(),conn,currentTimeMillis()) ){
+                return true;
+            }
+            conn.rollback();
+            return false;
+        }
+
+        /**
+         * <p>
+         * One check with a leader lease: only the node holding the lease of
+         * the application reads <code>QRTZ_APP</code>, runs recovery and purge
+         * (every <code>TIME_CHECK_INTERVAL</code>) and renews the lease; the
+         * others read their node row and the lease row, then wait until the
+         * lease expires.
+         * 租约模式的一次检查：仅持有应用租约的节点读取 QRTZ_APP、执行恢复及清理(每 TIME_CHECK_INTERVAL 一次)并续约；
+         * 其余节点仅读取自身节点及租约记录后等待至租约到期。
+         * </p>
+         */
+        private long checkWithLease(){
+            final String application = getInstanceName();
+            long wait = leaderLease.getDuration();
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                final long now = currentTimeMillis();
+                // 节点被清理后不再参与主节点选举
+                QrtzNode node = getDelegate().findQrtzNodeByAppHost(conn,application,hostIP);
+                if( null==node ){
+                    getLog().info("node is empty : {},{}",application,hostIP);
+                    leaderLease.release(getDelegate(),conn);
+                    return wait;
+                }
+                if( heartbeatDue(now,node.getTimeCheck()) ){
+                    node.setTimeCheck(now/1000*1000);
+                    getDelegate().updateQrtzNodeOfTimeCheck(conn,node);
+                    conn.commit();
+                }
+                contacted(conn,now);
+                if( leaderLease.acquireOrRenew(getDelegate(),conn,now) ){
+                    // 恢复前先对账降级期间的状态变更，避免将已降级触发的执行项当作错过触发
+                    JobStoreSupport.this.reconcileDegraded(conn);
+                    if( now-lastRecover>=TIME_CHECK_INTERVAL ){
+                        recoverAsLeader(conn,application,now/1000*1000);
+                        lastRecover = now;
+                    }
+                    if( heartbeatInterval>0 ){
+                        takeOverLost(conn,currentTimeMillis());
+                    }
+                    wait = Math.min(leaderLease.renewInterval(),lastRecover+TIME_CHECK_INTERVAL-currentTimeMillis());
+                }else{
+                    wait = leaderLease.millisToWait(currentTimeMillis());
+                }
+            }catch (Exception e){
+                logDbFailure("主节点租约检查异常:"+application+","+hostIP,e);
+            }finally {
+                cleanupConnection(conn);
+            }
+            return wait;
+        }
+
+        // 主动释放租约(关闭时)，其他节点无需等到租约到期
+        private void releaseLease(){
+            if( null==leaderLease ){
+                return;
+            }
+            Connection conn = null;
+            try {
+                conn = getNonManagedTXConnection();
+                leaderLease.release(getDelegate(),conn);
+            }catch (Exception e){
+                log.error("释放主节点租约异常:{},{}",getInstanceName(),hostIP,e);
+            }finally {
+                cleanupConnection(conn);
+            }
+        }
+
+        // 主节点：同步应用状态至各节点、记录检查时间、按频度清理历史数据、恢复执行项及任务
+        private void recoverAsLeader(Connection conn, String application, long now) throws SQLException, JobPersistenceException {
+            getLog().info(">>> In process Cluster "+getInstanceId()+" as leader, fence="+leaderLease.getFence()+" ! <<<");
+            QrtzApp app = getDelegate().getAppByApplication(conn,application);
+            if( null==app ){
+                getLog().info("APPLICATION is empty:{},{} ",application,hostIP);
+                return;
+            }
+            // 先校验防护令牌(锁定租约行)，租约已被其他节点接管时不再改写应用及节点记录
+            if( !fenced(conn) ){
+                getLog().warn("主节点租约已被接管，放弃本次恢复:{},{}",application,hostIP);
+                return;
+            }
+            if( "N".equals(app.getState()) ){
+                for( QrtzNode node:getDelegate().getNodeByApp(conn,application) ){
+                    if( "Y".equals(node.getState()) ){
+                        node.setState("N");
+                        node.setTimeCheck(now);
+                        getDelegate().updateQrtzNodeOfState(conn,node);
+                    }
+                }
             }
+            app.setTimePre(app.getTimeNext());
+            app.setTimeNext(now+TIME_CHECK_INTERVAL);
+            app.setTimeInterval(TIME_CHECK_INTERVAL);
+            getDelegate().updateQrtzAppByApp(conn,app);
+            conn.commit();
+            final LocalDateTime ndt = LocalDateTime.now();
+            if ( ndt.getDayOfMonth()/7==0 && ndt.getHour() - 10 == 0 && ndt.getMinute() - 20 == 0) {
+                getDelegate().clearHistoryData(conn, 366 * ONE_DAY);// 1年=1天*366
+                if( fenced(conn) ){
+                    conn.commit();
+                }
+            }
+            recoverExecute(now);
+            recoverJob();
         }
+
         // 修正配置信息
         private void recoverJob(/*Connection conn, QrtzApp app, QrtzNode node*/) {
             // 修正配置信息
@@ -1772,12 +3050,13 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
             // 2.查找job记录( state=COMPLETE update_time>1年的 ) 并删除,按频度执行逻辑
             Connection conn = null;
             final String applicaton = getInstanceName();
-            final Long now = System.currentTimeMillis()/1000*1000;
+            final Long now = currentTimeMillis()/1000*1000;
             /***** try start... *****/
             try {
                 //0.获取节点下异常执行项 (start_time>now and end_time>0 end_time is not null and next_fire_time<now and state!=(COMPLETE,INIT,PAUSED) )
                 conn = getNonManagedTXConnection();
                 List<QrtzJob> jobs = getDelegate().findQrtzJobByAppForRecover(conn,applicaton);
+                int recovered = 0;
                 for(QrtzJob job:jobs){
 //                    List<QrtzExecute> executes = getDelegate().findAllQrtzExecuteByPID(conn,job.getId());
                     List<QrtzExecute> executes = getDelegate().getExecuteByJobId(conn,job.getId());
@@ -1815,7 +3094,7 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                     // 不做无谓的更新...
                     if(!job.getState().equals(beforeState)){
                         job.setUpdateTime(now);
-                        getDelegate().updateRecoverJob(conn,job);
+                        recovered += getDelegate().updateRecoverJob(conn,job);
                     }
                 }
                 //2. 清理 state=COMPLETE && update_time >1年的清理(删除),按频度执行逻辑
@@ -1825,9 +3104,13 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                     int ct = getDelegate().clearAllJobData(conn,366*ONE_DAY);
                     log.error(".....已清理execute数据 {}条.....",ct);
                 }
+                if( fenced(conn) ){
+                    conn.commit();
+                    notifyRowsRecovered(recovered);
+                }
             }catch (Exception e){
                 log.error("异常了：{},{},{},{}",applicaton,hostIP,hostName,now,e);
-                e.printStackTrace();
+                rollbackConnection(conn);
             }finally {
                 cleanupConnection(conn);
             }
@@ -1870,9 +3153,20 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
 //                }
                 // SELECT * FROM QRTZ_EXECUTE WHERE PID=? AND NEXT_FIRE_TIME<=? AND STATE!=COMPLETE AND STATE!=INIT AND STATE!=PAUSED
                 List<QrtzExecute> executes = getDelegate().findQrtzExecuteForRecover(conn,jobs,now-5000L-80L); // 这个5S很重要，一旦与QuartzSchedulerThread的执行时间无法错开则导致任务无法执行
+                int recovered = 0;
+                // 熄火补偿在恢复提交后才交由调度器
+                final List<Runnable> misfired = new ArrayList<Runnable>();
+                final Map<String,QrtzJob> jobById = new HashMap<String,QrtzJob>();
+                for(QrtzJob job:jobs){
+                    jobById.put(job.getId(),job);
+                }
                 for(QrtzExecute execute:executes){
                     final String jobType = execute.getJobType();
                     final Long endTime = execute.getEndTime();
+                    // 错过的第一次触发，按熄火策略补偿执行
+                    final long missedFrom = execute.getNextFireTime();
+                    final boolean wasExecuting = "EXECUTING".equals(execute.getState());
+                    OperableTrigger trigger = null;
                     if( "CRON".equals(jobType) ){
                         execute.setHostIp(hostIP);
                         execute.setHostName(hostName);
@@ -1893,6 +3187,7 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                             // 这个afterTime时间非常重要，它一定要大于check时间 ( loop时间<=afterTime<check时间 )以保证loop时被扫到
 //                        Date nextFireTime =cronTrigger.getFireTimeAfter(new Date(now+TIME_CHECK_INTERVAL/2+80L));
                             Date nextFireTime = cronTrigger.getFireTimeAfter(new Date(now + 5000L + 80L));
+                            trigger = cronTrigger;
                             // 对 SIMPLE 任务的保存
                             if (null == nextFireTime) {
                                 // 没有下一次执行时间就是执行完成
@@ -1928,6 +3223,7 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                                     .setTimesTriggered(execute.getTimeTriggered());
 //                            Date nextFireTime = simpleTrigger.getFireTimeAfter(new Date(now+TIME_CHECK_INTERVAL));
                             Date nextFireTime = simpleTrigger.getFireTimeAfter(new Date(now+5000L+80L));
+                            trigger = simpleTrigger;
                             if(null==nextFireTime){
                                 // 没有下一次执行时间就是执行完成
 //                                execute.setNextFireTime(null);
@@ -1944,7 +3240,12 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                         continue;
                     }
                     // 对 CRON/SIMPLE 任务的保存
-                    getDelegate().updateRecoverExecute(conn,execute);
+                    final int ct = getDelegate().updateRecoverExecute(conn,execute);
+                    recovered += ct;
+                    if( ct>0 && wasExecuting && null!=trigger ){
+                        final long until = "EXECUTING".equals(execute.getState())?execute.getNextFireTime():now;
+                        handleMisfire(trigger,execute,jobById.get(execute.getPid()),missedFrom,until,misfired);
+                    }
                 }
                 //2. 清理 state=COMPLETE && next_fire_time >1年 && 当前小时 in (10) 的清理(删除),按频度执行逻辑
                 LocalDateTime ndt = LocalDateTime.now();
@@ -1952,6 +3253,13 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                     int ct = getDelegate().clearAllExecuteData(conn,366*ONE_DAY);
                     log.error(".....已清理execute数据 {}条.....",ct);
                 }
+                if( fenced(conn) ){
+                    conn.commit();
+                    notifyRowsRecovered(recovered);
+                    for(Runnable r:misfired){
+                        r.run();
+                    }
+                }
             }catch (Exception e){
                 log.error("异常了：{},{},{},{}",applicaton,hostIP,hostName,now,e);
                 e.printStackTrace();
@@ -1962,6 +3270,48 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
 
         }
 
+        /**
+         * 统计 [missedFrom,until) 内错过的触发，并按任务类的熄火策略(MisfirePolicy)生成补偿执行，恢复提交后交由调度器逐步放行
+         */
+        private void handleMisfire(OperableTrigger trigger, QrtzExecute execute, QrtzJob job, long missedFrom, long until, List<Runnable> misfired){
+            if( null==job || null==job.getJobClass() || missedFrom>=until ){
+                return;
+            }
+            Class<? extends Job> jobClazz = null;
+            try {
+                jobClazz = getClassLoadHelper().loadClass(job.getJobClass(), Job.class);
+            }catch (Exception e){
+                log.error("类不存在：{}",job.getJobClass(),e);
+                return;
+            }
+            final MisfirePolicy policy = jobClazz.getAnnotation(MisfirePolicy.class);
+            final MisfirePolicy.Instruction instruction = null==policy?MisfirePolicy.Instruction.SKIP:policy.value();
+            final int keep = instruction==MisfirePolicy.Instruction.FIRE_ALL?Math.max(0,policy.maxCatchUp()):0;
+            final List<Long> catchUpFireTimes = new ArrayList<Long>(Math.min(keep,16));
+            int missed = 0;
+            long last = missedFrom;
+            for( long t = missedFrom; t<until && missed<MAX_MISSED_COUNTED; ){
+                missed++;
+                last = t;
+                if( catchUpFireTimes.size()<keep ){
+                    catchUpFireTimes.add(t);
+                }
+                final Date next = trigger.getFireTimeAfter(new Date(t));
+                if( null==next ){
+                    break;
+                }
+                t = next.getTime();
+            }
+            if( instruction==MisfirePolicy.Instruction.FIRE_ONCE_NOW ){
+                catchUpFireTimes.add(last);
+            }
+            log.info("执行项错过触发:{}次,策略:{},补偿:{}次,{}",missed,instruction,catchUpFireTimes.size(),execute.getId());
+            execute.setJob(job);
+            execute.setJobClazz(jobClazz);
+            final int missedCount = missed;
+            misfired.add(() -> notifyMisfired(execute,missedCount,catchUpFireTimes));
+        }
+
         // 前置处理
         //0.加对象锁
         //1.尝试写入qrtz_app
@@ -1978,7 +3328,7 @@ public abstract class JobStoreSupport implements JobStore/*, Constants*/ {
                 final String application = getInstanceName();
                 final String state = "Y";
                 final Long timePre = 0L;
-                final Long now = System.currentTimeMillis()/1000*1000;
+                final Long now = currentTimeMillis()/1000*1000;
                 Long timeNext = now+TIME_CHECK_INTERVAL;
                 Long timeInterval = TIME_CHECK_INTERVAL;
                 QrtzApp app = new QrtzApp(application,state,timePre,timeNext,timeInterval);
@@ -0,0 +1,203 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.impl.jdbcjobstore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.quartz.impl.QrtzLease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Leader lease of one application, kept in its single <code>QRTZ_LEASE</code>
+ * row. A node becomes leader by taking over an expired lease, which also
+ * increments the row's fencing token, and stays leader by renewing the lease
+ * with that token before it runs out. Non-leaders only read the row and sleep
+ * until the current lease expires, so a failed leader is replaced at most one
+ * lease duration after its last renewal.
+ * 应用的主节点租约(QRTZ_LEASE 中的一行)：节点抢占已到期的租约成为主节点(同时将防护令牌加1)，并在到期前以该令牌续约；
+ * 非主节点仅读取该行并休眠至租约到期，主节点故障后至多一个租约时长即被替换。
+ * </p>
+ *
+ * <p>
+ * Writes done as leader are fenced with {@link #fence}: the lease is renewed
+ * with the token in the same transaction, so the work is rolled back if
+ * another node took over in the meantime.
+ * 主节点的写操作以 fence 防护：在同一事务内以令牌续约，期间若已被其他节点接管则回滚。
+ * </p>
+ *
+ * <p>
+ * Every method commits or rolls back the given connection, except
+ * <code>fence</code> which leaves the transaction to the caller.
+ * 除 fence 外，各方法均会提交或回滚所给的连接。
+ * </p>
+ */
+final class LeaderLease {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LeaderLease.class);
+
+    private final String application;
+    private final String holder;
+    private final long duration;
+
+    // 持有租约时的防护令牌，非主节点为-1
+    private volatile long fence = -1L;
+    // 本节点所持租约的到期时间(按续约前的本地时间计，不晚于库中的到期时间)
+    private volatile long validUntil = 0L;
+    // 最近一次看到的租约到期时间(无论持有者)
+    private volatile long expiresAt = 0L;
+
+    LeaderLease(String application, String holder, long duration) {
+        this.application = application;
+        this.holder = holder;
+        this.duration = duration;
+    }
+
+    /**
+     * <p>
+     * Renew the lease when this node holds it, otherwise take it over if it
+     * has expired (or does not exist yet).
+     * 本节点持有租约时续约，否则在租约已到期(或尚不存在)时抢占。
+     * </p>
+     *
+     * @return whether this node is leader after the call
+     */
+    boolean acquireOrRenew(DriverDelegate delegate, Connection conn, long now) throws SQLException {
+        try {
+            if (fence > 0L) {
+                if (delegate.renewLease(conn, application, holder, fence, now + duration) > 0) {
+                    conn.commit();
+                    held(fence, now);
+                    return true;
+                }
+                LOG.warn("主节点租约已被其他节点接管:{},{},{}", application, holder, fence);
+                lost();
+            }
+            QrtzLease lease = delegate.selectLease(conn, application);
+            if (null == lease) {
+                try {
+                    if (delegate.insertLease(conn, application, holder, now + duration) > 0) {
+                        conn.commit();
+                        held(1L, now);
+                        LOG.info("成为主节点:{},{},fence=1", application, holder);
+                        return true;
+                    }
+                } catch (SQLException e) {
+                    // 其他节点已先写入
+                    conn.rollback();
+                }
+                lease = delegate.selectLease(conn, application);
+                if (null == lease) {
+                    conn.rollback();
+                    return false;
+                }
+            }
+            if (lease.getLeaseUntil() >= now) {
+                conn.commit();
+                expiresAt = lease.getLeaseUntil();
+                return false;
+            }
+            if (delegate.acquireLease(conn, application, holder, now + duration, now) > 0) {
+                final QrtzLease mine = delegate.selectLease(conn, application);
+                conn.commit();
+                held(mine.getFence(), now);
+                LOG.info("成为主节点:{},{},fence={}", application, holder, mine.getFence());
+                return true;
+            }
+            // 同时被其他节点抢占
+            conn.rollback();
+            expiresAt = now + duration;
+            return false;
+        } catch (SQLException e) {
+            lost();
+            throw e;
+        }
+    }
+
+    /**
+     * <p>
+     * Check the fencing token and renew the lease within the caller's
+     * transaction; when it fails leadership is given up and the caller must
+     * roll its work back.
+     * 在调用方事务内校验防护令牌并续约；失败时放弃主节点身份，调用方须回滚。
+     * </p>
+     */
+    boolean fence(DriverDelegate delegate, Connection conn, long now) throws SQLException {
+        final long token = fence;
+        if (token <= 0L) {
+            return false;
+        }
+        if (delegate.renewLease(conn, application, holder, token, now + duration) > 0) {
+            held(token, now);
+            return true;
+        }
+        LOG.warn("防护令牌已失效，放弃本次写入:{},{},{}", application, holder, token);
+        lost();
+        return false;
+    }
+
+    /**
+     * 主动释放租约(关闭时)，使其他节点在下次检查时即可接管
+     */
+    void release(DriverDelegate delegate, Connection conn) throws SQLException {
+        final long token = fence;
+        lost();
+        if (token > 0L) {
+            delegate.renewLease(conn, application, holder, token, 0L);
+            conn.commit();
+        }
+    }
+
+    /**
+     * 距下次检查的等待时间：主节点按租约时长的1/3续约，非主节点等到当前租约到期
+     */
+    long millisToWait(long now) {
+        if (isLeader(now)) {
+            return renewInterval();
+        }
+        return Math.max(1L, expiresAt - now + 1L);
+    }
+
+    long renewInterval() {
+        return Math.max(1L, duration / 3);
+    }
+
+    boolean isLeader(long now) {
+        return fence > 0L && now < validUntil;
+    }
+
+    long getFence() {
+        return fence;
+    }
+
+    long getDuration() {
+        return duration;
+    }
+
+    private void held(long token, long now) {
+        fence = token;
+        validUntil = now + duration;
+        expiresAt = validUntil;
+    }
+
+    private void lost() {
+        fence = -1L;
+        validUntil = 0L;
+    }
+}
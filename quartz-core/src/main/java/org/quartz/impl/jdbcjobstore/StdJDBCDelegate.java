@@ -28,15 +28,21 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 import org.quartz.impl.QrtzApp;
+import org.quartz.impl.QrtzFired;
+import org.quartz.impl.QrtzLease;
+import org.quartz.impl.AcquiredExecute;
 import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzExecuteHistory;
 import org.quartz.impl.QrtzJob;
 import org.quartz.impl.QrtzNode;
 import org.quartz.spi.ClassLoadHelper;
+import org.quartz.spi.TimeBroker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +84,12 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
     
     protected ClassLoadHelper classLoadHelper;
 
+    // 写入变更版本(VERSION)所用的时钟
+    protected volatile TimeBroker timeBroker;
+
+    // 是否写入变更版本(VERSION 列由可选的迁移脚本添加，仅启用执行项副本时写入)
+    protected volatile boolean writeVersion = false;
+
 //    protected List<TriggerPersistenceDelegate> triggerPersistenceDelegates = new LinkedList<TriggerPersistenceDelegate>();
 
     
@@ -146,6 +158,58 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 //        }
     }
 
+    @Override
+    public void setTimeBroker(TimeBroker timeBroker) {
+        this.timeBroker = timeBroker;
+    }
+
+    /**
+     * <p>
+     * The change version stamped on every write to JOB and EXECUTE: the
+     * writer's time in milliseconds, aligned to the database clock when
+     * clock synchronization is enabled.
+     * 每次写入 JOB 及 EXECUTE 时写入的变更版本：写入方的毫秒时间(开启时钟同步时与数据库时钟对齐)。
+     * </p>
+     */
+    protected long version() {
+        final TimeBroker broker = timeBroker;
+        return null == broker ? System.currentTimeMillis() : broker.currentTimeMillis();
+    }
+
+    @Override
+    public void setWriteVersion(boolean writeVersion) {
+        this.writeVersion = writeVersion;
+    }
+
+    // UPDATE 的 SET 子句中追加的变更版本，未启用时为空
+    protected String versionSet() {
+        return writeVersion ? ",VERSION=?" : "";
+    }
+
+    // INSERT 的列及占位符中追加的变更版本，未启用时为空
+    protected String versionColumn() {
+        return writeVersion ? ",VERSION" : "";
+    }
+
+    protected String versionValue() {
+        return writeVersion ? ",?" : "";
+    }
+
+    /**
+     * <p>
+     * Bind the change version at <code>index</code> when it is written and
+     * return the index of the next parameter.
+     * 启用时在 index 处绑定变更版本，返回下一个参数的位置。
+     * </p>
+     */
+    protected int bindVersion(PreparedStatement ps, int index, long version) throws SQLException {
+        if (!writeVersion) {
+            return index;
+        }
+        ps.setBigDecimal(index, new BigDecimal(version));
+        return index + 1;
+    }
+
 //    protected void addDefaultTriggerPersistenceDelegates() {
 //        addTriggerPersistenceDelegate(new SimpleTriggerPersistenceDelegate());
 //        addTriggerPersistenceDelegate(new CronTriggerPersistenceDelegate());
@@ -775,12 +839,12 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
         try {
             // 查询
-            ps = conn.prepareStatement(rtp(" UPDATE {0}EXECUTE SET HOST_IP=?, HOST_NAME=?, STATE=?, NEXT_FIRE_TIME=? WHERE ID=? "));
+            ps = conn.prepareStatement(rtp(" UPDATE {0}EXECUTE SET HOST_IP=?, HOST_NAME=?, STATE=?, NEXT_FIRE_TIME=?"+versionSet()+" WHERE ID=? "));
             ps.setString(1,execute.getHostIp());
             ps.setString(2,execute.getHostName());
             ps.setString(3,execute.getState());
             ps.setBigDecimal(4,new BigDecimal(execute.getNextFireTime()));
-            ps.setBigDecimal(5,new BigDecimal(execute.getId()));
+            ps.setBigDecimal(bindVersion(ps,5,version()),new BigDecimal(execute.getId()));
             return ps.executeUpdate();
         } catch (Exception e){
             logger.error("updateRecoverExecute error:{}",execute,e);
@@ -817,10 +881,10 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         PreparedStatement ps = null;
         try {
             // 查询
-            ps = conn.prepareStatement(rtp(" UPDATE {0}JOB SET STATE=?, UPDATE_TIME=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp(" UPDATE {0}JOB SET STATE=?, UPDATE_TIME=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,job.getState());
             ps.setBigDecimal(2,new BigDecimal(job.getUpdateTime()));
-            ps.setBigDecimal(3,new BigDecimal(job.getId()));
+            ps.setBigDecimal(bindVersion(ps,3,version()),new BigDecimal(job.getId()));
             return ps.executeUpdate();
         } catch (Exception e){
             logger.error("updateRecoverJob error:{}",job,e);
@@ -932,36 +996,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             ps.setBigDecimal(8, new BigDecimal(_tew));
             rs = ps.executeQuery();
             while (rs.next()) {
-                // JOB
-                String _id = rs.getString("J_ID");
-                String _application = rs.getString("J_APPLICATION");
-                String _state = rs.getString("J_STATE");
-//                Integer _job_idx = rs.getInt("J_JOB_IDX");
-                String _job_class = rs.getString("J_JOB_CLASS");
-                String _job_data = rs.getString("J_JOB_DATA");
-                String _job_description = rs.getString("J_JOB_DESCRIPTION");
-                Long _update_time = rs.getLong("J_UPDATE_TIME");
-                // EXECTUE
-                String id = rs.getString("ID");
-                String pid = rs.getString("PID");
-//                Integer execute_idx = rs.getInt("EXECUTE_IDX");
-                String job_type = rs.getString("JOB_TYPE");
-                String state_ = rs.getString("STATE");
-                String cron = rs.getString("CRON");
-                String zone_id = rs.getString("ZONE_ID");
-                Integer repeat_count = rs.getInt("REPEAT_COUNT");
-                Integer repeat_interval = rs.getInt("REPEAT_INTERVAL");
-                Integer time_triggered = rs.getInt("TIME_TRIGGERED");
-                Long prev_fire_time = rs.getLong("PREV_FIRE_TIME");
-                Long next_fire_time = rs.getLong("NEXT_FIRE_TIME");
-                String host_ip = rs.getString("HOST_IP");
-                String host_name = rs.getString("HOST_NAME");
-                Long start_time = rs.getLong("START_TIME");
-                Long end_time = rs.getLong("END_TIME");
-                QrtzJob job = new QrtzJob(_id,_application,_state,/*_job_idx,*/_job_class,_job_data,_job_description,_update_time);
-                QrtzExecute execute = QrtzExecute.build(id,pid,/*execute_idx,*/job_type,state_,cron,zone_id,repeat_count,repeat_interval,time_triggered,prev_fire_time,next_fire_time,host_ip,host_name,start_time,end_time);
-                execute.setJob(job);
-                resultList.add(execute);
+                resultList.add(readExecuteAndJob(rs));
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -976,33 +1011,207 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
 
 
     @Override
-    public int toLockAndUpdate(Connection conn, QrtzExecute newCe, String oldState, long oldPrevTime, long oldNextTime){
+    public List<QrtzExecute> selectExecuteAndJobChangedSince(Connection conn, String application, long since) throws SQLException {
+        final String select = "SELECT \n" +
+                "J.ID AS J_ID,J.APPLICATION AS J_APPLICATION,J.STATE AS J_STATE,J.JOB_CLASS AS J_JOB_CLASS,\n" +
+                "J.JOB_DATA AS J_JOB_DATA,J.JOB_DESCRIPTION AS J_JOB_DESCRIPTION,J.UPDATE_TIME AS J_UPDATE_TIME,J.VERSION AS J_VERSION,\n" +
+                "E.*\n" +
+                "FROM {0}JOB J INNER JOIN {0}EXECUTE E ON J.ID = E.PID WHERE J.APPLICATION = ? ";
+        final List<QrtzExecute> resultList = new ArrayList<>(8);
+        if (since == Long.MIN_VALUE) {
+            selectChanged(conn, select, application, null, resultList);
+        } else {
+            // 执行项与任务分别按各自的版本索引查询(任务变更时带出其全部执行项)，重复的行由调用方按ID合并
+            selectChanged(conn, select + "AND E.VERSION >= ?", application, since, resultList);
+            selectChanged(conn, select + "AND J.VERSION >= ?", application, since, resultList);
+        }
+        return resultList;
+    }
+
+    private void selectChanged(Connection conn, String sql, String application, Long since, List<QrtzExecute> resultList) throws SQLException {
         PreparedStatement ps = null;
+        ResultSet rs = null;
         try {
-            final String sql = "UPDATE  {0}EXECUTE SET \n" +
-                    "PREV_FIRE_TIME =? ,NEXT_FIRE_TIME = ?,\n" + // #1,2
-                    "TIME_TRIGGERED =?,STATE =?,HOST_IP=?,HOST_NAME=?,END_TIME=? \n" + // #3,4,5,6,7
-                    "WHERE ID = ? \n" + // #8
-                    "AND STATE = ? \n" + // #9
-                    "AND PREV_FIRE_TIME = ?\n" +// #10
-                    "AND NEXT_FIRE_TIME = ?";// #11
             ps = conn.prepareStatement(rtp(sql));
-            ps.setBigDecimal(1,new BigDecimal(newCe.getPrevFireTime()));
-            ps.setBigDecimal(2,new BigDecimal(newCe.getNextFireTime()));
-            ps.setInt(3,newCe.getTimeTriggered());
-            ps.setString(4,newCe.getState());
-            ps.setString(5,newCe.getHostIp());
-            ps.setString(6,newCe.getHostName());
-            ps.setBigDecimal(7,new BigDecimal(newCe.getEndTime()));
-            // WHERE
-            ps.setBigDecimal(8,new BigDecimal(newCe.getId()));
-            ps.setString(9,oldState);
-            ps.setBigDecimal(10,new BigDecimal(oldPrevTime));
-            ps.setBigDecimal(11,new BigDecimal(oldNextTime));
+            ps.setString(1, application);
+            if (null != since) {
+                ps.setBigDecimal(2, new BigDecimal(since));
+            }
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                final QrtzExecute execute = readExecuteAndJob(rs);
+                execute.setVersion(Math.max(rs.getLong("VERSION"), rs.getLong("J_VERSION")));
+                resultList.add(execute);
+            }
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    /**
+     * <p>
+     * Map one row of a JOB(aliased as J_*) and EXECUTE(E.*) join.
+     * 读取JOB(别名J_*)与EXECUTE(E.*)关联查询的一行
+     * </p>
+     */
+    private QrtzExecute readExecuteAndJob(ResultSet rs) throws SQLException {
+        // JOB
+        String _id = rs.getString("J_ID");
+        String _application = rs.getString("J_APPLICATION");
+        String _state = rs.getString("J_STATE");
+        String _job_class = rs.getString("J_JOB_CLASS");
+        String _job_data = rs.getString("J_JOB_DATA");
+        String _job_description = rs.getString("J_JOB_DESCRIPTION");
+        Long _update_time = rs.getLong("J_UPDATE_TIME");
+        // EXECTUE
+        String id = rs.getString("ID");
+        String pid = rs.getString("PID");
+        String job_type = rs.getString("JOB_TYPE");
+        String state_ = rs.getString("STATE");
+        String cron = rs.getString("CRON");
+        String zone_id = rs.getString("ZONE_ID");
+        Integer repeat_count = rs.getInt("REPEAT_COUNT");
+        Integer repeat_interval = rs.getInt("REPEAT_INTERVAL");
+        Integer time_triggered = rs.getInt("TIME_TRIGGERED");
+        Long prev_fire_time = rs.getLong("PREV_FIRE_TIME");
+        Long next_fire_time = rs.getLong("NEXT_FIRE_TIME");
+        String host_ip = rs.getString("HOST_IP");
+        String host_name = rs.getString("HOST_NAME");
+        Long start_time = rs.getLong("START_TIME");
+        Long end_time = rs.getLong("END_TIME");
+        QrtzJob job = new QrtzJob(_id,_application,_state,_job_class,_job_data,_job_description,_update_time);
+        QrtzExecute execute = QrtzExecute.build(id,pid,job_type,state_,cron,zone_id,repeat_count,repeat_interval,time_triggered,prev_fire_time,next_fire_time,host_ip,host_name,start_time,end_time);
+        execute.setJob(job);
+        return execute;
+    }
+
+    @Override
+    public List<QrtzExecute> selectChainSuccessors(Connection conn, String application, String pid, boolean succeeded){
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        List<QrtzExecute> resultList = new ArrayList<>(4);
+        try {
+            final String sql = "SELECT \n" +
+                    "J.ID AS J_ID,J.APPLICATION AS J_APPLICATION,J.STATE AS J_STATE,J.JOB_CLASS AS J_JOB_CLASS,\n" +
+                    "J.JOB_DATA AS J_JOB_DATA,J.JOB_DESCRIPTION AS J_JOB_DESCRIPTION,J.UPDATE_TIME AS J_UPDATE_TIME,\n" +
+                    "E.*\n" +
+                    "FROM {0}JOB_CHAIN C INNER JOIN {0}JOB J ON C.NEXT_PID = J.ID INNER JOIN {0}EXECUTE E ON J.ID = E.PID " +
+                    "WHERE C.PID = ? AND C.APPLICATION = ? AND (C.TRIGGER_ON = ? OR C.TRIGGER_ON = ?) " +
+                    "AND J.APPLICATION = ? AND J.STATE = ? AND E.STATE = ?";
+            ps = conn.prepareStatement(rtp(sql));
+            ps.setBigDecimal(1, new BigDecimal(pid));
+            ps.setString(2, application);
+            ps.setString(3, "ALWAYS");
+            // 上游失败时只触发ALWAYS的下游
+            ps.setString(4, succeeded ? "SUCCESS" : "ALWAYS");
+            ps.setString(5, application);
+            ps.setString(6, "EXECUTING");
+            ps.setString(7, "EXECUTING");
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                resultList.add(readExecuteAndJob(rs));
+            }
+        } catch (Exception e) {
+            LOGGER.error("查询任务链下游任务异常:{},{}",application,pid,e);
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+        return resultList;
+    }
+
+    @Override
+    public Map<String, String> selectFireNowSignals(Connection conn, String application, int maxCount) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        Map<String, String> result = new LinkedHashMap<>(4);
+        try {
+            ps = conn.prepareStatement(rtp("SELECT ID,EXECUTE_ID FROM {0}SIGNAL WHERE APPLICATION = ? ORDER BY ID"));
+            ps.setMaxRows(maxCount);
+            ps.setString(1, application);
+            rs = ps.executeQuery();
+            while (rs.next()) {
+                result.put(rs.getString("ID"), rs.getString("EXECUTE_ID"));
+            }
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+        return result;
+    }
+
+    @Override
+    public int deleteFireNowSignal(Connection conn, String id) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("DELETE FROM {0}SIGNAL WHERE ID = ?"));
+            ps.setBigDecimal(1, new BigDecimal(id));
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public QrtzExecute selectExecuteAndJobById(Connection conn, String executeId) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            final String sql = "SELECT \n" +
+                    "J.ID AS J_ID,J.APPLICATION AS J_APPLICATION,J.STATE AS J_STATE,J.JOB_CLASS AS J_JOB_CLASS,\n" +
+                    "J.JOB_DATA AS J_JOB_DATA,J.JOB_DESCRIPTION AS J_JOB_DESCRIPTION,J.UPDATE_TIME AS J_UPDATE_TIME,\n" +
+                    "E.*\n" +
+                    "FROM {0}JOB J INNER JOIN {0}EXECUTE E ON J.ID = E.PID WHERE E.ID = ?";
+            ps = conn.prepareStatement(rtp(sql));
+            ps.setBigDecimal(1, new BigDecimal(executeId));
+            rs = ps.executeQuery();
+            if (rs.next()) {
+                return readExecuteAndJob(rs);
+            }
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+        return null;
+    }
+
+    // 启用变更版本时 SET 子句追加 VERSION=?(#8)，WHERE 参数随之后移一位
+    private String toLockAndUpdateSql() {
+        return "UPDATE  {0}EXECUTE SET \n" +
+            "PREV_FIRE_TIME =? ,NEXT_FIRE_TIME = ?,\n" + // #1,2
+            "TIME_TRIGGERED =?,STATE =?,HOST_IP=?,HOST_NAME=?,END_TIME=?"+versionSet()+" \n" + // #3,4,5,6,7
+            "WHERE ID = ? \n" + // #8
+            "AND STATE = ? \n" + // #9
+            "AND PREV_FIRE_TIME = ?\n" +// #10
+            "AND NEXT_FIRE_TIME = ?";// #11
+    }
+
+    private void bindLockAndUpdate(PreparedStatement ps, QrtzExecute newCe, String oldState, long oldPrevTime, long oldNextTime, long version) throws SQLException {
+        ps.setBigDecimal(1,new BigDecimal(newCe.getPrevFireTime()));
+        ps.setBigDecimal(2,new BigDecimal(newCe.getNextFireTime()));
+        ps.setInt(3,newCe.getTimeTriggered());
+        ps.setString(4,newCe.getState());
+        ps.setString(5,newCe.getHostIp());
+        ps.setString(6,newCe.getHostName());
+        ps.setBigDecimal(7,new BigDecimal(newCe.getEndTime()));
+        // WHERE
+        final int where = bindVersion(ps,8,version);
+        ps.setBigDecimal(where,new BigDecimal(newCe.getId()));
+        ps.setString(where+1,oldState);
+        ps.setBigDecimal(where+2,new BigDecimal(oldPrevTime));
+        ps.setBigDecimal(where+3,new BigDecimal(oldNextTime));
+    }
+
+    @Override
+    public int toLockAndUpdate(Connection conn, QrtzExecute newCe, String oldState, long oldPrevTime, long oldNextTime){
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp(toLockAndUpdateSql()));
+            bindLockAndUpdate(ps,newCe,oldState,oldPrevTime,oldNextTime,version());
             return ps.executeUpdate();
         } catch (Exception e){
-            logger.error("updateRecoverJob error:{},{}",newCe,oldState);
-            e.printStackTrace();
+            logger.error("toLockAndUpdate error:{},{}",newCe,oldState,e);
             return 0;
 //            throw new SQLException("No misfired trigger count returned.");
         }finally {
@@ -1017,6 +1226,252 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
     }
 
+    @Override
+    public int[] toLockAndUpdate(Connection conn, List<QrtzExecute> newCes, List<AcquiredExecute> olds) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp(toLockAndUpdateSql()));
+            final long version = version();
+            for(int i=0;i<newCes.size();i++){
+                final AcquiredExecute old = olds.get(i);
+                bindLockAndUpdate(ps,newCes.get(i),old.getSource().getState().name(),old.getPrevFireTime(),old.getNextFireTime(),version);
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        }finally {
+            closeStatement(ps);
+        }
+    }
+
+
+    @Override
+    public QrtzLease selectLease(Connection conn, String application) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = conn.prepareStatement(rtp("SELECT HOLDER,FENCE,LEASE_UNTIL FROM {0}LEASE WHERE APPLICATION = ?"));
+            ps.setString(1, application);
+            rs = ps.executeQuery();
+            if (rs.next()) {
+                return new QrtzLease(application, rs.getString("HOLDER"), rs.getLong("FENCE"), rs.getLong("LEASE_UNTIL"));
+            }
+            return null;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int insertLease(Connection conn, String application, String holder, long leaseUntil) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}LEASE (APPLICATION,HOLDER,FENCE,LEASE_UNTIL) VALUES (?,?,?,?)"));
+            ps.setString(1, application);
+            ps.setString(2, holder);
+            ps.setBigDecimal(3, BigDecimal.ONE);
+            ps.setBigDecimal(4, new BigDecimal(leaseUntil));
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int acquireLease(Connection conn, String application, String holder, long leaseUntil, long now) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("UPDATE {0}LEASE SET HOLDER = ?,FENCE = FENCE + 1,LEASE_UNTIL = ? WHERE APPLICATION = ? AND LEASE_UNTIL < ?"));
+            ps.setString(1, holder);
+            ps.setBigDecimal(2, new BigDecimal(leaseUntil));
+            ps.setString(3, application);
+            ps.setBigDecimal(4, new BigDecimal(now));
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int renewLease(Connection conn, String application, String holder, long fence, long leaseUntil) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("UPDATE {0}LEASE SET LEASE_UNTIL = ? WHERE APPLICATION = ? AND HOLDER = ? AND FENCE = ?"));
+            ps.setBigDecimal(1, new BigDecimal(leaseUntil));
+            ps.setString(2, application);
+            ps.setString(3, holder);
+            ps.setBigDecimal(4, new BigDecimal(fence));
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int[] insertFired(Connection conn, List<QrtzFired> fired) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}FIRED (EXECUTE_ID,SCHED_TIME,APPLICATION,HOST_IP,FIRED_TIME) VALUES (?,?,?,?,?)"));
+            for (QrtzFired f : fired) {
+                ps.setBigDecimal(1, new BigDecimal(f.getExecuteId()));
+                ps.setBigDecimal(2, new BigDecimal(f.getSchedTime()));
+                ps.setString(3, f.getApplication());
+                ps.setString(4, f.getHostIp());
+                ps.setBigDecimal(5, new BigDecimal(f.getFiredTime()));
+                ps.addBatch();
+            }
+            return ps.executeBatch();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int deleteFired(Connection conn, String executeId, long schedTime) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("DELETE FROM {0}FIRED WHERE EXECUTE_ID = ? AND SCHED_TIME = ?"));
+            ps.setBigDecimal(1, new BigDecimal(executeId));
+            ps.setBigDecimal(2, new BigDecimal(schedTime));
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public List<QrtzFired> selectLostFired(Connection conn, String application, String hostIP, long startedAt, long aliveSince) throws SQLException {
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            ps = conn.prepareStatement(rtp("SELECT F.EXECUTE_ID,F.SCHED_TIME,F.HOST_IP,F.FIRED_TIME FROM {0}FIRED F WHERE F.APPLICATION = ? " +
+                    "AND ((F.HOST_IP = ? AND F.FIRED_TIME < ?) OR (F.HOST_IP <> ? AND NOT EXISTS " +
+                    "(SELECT N.HOST_IP FROM {0}NODE N WHERE N.APPLICATION = F.APPLICATION AND N.HOST_IP = F.HOST_IP AND N.TIME_CHECK >= ?)))"));
+            ps.setString(1, application);
+            ps.setString(2, hostIP);
+            ps.setBigDecimal(3, new BigDecimal(startedAt));
+            ps.setString(4, hostIP);
+            ps.setBigDecimal(5, new BigDecimal(aliveSince));
+            rs = ps.executeQuery();
+            final List<QrtzFired> lost = new ArrayList<QrtzFired>();
+            while (rs.next()) {
+                lost.add(new QrtzFired(rs.getString("EXECUTE_ID"), rs.getLong("SCHED_TIME"), application, rs.getString("HOST_IP"), rs.getLong("FIRED_TIME")));
+            }
+            return lost;
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    // 按数据库类型缓存的当前时间查询
+    private volatile String databaseTimeSQL = null;
+
+    @Override
+    public long selectDatabaseTime(Connection conn) throws SQLException {
+        String sql = databaseTimeSQL;
+        if (sql == null) {
+            sql = databaseTimeSQL = getDatabaseTimeSQL(conn.getMetaData().getDatabaseProductName());
+        }
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            // 语句中含有字符串常量，不经 rtp 格式化
+            ps = conn.prepareStatement(sql);
+            rs = ps.executeQuery();
+            if (!rs.next()) {
+                throw new SQLException("No database time returned.");
+            }
+            if (DEFAULT_DATABASE_TIME_SQL.equals(sql)) {
+                return rs.getTimestamp(1).getTime();
+            }
+            return rs.getLong(1);
+        } finally {
+            closeResultSet(rs);
+            closeStatement(ps);
+        }
+    }
+
+    private static final String DEFAULT_DATABASE_TIME_SQL = "SELECT CURRENT_TIMESTAMP";
+
+    /**
+     * <p>
+     * The query returning the current database time as epoch milliseconds,
+     * independent of the session time zone; databases without a known
+     * function fall back to <code>CURRENT_TIMESTAMP</code>, which assumes the
+     * database and the JVM share the time zone.
+     * 返回数据库当前时间(纪元毫秒，与会话时区无关)的查询；未知数据库使用 CURRENT_TIMESTAMP(要求数据库与JVM时区一致)。
+     * </p>
+     */
+    protected String getDatabaseTimeSQL(String databaseProductName) {
+        final String product = databaseProductName == null ? "" : databaseProductName.toLowerCase();
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return "SELECT ROUND(UNIX_TIMESTAMP(NOW(3)) * 1000)";
+        }
+        if (product.contains("postgresql")) {
+            // CURRENT_TIMESTAMP 为事务开始时间
+            return "SELECT ROUND(EXTRACT(EPOCH FROM CLOCK_TIMESTAMP()) * 1000)";
+        }
+        if (product.contains("oracle")) {
+            return "SELECT (CAST(SYS_EXTRACT_UTC(SYSTIMESTAMP) AS DATE) - DATE '1970-01-01') * 86400000 + TO_NUMBER(TO_CHAR(SYSTIMESTAMP, 'FF3')) FROM DUAL";
+        }
+        if (product.contains("microsoft sql server")) {
+            return "SELECT DATEDIFF_BIG(MILLISECOND, '19700101', SYSUTCDATETIME())";
+        }
+        return DEFAULT_DATABASE_TIME_SQL;
+    }
+
+    @Override
+    public int insertExecuteHistory(Connection conn, List<QrtzExecuteHistory> histories) throws SQLException {
+        if (histories == null || histories.isEmpty()) {
+            return 0;
+        }
+        PreparedStatement ps = null;
+        try {
+            final String sql = "INSERT INTO {0}EXECUTE_HISTORY (APPLICATION,EXECUTE_ID,JOB_ID,JOB_CLASS,JOB_TYPE,SCHEDULED_TIME,FIRE_TIME,START_TIME,END_TIME,RUN_TIME,REFIRE_COUNT,OUTCOME,ERROR_MSG,HOST_IP,HOST_NAME) \n" +
+                    "VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)";
+            ps = conn.prepareStatement(rtp(sql));
+            for (QrtzExecuteHistory h : histories) {
+                ps.setString(1, h.getApplication());
+                ps.setBigDecimal(2, new BigDecimal(h.getExecuteId()));
+                ps.setBigDecimal(3, new BigDecimal(h.getJobId()));
+                ps.setString(4, h.getJobClass());
+                ps.setString(5, h.getJobType());
+                ps.setBigDecimal(6, new BigDecimal(h.getScheduledTime()));
+                ps.setBigDecimal(7, new BigDecimal(h.getFireTime()));
+                ps.setBigDecimal(8, new BigDecimal(h.getStartTime()));
+                ps.setBigDecimal(9, new BigDecimal(h.getEndTime()));
+                ps.setBigDecimal(10, new BigDecimal(h.getRunTime()));
+                ps.setInt(11, h.getRefireCount());
+                ps.setString(12, h.getOutcome());
+                ps.setString(13, h.getErrorMessage());
+                ps.setString(14, h.getHostIp());
+                ps.setString(15, h.getHostName());
+                ps.addBatch();
+            }
+            int ct = 0;
+            for (int r : ps.executeBatch()) {
+                // 部分驱动批量执行时返回 SUCCESS_NO_INFO(-2)
+                ct += r == Statement.SUCCESS_NO_INFO ? 1 : Math.max(r, 0);
+            }
+            return ct;
+        } finally {
+            closeStatement(ps);
+        }
+    }
+
+    @Override
+    public int clearExecuteHistory(Connection conn, String application, long before) throws SQLException {
+        PreparedStatement ps = null;
+        try {
+            ps = conn.prepareStatement(rtp("DELETE FROM {0}EXECUTE_HISTORY WHERE APPLICATION=? AND FIRE_TIME<? "));
+            ps.setString(1, application);
+            ps.setBigDecimal(2, new BigDecimal(before));
+            return ps.executeUpdate();
+        } finally {
+            closeStatement(ps);
+        }
+    }
 
     @Override
     public String[] getDBInfo(Connection conn) {
@@ -1447,7 +1902,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("INSERT INTO {0}JOB (ID,APPLICATION,STATE,JOB_CLASS,JOB_DATA,JOB_DESCRIPTION,UPDATE_TIME) VALUES (?,?,?,?,?,?,?)"));
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}JOB (ID,APPLICATION,STATE,JOB_CLASS,JOB_DATA,JOB_DESCRIPTION,UPDATE_TIME"+versionColumn()+") VALUES (?,?,?,?,?,?,?"+versionValue()+")"));
             ps.setBigDecimal(1,new BigDecimal(qrtzJob.getId()));
             ps.setString(2, qrtzJob.getApplication());
             ps.setString(3, qrtzJob.getState());
@@ -1455,6 +1910,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             ps.setString(5, qrtzJob.getJobData());
             ps.setString(6, qrtzJob.getJobDescription());
             ps.setBigDecimal(7, new BigDecimal(qrtzJob.getUpdateTime()));
+            bindVersion(ps,8,version());
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1474,14 +1930,14 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             return 0;
         }
         try {
-            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET APPLICATION =?,STATE=?,JOB_CLASS =?,JOB_DATA=?,JOB_DESCRIPTION=?,UPDATE_TIME=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET APPLICATION =?,STATE=?,JOB_CLASS =?,JOB_DATA=?,JOB_DESCRIPTION=?,UPDATE_TIME=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,qrtzJob.getApplication());
             ps.setString(2, qrtzJob.getState());
             ps.setString(3, qrtzJob.getJobClass());
             ps.setString(4, qrtzJob.getJobData());
             ps.setString(5, qrtzJob.getJobDescription());
             ps.setBigDecimal(6,new BigDecimal(qrtzJob.getUpdateTime()));
-            ps.setBigDecimal(7,new BigDecimal(qrtzJob.getId()));
+            ps.setBigDecimal(bindVersion(ps,7,version()),new BigDecimal(qrtzJob.getId()));
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1517,9 +1973,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET STATE=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp("UPDATE {0}JOB SET STATE=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,state);
-            ps.setBigDecimal(2,new BigDecimal(job_id));
+            ps.setBigDecimal(bindVersion(ps,2,version()),new BigDecimal(job_id));
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1539,9 +1995,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=? WHERE ID=?"));
+            ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?"+versionSet()+" WHERE ID=?"));
             ps.setString(1,state);
-            ps.setBigDecimal(2,new BigDecimal(execute_id));
+            ps.setBigDecimal(bindVersion(ps,2,version()),new BigDecimal(execute_id));
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1561,8 +2017,8 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         }
         PreparedStatement ps = null;
         try {
-            ps = conn.prepareStatement(rtp("INSERT INTO {0}EXECUTE (ID,PID,JOB_TYPE,STATE,CRON,ZONE_ID,REPEAT_COUNT,REPEAT_INTERVAL,TIME_TRIGGERED,PREV_FIRE_TIME,NEXT_FIRE_TIME,HOST_IP,HOST_NAME,START_TIME,END_TIME) VALUES\n" +
-                    "\t (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)"));
+            ps = conn.prepareStatement(rtp("INSERT INTO {0}EXECUTE (ID,PID,JOB_TYPE,STATE,CRON,ZONE_ID,REPEAT_COUNT,REPEAT_INTERVAL,TIME_TRIGGERED,PREV_FIRE_TIME,NEXT_FIRE_TIME,HOST_IP,HOST_NAME,START_TIME,END_TIME"+versionColumn()+") VALUES\n" +
+                    "\t (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?"+versionValue()+")"));
             ps.setBigDecimal(1,new BigDecimal(qrtzExecute.getId())); // ID
             ps.setBigDecimal(2, new BigDecimal(qrtzExecute.getPid())); // PID
             ps.setString(3, qrtzExecute.getJobType()); // JOB_TYPE
@@ -1578,6 +2034,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
             ps.setString(13, qrtzExecute.getHostName()); // HOST_NAME
             ps.setObject(14, qrtzExecute.getStartTime()); // START_TIME
             ps.setObject(15, qrtzExecute.getEndTime()); // END_TIME
+            bindVersion(ps,16,version()); // VERSION
             return ps.executeUpdate();
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1651,7 +2108,7 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
         final String jobType = qrtzExecute.getJobType();
         try {
             if("CRON".equals(jobType)){
-                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,CRON=?,ZONE_ID=?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?  WHERE ID = ? AND PID=?"));
+                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,CRON=?,ZONE_ID=?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?"+versionSet()+"  WHERE ID = ? AND PID=?"));
                 ps.setString(1,qrtzExecute.getState()); // state=?
                 ps.setString(2,qrtzExecute.getCron()); // cron=?
                 ps.setString(3,qrtzExecute.getZoneId()); // zone_id=?
@@ -1661,10 +2118,11 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                 ps.setString(7,qrtzExecute.getHostName()); // host_name =?
                 ps.setLong(8,qrtzExecute.getStartTime()); // start_time =?
                 ps.setLong(9,qrtzExecute.getEndTime()); // end_time =?
-                ps.setBigDecimal(10,new BigDecimal(qrtzExecute.getId())); // where  id = ?
-                ps.setBigDecimal(11,new BigDecimal(qrtzExecute.getPid())); // where pid=?
+                final int where = bindVersion(ps,10,version()); // version =?
+                ps.setBigDecimal(where,new BigDecimal(qrtzExecute.getId())); // where  id = ?
+                ps.setBigDecimal(where+1,new BigDecimal(qrtzExecute.getPid())); // where pid=?
             }else if("SIMPLE".equals(jobType)){
-                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,REPEAT_COUNT =?,REPEAT_INTERVAL =?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?  WHERE ID = ? AND PID=?"));
+                ps = conn.prepareStatement(rtp("UPDATE {0}EXECUTE SET STATE=?,REPEAT_COUNT =?,REPEAT_INTERVAL =?,PREV_FIRE_TIME=?,NEXT_FIRE_TIME =?,HOST_IP =?,HOST_NAME =?,START_TIME =?,END_TIME =?"+versionSet()+"  WHERE ID = ? AND PID=?"));
                 ps.setString(1,qrtzExecute.getState()); // state=?
                 ps.setInt(2,qrtzExecute.getRepeatCount()); // repeat_count =?
                 ps.setInt(3,qrtzExecute.getRepeatInterval()); // repeat_interval =?
@@ -1674,8 +2132,9 @@ public class StdJDBCDelegate implements DriverDelegate, StdJDBCConstants {
                 ps.setString(7,qrtzExecute.getHostName()); // host_name =?
                 ps.setLong(8,qrtzExecute.getStartTime()); // start_time =?
                 ps.setLong(9,qrtzExecute.getEndTime()); // end_time =?
-                ps.setBigDecimal(10,new BigDecimal(qrtzExecute.getId())); // where  id = ?
-                ps.setBigDecimal(11,new BigDecimal(qrtzExecute.getPid())); // where pid=?
+                final int where = bindVersion(ps,10,version()); // version =?
+                ps.setBigDecimal(where,new BigDecimal(qrtzExecute.getId())); // where  id = ?
+                ps.setBigDecimal(where+1,new BigDecimal(qrtzExecute.getPid())); // where pid=?
             }else{
                 LOGGER.error("不支持的job_type:{}",jobType);
                 return 0;
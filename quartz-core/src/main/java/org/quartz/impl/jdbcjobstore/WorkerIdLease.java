@@ -0,0 +1,150 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.impl.jdbcjobstore;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.quartz.impl.QrtzLease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Lease on one id generator worker id, so no two live JVMs sharing the
+ * tables generate ids with the same worker id. Worker id <code>n</code> is
+ * the <code>QRTZ_LEASE</code> row keyed <code>WORKER#n</code>, shared by all
+ * applications; a node takes the first free or expired row from its
+ * preferred id on and renews it while it runs. A node that could not renew
+ * for a whole lease may find its row taken and allocates another one.
+ * ID生成器工作节点号的租约，保证共用表的各存活JVM的工作节点号互不相同：工作节点号 n 即 QRTZ_LEASE 中键为 WORKER#n 的行(所有应用共用)；
+ * 节点从其首选号开始取第一个空闲或已到期的行，运行期间持续续约；整个租约期内未能续约的节点其行可能已被占用，此时重新分配。
+ * </p>
+ *
+ * <p>
+ * Every method commits or rolls back the given connection.
+ * 各方法均会提交或回滚所给的连接。
+ * </p>
+ */
+final class WorkerIdLease {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WorkerIdLease.class);
+
+    static final String KEY_PREFIX = "WORKER#";
+
+    private final String holder;
+    private final long duration;
+    private final int maxWorker;
+
+    // 持有的工作节点号及防护令牌，未持有时为-1
+    private volatile int workerId = -1;
+    private volatile long fence = -1L;
+    private volatile long renewedAt = 0L;
+
+    WorkerIdLease(String holder, long duration, int maxWorker) {
+        this.holder = holder;
+        this.duration = duration;
+        this.maxWorker = maxWorker;
+    }
+
+    /**
+     * <p>
+     * Take the first free or expired worker id from <code>preferred</code> on
+     * (wrapping around).
+     * 自 preferred 起(循环)取第一个空闲或已到期的工作节点号。
+     * </p>
+     *
+     * @return the worker id, or -1 when all are held
+     */
+    int allocate(DriverDelegate delegate, Connection conn, int preferred, long now) throws SQLException {
+        for (int i = 0; i <= maxWorker; i++) {
+            final int id = (preferred + i) % (maxWorker + 1);
+            final long token = take(delegate, conn, KEY_PREFIX + id, now);
+            if (token > 0L) {
+                workerId = id;
+                fence = token;
+                renewedAt = now;
+                LOG.info("已分配ID生成器工作节点号:{},{}", id, holder);
+                return id;
+            }
+        }
+        return -1;
+    }
+
+    private long take(DriverDelegate delegate, Connection conn, String key, long now) throws SQLException {
+        QrtzLease lease = delegate.selectLease(conn, key);
+        if (null == lease) {
+            try {
+                if (delegate.insertLease(conn, key, holder, now + duration) > 0) {
+                    conn.commit();
+                    return 1L;
+                }
+            } catch (SQLException e) {
+                // 其他节点已先写入
+                conn.rollback();
+            }
+            lease = delegate.selectLease(conn, key);
+            if (null == lease) {
+                conn.rollback();
+                return -1L;
+            }
+        }
+        if (lease.getLeaseUntil() >= now) {
+            conn.commit();
+            return -1L;
+        }
+        if (delegate.acquireLease(conn, key, holder, now + duration, now) > 0) {
+            final QrtzLease mine = delegate.selectLease(conn, key);
+            conn.commit();
+            return mine.getFence();
+        }
+        conn.rollback();
+        return -1L;
+    }
+
+    /**
+     * <p>
+     * Renew the lease when a third of it has elapsed.
+     * 租约时长过去三分之一时续约。
+     * </p>
+     *
+     * @return false when the worker id has been taken by another node and
+     * must be allocated again
+     */
+    boolean renew(DriverDelegate delegate, Connection conn, long now) throws SQLException {
+        if (workerId < 0) {
+            return false;
+        }
+        if (now - renewedAt < duration / 3) {
+            return true;
+        }
+        if (delegate.renewLease(conn, KEY_PREFIX + workerId, holder, fence, now + duration) > 0) {
+            conn.commit();
+            renewedAt = now;
+            return true;
+        }
+        conn.rollback();
+        LOG.warn("ID生成器工作节点号已被其他节点占用:{},{}", workerId, holder);
+        workerId = -1;
+        fence = -1L;
+        return false;
+    }
+
+    int getWorkerId() {
+        return workerId;
+    }
+}
@@ -37,6 +37,12 @@ import org.quartz.utils.Key;
  * handling of the error, consider scheduling the triggering of the flow-up
  * job within your job itself.</p>
  *
+ * <p>The mappings here are in memory only and nothing fires the follow-up
+ * job in this scheduler; persisted chains (QRTZ_JOB_CHAIN) are triggered by
+ * {@link org.quartz.core.JobChainDispatcher} when
+ * <code>org.quartz.scheduler.jobChain.enabled</code> is set.
+ * 此处的映射仅在内存中且不会触发下游任务，持久化的任务链(QRTZ_JOB_CHAIN)由 JobChainDispatcher 触发。</p>
+ *
  * @author James House (jhouse AT revolition DOT net)
  */
 public class JobChainingJobListener extends JobListenerSupport {
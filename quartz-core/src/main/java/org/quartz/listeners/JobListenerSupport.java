@@ -55,6 +55,6 @@ public abstract class JobListenerSupport implements JobListener {
     public void jobExecutionVetoed(JobExecutionContext context) {
     }
 
-//    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
-//    }
+    public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+    }
 }
@@ -3,36 +3,137 @@ package org.quartz.simpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * @author shadow
  * @description 序列生成器
+ *
+ * <p>
+ * Snowflake style 64 bit ids: 41 bits of milliseconds since 2020-01-01 UTC,
+ * 10 bits of worker id and 12 bits of sequence, i.e. 4096 ids per
+ * millisecond per JVM without locking. The worker id can be pinned with the
+ * system property <code>org.quartz.idWorker</code> (0~1023) or
+ * {@link #setWorkerId(int)}; otherwise a scheduler leases a unique one from
+ * the database at startup. Until then it is a 10 bit hash of the host IP and
+ * the process id, which may well collide between JVMs.
+ * 雪花算法主键：41位毫秒时间戳(自2020-01-01 UTC)+10位工作节点+12位序列，单JVM每毫秒4096个且无锁；
+ * 工作节点可通过系统属性 org.quartz.idWorker 或 setWorkerId 指定，否则调度节点启动时从数据库租用唯一的工作节点号；
+ * 此前取主机IP与进程号的10位哈希，多JVM间可能重复。
+ * </p>
+ *
+ * <p>
+ * When the clock moves backwards the generator keeps counting from the last
+ * timestamp it issued (borrowing the following milliseconds once a
+ * sequence is exhausted), so ids never repeat nor decrease. Generated ids
+ * are always above the legacy 14+4 digit ids (yyyyMMddHHmmss+序列).
+ * 时钟回拨时沿用已发出的最大时间戳继续计数(序列用尽则借用后续毫秒)，保证不重复且递增；生成值始终大于旧格式主键。
+ * </p>
  */
 public final class SeqGenUtil {
     private static final Logger LOG = LoggerFactory.getLogger(SeqGenUtil.class);
-    private static final AtomicInteger IT = new AtomicInteger(1000);
-    private static final DateTimeFormatter DATE_SHORT_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
-    private static final ZoneId zoneId = ZoneId.of("Asia/Shanghai");
 
+    // 2020-01-01T00:00:00Z
+    static final long EPOCH = 1577836800000L;
+    static final int WORKER_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final long MAX_WORKER = (1L << WORKER_BITS) - 1;
+    static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
 
-    /** 生成主键：14(日期时间)+4(有序序列) **/
-    public static synchronized String genSeq(){
-        LocalDateTime dataTime = LocalDateTime.now(zoneId);
-        if(IT.intValue()>9990){
-            LOG.info("重置genSeq序列 1000");
-            IT.getAndSet(1000);
-        }
-        return dataTime.format(DATE_SHORT_FORMAT)+ IT.getAndIncrement();
+    // 时钟回拨超过该值(毫秒)时告警
+    private static final long DRIFT_WARN_MILLIS = 1000L;
+
+    /** 高位:已发出的时间戳(相对EPOCH) 低12位:该毫秒内已发出的序列 **/
+    private static final AtomicLong STATE = new AtomicLong(0L);
+
+    // 是否已指定(系统属性或 setWorkerId)工作节点号，否则为哈希值
+    private static volatile boolean assigned = false;
+
+    private static volatile long workerId = defaultWorkerId();
+
+    private static volatile boolean driftWarned = false;
+
+    /** 生成主键(雪花算法,最长19位数字) **/
+    public static String genSeq(){
+        return Long.toString(nextId(System.currentTimeMillis()));
     }
 
     public static Long shortKey(){
-        return Long.parseLong(genSeq());
+        return nextId(System.currentTimeMillis());
+    }
+
+    /**
+     * Pin the worker id of this JVM, e.g. to the ordinal of its QRTZ_NODE row.
+     * 指定当前JVM的工作节点号
+     */
+    public static void setWorkerId(int id){
+        if(id<0 || id>MAX_WORKER){
+            throw new IllegalArgumentException("worker id must be within 0~"+MAX_WORKER+": "+id);
+        }
+        workerId = id;
+        assigned = true;
     }
 
+    public static long getWorkerId(){
+        return workerId;
+    }
+
+    /**
+     * 工作节点号是否已指定(否则为主机IP与进程号的哈希，可能与其它JVM重复)
+     */
+    public static boolean isWorkerIdAssigned(){
+        return assigned;
+    }
 
+    static long nextId(long nowMillis){
+        final long now = nowMillis - EPOCH;
+        for(;;){
+            final long last = STATE.get();
+            final long lastTs = last >>> SEQUENCE_BITS;
+            long next;
+            if(now > lastTs){
+                next = now << SEQUENCE_BITS;
+            }else if((last & SEQUENCE_MASK) < SEQUENCE_MASK){
+                next = last + 1;
+            }else{
+                // 本毫秒序列已用尽：借用下一毫秒
+                next = (lastTs + 1) << SEQUENCE_BITS;
+            }
+            if(STATE.compareAndSet(last, next)){
+                if(lastTs - now > DRIFT_WARN_MILLIS && !driftWarned){
+                    driftWarned = true;
+                    LOG.warn("检测到时钟回拨或序列超前 {} 毫秒，沿用已发出的时间戳继续生成", lastTs - now);
+                }
+                return ((next >>> SEQUENCE_BITS) << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    private static long defaultWorkerId(){
+        final String configured = System.getProperty("org.quartz.idWorker");
+        if(null!=configured && !"".equals(configured.trim())){
+            try {
+                long id = Long.parseLong(configured.trim());
+                if(id>=0 && id<=MAX_WORKER){
+                    assigned = true;
+                    return id;
+                }
+            }catch (NumberFormatException ignore){
+            }
+            LOG.error("异常的 org.quartz.idWorker(0~{}):{}",MAX_WORKER,configured);
+        }
+        String host = "";
+        try {
+            host = InetAddress.getLocalHost().getHostAddress();
+        }catch (Exception e){
+            LOG.warn("未能获取到主机IP,工作节点号仅由进程号生成");
+        }
+        // pid@hostname
+        final String process = ManagementFactory.getRuntimeMXBean().getName();
+        final int h = (host + "#" + process).hashCode();
+        return (h ^ (h >>> 16)) & MAX_WORKER;
+    }
 
 }
@@ -0,0 +1,361 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.simpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.quartz.SchedulerConfigException;
+import org.quartz.spi.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * A <code>{@link ThreadPool}</code> whose worker threads are shared by all
+ * schedulers (applications) of the JVM configured with the same
+ * <code>sharedName</code>. Every scheduler gets its own instance, a view on
+ * one {@link SimpleThreadPool} that is created by the first view and shut
+ * down with the last one.
+ * 同一 JVM 内 sharedName 相同的各调度器(应用)共享工作线程的线程池：每个调度器持有自己的实例(视图)，
+ * 底层 SimpleThreadPool 由第一个视图创建、最后一个视图关闭时关闭。
+ * </p>
+ *
+ * <p>
+ * The threads are fair-shared: each view is guaranteed
+ * <code>threadCount * weight / sum(weights)</code> threads (at least one).
+ * Beyond its share a view may borrow free threads, except those reserved for
+ * other views that are below their share and waiting for a thread, so a busy
+ * application cannot starve the others while idle capacity is still used.
+ * 公平共享：每个视图保底 threadCount*weight/总权重 个线程(至少1个)；超出份额时可借用空闲线程，
+ * 但须为其它未达份额且正在等待线程的视图保留，繁忙的应用不会饿死其它应用，空闲线程也不会闲置。
+ * </p>
+ *
+ * <p>
+ * Configured like <code>SimpleThreadPool</code>
+ * (<code>org.quartz.threadPool.class = org.quartz.simpl.SharedThreadPool</code>)
+ * plus <code>sharedName</code> and <code>weight</code>; the
+ * <code>threadCount</code>, priority and daemon settings of the first view
+ * create the shared threads.
+ * 配置方式同 SimpleThreadPool，另有 sharedName 与 weight；共享线程按第一个视图的 threadCount、优先级及守护线程设置创建。
+ * </p>
+ */
+public class SharedThreadPool implements ThreadPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SharedThreadPool.class);
+
+    // sharedName -> 共享组
+    private static final Map<String, Group> GROUPS = new HashMap<String, Group>();
+
+    private String sharedName = "default";
+    private int weight = 1;
+    private int count = -1;
+    private int prio = Thread.NORM_PRIORITY;
+    private boolean makeThreadsDaemons = false;
+    private String application;
+
+    private Group group;
+    // 以下字段由 group.lock 保护
+    private int busy = 0;
+    private boolean waiting = false;
+    private boolean isShutdown = false;
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Shared group.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    static final class Group {
+        private final Object lock = new Object();
+        private final SimpleThreadPool pool;
+        private final List<SharedThreadPool> views = new ArrayList<SharedThreadPool>();
+        private int busy = 0;
+
+        Group(SimpleThreadPool pool) {
+            this.pool = pool;
+        }
+
+        private int share(SharedThreadPool view) {
+            int weights = 0;
+            for (SharedThreadPool v : views) {
+                weights += v.weight;
+            }
+            return Math.max(1, pool.getPoolSize() * view.weight / Math.max(1, weights));
+        }
+
+        // 视图当前可用的线程数(须持有 lock)
+        private int available(SharedThreadPool view) {
+            final int free = pool.getPoolSize() - busy;
+            if (free <= 0 || view.isShutdown) {
+                return 0;
+            }
+            if (view.busy < share(view)) {
+                return free;
+            }
+            int reserved = 0;
+            for (SharedThreadPool v : views) {
+                if (v != view && v.waiting) {
+                    reserved += Math.max(0, share(v) - v.busy);
+                }
+            }
+            return Math.max(0, free - reserved);
+        }
+    }
+
+    /*
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     *
+     * Interface.
+     *
+     * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
+     */
+
+    public String getSharedName() {
+        return sharedName;
+    }
+
+    /**
+     * 共享组名称，名称相同的调度器共享同一组线程
+     */
+    public void setSharedName(String sharedName) {
+        this.sharedName = sharedName;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * 公平共享的权重(默认1)，保底线程数按权重分配
+     */
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    public int getThreadCount() {
+        return count;
+    }
+
+    public void setThreadCount(int count) {
+        this.count = count;
+    }
+
+    public int getThreadPriority() {
+        return prio;
+    }
+
+    public void setThreadPriority(int prio) {
+        this.prio = prio;
+    }
+
+    public boolean isMakeThreadsDaemons() {
+        return makeThreadsDaemons;
+    }
+
+    public void setMakeThreadsDaemons(boolean makeThreadsDaemons) {
+        this.makeThreadsDaemons = makeThreadsDaemons;
+    }
+
+    @Override
+    public void setInstanceId(String instanceId) {
+    }
+
+    @Override
+    public void setApplication(String schedName) {
+        this.application = schedName;
+    }
+
+    @Override
+    public void initialize() throws SchedulerConfigException {
+        if (group != null) {
+            return;
+        }
+        if (weight < 1) {
+            throw new SchedulerConfigException("Thread pool weight must be > 0");
+        }
+        synchronized (GROUPS) {
+            Group g = GROUPS.get(sharedName);
+            if (g == null) {
+                SimpleThreadPool pool = new SimpleThreadPool(count, prio);
+                pool.setMakeThreadsDaemons(makeThreadsDaemons);
+                pool.setApplication("Shared-" + sharedName);
+                pool.setInstanceId("Shared-" + sharedName);
+                pool.initialize();
+                g = new Group(pool);
+                GROUPS.put(sharedName, g);
+                LOG.info("共享线程池已创建:{},线程数:{}", sharedName, count);
+            } else if (count > 0 && count != g.pool.getPoolSize()) {
+                LOG.warn("共享线程池{}已按{}个线程创建，忽略{}的threadCount:{}", sharedName, g.pool.getPoolSize(), application, count);
+            }
+            synchronized (g.lock) {
+                g.views.add(this);
+                g.lock.notifyAll();
+            }
+            group = g;
+        }
+    }
+
+    @Override
+    public boolean runInThread(final Runnable runnable) {
+        if (runnable == null) {
+            return false;
+        }
+        final Group g = group;
+        synchronized (g.lock) {
+            waiting = true;
+            try {
+                while (g.available(this) < 1 && !isShutdown) {
+                    try {
+                        g.lock.wait(500);
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+            } finally {
+                waiting = false;
+            }
+            if (isShutdown) {
+                return false;
+            }
+            busy++;
+            g.busy++;
+        }
+        final boolean handed = g.pool.runInThread(new Runnable() {
+            public void run() {
+                try {
+                    runnable.run();
+                } finally {
+                    release();
+                }
+            }
+        });
+        if (!handed) {
+            release();
+        }
+        return handed;
+    }
+
+    private void release() {
+        final Group g = group;
+        synchronized (g.lock) {
+            busy--;
+            g.busy--;
+            g.lock.notifyAll();
+        }
+    }
+
+    @Override
+    public int blockForAvailableThreads() {
+        final Group g = group;
+        synchronized (g.lock) {
+            waiting = true;
+            try {
+                int available;
+                while ((available = g.available(this)) < 1 && !isShutdown) {
+                    try {
+                        g.lock.wait(200);
+                    } catch (InterruptedException ignore) {
+                    }
+                }
+                return available;
+            } finally {
+                waiting = false;
+            }
+        }
+    }
+
+    @Override
+    public int getAvailableThreadCount() {
+        final Group g = group;
+        if (g == null) {
+            return 0;
+        }
+        synchronized (g.lock) {
+            return g.available(this);
+        }
+    }
+
+    /**
+     * 本视图当前的保底线程数
+     */
+    public int getShare() {
+        final Group g = group;
+        if (g == null) {
+            return 0;
+        }
+        synchronized (g.lock) {
+            return g.share(this);
+        }
+    }
+
+    /**
+     * 本视图正在使用的线程数
+     */
+    public int getBusyThreadCount() {
+        final Group g = group;
+        if (g == null) {
+            return 0;
+        }
+        synchronized (g.lock) {
+            return busy;
+        }
+    }
+
+    /**
+     * 共享线程总数(其它应用空闲时本应用最多可使用的线程数)
+     */
+    @Override
+    public int getPoolSize() {
+        final Group g = group;
+        return g == null ? count : g.pool.getPoolSize();
+    }
+
+    @Override
+    public void shutdown(boolean waitForJobsToComplete) {
+        final Group g = group;
+        if (g == null) {
+            return;
+        }
+        synchronized (g.lock) {
+            isShutdown = true;
+            g.lock.notifyAll();
+            while (waitForJobsToComplete && busy > 0) {
+                try {
+                    g.lock.wait(100);
+                } catch (InterruptedException ignore) {
+                }
+            }
+        }
+        synchronized (GROUPS) {
+            final boolean last;
+            synchronized (g.lock) {
+                g.views.remove(this);
+                g.lock.notifyAll();
+                last = g.views.isEmpty();
+            }
+            if (last && GROUPS.get(sharedName) == g) {
+                GROUPS.remove(sharedName);
+                g.pool.shutdown(waitForJobsToComplete);
+                LOG.info("共享线程池已关闭:{}", sharedName);
+            }
+        }
+    }
+}
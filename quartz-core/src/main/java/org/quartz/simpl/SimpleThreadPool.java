@@ -439,6 +439,13 @@ public class SimpleThreadPool implements ThreadPool {
         }
     }
 
+    @Override
+    public int getAvailableThreadCount() {
+        synchronized(nextRunnableLock) {
+            return (isShutdown || handoffPending) ? 0 : availWorkers.size();
+        }
+    }
+
     protected void makeAvailable(WorkerThread wt) {
         synchronized(nextRunnableLock) {
             if(!isShutdown) {
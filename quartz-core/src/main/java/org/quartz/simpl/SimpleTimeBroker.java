@@ -39,14 +39,22 @@ import org.quartz.spi.TimeBroker;
  * the other systems in the cluster, scheduling confusion will result.
  * </p>
  * 
+ * <p>
+ * The local clock is shifted by an offset, e.g. the offset to the database
+ * clock measured by the JDBC job store, so that all nodes of a cluster
+ * decide on the same time.
+ * 本机时钟加上偏移量(如JDBC JobStore 测得的与数据库时钟的偏差)，使集群各节点按同一时间判断。
+ * </p>
+ *
  * @see org.quartz.core.QuartzScheduler
  * 
  * @author James House
  */
-@Deprecated
-@SuppressWarnings("deprecation")
 public class SimpleTimeBroker implements TimeBroker {
 
+    // 与参考时钟(数据库)的偏差(毫秒)：参考时间 - 本机时间
+    private volatile long offset = 0L;
+
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      * 
@@ -57,11 +65,27 @@ public class SimpleTimeBroker implements TimeBroker {
 
     /**
      * <p>
-     * Get the current time, simply using <code>new Date()</code>.
+     * Get the current time, the local time plus the offset.
      * </p>
      */
     public Date getCurrentTime() {
-        return new Date();
+        return new Date(currentTimeMillis());
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis() + offset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * 设置与参考时钟的偏差(毫秒)，参考时间 = 本机时间 + offset
+     */
+    public void setOffset(long offset) {
+        this.offset = offset;
     }
 
     public void initialize() throws SchedulerConfigException {
@@ -106,6 +106,10 @@ public class ZeroSizeThreadPool implements ThreadPool {
         throw new UnsupportedOperationException("This ThreadPool should not be used on Scheduler instances that are start()ed.");
     }
     @Override
+    public int getAvailableThreadCount() {
+        return 0;
+    }
+    @Override
     public void setInstanceId(String schedInstId) {
     }
     @Override
@@ -17,13 +17,17 @@
 
 package org.quartz.spi;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.quartz.JobPersistenceException;
 import org.quartz.SchedulerConfigException;
 import org.quartz.SchedulerException;
 import org.quartz.impl.QrtzApp;
+import org.quartz.impl.AcquiredExecute;
 import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzExecuteHistory;
 import org.quartz.impl.QrtzJob;
 import org.quartz.impl.QrtzNode;
 
@@ -536,7 +540,7 @@ public interface JobStore {
 //     * @see #releaseAcquiredTrigger(OperableTrigger)
 //     */
 //    List<OperableTrigger> acquireNextTriggers(long noLaterThan, int maxCount, long timeWindow) throws JobPersistenceException;
-    default List<QrtzExecute> acquireNextTriggers(String application,long _tsw,long _tew) throws JobPersistenceException{
+    default List<AcquiredExecute> acquireNextTriggers(String application,long _tsw,long _tew) throws JobPersistenceException{
         throw new JobPersistenceException("method is not defined ! "+application+" : "+_tsw+","+_tew);
     }
 
@@ -594,23 +598,25 @@ public interface JobStore {
      */
     void setThreadPoolSize(int poolSize);
 
-//    /**
-//     * Get the amount of time (in ms) to wait when accessing this job store
-//     * repeatedly fails.
-//     *
-//     * Called by the executor thread(s) when calls to
-//     * {@link #acquireNextTriggers} fail more than once in succession, and the
-//     * thread thus wants to wait a bit before trying again, to not consume
-//     * 100% CPU, write huge amounts of errors into logs, etc. in cases like
-//     * the DB being offline/restarting.
-//     *
-//     * The delay returned by implementations should be between 20 and
-//     * 600000 milliseconds.
-//     *
-//     * @param failureCount the number of successive failures seen so far
-//     * @return the time (in milliseconds) to wait before trying again
-//     */
-//    long getAcquireRetryDelay(int failureCount);
+    /**
+     * Get the amount of time (in ms) to wait when accessing this job store
+     * repeatedly fails.
+     *
+     * Called by the executor thread(s) when calls to
+     * {@link #acquireNextTriggers} fail, and the thread thus wants to wait a
+     * bit before trying again, to not consume 100% CPU, write huge amounts
+     * of errors into logs, etc. in cases like the DB being offline/restarting.
+     *
+     * The delay returned by implementations should be between 20 and
+     * 600000 milliseconds.
+     * 获取连续失败后调度线程重试前的等待时间(毫秒)，应在 20~600000 之间
+     *
+     * @param failureCount the number of successive failures seen so far
+     * @return the time (in milliseconds) to wait before trying again
+     */
+    default long getAcquireRetryDelay(int failureCount){
+        return failureCount>3 ? 1000L : 20L;
+    }
 
     default String findNodeStateByPK(String application, String hostIP){
 //        throw new Exception("findNodeStateByPK method is not defined ! "+application+" : "+hostIP);
@@ -622,6 +628,173 @@ public interface JobStore {
         return 0;
     }
 
+    /**
+     * <p>
+     * Claim several fires in one round trip: <code>newCes.get(i)</code> is
+     * written only if the row still holds the state and fire times of
+     * <code>olds.get(i)</code>. Returns the updated row count of every claim
+     * (1 won, 0 lost), in order.
+     * 批量抢占：newCes[i] 仅在记录仍为 olds[i] 的状态及触发时间时写入，按顺序返回各条的更新行数(1抢占成功 0失败)
+     * </p>
+     */
+    default int[] toLockAndUpdate(List<QrtzExecute> newCes, List<AcquiredExecute> olds){
+        final int[] counts = new int[newCes.size()];
+        for(int i=0;i<counts.length;i++){
+            final AcquiredExecute old = olds.get(i);
+            counts[i] = toLockAndUpdate(newCes.get(i),old.getSource().getState().name(),old.getPrevFireTime(),old.getNextFireTime());
+        }
+        return counts;
+    }
+
+    /**
+     * <p>
+     * Claim like {@link #toLockAndUpdate(List, List)} and, in the same
+     * transaction, record every won claim with <code>fires[i]</code> set as
+     * in flight on this node until {@link #firedComplete(String, long)}.
+     * On return <code>fires[i]</code> is true only for the claims whose
+     * record was written, which alone must be completed.
+     * 同 toLockAndUpdate 批量抢占，并在同一事务内为 fires[i] 为 true 且抢占成功的触发写入执行中记录，执行完成时由 firedComplete 删除；
+     * 返回后 fires[i] 仅对写入了执行中记录的触发为 true(仅这些须调用 firedComplete)。
+     * </p>
+     */
+    default int[] toLockAndFire(List<QrtzExecute> newCes, List<AcquiredExecute> olds, boolean[] fires){
+        Arrays.fill(fires,false);
+        return toLockAndUpdate(newCes,olds);
+    }
+
+    /**
+     * 执行结束(或未能交给线程池)时删除 toLockAndFire 写入的执行中记录，scheduledTime 为计划触发时间
+     */
+    default void firedComplete(String executeId, long scheduledTime){
+    }
+
+    /**
+     * 批量写入执行记录，返回写入条数，不支持时返回0
+     */
+    default int storeExecuteHistory(List<QrtzExecuteHistory> histories){
+        return 0;
+    }
+
+    /**
+     * 清理应用下触发时间早于 before 的执行记录，返回删除条数
+     */
+    default int clearExecuteHistory(String application, long before){
+        return 0;
+    }
+
+    /**
+     * 查询任务链中上游任务完成后待触发的下游执行项(已加载任务类)，不支持时返回空列表
+     * @param succeeded 上游是否执行成功，失败时只返回 TRIGGER_ON=ALWAYS 的下游
+     */
+    default List<QrtzExecute> findChainSuccessors(String application, String jobId, boolean succeeded){
+        return Collections.emptyList();
+    }
+
+    /**
+     * 抢占(删除)应用下最多 maxCount 个立即执行信号，返回对应的执行项(已加载任务类)，不支持时返回空列表
+     */
+    default List<QrtzExecute> acquireFireNowSignals(String application, int maxCount){
+        return Collections.emptyList();
+    }
+
+    /**
+     * 当前节点是否持有应用的主节点租约(负责恢复及清理)，未启用租约时返回false
+     */
+    default boolean isClusterLeader(){
+        return false;
+    }
+
+    /**
+     * 当前节点持有租约时的防护令牌，非主节点或未启用租约时返回-1
+     */
+    default long getLeaderFencingToken(){
+        return -1L;
+    }
+
+    /**
+     * 已接管的失效节点(或本节点重启前)执行中记录数，未启用心跳时返回0
+     */
+    default long getTakenOverFiredCount(){
+        return 0L;
+    }
+
+    /**
+     * 与数据库时钟偏差超过阈值的次数，未启用时钟同步时返回0
+     */
+    default long getClockSkewAlarmCount(){
+        return 0L;
+    }
+
+    /**
+     * 数据库断路器状态(CLOSED/OPEN/HALF_OPEN)，非数据库存储时为 CLOSED
+     */
+    default String getDbCircuitState(){
+        return "CLOSED";
+    }
+
+    /**
+     * 获取数据库连接的连续失败次数
+     */
+    default int getDbConsecutiveFailures(){
+        return 0;
+    }
+
+    /**
+     * 数据库断路器打开的次数(含探测失败后重新打开)
+     */
+    default long getDbCircuitOpenCount(){
+        return 0L;
+    }
+
+    /**
+     * 断路器打开期间被直接拒绝的数据库访问次数
+     */
+    default long getDbCircuitRejectedCount(){
+        return 0L;
+    }
+
+    /**
+     * 是否正在按内存调度降级触发(数据库不可用期间)
+     */
+    default boolean isDegradedFiring(){
+        return false;
+    }
+
+    /**
+     * 降级期间触发的任务数
+     */
+    default long getDegradedFireCount(){
+        return 0L;
+    }
+
+    /**
+     * 降级期间的状态变更对账时的冲突数(期间已被修改，以库中为准)
+     */
+    default long getDegradedConflictCount(){
+        return 0L;
+    }
+
+    /**
+     * 执行项内存副本中可触发的执行项数(未启用时为0)
+     */
+    default int getReplicaRowCount(){
+        return 0;
+    }
+
+    /**
+     * 执行项内存副本的同步次数(含全量加载)
+     */
+    default long getReplicaSyncCount(){
+        return 0L;
+    }
+
+    /**
+     * 执行项内存副本同步时读取的行数
+     */
+    default long getReplicaRowsRead(){
+        return 0L;
+    }
+
 
 
     String[] getDBInfo()  ;
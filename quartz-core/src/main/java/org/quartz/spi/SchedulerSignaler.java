@@ -17,6 +17,9 @@
 
 package org.quartz.spi;
 
+import java.util.List;
+
+import org.quartz.impl.QrtzExecute;
 
 /**
  * An interface to be used by <code>JobStore</code> instances in order to
@@ -42,5 +45,15 @@ public interface SchedulerSignaler {
 
     void signalSchedulingChange(long candidateNewNextFireTime);
 
+    /**
+     * 集群恢复(执行及任务)更新的行数，用于抽样统计
+     */
+    void notifyRowsRecovered(int count);
+
+    /**
+     * 集群恢复时执行项错过的触发数及需补偿执行的计划触发时间(按熄火策略，由旧到新)
+     */
+    void notifyMisfired(QrtzExecute execute, int missed, List<Long> catchUpFireTimes);
+
 //    void notifySchedulerListenersError(String string, SchedulerException jpe);
 }
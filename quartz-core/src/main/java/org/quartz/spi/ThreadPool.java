@@ -90,6 +90,18 @@ public interface ThreadPool {
      */
     int blockForAvailableThreads();
 
+    /**
+     * <p>
+     * Non-blocking variant of {@link #blockForAvailableThreads()}: the number
+     * of threads that could run a <code>Runnable</code> right now without
+     * waiting. Implementations that cannot tell return 0.
+     * blockForAvailableThreads 的非阻塞版本：当前无需等待即可执行任务的线程数，无法判断时返回0。
+     * </p>
+     */
+    default int getAvailableThreadCount() {
+        return 0;
+    }
+
     /**
      * <p>
      * Must be called before the <code>ThreadPool</code> is
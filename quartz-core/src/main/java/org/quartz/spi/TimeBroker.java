@@ -23,8 +23,6 @@ import org.quartz.SchedulerConfigException;
 import org.quartz.SchedulerException;
 
 /**
- * <p>NOTE: TimeBroker is not currently used in the Quartz code base.</p>
- *
  * <p>
  * The interface to be implemented by classes that want to provide a mechanism
  * by which the <code>{@link org.quartz.core.QuartzScheduler}</code> can
@@ -40,9 +38,16 @@ import org.quartz.SchedulerException;
  * has a system time that varies by more than a few seconds from the clocks on
  * the other systems in the cluster, scheduling confusion will result.
  * </p>
+ *
+ * <p>
+ * The scheduler thread and the JDBC job store take the time for fire
+ * windows, claims and recovery thresholds from
+ * {@link #currentTimeMillis()}; with clock synchronization enabled the
+ * <code>SimpleTimeBroker</code> is kept aligned with the database clock.
+ * 调度线程及JDBC JobStore 的获取窗口、抢占及恢复阈值均取自 currentTimeMillis()；开启时钟同步时 SimpleTimeBroker 与数据库时钟对齐。
+ * </p>
  * 
  * @see org.quartz.core.QuartzScheduler
- * @deprecated TimeBroker is not currently used in the Quartz code base.
  * @author James House
  */
 public interface TimeBroker {
@@ -66,6 +71,22 @@ public interface TimeBroker {
      */
     Date getCurrentTime() throws SchedulerException;
 
+    /**
+     * <p>
+     * Get the current time in milliseconds, as known by the
+     * <code>TimeBroker</code>, falling back to the local clock when it
+     * fails.
+     * 获取当前时间(毫秒)，失败时使用本机时钟
+     * </p>
+     */
+    default long currentTimeMillis() {
+        try {
+            return getCurrentTime().getTime();
+        } catch (SchedulerException e) {
+            return System.currentTimeMillis();
+        }
+    }
+
     /**
      * <p>
      * Called by the QuartzScheduler before the <code>TimeBroker</code> is
@@ -20,6 +20,11 @@ package org.quartz.utils;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>
@@ -58,7 +63,12 @@ public class DBConnectionManager {
 
     private static DBConnectionManager instance = new DBConnectionManager();
 
-    private HashMap<String, ConnectionProvider> providers = new HashMap<String, ConnectionProvider>();
+    private static final Logger LOG = LoggerFactory.getLogger(DBConnectionManager.class);
+
+    private Map<String, ConnectionProvider> providers = new ConcurrentHashMap<String, ConnectionProvider>();
+
+    // 数据源名称 -> 使用中的调度器数(同一 JVM 内多个应用共用同名数据源)
+    private HashMap<String, Integer> users = new HashMap<String, Integer>();
 
     /*
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
@@ -85,8 +95,30 @@ public class DBConnectionManager {
      * ~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~
      */
 
-    public void addConnectionProvider(String dataSourceName, ConnectionProvider provider) {
-        this.providers.put(dataSourceName, provider);
+    /**
+     * <p>
+     * Register a provider under the given name. When another scheduler of
+     * the JVM already uses a provider of that name, the registered one is
+     * shared and the new one is shut down right away; the provider is only
+     * shut down by the last {@link #shutdown(String)} of that name.
+     * 注册数据源；同一 JVM 内已有其它调度器在用同名数据源时共用已注册的数据源并立即关闭新建的，
+     * 最后一次 shutdown 时才关闭该数据源。
+     * </p>
+     */
+    public synchronized void addConnectionProvider(String dataSourceName, ConnectionProvider provider) {
+        final ConnectionProvider existing = providers.get(dataSourceName);
+        final Integer count = users.get(dataSourceName);
+        if (existing != null && existing != provider && count != null && count > 0) {
+            LOG.info("DataSource '" + dataSourceName + "' is shared with " + count + " other scheduler(s) in this JVM.");
+            try {
+                provider.shutdown();
+            } catch (SQLException e) {
+                LOG.warn("Failed to shut down the unused provider of DataSource '" + dataSourceName + "'", e);
+            }
+        } else {
+            this.providers.put(dataSourceName, provider);
+        }
+        users.put(dataSourceName, count == null ? 1 : count + 1);
     }
 
     /**
@@ -125,11 +157,19 @@ public class DBConnectionManager {
      *              if an error occurs, or there is no DataSource with the
      *              given name.
      */
-    public void shutdown(String dsName) throws SQLException {
+    public synchronized void shutdown(String dsName) throws SQLException {
         ConnectionProvider provider = (ConnectionProvider) providers.get(dsName);
         if (provider == null) {
             throw new SQLException("There is no DataSource named '" + dsName + "'");
         }
+        final Integer count = users.get(dsName);
+        if (count != null && count > 1) {
+            // 仍有其它调度器在用
+            users.put(dsName, count - 1);
+            return;
+        }
+        users.remove(dsName);
+        providers.remove(dsName);
         provider.shutdown();
 
     }
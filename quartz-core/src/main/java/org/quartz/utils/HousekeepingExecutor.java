@@ -0,0 +1,82 @@
+/*
+ * All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy
+ * of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ */
+package org.quartz.utils;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * JVM-wide executor for the periodic housekeeping (cluster check, recovery
+ * and purge) of every scheduler hosted in the JVM. It is created by the first
+ * scheduler that acquires it, with that scheduler's thread count, and shut
+ * down when the last one releases it.
+ * JVM 内所有调度器共用的周期性检查(集群检查、恢复及清理)线程池：由第一个获取的调度器按其线程数创建，最后一个释放时关闭。
+ * </p>
+ */
+public final class HousekeepingExecutor {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HousekeepingExecutor.class);
+
+    private static ScheduledThreadPoolExecutor executor = null;
+    private static int users = 0;
+
+    private HousekeepingExecutor() {
+    }
+
+    public static synchronized ScheduledExecutorService acquire(int threadCount) {
+        if (executor == null) {
+            final AtomicInteger seq = new AtomicInteger();
+            executor = new ScheduledThreadPoolExecutor(Math.max(1, threadCount), new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread t = new Thread(r, "QuartzHousekeeping-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.NORM_PRIORITY + 2);
+                    return t;
+                }
+            });
+            executor.setRemoveOnCancelPolicy(true);
+            LOG.info("共享检查线程池已创建,线程数:{}", executor.getCorePoolSize());
+        } else if (threadCount != executor.getCorePoolSize()) {
+            LOG.warn("共享检查线程池已按{}个线程创建，忽略线程数:{}", executor.getCorePoolSize(), threadCount);
+        }
+        users++;
+        return executor;
+    }
+
+    public static synchronized void release() {
+        if (executor == null || --users > 0) {
+            return;
+        }
+        executor.shutdown();
+        executor = null;
+        users = 0;
+        LOG.info("共享检查线程池已关闭");
+    }
+
+    /**
+     * 当前使用共享检查线程池的调度器数
+     */
+    public static synchronized int getUserCount() {
+        return users;
+    }
+}
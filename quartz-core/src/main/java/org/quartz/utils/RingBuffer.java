@@ -0,0 +1,140 @@
+/**
+ *  All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.quartz.utils;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free, multi-producer / single-consumer ring buffer.
+ * 有界、无锁的多生产者/单消费者环形缓冲区
+ * <p>
+ * Every slot carries a sequence number telling whether it may be written or
+ * read in the current lap, so producers only race on one CAS of the tail and
+ * never wait for each other. Unlike {@link CircularLossyQueue} nothing is
+ * overwritten: {@link #offer(Object)} fails when the buffer is full and the
+ * caller decides whether to drop or retry.
+ * 每个槽位带有序号，生产者之间只竞争一次CAS；缓冲区满时 offer 返回 false，不覆盖旧数据，由调用方决定丢弃或重试。
+ * </p>
+ *
+ * @param <T> type of the elements
+ */
+public class RingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // 只有消费者线程修改
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to the next power of two
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("Illegal ring buffer capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<T>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Add an element, may be called from any thread.
+     *
+     * @return false when the buffer is full
+     */
+    public boolean offer(T element) {
+        if (element == null) {
+            throw new NullPointerException("element cannot be null");
+        }
+        long t;
+        int index;
+        while (true) {
+            t = tail.get();
+            index = (int) (t & mask);
+            long diff = sequences.get(index) - t;
+            if (diff == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                // 消费者尚未读取上一圈的数据
+                return false;
+            }
+        }
+        elements.lazySet(index, element);
+        sequences.set(index, t + 1);
+        return true;
+    }
+
+    /**
+     * Remove the oldest element, must only be called from the consumer thread.
+     *
+     * @return null when empty
+     */
+    public T poll() {
+        long h = head.get();
+        int index = (int) (h & mask);
+        if (sequences.get(index) != h + 1) {
+            return null;
+        }
+        T element = elements.get(index);
+        elements.lazySet(index, null);
+        sequences.set(index, h + mask + 1);
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * Move up to <code>max</code> elements into the collection, must only be
+     * called from the consumer thread.
+     *
+     * @return the number of elements moved
+     */
+    public int drainTo(Collection<? super T> target, int max) {
+        int count = 0;
+        T element;
+        while (count < max && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the approximate number of elements in the buffer
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0L, Math.min(size, (long) capacity()));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -17,10 +17,17 @@
 package org.quartz.utils.counter;
 
 import java.io.Serializable;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A simple counter implementation
+ * <p>
+ * Backed by a {@link LongAdder} so that the scheduler and worker threads never
+ * contend on one cache line. The values returned by the mutators are a
+ * (non-atomic) snapshot of the sum taken right after the update, and
+ * {@link #getAndSet(long)} is only atomic with respect to the sampler thread.
+ * 基于 LongAdder 实现，避免多线程在同一缓存行上竞争；修改方法返回的是更新后的非原子快照值。
+ * </p>
  * 
  * @author <a href="mailto:asanoujam@terracottatech.com">Abhishek Sanoujam</a>
  * @since 1.8
@@ -30,7 +37,7 @@ public class CounterImpl implements Counter, Serializable {
   
     private static final long serialVersionUID = -1529134342654953984L;
     
-    private AtomicLong value;
+    private final LongAdder value = new LongAdder();
 
     /**
      * Default Constructor
@@ -45,56 +52,63 @@ public class CounterImpl implements Counter, Serializable {
      * @param initialValue
      */
     public CounterImpl(long initialValue) {
-        this.value = new AtomicLong(initialValue);
+        this.value.add(initialValue);
     }
 
     /**
      * {@inheritDoc}
      */
     public long increment() {
-        return value.incrementAndGet();
+        value.increment();
+        return value.sum();
     }
 
     /**
      * {@inheritDoc}
      */
     public long decrement() {
-        return value.decrementAndGet();
+        value.decrement();
+        return value.sum();
     }
 
     /**
      * {@inheritDoc}
      */
     public long getAndSet(long newValue) {
-        return value.getAndSet(newValue);
+        long old = value.sumThenReset();
+        value.add(newValue);
+        return old;
     }
 
     /**
      * {@inheritDoc}
      */
     public long getValue() {
-        return value.get();
+        return value.sum();
     }
 
     /**
      * {@inheritDoc}
      */
     public long increment(long amount) {
-        return value.addAndGet(amount);
+        value.add(amount);
+        return value.sum();
     }
 
     /**
      * {@inheritDoc}
      */
     public long decrement(long amount) {
-        return value.addAndGet(amount * -1);
+        value.add(-amount);
+        return value.sum();
     }
 
     /**
      * {@inheritDoc}
      */
     public void setValue(long newValue) {
-        value.set(newValue);
+        value.reset();
+        value.add(newValue);
     }
 
 }
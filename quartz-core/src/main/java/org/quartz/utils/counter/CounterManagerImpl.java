@@ -16,15 +16,22 @@
 
 package org.quartz.utils.counter;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.quartz.utils.counter.sampled.SampledCounter;
 import org.quartz.utils.counter.sampled.SampledCounterImpl;
 
 /**
  * An implementation of a {@link CounterManager}.
+ * <p>
+ * All sampled counters of one manager are sampled by a single ticker task
+ * (every {@link #TICK_INTERVAL} ms) instead of one timer task per counter.
+ * Managers created without a timer share one daemon timer thread per JVM.
+ * 同一管理器下的所有采样计数器由一个时钟任务统一采样；未指定 Timer 的管理器共用 JVM 内唯一的守护线程。
+ * </p>
  * 
  * @author <a href="mailto:asanoujam@terracottatech.com">Abhishek Sanoujam</a>
  * @since 1.8
@@ -32,9 +39,33 @@ import org.quartz.utils.counter.sampled.SampledCounterImpl;
  */
 public class CounterManagerImpl implements CounterManager {
 
-    private Timer timer;
+    /**
+     * 共享时钟的节拍(毫秒)，即采样间隔的最小粒度
+     */
+    public static final long TICK_INTERVAL = 1000L;
+
+    private static Timer sharedTimer;
+
+    private final Timer timer;
+    private final boolean sharedTimerUsed;
     private boolean shutdown;
-    private List<Counter> counters = new ArrayList<Counter>();
+    private final List<Counter> counters = new CopyOnWriteArrayList<Counter>();
+    private TimerTask ticker;
+
+    /**
+     * Constructor that uses the JVM wide shared daemon timer
+     */
+    public CounterManagerImpl() {
+        this.timer = getSharedTimer();
+        this.sharedTimerUsed = true;
+    }
+
+    private static synchronized Timer getSharedTimer() {
+        if (sharedTimer == null) {
+            sharedTimer = new Timer("QuartzCounterTicker", true);
+        }
+        return sharedTimer;
+    }
 
     /**
      * Constructor that accepts a timer that will be used for scheduling sampled
@@ -45,6 +76,19 @@ public class CounterManagerImpl implements CounterManager {
             throw new IllegalArgumentException("Timer cannot be null");
         }
         this.timer = timer;
+        this.sharedTimerUsed = false;
+    }
+
+    /**
+     * Sample every registered counter whose interval has elapsed.
+     * 对已到采样间隔的计数器进行采样
+     */
+    public void tick(long now) {
+        for (Counter counter : counters) {
+            if (counter instanceof SampledCounterImpl) {
+                ((SampledCounterImpl) counter).tick(now);
+            }
+        }
     }
 
     /**
@@ -62,8 +106,13 @@ public class CounterManagerImpl implements CounterManager {
                     ((SampledCounter) counter).shutdown();
                 }
             }
-            if(killTimer)
+            if (ticker != null) {
+                ticker.cancel();
+            }
+            // 共享的 Timer 不能由单个管理器关闭
+            if (killTimer && !sharedTimerUsed) {
                 timer.cancel();
+            }
         } finally {
             shutdown = true;
         }
@@ -81,13 +130,25 @@ public class CounterManagerImpl implements CounterManager {
         }
         Counter counter = config.createCounter();
         if (counter instanceof SampledCounterImpl) {
-            SampledCounterImpl sampledCounter = (SampledCounterImpl) counter;
-            timer.schedule(sampledCounter.getTimerTask(), sampledCounter.getIntervalMillis(), sampledCounter.getIntervalMillis());
+            startTicker();
         }
         counters.add(counter);
         return counter;
     }
 
+    private void startTicker() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = new TimerTask() {
+            @Override
+            public void run() {
+                tick(System.currentTimeMillis());
+            }
+        };
+        timer.scheduleAtFixedRate(ticker, TICK_INTERVAL, TICK_INTERVAL);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -96,6 +157,7 @@ public class CounterManagerImpl implements CounterManager {
             SampledCounter sc = (SampledCounter) counter;
             sc.shutdown();
         }
+        counters.remove(counter);
     }
 
 }
@@ -0,0 +1,210 @@
+/**
+ *  All content copyright Terracotta, Inc., unless otherwise indicated. All rights reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.quartz.utils.counter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free, fixed-size log-linear histogram.
+ * 无锁、定长的对数线性直方图
+ * <p>
+ * Values below 16 are counted exactly, larger values fall into one of 16
+ * sub-buckets per power of two (relative error below 1/16). Recording is a
+ * single array increment plus a few adders, so it is cheap enough for the
+ * scheduler and worker threads. Percentiles read from a live histogram are
+ * approximate while it is being recorded into.
+ * 小于16的值精确计数，更大的值按2的幂分16个子桶(相对误差&lt;1/16)，记录只需一次数组自增，适用于调度/工作线程热路径。
+ * </p>
+ * <p>
+ * The unit is up to the caller. A signed histogram also accepts negative
+ * values (e.g. early fires), which are kept in a mirrored set of buckets.
+ * </p>
+ */
+public class Histogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // 最大指数: 2^40 (以微秒计约12天)，超出的值计入最后一个桶
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final boolean signed;
+    private final AtomicLongArray positive;
+    private final AtomicLongArray negative;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Create a histogram that accepts only non-negative values.
+     */
+    public Histogram() {
+        this(false);
+    }
+
+    /**
+     * @param signed whether negative values are accepted
+     */
+    public Histogram(boolean signed) {
+        this.signed = signed;
+        this.positive = new AtomicLongArray(BUCKETS);
+        this.negative = signed ? new AtomicLongArray(BUCKETS) : null;
+    }
+
+    /**
+     * Record one value. Negative values are clamped to 0 in an unsigned histogram.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            if (signed) {
+                negative.incrementAndGet(indexOf(value == Long.MIN_VALUE ? Long.MAX_VALUE : -value));
+            } else {
+                value = 0;
+                positive.incrementAndGet(0);
+            }
+        } else {
+            positive.incrementAndGet(indexOf(value));
+        }
+        count.increment();
+        sum.add(value);
+        long m;
+        while (value < (m = min.get()) && !min.compareAndSet(m, value)) {
+        }
+        while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+        }
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int shift = exponent - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * Highest value that maps to the given bucket.
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long mantissa = SUB_BUCKETS + (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the smallest recorded value, 0 when empty
+     */
+    public long getMin() {
+        long m = min.get();
+        return m == Long.MAX_VALUE ? 0 : m;
+    }
+
+    /**
+     * @return the largest recorded value, 0 when empty
+     */
+    public long getMax() {
+        long m = max.get();
+        return m == Long.MIN_VALUE ? 0 : m;
+    }
+
+    public double getMean() {
+        long c = count.sum();
+        return c == 0 ? 0D : (double) sum.sum() / c;
+    }
+
+    /**
+     * <p>
+     * The (upper bound of the bucket of the) value below which the given
+     * percentage of recorded values fall, clamped to the recorded min/max.
+     * 返回给定百分位对应的值(桶上界)，并限制在已记录的最小/最大值之间
+     * </p>
+     *
+     * @param percentile 0 ~ 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        double p = Math.min(Math.max(percentile, 0D), 100D);
+        long target = Math.max(1L, (long) Math.ceil(p / 100D * total));
+        long seen = 0;
+        long result = getMax();
+        found:
+        {
+            if (signed) {
+                for (int i = BUCKETS - 1; i >= 0; i--) {
+                    seen += negative.get(i);
+                    if (seen >= target) {
+                        // 负值桶: 越靠后越小，取桶内最接近0的值
+                        result = i < SUB_BUCKETS ? -i : -(highestValueOf(i - 1) + 1);
+                        break found;
+                    }
+                }
+            }
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += positive.get(i);
+                if (seen >= target) {
+                    result = highestValueOf(i);
+                    break found;
+                }
+            }
+        }
+        return Math.min(Math.max(result, getMin()), getMax());
+    }
+
+    /**
+     * Clear all recorded values. Values recorded concurrently may be partly lost.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            positive.set(i, 0);
+            if (signed) {
+                negative.set(i, 0);
+            }
+        }
+        count.reset();
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+
+    @Override
+    public String toString() {
+        return "Histogram{count=" + getCount() + ", min=" + getMin() + ", mean=" + getMean()
+                + ", p50=" + getValueAtPercentile(50) + ", p90=" + getValueAtPercentile(90)
+                + ", p99=" + getValueAtPercentile(99) + ", max=" + getMax() + "}";
+    }
+}
@@ -16,13 +16,16 @@
 
 package org.quartz.utils.counter.sampled;
 
-import java.util.TimerTask;
-
 import org.quartz.utils.CircularLossyQueue;
 import org.quartz.utils.counter.CounterImpl;
 
 /**
  * An implementation of {@link SampledCounter}
+ * <p>
+ * The counter does not own a timer task, it is sampled by the single ticker of
+ * the {@link org.quartz.utils.counter.CounterManagerImpl} that created it.
+ * 计数器本身不再持有定时任务，由创建它的 CounterManagerImpl 的共享时钟统一采样。
+ * </p>
  * 
  * @author <a href="mailto:asanoujam@terracottatech.com">Abhishek Sanoujam</a>
  * @since 1.7
@@ -43,8 +46,9 @@ public class SampledCounterImpl extends CounterImpl implements SampledCounter {
      * Should the counter reset on each sample?
      */
     protected final boolean resetOnSample;
-    private final TimerTask samplerTask;
     private final long intervalMillis;
+    private volatile long lastSampleTime;
+    private volatile boolean shutdown;
 
     /**
      * Constructor accepting a {@link SampledCounterConfig}
@@ -58,13 +62,6 @@ public class SampledCounterImpl extends CounterImpl implements SampledCounter {
         this.history = new CircularLossyQueue<TimeStampedCounterValue>(config.getHistorySize());
         this.resetOnSample = config.isResetOnSample();
 
-        this.samplerTask = new TimerTask() {
-            @Override
-            public void run() {
-                recordSample();
-            }
-        };
-
         recordSample();
     }
 
@@ -86,18 +83,28 @@ public class SampledCounterImpl extends CounterImpl implements SampledCounter {
      * {@inheritDoc}
      */
     public void shutdown() {
-        if (samplerTask != null) {
-            samplerTask.cancel();
-        }
+        this.shutdown = true;
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
     }
 
     /**
-     * Returns the timer task for this sampled counter
-     * 
-     * @return the timer task for this sampled counter
+     * Called by the shared ticker: record a sample when at least one interval
+     * has elapsed since the previous one.
+     * 由共享时钟调用，距上次采样满一个间隔时记录一次采样
+     *
+     * @param now the current time in millis
+     * @return true when a sample was recorded
      */
-    public TimerTask getTimerTask() {
-        return this.samplerTask;
+    public boolean tick(long now) {
+        // 时钟有少量抖动，提前 1/10 个间隔即可采样
+        if (shutdown || now - lastSampleTime < intervalMillis - intervalMillis / 10) {
+            return false;
+        }
+        recordSample(now);
+        return true;
     }
 
     /**
@@ -113,6 +120,10 @@ public class SampledCounterImpl extends CounterImpl implements SampledCounter {
      * {@inheritDoc}
      */
     void recordSample() {
+        recordSample(System.currentTimeMillis());
+    }
+
+    private void recordSample(long now) {
         final long sample;
         if (resetOnSample) {
             sample = getAndReset();
@@ -120,7 +131,7 @@ public class SampledCounterImpl extends CounterImpl implements SampledCounter {
             sample = getValue();
         }
 
-        final long now = System.currentTimeMillis();
+        lastSampleTime = now;
         TimeStampedCounterValue timedSample = new TimeStampedCounterValue(now, sample);
 
         history.push(timedSample);
@@ -0,0 +1,65 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for AcquireWindowTuner.
+ */
+public class AcquireWindowTunerTest {
+
+    @Test
+    public void testQuietApplicationStaysAtMaxWindow() {
+        AcquireWindowTuner tuner = new AcquireWindowTuner(true, 1000L, 8000L, 4L, 8L, 1000);
+        for (int i = 0; i < 20; i++) {
+            tuner.update(5L, 3, 10, 10);
+        }
+        assertEquals(8000L, tuner.getWindow());
+        assertEquals(4L, tuner.getFireTolerance());
+    }
+
+    @Test
+    public void testBusyApplicationShrinksWithinBounds() {
+        AcquireWindowTuner tuner = new AcquireWindowTuner(true, 1000L, 5000L, 4L, 8L, 1000);
+        tuner.update(5L, 4000, 10, 10);
+        assertEquals(2500L, tuner.getWindow());
+        for (int i = 0; i < 10; i++) {
+            tuner.update(5L, 4000, 10, 10);
+        }
+        assertEquals(1000L, tuner.getWindow());
+        // (4000-1000)/2000 + 4
+        assertEquals(5L, tuner.getFireTolerance());
+    }
+
+    @Test
+    public void testSlowAcquisitionKeepsWindowLarge() {
+        AcquireWindowTuner tuner = new AcquireWindowTuner(true, 1000L, 5000L, 4L, 8L, 1000);
+        for (int i = 0; i < 10; i++) {
+            tuner.update(300L, 4000, 10, 10);
+        }
+        assertTrue(tuner.getWindow() >= 3000L);
+    }
+
+    @Test
+    public void testSaturatedPoolRaisesTolerance() {
+        AcquireWindowTuner tuner = new AcquireWindowTuner(true, 1000L, 5000L, 4L, 8L, 1000);
+        assertEquals(5L, tuner.update(5L, 10, 1, 10));
+        assertEquals(3750L, tuner.getWindow());
+    }
+
+    @Test
+    public void testFixedModeMatchesLegacyFormula() {
+        AcquireWindowTuner tuner = new AcquireWindowTuner(false, 1000L, 5000L, 4L, 8L, 1000);
+        assertEquals(4L, tuner.update(5L, 500, 0, 10));
+        assertEquals(6L, tuner.update(5L, 5500, 0, 10));
+        assertEquals(8L, tuner.update(5L, 50000, 0, 10));
+        assertEquals(5000L, tuner.getWindow());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalBounds() {
+        new AcquireWindowTuner(true, 5000L, 1000L, 4L, 8L, 1000);
+    }
+}
@@ -0,0 +1,104 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Unit tests for CatchUpDispatcher.
+ */
+public class CatchUpDispatcherTest {
+
+    @Test
+    public void testQueueIsBoundedAndCounted() {
+        CatchUpDispatcher dispatcher = new CatchUpDispatcher(null, new QuartzSchedulerResources(), 2, 10D);
+        QrtzExecute execute = execute();
+        assertEquals(2, dispatcher.enqueue(execute, 30, Arrays.asList(1700000000000L, 1700000060000L, 1700000120000L)));
+        assertEquals(0, dispatcher.enqueue(execute, 0, Arrays.<Long>asList()));
+        assertEquals(30L, dispatcher.getMissedCount());
+        assertEquals(1L, dispatcher.getDroppedCount());
+        assertEquals(2, dispatcher.getPendingCount());
+    }
+
+    private static QrtzExecute execute() {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass("a.Job");
+        QrtzExecute execute = QrtzExecute.build("10", "1", "CRON", "EXECUTING", "0 * * * * ?", "Asia/Shanghai",
+                -1, 0, 0, -1L, 1700000060000L, "127.0.0.1", "host", 1700000000000L, -1L);
+        execute.setJob(job);
+        return execute;
+    }
+
+    // 线程池是否接受任务
+    private boolean accept = true;
+    // 任务实例化是否失败
+    private boolean failInit = false;
+
+    private QuartzSchedulerResources resources() {
+        QuartzSchedulerResources resources = new QuartzSchedulerResources();
+        resources.setThreadPool((ThreadPool) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ThreadPool.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return "runInThread".equals(method.getName()) ? accept : null;
+            }
+        }));
+        resources.setJobRunShellFactory(new JobRunShellFactory() {
+            public void initialize(Scheduler scheduler) {
+            }
+
+            public JobRunShell createJobRunShell(QrtzExecute eJob) throws SchedulerException {
+                if (failInit) {
+                    throw new SchedulerException("Problem instantiating class 'a.Job'");
+                }
+                return new JobRunShell(null, eJob, null) {
+                    @Override
+                    public void initialize(QuartzScheduler sched) {
+                    }
+                };
+            }
+        });
+        return resources;
+    }
+
+    @Test
+    public void testRefusedRunIsQueuedAgain() {
+        CatchUpDispatcher dispatcher = new CatchUpDispatcher(null, resources(), 2, 10D);
+        accept = false;
+        CatchUpDispatcher.CatchUp catchUp = new CatchUpDispatcher.CatchUp(execute(), 1700000000000L);
+        assertFalse(dispatcher.dispatch(catchUp));
+        assertEquals(1, dispatcher.getPendingCount());
+        assertEquals(0L, dispatcher.getDroppedCount());
+
+        // 队列已满时丢弃并计数
+        dispatcher.enqueue(execute(), 1, Arrays.asList(1700000060000L));
+        assertFalse(dispatcher.dispatch(catchUp));
+        assertEquals(2, dispatcher.getPendingCount());
+        assertEquals(1L, dispatcher.getDroppedCount());
+
+        accept = true;
+        assertTrue(dispatcher.dispatch(catchUp));
+        assertEquals(1L, dispatcher.getFiredCount());
+    }
+
+    @Test
+    public void testRunWhoseJobCannotBeInstantiatedIsDroppedAndCounted() {
+        CatchUpDispatcher dispatcher = new CatchUpDispatcher(null, resources(), 2, 10D);
+        failInit = true;
+        assertFalse(dispatcher.dispatch(new CatchUpDispatcher.CatchUp(execute(), 1700000000000L)));
+        assertEquals(0, dispatcher.getPendingCount());
+        assertEquals(1L, dispatcher.getDroppedCount());
+        assertEquals(0L, dispatcher.getFiredCount());
+    }
+}
@@ -0,0 +1,42 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for DispatchRateLimiter.
+ */
+public class DispatchRateLimiterTest {
+
+    @Test
+    public void testBurstThenDeferredSpacedAtRate() {
+        DispatchRateLimiter limiter = new DispatchRateLimiter(0D, Collections.singletonMap("a.Job", 10D), 10000L);
+        long now = System.currentTimeMillis();
+        int permitted = 0;
+        while (limiter.acquire("a.Job", now) == 0L) {
+            permitted++;
+        }
+        assertTrue(permitted >= 10 && permitted <= 11);
+        long first = limiter.acquire("a.Job", now);
+        long second = limiter.acquire("a.Job", now);
+        assertTrue(first >= now);
+        assertEquals(100L, second - first);
+        assertEquals(3L, limiter.getDeferredCount());
+        // 未配置的任务类不限流
+        assertEquals(0L, limiter.acquire("b.Job", now));
+    }
+
+    @Test
+    public void testRateSplitAmongLiveNodes() {
+        DispatchRateLimiter limiter = new DispatchRateLimiter(40D, Collections.<String, Double>emptyMap(), 10000L);
+        limiter.setLiveNodes(4);
+        assertEquals(10D, limiter.getNodeRates().get("application"), 0.0001D);
+        limiter.setLiveNodes(0);
+        assertEquals(1, limiter.getLiveNodes());
+        assertEquals(40D, limiter.getNodeRates().get("application"), 0.0001D);
+    }
+}
@@ -0,0 +1,83 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.quartz.impl.QrtzExecuteHistory;
+import org.quartz.spi.JobStore;
+
+/**
+ * Unit tests for ExecuteHistoryWriter.
+ */
+public class ExecuteHistoryWriterTest {
+
+    private final List<QrtzExecuteHistory> stored = Collections.synchronizedList(new ArrayList<QrtzExecuteHistory>());
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+
+    private JobStore recordingJobStore() {
+        return (JobStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{JobStore.class}, new InvocationHandler() {
+            @SuppressWarnings("unchecked")
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("storeExecuteHistory".equals(method.getName())) {
+                    List<QrtzExecuteHistory> batch = (List<QrtzExecuteHistory>) args[0];
+                    batchSizes.add(batch.size());
+                    stored.addAll(batch);
+                    return batch.size();
+                }
+                return method.getReturnType() == int.class ? 0 : null;
+            }
+        });
+    }
+
+    private static QrtzExecuteHistory history(int i) {
+        return new QrtzExecuteHistory("APP", String.valueOf(i), "1", "a.b.Job", "CRON", 1000L, 1001L, 1002L, 5L, 0,
+                QrtzExecuteHistory.OUTCOME_SUCCESS, null, "127.0.0.1", "host");
+    }
+
+    @Test
+    public void testBufferedRecordsAreWrittenInBatches() {
+        ExecuteHistoryWriter writer = new ExecuteHistoryWriter(recordingJobStore(), "APP", 64, 10, 10L, ExecuteHistoryWriter.OverflowPolicy.DROP, 0);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(writer.publish(history(i)));
+        }
+        writer.start("test_ExecuteHistoryWriter", true);
+        writer.shutdown();
+        assertEquals(25, stored.size());
+        assertEquals(25L, writer.getWrittenCount());
+        for (int size : batchSizes) {
+            assertTrue(size <= 10);
+        }
+        assertEquals("0", stored.get(0).getExecuteId());
+    }
+
+    @Test
+    public void testDropPolicyWhenFull() {
+        ExecuteHistoryWriter writer = new ExecuteHistoryWriter(recordingJobStore(), "APP", 4, 2, 10L, ExecuteHistoryWriter.OverflowPolicy.DROP, 0);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(writer.publish(history(i)));
+        }
+        assertFalse(writer.publish(history(4)));
+        assertEquals(1L, writer.getDroppedCount());
+        assertEquals(4, writer.getPendingCount());
+    }
+
+    @Test
+    public void testErrorIsTruncatedToRootCause() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            sb.append('x');
+        }
+        String msg = ExecuteHistoryWriter.truncateError(new RuntimeException("outer", new IllegalStateException(sb.toString())));
+        assertTrue(msg.startsWith("java.lang.IllegalStateException: xxx"));
+        assertEquals(ExecuteHistoryWriter.MAX_ERROR_LENGTH, msg.length());
+    }
+}
@@ -0,0 +1,57 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+
+/**
+ * Unit tests for the in-flight registry behind getCurrentlyExecutingJobs.
+ */
+public class ExecutingJobsManagerTest {
+
+    private static JobExecutionContextImpl context(String executeId, String jobClass) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass(jobClass);
+        QrtzExecute execute = QrtzExecute.build(executeId, "1", "CRON", "EXECUTING", "0/1 * * * * ?", "Asia/Shanghai",
+                null, null, -1, 0L, 0L, "127.0.0.1", "host", 0L, -1L);
+        execute.setJob(job);
+        execute.setFireTime(0L);
+        execute.setScheduledFireTime(0L);
+        return new JobExecutionContextImpl(null, null, "1#" + executeId + "#" + jobClass, execute);
+    }
+
+    @Test
+    public void testRegisterAndDeregister() {
+        ExecutingJobsManager mgr = new ExecutingJobsManager();
+        JobExecutionContextImpl a1 = context("10", "a.Job");
+        JobExecutionContextImpl a2 = context("10", "a.Job");
+        JobExecutionContextImpl b = context("20", "b.Job");
+        mgr.register(a1);
+        mgr.register(a2);
+        mgr.register(b);
+        // 重复登记不计数
+        mgr.register(b);
+
+        assertEquals(3, mgr.getNumJobsCurrentlyExecuting());
+        assertEquals(2, mgr.getNumJobsCurrentlyExecuting("10"));
+        assertEquals(2, mgr.getExecutingJobs("10").size());
+        assertEquals(Integer.valueOf(2), mgr.getNumJobsCurrentlyExecutingByJobClass().get("a.Job"));
+        assertEquals(3, mgr.getExecutingJobs().size());
+
+        mgr.deregister(a1);
+        mgr.deregister(a2);
+        mgr.deregister(a2);
+        assertEquals(1, mgr.getNumJobsCurrentlyExecuting());
+        assertEquals(0, mgr.getNumJobsCurrentlyExecuting("10"));
+        assertTrue(mgr.getExecutingJobs("10").isEmpty());
+        assertEquals(Collections.singletonMap("b.Job", 1), mgr.getNumJobsCurrentlyExecutingByJobClass());
+        assertEquals(3, mgr.getNumJobsFired());
+    }
+}
@@ -0,0 +1,84 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.quartz.simpl.ZeroSizeThreadPool;
+import org.quartz.spi.JobStore;
+import org.quartz.spi.ThreadPool;
+
+/**
+ * Unit tests for FireNowWatcher.
+ */
+public class FireNowWatcherTest {
+
+    private final AtomicInteger polls = new AtomicInteger();
+
+    private JobStore signalJobStore(final CountDownLatch latch) {
+        return (JobStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{JobStore.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getInstanceName".equals(method.getName())) {
+                    return "APP";
+                }
+                if ("findNodeStateByPK".equals(method.getName())) {
+                    return "Y";
+                }
+                if ("acquireFireNowSignals".equals(method.getName())) {
+                    polls.incrementAndGet();
+                    latch.countDown();
+                    return Collections.emptyList();
+                }
+                return method.getReturnType() == int.class ? 0 : null;
+            }
+        });
+    }
+
+    private ThreadPool idlePool() {
+        return (ThreadPool) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ThreadPool.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getAvailableThreadCount".equals(method.getName())) {
+                    return 1;
+                }
+                return method.getReturnType() == int.class ? 0 : method.getReturnType() == boolean.class ? false : null;
+            }
+        });
+    }
+
+    @Test
+    public void testSaturatedNodeLeavesSignals() {
+        QuartzSchedulerResources resources = new QuartzSchedulerResources();
+        resources.setJobStore(signalJobStore(new CountDownLatch(1)));
+        resources.setThreadPool(new ZeroSizeThreadPool());
+        FireNowWatcher watcher = new FireNowWatcher(null, resources, 200L);
+        assertEquals(0, watcher.pollOnce());
+        assertEquals(0, polls.get());
+    }
+
+    @Test
+    public void testWakeUpPollsImmediately() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+        QuartzSchedulerResources resources = new QuartzSchedulerResources();
+        resources.setJobStore(signalJobStore(latch));
+        resources.setThreadPool(idlePool());
+        FireNowWatcher watcher = new FireNowWatcher(null, resources, 60000L);
+        watcher.start("test_FireNowWatcher", true);
+        try {
+            while (polls.get() < 1) {
+                Thread.sleep(5L);
+            }
+            watcher.wakeUp();
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+        } finally {
+            watcher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.quartz.simpl.SimpleThreadPool;
+import org.quartz.simpl.ZeroSizeThreadPool;
+import org.quartz.spi.JobStore;
+
+/**
+ * Unit tests for JobChainDispatcher.
+ */
+public class JobChainDispatcherTest {
+
+    private final List<QrtzExecute> claims = Collections.synchronizedList(new ArrayList<QrtzExecute>());
+
+    private JobStore chainJobStore(final QrtzExecute successor) {
+        return (JobStore) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{JobStore.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("findChainSuccessors".equals(method.getName())) {
+                    return Collections.singletonList(successor);
+                }
+                if ("toLockAndUpdate".equals(method.getName())) {
+                    claims.add((QrtzExecute) args[0]);
+                    return 1;
+                }
+                return method.getReturnType() == int.class ? 0 : null;
+            }
+        });
+    }
+
+    private static QrtzExecute successor(long nextFireTime) {
+        QrtzJob job = new QrtzJob();
+        job.setId("2");
+        job.setJobClass("a.Job");
+        QrtzExecute execute = QrtzExecute.build("20", "2", "CRON", "EXECUTING", "0 0 0 1 1 ? 2099", "Asia/Shanghai",
+                null, null, -1, 0L, nextFireTime, "127.0.0.1", "host", 0L, -1L);
+        execute.setJob(job);
+        return execute;
+    }
+
+    private JobChainDispatcher dispatcher(QrtzExecute successor) {
+        QuartzSchedulerResources resources = new QuartzSchedulerResources();
+        resources.setJobStore(chainJobStore(successor));
+        resources.setThreadPool(new ZeroSizeThreadPool());
+        resources.setJobChainFallbackDelay(500L);
+        return new JobChainDispatcher(null, resources);
+    }
+
+    private static JobExecutionContextImpl finished() {
+        QrtzExecute execute = successor(0L);
+        execute.getJob().setId("1");
+        return new JobExecutionContextImpl(null, null, "1#10#a.Job", execute);
+    }
+
+    @Test
+    public void testSaturatedPoolFallsBackToCluster() {
+        long farAway = System.currentTimeMillis() + 3600000L;
+        JobChainDispatcher dispatcher = dispatcher(successor(farAway));
+        long before = System.currentTimeMillis();
+        dispatcher.onJobCompleted(finished(), true);
+
+        assertEquals(1, claims.size());
+        long next = claims.get(0).getNextFireTime();
+        assertTrue(next >= before + 500L && next <= System.currentTimeMillis() + 500L);
+        assertEquals(1L, dispatcher.getClusterFallbackCount());
+        assertEquals(0L, dispatcher.getLocalDispatchCount());
+    }
+
+    @Test
+    public void testSuccessorDueWithinWindowIsLeftAlone() {
+        JobChainDispatcher dispatcher = dispatcher(successor(System.currentTimeMillis() + 1000L));
+        dispatcher.onJobCompleted(finished(), true);
+        assertEquals(0, claims.size());
+        assertEquals(0L, dispatcher.getClusterFallbackCount());
+    }
+
+    @Test
+    public void testSimpleThreadPoolAvailableThreadCount() throws Exception {
+        SimpleThreadPool pool = new SimpleThreadPool(2, Thread.NORM_PRIORITY);
+        pool.setApplication("test");
+        pool.initialize();
+        try {
+            assertEquals(2, pool.getAvailableThreadCount());
+        } finally {
+            pool.shutdown(true);
+        }
+        assertEquals(0, pool.getAvailableThreadCount());
+    }
+}
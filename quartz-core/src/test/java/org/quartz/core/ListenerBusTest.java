@@ -0,0 +1,153 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.impl.JobExecutionContextImpl;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.quartz.impl.matchers.EverythingMatcher;
+
+/**
+ * Unit tests for the asynchronous listener bus.
+ */
+public class ListenerBusTest {
+
+    private static JobExecutionContextImpl context(String executeId, String jobClass) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass(jobClass);
+        QrtzExecute execute = QrtzExecute.build(executeId, "1", "CRON", "EXECUTING", "0/1 * * * * ?", "Asia/Shanghai",
+                null, null, -1, 0L, 0L, "127.0.0.1", "host", 0L, -1L);
+        execute.setJob(job);
+        return new JobExecutionContextImpl(null, null, "1#" + executeId + "#" + jobClass, execute);
+    }
+
+    private static class RecordingListener implements JobListener {
+        final String name;
+        final boolean synchronous;
+        final boolean veto;
+        final List<String> events = new CopyOnWriteArrayList<String>();
+        final CountDownLatch latch;
+        volatile Thread thread;
+
+        RecordingListener(String name, boolean synchronous, boolean veto, int expected) {
+            this.name = name;
+            this.synchronous = synchronous;
+            this.veto = veto;
+            this.latch = new CountDownLatch(expected);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public boolean isSynchronous() {
+            return synchronous;
+        }
+
+        @Override
+        public boolean vetoJobExecution(JobExecutionContext context) {
+            return veto;
+        }
+
+        @Override
+        public void jobToBeExecuted(JobExecutionContext context) {
+            record("toBeExecuted");
+        }
+
+        @Override
+        public void jobExecutionVetoed(JobExecutionContext context) {
+            record("vetoed");
+        }
+
+        @Override
+        public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+            record("wasExecuted");
+        }
+
+        private void record(String event) {
+            thread = Thread.currentThread();
+            events.add(event);
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testAsyncDeliveryInOrder() throws Exception {
+        ListenerManagerImpl manager = new ListenerManagerImpl();
+        ListenerBus bus = new ListenerBus("test", manager, 1, 16);
+        RecordingListener listener = new RecordingListener("async", false, false, 2);
+        manager.addJobListener(listener, EverythingMatcher.allJobs());
+
+        JobExecutionContextImpl ctx = context("10", "a.Job");
+        assertFalse(bus.jobToBeExecuted(ctx));
+        bus.jobWasExecuted(ctx, null);
+
+        assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+        assertEquals("toBeExecuted", listener.events.get(0));
+        assertEquals("wasExecuted", listener.events.get(1));
+        assertTrue(listener.thread.getName().startsWith("test_ListenerBus-"));
+        bus.shutdown(1000L);
+        assertEquals(Long.valueOf(2L), bus.getListenerMetrics("async").get("delivered"));
+    }
+
+    @Test
+    public void testSynchronousVeto() {
+        ListenerManagerImpl manager = new ListenerManagerImpl();
+        ListenerBus bus = new ListenerBus("test", manager, 1, 16);
+        RecordingListener vetoer = new RecordingListener("vetoer", true, true, 1);
+        manager.addJobListener(vetoer, EverythingMatcher.allJobs());
+
+        assertTrue(bus.jobToBeExecuted(context("10", "a.Job")));
+        // 同步监听器在当前线程收到否决事件
+        assertEquals(Thread.currentThread(), vetoer.thread);
+        assertEquals("vetoed", vetoer.events.get(0));
+        bus.shutdown(1000L);
+    }
+
+    @Test
+    public void testFullQueueDropsEvents() throws Exception {
+        ListenerManagerImpl manager = new ListenerManagerImpl();
+        ListenerBus bus = new ListenerBus("test", manager, 1, 2);
+        final CountDownLatch release = new CountDownLatch(1);
+        JobListener slow = new JobListener() {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        manager.addJobListener(slow, EverythingMatcher.allJobs());
+        JobExecutionContextImpl ctx = context("10", "a.Job");
+        for (int i = 0; i < 20; i++) {
+            // 发布方永不阻塞
+            bus.jobWasExecuted(ctx, null);
+        }
+        assertTrue(bus.getDroppedCount() > 0);
+        assertEquals(bus.getDroppedCount(), (long) bus.getListenerMetrics("slow").get("dropped"));
+        release.countDown();
+        bus.shutdown(2000L);
+        assertEquals(0, bus.getQueuedCount());
+    }
+}
@@ -0,0 +1,54 @@
+package org.quartz.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.management.MBeanAttributeInfo;
+
+import org.junit.Test;
+import org.quartz.core.TimingStatistics.Phase;
+
+/**
+ * Unit tests for TimingStatistics and the scheduler MBean built on it.
+ */
+public class TimingStatisticsTest {
+
+    @Test
+    public void testRecordByApplicationAndJobClass() {
+        TimingStatistics stats = new TimingStatistics();
+        stats.record(Phase.RUN_TIME, "a.Job", 100);
+        stats.record(Phase.RUN_TIME, "b.Job", 300);
+        stats.record(Phase.ACQUIRE_QUERY, 50);
+        assertEquals(2, stats.getHistogram(Phase.RUN_TIME).getCount());
+        assertEquals(1, stats.getHistogram(Phase.RUN_TIME, "a.Job").getCount());
+        assertEquals(1, stats.getHistogram(Phase.ACQUIRE_QUERY).getCount());
+        assertEquals(0, stats.getHistogram(Phase.ACQUIRE_QUERY, "a.Job").getCount());
+        assertNull(stats.getHistogram(Phase.RUN_TIME, "c.Job"));
+        stats.record(Phase.SCHEDULED_TO_CLAIMED, "a.Job", -7);
+        assertEquals(-7, stats.getHistogram(Phase.SCHEDULED_TO_CLAIMED, "a.Job").getMin());
+        stats.reset();
+        assertEquals(0, stats.getHistogram(Phase.RUN_TIME).getCount());
+        assertTrue(stats.getJobClassNames().isEmpty());
+    }
+
+    @Test
+    public void testJobClassesAreBounded() {
+        TimingStatistics stats = new TimingStatistics();
+        for (int i = 0; i < TimingStatistics.MAX_JOB_CLASSES + 10; i++) {
+            stats.record(Phase.RUN_TIME, "Job" + i, i);
+        }
+        assertEquals(TimingStatistics.MAX_JOB_CLASSES, stats.getJobClassNames().size());
+        assertEquals(TimingStatistics.MAX_JOB_CLASSES + 10, stats.getHistogram(Phase.RUN_TIME).getCount());
+    }
+
+    @Test
+    public void testMBeanIsCompliant() throws Exception {
+        QuartzSchedulerMBeanImpl bean = new QuartzSchedulerMBeanImpl(null);
+        boolean found = false;
+        for (MBeanAttributeInfo info : bean.getMBeanInfo().getAttributes()) {
+            found |= "FireSkewP99Micros".equals(info.getName());
+        }
+        assertTrue(found);
+    }
+}
@@ -0,0 +1,108 @@
+package org.quartz.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.junit.Test;
+import org.quartz.FireJitter;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.impl.triggers.CronTriggerImpl;
+
+/**
+ * Unit tests for AcquiredExecute.
+ */
+public class AcquiredExecuteTest {
+
+    @FireJitter(maxMillis = 30000L)
+    public static class SpreadJob implements Job {
+        public void execute(JobExecutionContext context) {
+        }
+    }
+
+    private static QrtzExecute row(String jobType, String cron, Integer repeatCount, Integer repeatInterval, long start) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass("a.Job");
+        QrtzExecute execute = QrtzExecute.build("10", "1", jobType, "EXECUTING", cron, "Asia/Shanghai",
+                repeatCount, repeatInterval, 0, -1L, start, "127.0.0.1", "host", start, -1L);
+        execute.setJob(job);
+        return execute;
+    }
+
+    @Test
+    public void testCronScheduleSharedAcrossFires() throws Exception {
+        long start = 1700000000000L;
+        AcquiredExecute.Source source = new AcquiredExecute.Source(row("CRON", "0/5 * * * * ?", null, null, start));
+        assertEquals(AcquiredExecute.Type.CRON, source.getType());
+        Date first = source.fireTimeAfter(start, 0);
+        Date second = source.fireTimeAfter(first.getTime(), 0);
+        assertEquals(5000L, second.getTime() - first.getTime());
+    }
+
+    @Test
+    public void testSharedCronScheduleMatchesCronTrigger() throws Exception {
+        long start = 1700000000123L;
+        AcquiredExecute.CronSchedule shared = new AcquiredExecute.CronSchedule("0/5 * * * * ?", "Asia/Shanghai");
+        QrtzExecute late = row("CRON", "0/5 * * * * ?", null, null, start + 60000L);
+        late.setEndTime(start + 120000L);
+        AcquiredExecute.Source early = new AcquiredExecute.Source(row("CRON", "0/5 * * * * ?", null, null, start), shared);
+        AcquiredExecute.Source bounded = new AcquiredExecute.Source(late, shared);
+        CronTriggerImpl reference = new CronTriggerImpl()
+                .setCronExpression("0/5 * * * * ?")
+                .setStartTime(new Date(start + 60000L))
+                .setEndTime(new Date(start + 120000L))
+                .setTimeZone(TimeZone.getTimeZone("Asia/Shanghai"));
+        for (long after = start; after < start + 130000L; after += 2500L) {
+            assertEquals(reference.getFireTimeAfter(new Date(after)), bounded.fireTimeAfter(after, 0));
+            early.fireTimeAfter(after, 0);
+        }
+        int computed = shared.memoSize();
+        // 同组的其它执行项复用已计算的触发时间
+        AcquiredExecute.Source other = new AcquiredExecute.Source(row("CRON", "0/5 * * * * ?", null, null, start), shared);
+        for (long after = start; after < start + 130000L; after += 2500L) {
+            assertEquals(early.fireTimeAfter(after, 0), other.fireTimeAfter(after, 0));
+        }
+        assertEquals(computed, shared.memoSize());
+    }
+
+    @Test
+    public void testJitterIsStableAndAppliedToNextFire() throws Exception {
+        long start = 1700000040000L; // 整分
+        QrtzExecute row = row("CRON", "0 * * * * ?", null, null, start);
+        row.setJobClazz(SpreadJob.class);
+        AcquiredExecute.Source source = new AcquiredExecute.Source(row);
+        long jitter = source.getJitter();
+        assertEquals(AcquiredExecute.jitterOf("10", 30000L), jitter);
+        assertTrue(jitter >= 0L && jitter <= 30000L);
+        // 未偏移(客户端写入)与已偏移的存储时间得到相同的下次触发
+        assertEquals(start + 60000L + jitter, source.fireTimeAfter(start, 0).getTime());
+        assertEquals(start + 60000L + jitter, source.fireTimeAfter(start + jitter, 0).getTime());
+        assertEquals(0L, new AcquiredExecute.Source(row("CRON", "0 * * * * ?", null, null, start)).getJitter());
+    }
+
+    @Test
+    public void testSimpleScheduleHonoursRepeatCount() throws Exception {
+        long start = 1700000000000L;
+        AcquiredExecute.Source source = new AcquiredExecute.Source(row("SIMPLE", null, 2, 100, start));
+        assertEquals(start + 100L, source.fireTimeAfter(start, 1).getTime());
+        assertNull(source.fireTimeAfter(start + 100L, 3));
+    }
+
+    @Test
+    public void testMaterialiseClaimedFire() {
+        long start = 1700000000000L;
+        QrtzExecute row = row("SIMPLE", null, -1, 100, start);
+        AcquiredExecute fire = new AcquiredExecute(new AcquiredExecute.Source(row), start, start + 100L, 0);
+        QrtzExecute execute = fire.toQrtzExecute();
+        assertEquals(start + 100L, execute.getNextFireTime().longValue());
+        assertEquals(start + 100L, execute.getScheduledFireTime().getTime());
+        assertEquals("EXECUTING", execute.getState());
+        assertSame(row.getJob(), execute.getJob());
+    }
+}
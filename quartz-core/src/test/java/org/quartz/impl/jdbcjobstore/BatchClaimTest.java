@@ -0,0 +1,146 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.quartz.impl.AcquiredExecute;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+
+/**
+ * Unit tests for the batch and one-by-one claim paths.
+ */
+public class BatchClaimTest {
+
+    private static final long START = 1700000000000L;
+
+    // 批量抢占的返回值(按传入顺序)，null 时抛出异常
+    private int[] batchCounts;
+    // 逐条抢占失败的执行项
+    private String lost = "12";
+    private final List<List<String>> batches = new ArrayList<List<String>>();
+    private final List<String> singles = new ArrayList<String>();
+    private int commits = 0;
+    private int rollbacks = 0;
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            final String name = method.getName();
+            if ("toLockAndUpdate".equals(name) && args.length == 3) {
+                final List<String> ids = new ArrayList<String>();
+                for (QrtzExecute newCe : (List<QrtzExecute>) args[1]) {
+                    ids.add(newCe.getId());
+                }
+                batches.add(ids);
+                if (null == batchCounts) {
+                    throw new SQLException("Deadlock found when trying to get lock");
+                }
+                return batchCounts;
+            }
+            if ("toLockAndUpdate".equals(name)) {
+                final String id = ((QrtzExecute) args[1]).getId();
+                singles.add(id);
+                return lost.equals(id) ? 0 : 1;
+            }
+            return null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("commit".equals(method.getName())) {
+                commits++;
+            }
+            if ("rollback".equals(method.getName())) {
+                rollbacks++;
+            }
+            return "getAutoCommit".equals(method.getName()) ? Boolean.FALSE : null;
+        }
+    });
+
+    private JobStoreTX store() {
+        JobStoreTX store = new JobStoreTX() {
+            @Override
+            protected Connection getConnection() {
+                return conn;
+            }
+
+            @Override
+            protected DriverDelegate getDelegate() {
+                return delegate;
+            }
+        };
+        store.setApplication("APP");
+        return store;
+    }
+
+    private static AcquiredExecute fire(String id) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass("a.Job");
+        QrtzExecute row = QrtzExecute.build(id, "1", "SIMPLE", "EXECUTING", null, null,
+                -1, 1000, 0, -1L, START, "127.0.0.1", "host", START, -1L);
+        row.setJob(job);
+        return new AcquiredExecute(new AcquiredExecute.Source(row), START - 1000L, START, 0);
+    }
+
+    // 传入顺序与ID顺序不一致(数值序 9<12<100，字典序相反)
+    private int[] claim(JobStoreTX store) {
+        final List<AcquiredExecute> olds = Arrays.asList(fire("100"), fire("9"), fire("12"));
+        final List<QrtzExecute> newCes = new ArrayList<QrtzExecute>();
+        for (AcquiredExecute old : olds) {
+            newCes.add(old.toQrtzExecute(AcquiredExecute.State.EXECUTING, 1, START, START + 1000L, -1L));
+        }
+        return store.toLockAndFire(newCes, olds, new boolean[]{true, true, true});
+    }
+
+    @Test
+    public void testBatchLocksRowsInExecuteIdOrder() {
+        // 按加锁顺序(9,12,100)返回：执行项12抢占失败
+        batchCounts = new int[]{1, 0, 1};
+        assertArrayEquals(new int[]{1, 1, 0}, claim(store()));
+        assertEquals(Arrays.asList(Arrays.asList("9", "12", "100")), batches);
+        assertEquals(0, singles.size());
+        assertEquals(1, commits);
+        assertEquals(0, rollbacks);
+    }
+
+    @Test
+    public void testFallsBackToOneByOneWhenTheDriverReportsNoCounts() {
+        batchCounts = new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO};
+        JobStoreTX store = store();
+        assertArrayEquals(new int[]{1, 1, 0}, claim(store));
+        assertEquals(1, batches.size());
+        assertEquals(1, rollbacks);
+        // 回滚后逐条抢占，仍按ID顺序，与批量共用同一事务
+        assertEquals(Arrays.asList("9", "12", "100"), singles);
+        assertEquals(1, commits);
+
+        // 此后不再尝试批量
+        singles.clear();
+        lost = "100";
+        assertArrayEquals(new int[]{0, 1, 1}, claim(store));
+        assertEquals(1, batches.size());
+        assertEquals(3, singles.size());
+    }
+
+    @Test
+    public void testFailedBatchIsRolledBackAndNothingIsClaimed() {
+        batchCounts = null;
+        assertArrayEquals(new int[]{0, 0, 0}, claim(store()));
+        assertEquals(1, rollbacks);
+        assertEquals(0, commits);
+    }
+}
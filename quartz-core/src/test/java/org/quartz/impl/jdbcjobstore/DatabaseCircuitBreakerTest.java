@@ -0,0 +1,106 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+import org.quartz.JobPersistenceException;
+
+/**
+ * Unit tests for DatabaseCircuitBreaker.
+ */
+public class DatabaseCircuitBreakerTest {
+
+    private static DatabaseCircuitBreaker breaker(int threshold, long baseDelay, long maxDelay) {
+        DatabaseCircuitBreaker breaker = new DatabaseCircuitBreaker();
+        breaker.setThreshold(threshold);
+        breaker.setBaseDelay(baseDelay);
+        breaker.setMaxDelay(maxDelay);
+        return breaker;
+    }
+
+    @Test
+    public void testBackoffDoublesWithJitterUpToMax() {
+        DatabaseCircuitBreaker breaker = breaker(5, 100L, 1000L);
+        for (int i = 0; i < 100; i++) {
+            long first = breaker.backoff(1);
+            assertTrue(first >= 50L && first <= 100L);
+            long third = breaker.backoff(3);
+            assertTrue(third >= 200L && third <= 400L);
+            long capped = breaker.backoff(64);
+            assertTrue(capped >= 500L && capped <= 1000L);
+        }
+    }
+
+    @Test
+    public void testOpensAfterThresholdAndLetsOneProbeThrough() throws Exception {
+        DatabaseCircuitBreaker breaker = breaker(3, 20L, 40L);
+        breaker.onFailure();
+        breaker.onFailure();
+        assertTrue(breaker.allow());
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.onFailure();
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1L, breaker.getOpenCount());
+        assertFalse(breaker.allow());
+        assertEquals(1L, breaker.getRejectedCount());
+
+        // 到探测时间后仅放行一个，探测失败则重新打开
+        Thread.sleep(breaker.millisToProbe() + 5L);
+        assertTrue(breaker.allow());
+        assertEquals(DatabaseCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allow());
+        breaker.onFailure();
+        assertEquals(DatabaseCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(2L, breaker.getOpenCount());
+        assertEquals(4, breaker.getConsecutiveFailures());
+
+        Thread.sleep(breaker.millisToProbe() + 5L);
+        assertTrue(breaker.allow());
+        breaker.onSuccess();
+        assertEquals(DatabaseCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+        assertEquals(0L, breaker.millisToProbe());
+        assertTrue(breaker.allow());
+    }
+
+    @Test
+    public void testZeroThresholdNeverOpens() {
+        DatabaseCircuitBreaker breaker = breaker(0, 100L, 1000L);
+        for (int i = 0; i < 20; i++) {
+            breaker.onFailure();
+        }
+        assertTrue(breaker.allow());
+        assertEquals(0L, breaker.getOpenCount());
+        assertEquals(20, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void testAcquireStopsRetryingOnceOpenAndReportsTheFailure() {
+        JobStoreTX store = new JobStoreTX();
+        store.setDataSource("missing");
+        store.setDbFailureThreshold(2);
+        try {
+            store.acquireNextTriggers("APP", 0L, 1000L);
+            fail("expected JobPersistenceException");
+        } catch (JobPersistenceException expected) {
+        }
+        // 第二次失败后断路器打开，不再发起被直接拒绝的重试
+        assertEquals("OPEN", store.getDbCircuitState());
+        assertEquals(2, store.getDbConsecutiveFailures());
+        assertEquals(0L, store.getDbCircuitRejectedCount());
+
+        store = new JobStoreTX();
+        store.setDataSource("missing");
+        store.setDbFailureThreshold(0);
+        try {
+            store.acquireNextTriggers("APP", 0L, 1000L);
+            fail("expected JobPersistenceException");
+        } catch (JobPersistenceException expected) {
+        }
+        assertEquals(4, store.getDbConsecutiveFailures());
+    }
+}
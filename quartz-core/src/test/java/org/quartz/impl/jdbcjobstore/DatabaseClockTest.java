@@ -0,0 +1,65 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import org.junit.Test;
+import org.quartz.simpl.SimpleTimeBroker;
+
+/**
+ * Unit tests for DatabaseClock.
+ */
+public class DatabaseClockTest {
+
+    // 往返耗时及单次同步的误差容忍(毫秒)
+    private static final long TOLERANCE = 50L;
+
+    // 模拟数据库时钟比本机快 offset 毫秒
+    private static DriverDelegate databaseAhead(final long offset) {
+        return (DriverDelegate) Proxy.newProxyInstance(DatabaseClockTest.class.getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("selectDatabaseTime".equals(method.getName())) {
+                    return System.currentTimeMillis() + offset;
+                }
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void testOffsetIsAppliedToTheBroker() throws Exception {
+        SimpleTimeBroker broker = new SimpleTimeBroker();
+        DatabaseClock clock = new DatabaseClock(broker, 500L);
+        assertTrue(clock.isDue(1000L));
+
+        long offset = clock.sync(databaseAhead(200L), null);
+        assertTrue(Math.abs(offset - 200L) <= TOLERANCE);
+        assertEquals(offset, broker.getOffset());
+        assertTrue(Math.abs(broker.currentTimeMillis() - System.currentTimeMillis() - 200L) <= TOLERANCE);
+        assertTrue(clock.getLastRtt() >= 0L);
+        assertEquals(0L, clock.getAlarmCount());
+        assertFalse(clock.isDue(60000L));
+        assertTrue(clock.millisToNextSync(60000L) > 0L);
+    }
+
+    @Test
+    public void testSkewBeyondThresholdRaisesAlarmButIsStillApplied() throws Exception {
+        SimpleTimeBroker broker = new SimpleTimeBroker();
+        DatabaseClock clock = new DatabaseClock(broker, 500L);
+
+        long offset = clock.sync(databaseAhead(-5000L), null);
+        assertTrue(Math.abs(offset + 5000L) <= TOLERANCE);
+        assertEquals(1L, clock.getAlarmCount());
+        assertTrue(broker.getCurrentTime().getTime() < System.currentTimeMillis() - 4000L);
+
+        // 主机时钟校正后不再告警
+        clock.sync(databaseAhead(0L), null);
+        assertEquals(1L, clock.getAlarmCount());
+        assertTrue(Math.abs(broker.getOffset()) <= TOLERANCE);
+    }
+}
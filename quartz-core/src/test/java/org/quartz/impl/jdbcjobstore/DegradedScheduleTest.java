@@ -0,0 +1,143 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.quartz.impl.AcquiredExecute;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+
+/**
+ * Unit tests for DegradedSchedule.
+ */
+public class DegradedScheduleTest {
+
+    private static final long START = 1700000000000L;
+
+    // 模拟 QRTZ_EXECUTE 的乐观更新: 记录 "ID:旧NEXT->新NEXT"，ID 为 "9" 的行视为已被修改
+    private final List<String> updates = new ArrayList<String>();
+    private int commits = 0;
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("toLockAndUpdate".equals(method.getName()) && args.length == 5) {
+                QrtzExecute newCe = (QrtzExecute) args[1];
+                updates.add(newCe.getId() + ":" + args[4] + "->" + newCe.getNextFireTime());
+                return "9".equals(newCe.getId()) ? 0 : 1;
+            }
+            return null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("commit".equals(method.getName())) {
+                commits++;
+            }
+            return null;
+        }
+    });
+
+    private static AcquiredExecute.Source source(String id) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass("a.Job");
+        QrtzExecute row = QrtzExecute.build(id, "1", "SIMPLE", "EXECUTING", null, null,
+                -1, 1000, 0, -1L, START, "127.0.0.1", "host", START, -1L);
+        row.setJob(job);
+        return new AcquiredExecute.Source(row);
+    }
+
+    // 以内存调度中的值生成下一次触发并按每秒一次推进
+    private static int[] fire(DegradedSchedule ds, DegradedSchedule.Entry e) {
+        AcquiredExecute old = new AcquiredExecute(e.source, e.prevFireTime, e.nextFireTime, e.timeTriggered);
+        QrtzExecute newCe = old.toQrtzExecute(AcquiredExecute.State.EXECUTING, e.timeTriggered, e.nextFireTime, e.nextFireTime + 1000L, -1L);
+        return ds.journal(Collections.singletonList(newCe), Collections.singletonList(old), new boolean[]{true});
+    }
+
+    @Test
+    public void testFiresOnlyForOwnerWithinMaxDuration() {
+        DegradedSchedule ds = new DegradedSchedule(30000L, null);
+        assertFalse(ds.allowed(START, true));
+        ds.failed(START);
+        ds.failed(START + 5000L);
+        assertEquals(START, ds.getDownSince());
+        assertFalse(ds.allowed(START + 1000L, false));
+        assertTrue(ds.allowed(START + 30000L, true));
+
+        ds.activate();
+        assertTrue(ds.isActive());
+        assertFalse(ds.allowed(START + 30001L, true));
+        assertFalse(ds.isActive());
+    }
+
+    @Test
+    public void testJournalCollapsesToFirstOldAndLastNewAndReconcilesOptimistically() throws Exception {
+        DegradedSchedule ds = new DegradedSchedule(30000L, null);
+        ds.remember(Arrays.asList(new AcquiredExecute(source("8"), -1L, START, 0),
+                new AcquiredExecute(source("9"), -1L, START, 0)), START + 1000L);
+        ds.failed(START);
+        assertTrue(ds.allowed(START, true));
+
+        List<DegradedSchedule.Entry> entries = ds.activate();
+        assertEquals(2, entries.size());
+        for (int round = 0; round < 3; round++) {
+            for (DegradedSchedule.Entry e : ds.activate()) {
+                assertArrayEquals(new int[]{1}, fire(ds, e));
+            }
+        }
+        assertEquals(6L, ds.getFireCount());
+        assertTrue(ds.hasPending());
+        for (DegradedSchedule.Entry e : ds.activate()) {
+            assertEquals(START + 3000L, e.nextFireTime);
+        }
+
+        assertEquals(1, ds.reconcile(delegate, conn));
+        Collections.sort(updates);
+        assertEquals(Arrays.asList("8:" + START + "->" + (START + 3000L), "9:" + START + "->" + (START + 3000L)), updates);
+        assertEquals(1, commits);
+        assertEquals(1L, ds.getReconciledCount());
+        assertEquals(1L, ds.getConflictCount());
+        assertFalse(ds.hasPending());
+        // 冲突的执行项以库中为准，从内存调度移除
+        assertEquals(1, ds.activate().size());
+
+        ds.recovered();
+        assertFalse(ds.isActive());
+        assertEquals(0L, ds.getDownSince());
+    }
+
+    @Test
+    public void testJournalFileIsReplayedAfterRestart() throws Exception {
+        File file = File.createTempFile("degraded", ".journal");
+        file.deleteOnExit();
+        DegradedSchedule before = new DegradedSchedule(30000L, file);
+        before.remember(Collections.singletonList(new AcquiredExecute(source("8"), -1L, START, 0)), START + 1000L);
+        before.failed(START);
+        before.activate();
+        fire(before, before.activate().get(0));
+        fire(before, before.activate().get(0));
+        assertTrue(file.length() > 0L);
+
+        // 重启后内存为空，仅凭记录文件对账
+        DegradedSchedule after = new DegradedSchedule(30000L, file);
+        assertTrue(after.hasPending());
+        assertEquals(1, after.reconcile(delegate, conn));
+        assertEquals(Collections.singletonList("8:" + START + "->" + (START + 2000L)), updates);
+        assertEquals(0L, file.length());
+        assertFalse(after.hasPending());
+    }
+}
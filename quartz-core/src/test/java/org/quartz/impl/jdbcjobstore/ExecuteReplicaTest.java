@@ -0,0 +1,183 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzJob;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unit tests for ExecuteReplica.
+ */
+public class ExecuteReplicaTest {
+
+    private static final long START = 1700000000000L;
+
+    // 模拟数据库：每次查询返回 result 并记录 since
+    private final List<Long> queries = new ArrayList<Long>();
+    private List<QrtzExecute> result = new ArrayList<QrtzExecute>();
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("selectExecuteAndJobChangedSince".equals(method.getName())) {
+                queries.add((Long) args[2]);
+                return result;
+            }
+            return null;
+        }
+    });
+
+    private static QrtzExecute row(String id, String state, String jobState, long nextFireTime) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setState(jobState);
+        job.setJobClass("a.Job");
+        QrtzExecute row = QrtzExecute.build(id, "1", "SIMPLE", state, null, null,
+                -1, 1000, 0, -1L, nextFireTime, "127.0.0.1", "host", START, -1L);
+        row.setJob(job);
+        return row;
+    }
+
+    private static List<String> ids(List<QrtzExecute> rows) {
+        List<String> ids = new ArrayList<String>();
+        for (QrtzExecute row : rows) {
+            ids.add(row.getId());
+        }
+        Collections.sort(ids);
+        return ids;
+    }
+
+    @Test
+    public void testWindowIsComputedFromMemoryBetweenSyncs() throws Exception {
+        ExecuteReplica replica = new ExecuteReplica("app", 5000L, 60000L);
+        result.add(row("1", "EXECUTING", "EXECUTING", START + 1000L));
+        result.add(row("2", "EXECUTING", "PAUSED", START + 1000L));
+        result.add(row("3", "PAUSED", "EXECUTING", START + 1000L));
+        result.add(row("4", "EXECUTING", "EXECUTING", START + 9000L));
+
+        assertEquals(Collections.singletonList("1"), ids(replica.window(delegate, null, START, START, START + 5000L)));
+        assertEquals(Collections.singletonList(Long.MIN_VALUE), queries);
+        assertEquals(2, replica.size());
+
+        // 返回的为副本，修改不影响内存中的执行项
+        replica.window(delegate, null, START + 1000L, START, START + 5000L).get(0).setNextFireTime(START + 99000L);
+        assertEquals(Collections.singletonList("4"), ids(replica.window(delegate, null, START + 4999L, START + 5000L, START + 10000L)));
+        assertEquals(1, queries.size());
+        assertEquals(1L, replica.getFullCount());
+    }
+
+    @Test
+    public void testIncrementalSyncReadsChangesSinceTheLastSyncAndAppliesClaims() throws Exception {
+        ExecuteReplica replica = new ExecuteReplica("app", 5000L, 60000L);
+        result.add(row("1", "EXECUTING", "EXECUTING", START + 1000L));
+        result.add(row("2", "EXECUTING", "EXECUTING", START + 2000L));
+        replica.sync(delegate, null, START);
+
+        // 本节点抢占后立即推进，无需等待同步
+        QrtzExecute newCe = row("1", "EXECUTING", "EXECUTING", START + 6000L);
+        newCe.setPrevFireTime(START + 1000L);
+        replica.claimed(Collections.singletonList(newCe));
+
+        // 执行项2被暂停、执行项5新增
+        result = new ArrayList<QrtzExecute>();
+        result.add(row("2", "EXECUTING", "PAUSED", START + 2000L));
+        result.add(row("5", "EXECUTING", "EXECUTING", START + 7000L));
+        List<QrtzExecute> window = replica.window(delegate, null, START + 5000L, START + 5000L, START + 10000L);
+        assertEquals(START - ExecuteReplica.VERSION_OVERLAP, (long) queries.get(1));
+        assertEquals(Arrays.asList("1", "5"), ids(window));
+        assertEquals(1L, replica.getSyncCount());
+        assertEquals(4L, replica.getRowsRead());
+        for (QrtzExecute row : window) {
+            if ("1".equals(row.getId())) {
+                assertEquals(START + 1000L, (long) row.getPrevFireTime());
+            }
+        }
+
+        // 已完成的执行项移出副本
+        replica.claimed(Collections.singletonList(row("5", "COMPLETE", "EXECUTING", START + 7000L)));
+        assertEquals(1, replica.size());
+    }
+
+    @Test
+    public void testFullReconciliationDropsDeletedRows() throws Exception {
+        ExecuteReplica replica = new ExecuteReplica("app", 5000L, 60000L);
+        result.add(row("1", "EXECUTING", "EXECUTING", START + 1000L));
+        result.add(row("2", "EXECUTING", "EXECUTING", START + 1000L));
+        replica.sync(delegate, null, START);
+        assertEquals(2, replica.size());
+
+        // 删除不会产生变更版本，增量同步无法发现
+        result = Collections.singletonList(row("1", "EXECUTING", "EXECUTING", START + 1000L));
+        replica.sync(delegate, null, START + 5000L);
+        assertEquals(2, replica.size());
+
+        replica.sync(delegate, null, START + 60000L);
+        assertEquals(1, replica.size());
+        assertEquals(Long.MIN_VALUE, (long) queries.get(2));
+        assertEquals(2L, replica.getFullCount());
+        assertTrue(replica.getRowsRead() >= 4L);
+    }
+
+    // 记录抢占语句的SQL及绑定参数
+    private final List<String> sqls = new ArrayList<String>();
+    private final Map<Integer, Object> params = new TreeMap<Integer, Object>();
+
+    private final PreparedStatement ps = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (method.getName().startsWith("set")) {
+                params.put((Integer) args[0], args[1]);
+            }
+            return "executeUpdate".equals(method.getName()) ? 1 : null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("prepareStatement".equals(method.getName())) {
+                sqls.add((String) args[0]);
+                return ps;
+            }
+            return null;
+        }
+    });
+
+    @Test
+    public void testVersionIsOnlyWrittenWhenEnabled() throws Exception {
+        StdJDBCDelegate jdbc = new StdJDBCDelegate();
+        jdbc.initialize(LoggerFactory.getLogger(getClass()), "QRTZ_", "app", "id", null, false, null);
+        QrtzExecute newCe = row("7", "EXECUTING", "EXECUTING", START + 2000L);
+        newCe.setPrevFireTime(START + 1000L);
+
+        // 未启用副本(默认)：不涉及 VERSION 列，未执行迁移脚本的库可正常抢占
+        assertEquals(1, jdbc.toLockAndUpdate(conn, newCe, "EXECUTING", -1L, START + 1000L));
+        assertFalse(sqls.get(0).contains("VERSION"));
+        assertEquals(11, params.size());
+        assertEquals(new BigDecimal(7), params.get(8));
+
+        jdbc.setWriteVersion(true);
+        sqls.clear();
+        params.clear();
+        assertEquals(1, jdbc.toLockAndUpdate(conn, newCe, "EXECUTING", -1L, START + 1000L));
+        assertTrue(sqls.get(0).contains("VERSION=?"));
+        assertEquals(12, params.size());
+        assertTrue(params.get(8) instanceof BigDecimal);
+        assertEquals(new BigDecimal(7), params.get(9));
+        assertEquals(new BigDecimal(START + 1000L), params.get(12));
+    }
+}
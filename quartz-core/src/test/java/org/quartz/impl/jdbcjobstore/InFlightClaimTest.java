@@ -0,0 +1,161 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.quartz.impl.AcquiredExecute;
+import org.quartz.impl.QrtzExecute;
+import org.quartz.impl.QrtzFired;
+import org.quartz.impl.QrtzJob;
+
+/**
+ * Unit tests for the in-flight records written with claims.
+ */
+public class InFlightClaimTest {
+
+    private static final long START = 1700000000000L;
+
+    // 模拟 QRTZ_FIRED 及事务提交
+    private final List<QrtzFired> fired = new ArrayList<QrtzFired>();
+    private final List<String> deleted = new ArrayList<String>();
+    private int commits = 0;
+    // 删除执行中记录时模拟数据库异常
+    private boolean failDeletes = false;
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        @SuppressWarnings("unchecked")
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            final String name = method.getName();
+            if ("toLockAndUpdate".equals(name) && args.length == 3) {
+                // 第二条抢占失败
+                return new int[]{1, 0, 1};
+            }
+            if ("toLockAndUpdate".equals(name)) {
+                return 1;
+            }
+            if ("insertFired".equals(name)) {
+                fired.addAll((List<QrtzFired>) args[1]);
+                return new int[((List<QrtzFired>) args[1]).size()];
+            }
+            if ("deleteFired".equals(name)) {
+                if (failDeletes) {
+                    throw new SQLException("Communications link failure");
+                }
+                deleted.add(args[1] + "@" + args[2]);
+                return 1;
+            }
+            return null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("commit".equals(method.getName())) {
+                commits++;
+            }
+            return "getAutoCommit".equals(method.getName()) ? Boolean.FALSE : null;
+        }
+    });
+
+    private JobStoreTX store(long heartbeatInterval) {
+        JobStoreTX store = new JobStoreTX() {
+            @Override
+            protected Connection getConnection() {
+                return conn;
+            }
+
+            @Override
+            protected DriverDelegate getDelegate() {
+                return delegate;
+            }
+        };
+        store.setApplication("APP");
+        store.setHeartbeatInterval(heartbeatInterval);
+        return store;
+    }
+
+    private static AcquiredExecute fire(String id) {
+        QrtzJob job = new QrtzJob();
+        job.setId("1");
+        job.setJobClass("a.Job");
+        QrtzExecute row = QrtzExecute.build(id, "1", "SIMPLE", "EXECUTING", null, null,
+                -1, 1000, 0, -1L, START, "127.0.0.1", "host", START, -1L);
+        row.setJob(job);
+        return new AcquiredExecute(new AcquiredExecute.Source(row), START - 1000L, START, 0);
+    }
+
+    private boolean[] claim(JobStoreTX store, int[] expected) {
+        final List<AcquiredExecute> olds = Arrays.asList(fire("10"), fire("11"), fire("12"));
+        final List<QrtzExecute> newCes = new ArrayList<QrtzExecute>();
+        for (AcquiredExecute old : olds) {
+            newCes.add(old.toQrtzExecute(AcquiredExecute.State.EXECUTING, 1, START, START + 1000L, -1L));
+        }
+        // 第三条为限流推迟，不执行
+        final boolean[] fires = new boolean[]{true, true, false};
+        assertArrayEquals(expected, store.toLockAndFire(newCes, olds, fires));
+        return fires;
+    }
+
+    @Test
+    public void testOnlyWonFiresAreRecordedInTheClaimTransaction() {
+        JobStoreTX store = store(5000L);
+        claim(store, new int[]{1, 0, 1});
+        assertEquals(1, fired.size());
+        assertEquals("10", fired.get(0).getExecuteId());
+        assertEquals(START, fired.get(0).getSchedTime().longValue());
+        assertEquals("APP", fired.get(0).getApplication());
+        assertEquals(1, commits);
+
+        store.firedComplete("10", START);
+        assertEquals(Arrays.asList("10@" + START), deleted);
+    }
+
+    @Test
+    public void testNothingRecordedWithoutHeartbeat() {
+        JobStoreTX store = store(0L);
+        claim(store, new int[]{1, 0, 1});
+        store.firedComplete("10", START);
+        assertTrue(fired.isEmpty());
+        assertTrue(deleted.isEmpty());
+        assertEquals(15000L, store(5000L).getHeartbeatDeadTimeout());
+    }
+
+    @Test
+    public void testOnlyRecordedFiresAreReportedForCompletion() {
+        // 抢占失败及不执行的触发均未写入记录
+        assertTrue(Arrays.equals(new boolean[]{true, false, false}, claim(store(5000L), new int[]{1, 0, 1})));
+        assertTrue(Arrays.equals(new boolean[]{false, false, false}, claim(store(0L), new int[]{1, 0, 1})));
+    }
+
+    @Test
+    public void testFailedDeleteIsQueuedAndRetried() throws Exception {
+        JobStoreTX store = store(5000L);
+        claim(store, new int[]{1, 0, 1});
+        failDeletes = true;
+        store.firedComplete("10", START);
+        assertEquals(1, store.getPendingFiredDeleteCount());
+
+        // 重试仍失败时保留
+        try {
+            store.retryFiredDeletes(conn);
+        } catch (SQLException expected) {
+        }
+        assertEquals(1, store.getPendingFiredDeleteCount());
+
+        failDeletes = false;
+        store.retryFiredDeletes(conn);
+        assertEquals(0, store.getPendingFiredDeleteCount());
+        assertEquals(Arrays.asList("10@" + START), deleted);
+    }
+}
@@ -0,0 +1,93 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import org.junit.Test;
+import org.quartz.impl.QrtzLease;
+
+/**
+ * Unit tests for LeaderLease.
+ */
+public class LeaderLeaseTest {
+
+    private static final long DURATION = 30000L;
+
+    // 模拟 QRTZ_LEASE 中的一行
+    private QrtzLease row = null;
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+            final String name = method.getName();
+            if ("selectLease".equals(name)) {
+                return null == row ? null : new QrtzLease(row.getApplication(), row.getHolder(), row.getFence(), row.getLeaseUntil());
+            }
+            if ("insertLease".equals(name)) {
+                if (null != row) {
+                    throw new SQLException("duplicate key");
+                }
+                row = new QrtzLease((String) args[1], (String) args[2], 1L, (Long) args[3]);
+                return 1;
+            }
+            if ("acquireLease".equals(name)) {
+                if (row.getLeaseUntil() >= (Long) args[4]) {
+                    return 0;
+                }
+                row.setHolder((String) args[2]);
+                row.setFence(row.getFence() + 1);
+                row.setLeaseUntil((Long) args[3]);
+                return 1;
+            }
+            if ("renewLease".equals(name)) {
+                if (!row.getHolder().equals(args[2]) || row.getFence() != (Long) args[3]) {
+                    return 0;
+                }
+                row.setLeaseUntil((Long) args[4]);
+                return 1;
+            }
+            return null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return null;
+        }
+    });
+
+    @Test
+    public void testNonLeaderWaitsForExpiryAndTakesOverWithNewFence() throws Exception {
+        final long t0 = 1700000000000L;
+        LeaderLease a = new LeaderLease("APP", "APP#10.0.0.1", DURATION);
+        LeaderLease b = new LeaderLease("APP", "APP#10.0.0.2", DURATION);
+        assertTrue(a.acquireOrRenew(delegate, conn, t0));
+        assertEquals(1L, a.getFence());
+        assertFalse(b.acquireOrRenew(delegate, conn, t0 + 10L));
+        assertEquals(DURATION - 10L + 1L, b.millisToWait(t0 + 10L));
+        assertEquals(DURATION / 3, a.millisToWait(t0 + 10L));
+
+        // 主节点在恢复事务内续约
+        assertTrue(a.fence(delegate, conn, t0 + 1000L));
+        assertFalse(b.acquireOrRenew(delegate, conn, t0 + DURATION + 1L));
+
+        // 主节点停止续约，租约到期后被接管，原主节点的写入被防护令牌拒绝
+        final long expired = t0 + 1000L + DURATION + 1L;
+        assertTrue(b.acquireOrRenew(delegate, conn, expired));
+        assertEquals(2L, b.getFence());
+        assertFalse(a.fence(delegate, conn, expired + 1L));
+        assertFalse(a.isLeader(expired + 1L));
+        assertFalse(a.acquireOrRenew(delegate, conn, expired + 2L));
+
+        // 主动释放后无需等到到期即可接管
+        b.release(delegate, conn);
+        assertTrue(a.acquireOrRenew(delegate, conn, expired + 3L));
+        assertEquals(3L, a.getFence());
+    }
+}
@@ -0,0 +1,123 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertEquals;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.quartz.impl.QrtzFired;
+import org.quartz.simpl.SystemPropGenerator;
+
+/**
+ * Unit tests for taking over the in-flight records of dead nodes.
+ */
+public class TakeOverLostTest {
+
+    private static final long START = 1700000000000L;
+    private static final String PEER = "10.9.9.9";
+
+    private long now = START;
+    // 已删除(接管)的执行中记录
+    private final List<String> taken = new ArrayList<String>();
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            final String name = method.getName();
+            if ("selectLostFired".equals(name)) {
+                // 其它节点心跳过期的记录，及本节点重启前遗留的记录
+                return new ArrayList<QrtzFired>(Arrays.asList(
+                        new QrtzFired("20", START, "APP", PEER, START - 60000L),
+                        new QrtzFired("21", START, "APP", SystemPropGenerator.hostIP(), START - 60000L)));
+            }
+            if ("deleteFired".equals(name)) {
+                if (taken.contains(args[1])) {
+                    return 0;
+                }
+                taken.add((String) args[1]);
+                return 1;
+            }
+            if ("updateQrtzNodeOfTimeCheck".equals(name)) {
+                return 1;
+            }
+            return null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return "getAutoCommit".equals(method.getName()) ? Boolean.FALSE : null;
+        }
+    });
+
+    private JobStoreSupport.ClusterMisfireHandler handler() {
+        JobStoreTX store = new JobStoreTX() {
+            @Override
+            protected Connection getConnection() {
+                return conn;
+            }
+
+            @Override
+            protected DriverDelegate getDelegate() {
+                return delegate;
+            }
+
+            @Override
+            protected long currentTimeMillis() {
+                return now;
+            }
+        };
+        store.setApplication("APP");
+        store.setHeartbeatInterval(5000L);
+        return store.new ClusterMisfireHandler();
+    }
+
+    @Test
+    public void testPeersAreOnlyTakenOverOnceConnectedForOneDeadTimeout() {
+        JobStoreSupport.ClusterMisfireHandler handler = handler();
+        // 启动后首次心跳：仅接管本节点重启前遗留的记录
+        handler.beat();
+        assertEquals(Arrays.asList("21"), taken);
+
+        now += 5000L;
+        handler.beat();
+        now += 5000L;
+        handler.beat();
+        assertEquals(Arrays.asList("21"), taken);
+
+        // 连通满一个失效时间(心跳间隔的3倍)
+        now += 5000L;
+        handler.beat();
+        assertEquals(Arrays.asList("21", "20"), taken);
+    }
+
+    @Test
+    public void testTakeOverIsSuppressedAfterAnOutageLongerThanTheDeadTimeout() {
+        JobStoreSupport.ClusterMisfireHandler handler = handler();
+        for (int i = 0; i < 4; i++) {
+            handler.beat();
+            now += 5000L;
+        }
+        assertEquals(Arrays.asList("21", "20"), taken);
+        taken.clear();
+
+        // 断连20秒(超过失效时间)后重新连通：其它节点的心跳同样过期，暂不接管
+        now += 15000L;
+        handler.beat();
+        assertEquals(Arrays.asList("21"), taken);
+
+        now += 5000L;
+        handler.beat();
+        now += 5000L;
+        handler.beat();
+        assertEquals(Arrays.asList("21"), taken);
+        now += 5000L;
+        handler.beat();
+        assertEquals(Arrays.asList("21", "20"), taken);
+    }
+}
@@ -0,0 +1,104 @@
+package org.quartz.impl.jdbcjobstore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+import org.quartz.impl.QrtzLease;
+
+/**
+ * Unit tests for WorkerIdLease.
+ */
+public class WorkerIdLeaseTest {
+
+    private static final long START = 1700000000000L;
+    private static final long DURATION = 600000L;
+
+    // 模拟 QRTZ_LEASE 表
+    private final Map<String, QrtzLease> leases = new HashMap<String, QrtzLease>();
+
+    private final DriverDelegate delegate = (DriverDelegate) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DriverDelegate.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            final String name = method.getName();
+            final QrtzLease lease = null == args || args.length < 2 ? null : leases.get(args[1]);
+            if ("selectLease".equals(name)) {
+                return null == lease ? null : new QrtzLease(lease.getApplication(), lease.getHolder(), lease.getFence(), lease.getLeaseUntil());
+            }
+            if ("insertLease".equals(name)) {
+                if (null != lease) {
+                    return 0;
+                }
+                leases.put((String) args[1], new QrtzLease((String) args[1], (String) args[2], 1L, (Long) args[3]));
+                return 1;
+            }
+            if ("acquireLease".equals(name)) {
+                if (null == lease || lease.getLeaseUntil() >= (Long) args[4]) {
+                    return 0;
+                }
+                lease.setHolder((String) args[2]);
+                lease.setFence(lease.getFence() + 1);
+                lease.setLeaseUntil((Long) args[3]);
+                return 1;
+            }
+            if ("renewLease".equals(name)) {
+                if (null == lease || !lease.getHolder().equals(args[2]) || !lease.getFence().equals(args[3])) {
+                    return 0;
+                }
+                lease.setLeaseUntil((Long) args[4]);
+                return 1;
+            }
+            return null;
+        }
+    });
+
+    private final Connection conn = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return null;
+        }
+    });
+
+    @Test
+    public void testAllocationSkipsHeldIdsAndWrapsAround() throws Exception {
+        WorkerIdLease a = new WorkerIdLease("10.0.0.1#1", DURATION, 3);
+        WorkerIdLease b = new WorkerIdLease("10.0.0.2#1", DURATION, 3);
+        WorkerIdLease c = new WorkerIdLease("10.0.0.3#1", DURATION, 3);
+        assertEquals(2, a.allocate(delegate, conn, 2, START));
+        assertEquals(3, b.allocate(delegate, conn, 2, START));
+        assertEquals(0, c.allocate(delegate, conn, 2, START));
+        assertEquals(0, c.getWorkerId());
+        assertEquals("10.0.0.3#1", leases.get(WorkerIdLease.KEY_PREFIX + 0).getHolder());
+
+        new WorkerIdLease("10.0.0.4#1", DURATION, 3).allocate(delegate, conn, 0, START);
+        // 全部被占用
+        assertEquals(-1, new WorkerIdLease("10.0.0.5#1", DURATION, 3).allocate(delegate, conn, 0, START));
+    }
+
+    @Test
+    public void testExpiredIdIsTakenOverAndTheFormerHolderReallocates() throws Exception {
+        WorkerIdLease a = new WorkerIdLease("10.0.0.1#1", DURATION, 3);
+        assertEquals(1, a.allocate(delegate, conn, 1, START));
+        // 续约间隔未到，不访问数据库
+        assertTrue(a.renew(delegate, conn, START + DURATION / 3 - 1));
+        assertTrue(a.renew(delegate, conn, START + DURATION / 3));
+        assertEquals(START + DURATION / 3 + DURATION, (long) leases.get(WorkerIdLease.KEY_PREFIX + 1).getLeaseUntil());
+
+        // 长时间断连后租约到期，被其他节点接管
+        final long later = START + DURATION / 3 + DURATION + 1;
+        WorkerIdLease b = new WorkerIdLease("10.0.0.2#1", DURATION, 3);
+        assertEquals(1, b.allocate(delegate, conn, 1, later));
+        assertEquals(2L, (long) leases.get(WorkerIdLease.KEY_PREFIX + 1).getFence());
+
+        assertFalse(a.renew(delegate, conn, later + 1));
+        assertEquals(-1, a.getWorkerId());
+        assertEquals(2, a.allocate(delegate, conn, 1, later + 1));
+        assertTrue(b.renew(delegate, conn, later + DURATION / 3));
+    }
+}
@@ -0,0 +1,65 @@
+package org.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for SeqGenUtil.
+ */
+public class SeqGenUtilTest {
+
+    @Test
+    public void testIdsAreUniqueAcrossThreads() throws Exception {
+        final int threads = 8;
+        final int perThread = 50000;
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < perThread; j++) {
+                    ids.add(SeqGenUtil.shortKey());
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread t : workers) {
+            t.join();
+        }
+        assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void testClockRegressionNeverRepeatsOrDecreases() {
+        long now = System.currentTimeMillis();
+        long first = SeqGenUtil.nextId(now);
+        long back = SeqGenUtil.nextId(now - 5000L);
+        assertTrue(back > first);
+        // 同一毫秒内序列用尽后借用下一毫秒
+        long prev = back;
+        for (int i = 0; i < 5000; i++) {
+            long id = SeqGenUtil.nextId(now - 5000L);
+            assertTrue(id > prev);
+            prev = id;
+        }
+        assertEquals(SeqGenUtil.getWorkerId(), (prev >>> SeqGenUtil.SEQUENCE_BITS) & SeqGenUtil.MAX_WORKER);
+    }
+
+    @Test
+    public void testIdsAboveLegacyFormat() {
+        // 旧格式: yyyyMMddHHmmss + 4位序列
+        assertTrue(SeqGenUtil.shortKey() > 209912312359599999L);
+    }
+}
@@ -0,0 +1,105 @@
+package org.quartz.simpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for SharedThreadPool.
+ */
+public class SharedThreadPoolTest {
+
+    private static SharedThreadPool view(String application) throws Exception {
+        SharedThreadPool pool = new SharedThreadPool();
+        pool.setSharedName("SharedThreadPoolTest");
+        pool.setThreadCount(2);
+        pool.setMakeThreadsDaemons(true);
+        pool.setApplication(application);
+        pool.initialize();
+        return pool;
+    }
+
+    private static Runnable blockOn(final CountDownLatch gate) {
+        return new Runnable() {
+            public void run() {
+                try {
+                    gate.await();
+                } catch (InterruptedException ignore) {
+                }
+            }
+        };
+    }
+
+    private static Thread submit(final SharedThreadPool pool, final Runnable task) {
+        Thread t = new Thread(new Runnable() {
+            public void run() {
+                pool.runInThread(task);
+            }
+        });
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static void awaitBlocked(Thread t) throws InterruptedException {
+        while (t.getState() != Thread.State.TIMED_WAITING) {
+            Thread.sleep(5L);
+        }
+    }
+
+    private static void awaitBusy(SharedThreadPool pool, int busy) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (pool.getBusyThreadCount() != busy && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5L);
+        }
+        assertEquals(busy, pool.getBusyThreadCount());
+    }
+
+    @Test
+    public void testIdleThreadsAreBorrowedButFreedThreadsGoToWaitingShare() throws Exception {
+        SharedThreadPool a = view("A");
+        SharedThreadPool b = view("B");
+        CountDownLatch firstA = new CountDownLatch(1);
+        CountDownLatch secondA = new CountDownLatch(1);
+        CountDownLatch rest = new CountDownLatch(1);
+        try {
+            assertEquals(1, a.getShare());
+            // B 空闲时 A 可借用全部线程
+            assertTrue(a.runInThread(blockOn(firstA)));
+            assertTrue(a.runInThread(blockOn(secondA)));
+            assertEquals(0, b.getAvailableThreadCount());
+
+            Thread waitingB = submit(b, blockOn(rest));
+            awaitBlocked(waitingB);
+            Thread waitingA = submit(a, blockOn(rest));
+            awaitBlocked(waitingA);
+
+            // 释放的线程优先给未达份额的 B
+            firstA.countDown();
+            awaitBusy(b, 1);
+            assertEquals(1, a.getBusyThreadCount());
+            assertTrue(waitingA.isAlive());
+
+            secondA.countDown();
+            waitingA.join(5000L);
+            awaitBusy(a, 1);
+        } finally {
+            firstA.countDown();
+            secondA.countDown();
+            rest.countDown();
+            a.shutdown(true);
+            b.shutdown(true);
+        }
+        // 最后一个视图关闭后共享组被移除，再次创建时按新配置
+        SharedThreadPool c = view("C");
+        try {
+            assertEquals(2, c.getAvailableThreadCount());
+        } finally {
+            c.shutdown(false);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.quartz.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for RingBuffer.
+ */
+public class RingBufferTest {
+
+    @Test
+    public void testFifoAndCapacity() {
+        RingBuffer<Integer> buffer = new RingBuffer<Integer>(3);
+        assertEquals(4, buffer.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+        assertEquals(Integer.valueOf(0), buffer.poll());
+        assertTrue(buffer.offer(4));
+        List<Integer> drained = new ArrayList<Integer>();
+        assertEquals(4, buffer.drainTo(drained, 10));
+        assertEquals("[1, 2, 3, 4]", drained.toString());
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        final RingBuffer<Integer> buffer = new RingBuffer<Integer>(1024);
+        final int producers = 4;
+        final int perProducer = 20000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            threads[p] = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(base + i)) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        Set<Integer> seen = new HashSet<Integer>();
+        List<Integer> batch = new ArrayList<Integer>();
+        while (seen.size() < producers * perProducer) {
+            buffer.drainTo(batch, 256);
+            for (Integer i : batch) {
+                assertTrue("duplicate " + i, seen.add(i));
+            }
+            batch.clear();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,77 @@
+package org.quartz.utils.counter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Timer;
+
+import org.junit.Test;
+import org.quartz.utils.counter.sampled.SampledCounter;
+import org.quartz.utils.counter.sampled.SampledCounterConfig;
+import org.quartz.utils.counter.sampled.SampledCounterImpl;
+import org.quartz.utils.counter.sampled.TimeStampedCounterValue;
+
+/**
+ * Unit tests for the shared ticker of CounterManagerImpl.
+ */
+public class CounterManagerImplTest {
+
+    @Test
+    public void testTickSamplesAndResetsCounters() {
+        CounterManagerImpl manager = new CounterManagerImpl(new Timer(true));
+        try {
+            SampledCounter counter = (SampledCounter) manager.createCounter(new SampledCounterConfig(1, 5, true, 0L));
+            counter.increment();
+            counter.increment(4);
+            manager.tick(System.currentTimeMillis() + 1000L);
+            assertEquals(5L, counter.getMostRecentSample().getCounterValue());
+            assertEquals(0L, counter.getValue());
+
+            counter.increment();
+            manager.tick(System.currentTimeMillis() + 2000L);
+            TimeStampedCounterValue[] history = counter.getAllSampleValues();
+            assertEquals(3, history.length);
+            assertEquals(1L, history[0].getCounterValue());
+            assertEquals(5L, history[1].getCounterValue());
+        } finally {
+            manager.shutdown(true);
+        }
+    }
+
+    @Test
+    public void testCounterRespectsItsInterval() {
+        CounterManagerImpl manager = new CounterManagerImpl(new Timer(true));
+        try {
+            SampledCounterImpl counter = (SampledCounterImpl) manager.createCounter(new SampledCounterConfig(5, 5, true, 0L));
+            long now = System.currentTimeMillis();
+            assertFalse(counter.tick(now + 1000L));
+            assertTrue(counter.tick(now + 5000L));
+            counter.shutdown();
+            assertFalse(counter.tick(now + 20000L));
+        } finally {
+            manager.shutdown(true);
+        }
+    }
+
+    @Test
+    public void testCounterAddsUpConcurrentIncrements() throws InterruptedException {
+        final CounterImpl counter = new CounterImpl();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertEquals(40000L, counter.getAndSet(0L));
+        assertEquals(0L, counter.getValue());
+    }
+}
@@ -0,0 +1,64 @@
+package org.quartz.utils.counter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for Histogram.
+ */
+public class HistogramTest {
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long v = 0; v < 100000; v++) {
+            int idx = Histogram.indexOf(v);
+            assertTrue(v <= Histogram.highestValueOf(idx));
+            if (idx > 0) {
+                assertTrue(v > Histogram.highestValueOf(idx - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        assertEquals(1000, h.getCount());
+        assertEquals(1, h.getMin());
+        assertEquals(1000, h.getMax());
+        assertEquals(500.5D, h.getMean(), 0.0001D);
+        long p50 = h.getValueAtPercentile(50);
+        long p99 = h.getValueAtPercentile(99);
+        assertTrue(p50 >= 500 && p50 <= 500 * 17 / 16);
+        assertTrue(p99 >= 990 && p99 <= 1000);
+        assertEquals(1000, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testSignedValues() {
+        Histogram h = new Histogram(true);
+        for (int i = 0; i < 90; i++) {
+            h.record(-5);
+        }
+        for (int i = 0; i < 10; i++) {
+            h.record(3);
+        }
+        assertEquals(-5, h.getMin());
+        assertEquals(-5, h.getValueAtPercentile(50));
+        assertEquals(3, h.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testUnsignedClampsNegative() {
+        Histogram h = new Histogram();
+        h.record(-5);
+        assertEquals(0, h.getMin());
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getValueAtPercentile(99));
+    }
+}